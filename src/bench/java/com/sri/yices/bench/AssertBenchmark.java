@@ -0,0 +1,69 @@
+package com.sri.yices.bench;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import com.sri.yices.Context;
+import com.sri.yices.Terms;
+import com.sri.yices.Types;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * Context.assertFormulas(int[]) vs. assertFormulas(List<Integer>).
+ *
+ * Each operation is push; assertFormulas; pop so the context
+ * doesn't grow across iterations.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class AssertBenchmark {
+
+    @Param({"16", "1024"})
+    public int size;
+
+    private int[] array;
+    private List<Integer> list;
+    private Context ctx;
+
+    @Setup
+    public void setup() {
+        array = new int[size];
+        list = new ArrayList<>(size);
+        for (int i=0; i<size; i++) {
+            int x = Terms.newUninterpretedTerm(Types.INT);
+            array[i] = Terms.arithGeq(x, Terms.intConst(i));
+            list.add(array[i]);
+        }
+        ctx = new Context("QF_LIA");
+    }
+
+    @TearDown
+    public void tearDown() {
+        ctx.close();
+    }
+
+    @Benchmark
+    public void assertArray() {
+        ctx.push();
+        ctx.assertFormulas(array);
+        ctx.pop();
+    }
+
+    @Benchmark
+    public void assertList() {
+        ctx.push();
+        ctx.assertFormulas(list);
+        ctx.pop();
+    }
+}
@@ -0,0 +1,94 @@
+package com.sri.yices.bench;
+
+import java.math.BigInteger;
+import java.util.concurrent.TimeUnit;
+
+import com.sri.yices.BigRational;
+import com.sri.yices.Context;
+import com.sri.yices.Model;
+import com.sri.yices.Status;
+import com.sri.yices.Terms;
+import com.sri.yices.Types;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * Marshalling of BigInteger/BigRational values to and from GMP numbers:
+ * - constructing constants
+ * - reading values from a model
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class BigRationalBenchmark {
+
+    // number of decimal digits
+    @Param({"10", "100", "1000"})
+    public int digits;
+
+    private BigInteger num;
+    private BigInteger den;
+    private BigRational rational;
+    private int x;
+    private int r;
+    private Context ctx;
+    private Model model;
+
+    @Setup
+    public void setup() {
+        StringBuilder sb = new StringBuilder();
+        for (int i=0; i<digits; i++) {
+            sb.append((char) ('1' + i % 9));
+        }
+        num = new BigInteger(sb.toString());
+        den = num.add(BigInteger.valueOf(2)).shiftLeft(3);
+        rational = new BigRational(num, den);
+
+        x = Terms.newUninterpretedTerm(Types.INT);
+        r = Terms.newUninterpretedTerm(Types.REAL);
+        ctx = new Context("QF_LRA");
+        ctx.assertFormula(Terms.arithEq(x, Terms.intConst(num)));
+        ctx.assertFormula(Terms.arithEq(r, Terms.rationalConst(rational)));
+        if (ctx.check() != Status.SAT) throw new IllegalStateException("setup failed");
+        model = ctx.getModel();
+    }
+
+    @TearDown
+    public void tearDown() {
+        model.close();
+        ctx.close();
+    }
+
+    @Benchmark
+    public int intConst() {
+        return Terms.intConst(num);
+    }
+
+    @Benchmark
+    public int rationalConst() {
+        return Terms.rationalConst(rational);
+    }
+
+    @Benchmark
+    public BigInteger bigIntegerValue() {
+        return model.bigIntegerValue(x);
+    }
+
+    @Benchmark
+    public BigRational bigRationalValue() {
+        return model.bigRationalValue(r);
+    }
+
+    @Benchmark
+    public BigRational arithConstValue() {
+        return Terms.arithConstValue(Terms.rationalConst(rational));
+    }
+}
@@ -0,0 +1,64 @@
+package com.sri.yices.bench;
+
+import java.util.concurrent.TimeUnit;
+
+import com.sri.yices.Context;
+import com.sri.yices.Status;
+import com.sri.yices.Terms;
+import com.sri.yices.Types;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * Context.check() vs. Context.check(timeout) on a trivial problem,
+ * so the difference is the cost of arming and disarming the timeout.
+ *
+ * Each operation is push; assert; check; pop to force a new search
+ * (check on a context that's already SAT returns immediately).
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class CheckBenchmark {
+
+    private Context ctx;
+    private int formula;
+
+    @Setup
+    public void setup() {
+        int x = Terms.newUninterpretedTerm(Types.INT);
+        int y = Terms.newUninterpretedTerm(Types.INT);
+        formula = Terms.and(Terms.arithGt(x, y), Terms.arithGt(y, Terms.ZERO));
+        ctx = new Context("QF_LIA");
+    }
+
+    @TearDown
+    public void tearDown() {
+        ctx.close();
+    }
+
+    @Benchmark
+    public Status check() {
+        ctx.push();
+        ctx.assertFormula(formula);
+        Status s = ctx.check();
+        ctx.pop();
+        return s;
+    }
+
+    @Benchmark
+    public Status checkWithTimeout() {
+        ctx.push();
+        ctx.assertFormula(formula);
+        Status s = ctx.check(10);
+        ctx.pop();
+        return s;
+    }
+}
@@ -0,0 +1,26 @@
+package com.sri.yices.bench;
+
+import com.sri.yices.Yices;
+
+/**
+ * Copying implementations of Yices.typeChildren, Yices.termChildren,
+ * Yices.getBvValue, and Yices.valuesAsTerms: baselines for MarshallingBenchmark.
+ *
+ * These natives are in a separate library (libyices2javabench, built from
+ * copyingJNI.cpp by ant bench), not in libyices2java.
+ */
+final class CopyingNatives {
+
+    static {
+        // libyices2java first: it initializes Yices
+        Yices.isReady();
+        System.loadLibrary("yices2javabench");
+    }
+
+    private CopyingNatives() { }
+
+    static native int[] typeChildren(int tau);
+    static native int[] termChildren(int x);
+    static native boolean[] getBvValue(long model, int t);
+    static native int valuesAsTerms(long model, int[] in, int[] out);
+}
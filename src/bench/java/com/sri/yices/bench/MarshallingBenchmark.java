@@ -0,0 +1,123 @@
+package com.sri.yices.bench;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+import com.sri.yices.Model;
+import com.sri.yices.Terms;
+import com.sri.yices.Types;
+import com.sri.yices.Yices;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * Array marshalling in the calls used when walking terms and models:
+ * termChildren, typeChildren, getBvValue, valuesAsTerms.
+ *
+ * termChildren and typeChildren use stack buffers for up to 16 children,
+ * getBvValue fills the result in a critical region (GetPrimitiveArrayCritical),
+ * and valuesAsTerms copies the input and output with Get/SetIntArrayRegion.
+ * Each benchmark has a baseline (suffix Copying) that calls the copying
+ * implementation of the same function (see CopyingNatives).
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class MarshallingBenchmark {
+
+    @Param({"16", "256", "4096", "8192"})
+    public int size;
+
+    private int[] vars;
+    private int bv;
+    private int composite;
+    private int tupleType;
+    private BenchModel model;
+
+    // to get the model pointer for the native baselines
+    private static final class BenchModel extends Model {
+        BenchModel(int[] var, int[] map) {
+            super(var, map);
+        }
+
+        long ptr() {
+            return getPtr();
+        }
+    }
+
+    @Setup
+    public void setup() {
+        int bv32 = Types.bvType(32);
+        int bv128 = Types.bvType(128);
+        vars = new int[size];
+        int[] values = new int[size];
+        for (int i=0; i<size; i++) {
+            vars[i] = Terms.newUninterpretedTerm(bv32);
+            values[i] = Terms.bvConst(32, i);
+        }
+        bv = Terms.newUninterpretedTerm(bv128);
+        composite = Terms.distinct(vars[0], vars[1], vars[2], vars[3], vars[4], vars[5], vars[6], vars[7]);
+        tupleType = Types.tupleType(bv32, bv128, Types.BOOL, Types.INT);
+
+        int[] var = Arrays.copyOf(vars, size + 1);
+        int[] map = Arrays.copyOf(values, size + 1);
+        var[size] = bv;
+        map[size] = Terms.bvConst(128, -1L);
+        model = new BenchModel(var, map);
+    }
+
+    @TearDown
+    public void tearDown() {
+        model.close();
+    }
+
+    @Benchmark
+    public int[] termChildren() {
+        return Yices.termChildren(composite);
+    }
+
+    @Benchmark
+    public int[] typeChildren() {
+        return Yices.typeChildren(tupleType);
+    }
+
+    @Benchmark
+    public boolean[] bvValue() {
+        return model.bvValue(bv);
+    }
+
+    @Benchmark
+    public int[] valuesAsTerms() {
+        return model.valuesAsTerms(vars);
+    }
+
+    @Benchmark
+    public int[] termChildrenCopying() {
+        return CopyingNatives.termChildren(composite);
+    }
+
+    @Benchmark
+    public int[] typeChildrenCopying() {
+        return CopyingNatives.typeChildren(tupleType);
+    }
+
+    @Benchmark
+    public boolean[] bvValueCopying() {
+        return CopyingNatives.getBvValue(model.ptr(), bv);
+    }
+
+    @Benchmark
+    public int[] valuesAsTermsCopying() {
+        int[] result = new int[vars.length];
+        if (CopyingNatives.valuesAsTerms(model.ptr(), vars, result) < 0) throw new IllegalStateException("valuesAsTerms failed");
+        return result;
+    }
+}
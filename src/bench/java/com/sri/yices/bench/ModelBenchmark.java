@@ -0,0 +1,86 @@
+package com.sri.yices.bench;
+
+import java.util.concurrent.TimeUnit;
+
+import com.sri.yices.Context;
+import com.sri.yices.Model;
+import com.sri.yices.Status;
+import com.sri.yices.Terms;
+import com.sri.yices.Types;
+import com.sri.yices.VectorValue;
+import com.sri.yices.YVal;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * Model queries: bvValue, getValue and expandFunction.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class ModelBenchmark {
+
+    // bitvector width
+    @Param({"32", "256"})
+    public int width;
+
+    // number of points defined for the function f
+    private static final int POINTS = 16;
+
+    private int bv;
+    private int x;
+    private YVal fval;
+    private Context ctx;
+    private Model model;
+
+    @Setup
+    public void setup() {
+        bv = Terms.newUninterpretedTerm(Types.bvType(width));
+        x = Terms.newUninterpretedTerm(Types.INT);
+        int f = Terms.newUninterpretedTerm(Types.functionType(Types.INT, Types.INT));
+
+        ctx = new Context("QF_UFLIA");
+        ctx.assertFormula(Terms.bvEq(bv, Terms.bvConst(width, 0x5555555555555555L)));
+        ctx.assertFormula(Terms.arithEq(x, Terms.intConst(42)));
+        for (int i=0; i<POINTS; i++) {
+            ctx.assertFormula(Terms.arithEq(Terms.funApplication(f, Terms.intConst(i)), Terms.intConst(2 * i)));
+        }
+        if (ctx.check() != Status.SAT) throw new IllegalStateException("setup failed");
+        model = ctx.getModel();
+        fval = model.getValue(f);
+    }
+
+    @TearDown
+    public void tearDown() {
+        model.close();
+        ctx.close();
+    }
+
+    @Benchmark
+    public boolean[] bvValue() {
+        return model.bvValue(bv);
+    }
+
+    @Benchmark
+    public YVal getValue() {
+        return model.getValue(x);
+    }
+
+    @Benchmark
+    public long integerValue() {
+        return model.integerValue(x);
+    }
+
+    @Benchmark
+    public VectorValue expandFunction() {
+        return model.expandFunction(fval);
+    }
+}
@@ -0,0 +1,100 @@
+package com.sri.yices.bench;
+
+import java.util.concurrent.TimeUnit;
+
+import com.sri.yices.Terms;
+import com.sri.yices.Types;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Term constructors: binary versions vs. n-ary versions.
+ *
+ * Yices hash-conses terms so after the first call, each constructor
+ * returns an existing term. What we measure is the cost of the JNI call
+ * plus the hash-consing lookup.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class TermsBenchmark {
+
+    @Param({"2", "8", "64"})
+    public int arity;
+
+    private int[] bools;
+    private int[] ints;
+    private int[] bvs;
+    private int p, q, x, y, u, v;
+
+    @Setup
+    public void setup() {
+        int bv32 = Types.bvType(32);
+        bools = new int[arity];
+        ints = new int[arity];
+        bvs = new int[arity];
+        for (int i=0; i<arity; i++) {
+            bools[i] = Terms.newUninterpretedTerm(Types.BOOL);
+            ints[i] = Terms.newUninterpretedTerm(Types.INT);
+            bvs[i] = Terms.newUninterpretedTerm(bv32);
+        }
+        p = bools[0];
+        q = bools[1];
+        x = ints[0];
+        y = ints[1];
+        u = bvs[0];
+        v = bvs[1];
+    }
+
+    @Benchmark
+    public int andBinary() {
+        return Terms.and(p, q);
+    }
+
+    @Benchmark
+    public int andNary() {
+        return Terms.and(bools);
+    }
+
+    @Benchmark
+    public int orNary() {
+        return Terms.or(bools);
+    }
+
+    @Benchmark
+    public int addBinary() {
+        return Terms.add(x, y);
+    }
+
+    @Benchmark
+    public int addNary() {
+        return Terms.add(ints);
+    }
+
+    @Benchmark
+    public int arithLeqBinary() {
+        return Terms.arithLeq(x, y);
+    }
+
+    @Benchmark
+    public int bvAddBinary() {
+        return Terms.bvAdd(u, v);
+    }
+
+    @Benchmark
+    public int bvAddNary() {
+        return Terms.bvAdd(bvs);
+    }
+
+    @Benchmark
+    public int bvLtBinary() {
+        return Terms.bvLt(u, v);
+    }
+}
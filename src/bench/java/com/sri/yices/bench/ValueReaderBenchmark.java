@@ -0,0 +1,102 @@
+package com.sri.yices.bench;
+
+import java.util.concurrent.TimeUnit;
+
+import com.sri.yices.Context;
+import com.sri.yices.Model;
+import com.sri.yices.Status;
+import com.sri.yices.Terms;
+import com.sri.yices.Types;
+import com.sri.yices.ValueReader;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * Model getters vs. ValueReader.
+ *
+ * Run with the GC profiler (ant bench does): the reader benchmarks
+ * should report gc.alloc.rate.norm = 0 bytes per operation.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class ValueReaderBenchmark {
+
+    private int x;
+    private int r;
+    private int bv;
+    private Context ctx;
+    private Model model;
+    private ValueReader reader;
+
+    @Setup
+    public void setup() {
+        x = Terms.newUninterpretedTerm(Types.INT);
+        r = Terms.newUninterpretedTerm(Types.REAL);
+        bv = Terms.newUninterpretedTerm(Types.BV64);
+
+        ctx = new Context();
+        ctx.assertFormula(Terms.arithEq(x, Terms.intConst(1234567)));
+        ctx.assertFormula(Terms.arithEq(r, Terms.rationalConst(22, 7)));
+        ctx.assertFormula(Terms.bvEq(bv, Terms.bvConst(64, 0x5555555555555555L)));
+        if (ctx.check() != Status.SAT) throw new IllegalStateException("setup failed");
+        model = ctx.getModel();
+        reader = new ValueReader(model);
+    }
+
+    @TearDown
+    public void tearDown() {
+        model.close();
+        ctx.close();
+    }
+
+    @Benchmark
+    public long modelIntegerValue() {
+        return model.integerValue(x);
+    }
+
+    @Benchmark
+    public long readerIntegerValue() {
+        return reader.integerValue(x);
+    }
+
+    @Benchmark
+    public double modelDoubleValue() {
+        return model.doubleValue(r);
+    }
+
+    @Benchmark
+    public double readerDoubleValue() {
+        return reader.doubleValue(r);
+    }
+
+    @Benchmark
+    public long modelRationalValue() {
+        long[] a = new long[2];
+        model.rationalValue(r, a);
+        return a[0] ^ a[1];
+    }
+
+    @Benchmark
+    public long readerRationalValue() {
+        reader.readRational(r);
+        return reader.numerator() ^ reader.denominator();
+    }
+
+    @Benchmark
+    public boolean[] modelBvValue() {
+        return model.bvValue(bv);
+    }
+
+    @Benchmark
+    public long readerBvValueAsLong() {
+        return reader.bvValueAsLong(bv);
+    }
+}
@@ -0,0 +1,166 @@
+#include <jni.h>
+#include <yices.h>
+
+#include <new>
+
+#include "com_sri_yices_bench_CopyingNatives.h"
+
+/*
+ * Baselines for MarshallingBenchmark (libyices2javabench, not part of the bindings).
+ *
+ * These are the implementations of typeChildren, termChildren, getBvValue, and
+ * valuesAsTerms in libyices2java without the fast paths: vectors for the children,
+ * Get/ReleaseBooleanArrayElements for bitvector values, and GetIntArrayElements
+ * for the input terms.
+ */
+
+#if __YICES_VERSION > 2 || \
+    (__YICES_VERSION == 2 && (__YICES_VERSION_MAJOR > 6 || \
+                       (__YICES_VERSION_MAJOR == 6 && \
+                        __YICES_VERSION_PATCHLEVEL > 1)))
+#define YICES_AT_LEAST_2_6_2
+#endif
+
+static void out_of_mem_exception(JNIEnv *env) {
+  jclass e = env->FindClass("java/lang/OutOfMemoryError");
+  if (e == NULL || env->ThrowNew(e, NULL) < 0) {
+    if (! env->ExceptionCheck()) {
+      env->FatalError("Out-of-memory in Yices JNI benchmarks.\nFailed to throw an exception\n");
+    }
+  }
+}
+
+static inline void set_int_region(JNIEnv *env, jintArray a, jsize start, jsize len, const int32_t *ptr){
+#ifdef MINGW
+  env->SetIntArrayRegion(a, start, len, reinterpret_cast<const jint*>(ptr));
+#else
+  env->SetIntArrayRegion(a, start, len, ptr);
+#endif
+}
+
+static jintArray convertToIntArray(JNIEnv *env, int32_t n, const int32_t *a) {
+  jintArray b;
+
+  b = env->NewIntArray(n);
+  if (b == NULL) {
+    out_of_mem_exception(env);
+  } else {
+    set_int_region(env, b, 0, n, a);
+  }
+  return b;
+}
+
+static jbooleanArray convertToBoolArray(JNIEnv *env, int32_t n, const int32_t *a) {
+  jbooleanArray b;
+
+  b = env->NewBooleanArray(n);
+  if (b == NULL) {
+    out_of_mem_exception(env);
+  } else {
+    jboolean *aux = env->GetBooleanArrayElements(b, NULL);
+    if (aux == NULL) {
+      out_of_mem_exception(env);
+    } else {
+      for (int32_t i = 0; i<n; i++) {
+        aux[i] = (a[i] != 0);
+      }
+      env->ReleaseBooleanArrayElements(b, aux, 0); // copy back
+    }
+  }
+
+  return b;
+}
+
+JNIEXPORT jintArray JNICALL Java_com_sri_yices_bench_CopyingNatives_typeChildren(JNIEnv *env, jclass, jint tau) {
+  type_vector_t aux;
+  jintArray result = NULL;
+  int32_t code;
+
+  try {
+    yices_init_type_vector(&aux);
+    code = yices_type_children(tau, &aux);
+    if (code >= 0) {
+      result = convertToIntArray(env, aux.size, aux.data);
+    }
+    yices_delete_type_vector(&aux);
+  } catch (std::bad_alloc &ba) {
+    out_of_mem_exception(env);
+  }
+  return result;
+}
+
+JNIEXPORT jintArray JNICALL Java_com_sri_yices_bench_CopyingNatives_termChildren(JNIEnv *env, jclass, jint t) {
+#ifdef YICES_AT_LEAST_2_6_2
+  term_vector_t aux;
+  jintArray result = NULL;
+  int32_t code;
+
+  try {
+    yices_init_term_vector(&aux);
+    code = yices_term_children(t, &aux);
+    if (code >= 0) {
+      result = convertToIntArray(env, aux.size, aux.data);
+    }
+    yices_delete_term_vector(&aux);
+  } catch (std::bad_alloc &ba) {
+    out_of_mem_exception(env);
+  }
+  return result;
+#else
+  return NULL;
+#endif
+}
+
+JNIEXPORT jbooleanArray JNICALL Java_com_sri_yices_bench_CopyingNatives_getBvValue(JNIEnv *env, jclass, jlong model, jint t) {
+  jbooleanArray result = NULL;
+  uint32_t n = yices_term_bitsize(t);
+
+  if (n > 0) {
+    int32_t *tmp = NULL;
+    try {
+      tmp = new int32_t[n];
+      int32_t code = yices_get_bv_value(reinterpret_cast<model_t *>(model), t, tmp);
+      if (code >= 0) {
+        result = convertToBoolArray(env, n, tmp);
+      }
+    } catch (std::bad_alloc &ba) {
+      out_of_mem_exception(env);
+    }
+    delete[] tmp;
+  }
+  return result;
+}
+
+JNIEXPORT jint JNICALL Java_com_sri_yices_bench_CopyingNatives_valuesAsTerms(JNIEnv *env, jclass, jlong model, jintArray input, jintArray output){
+  jsize in;
+  jsize on;
+  jint *itarr = NULL;
+  term_t *otarr = NULL;
+  int32_t code = -1;
+  in = env->GetArrayLength(input);
+  if (in == 0) {
+      return -1;
+  }
+  on = env->GetArrayLength(output);
+  if (on < in) {
+      return -2;
+  }
+
+  itarr = env->GetIntArrayElements(input, NULL);
+  if (itarr == NULL) {
+    out_of_mem_exception(env);
+    return code;
+  }
+  try {
+    otarr = new term_t[in];
+    code = yices_term_array_value(reinterpret_cast<model_t*>(model), in, reinterpret_cast<term_t*>(itarr), otarr);
+    if (code == 0){
+      set_int_region(env, output, 0, in, otarr);
+    }
+  } catch (std::bad_alloc &ba) {
+    out_of_mem_exception(env);
+  }
+  delete [] otarr;
+  env->ReleaseIntArrayElements(input, itarr, JNI_ABORT);
+  return code;
+}
@@ -0,0 +1,100 @@
+package com.sri.yices;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Future for Context.checkAsync and Context.checkWithAssumptionsAsync.
+ *
+ * cancel(true) calls Yices.stopSearch if the check is running. The future
+ * completes as cancelled right away, but the native search stops shortly
+ * after: the context is in use until run() returns. That's what the
+ * termination future tracks (see Context.asyncTermination); Context.close
+ * waits for it.
+ *
+ * Stop requests are tied to the check's generation (see Timeouts) so
+ * they can't interrupt a later check on the same context.
+ */
+final class AsyncCheck extends CompletableFuture<Status> implements Runnable {
+    private static final int NEW = 0;
+    private static final int RUNNING = 1;
+    private static final int DONE = 2;
+
+    private final Context ctx;
+    private final Parameters params;    // may be null
+    private final int[] assumptions;    // null for a plain check
+
+    private final AtomicInteger state = new AtomicInteger(NEW);
+
+    // completed when run() returns (or when the check is detached before it starts)
+    private final CompletableFuture<Void> terminated = new CompletableFuture<>();
+
+    // generation of the running check or 0 if not started
+    private volatile long generation;
+
+    AsyncCheck(Context ctx, Parameters params, int[] assumptions) {
+        this.ctx = ctx;
+        this.params = params;
+        this.assumptions = assumptions;
+    }
+
+    CompletableFuture<Void> termination() {
+        // a dependent future: callers can't complete terminated
+        return terminated.thenApply(v -> v);
+    }
+
+    @Override
+    public void run() {
+        if (!state.compareAndSet(NEW, RUNNING)) return;   // detached: the context may be closed
+        try {
+            if (isDone()) return;   // cancelled before it started
+            long g = Timeouts.begin(ctx);
+            generation = g;
+            try {
+                if (!isCancelled()) {
+                    Status status = (assumptions == null) ? ctx.check(params) : ctx.checkWithAssumptions(params, assumptions);
+                    complete(status);
+                }
+            } catch (Throwable e) {
+                completeExceptionally(e);
+            } finally {
+                Timeouts.end(ctx, g);
+            }
+        } finally {
+            state.set(DONE);
+            terminated.complete(null);
+        }
+    }
+
+    @Override
+    public boolean cancel(boolean mayInterruptIfRunning) {
+        boolean cancelled = super.cancel(mayInterruptIfRunning);
+        if (cancelled && mayInterruptIfRunning) {
+            long g = generation;
+            if (g != 0) Timeouts.stop(ctx, g);
+        }
+        return cancelled;
+    }
+
+    /*
+     * Called by Context.close: if the check hasn't started, it never will.
+     * Otherwise, stop the search and wait until run() returns.
+     */
+    void detach() {
+        if (state.compareAndSet(NEW, DONE)) {
+            super.cancel(false);
+            terminated.complete(null);
+            return;
+        }
+        // the generation is set shortly after the state becomes RUNNING
+        while (!terminated.isDone()) {
+            long g = generation;
+            if (g != 0) {
+                Timeouts.stop(ctx, g);
+                break;
+            }
+            Thread.yield();
+        }
+        terminated.join();
+    }
+}
@@ -0,0 +1,47 @@
+package com.sri.yices;
+
+import java.math.BigInteger;
+
+/**
+ * Conversions between packed bitvector values and BigIntegers.
+ *
+ * A value of n bits is stored in (n+63)/64 words, low-order word first:
+ * bit i is bit (i % 64) of word i/64.
+ */
+final class BitVectors {
+
+    private BitVectors() { }
+
+    static int numWords(int n) {
+        return (n + 63) >>> 6;
+    }
+
+    /*
+     * Words w[offset ... offset+nw-1] as a non-negative BigInteger
+     */
+    static BigInteger toBigInteger(long[] w, int offset, int nw) {
+        byte[] b = new byte[8 * nw + 1];  // big endian with a zero sign byte
+        for (int k=0; k<nw; k++) {
+            long x = w[offset + k];
+            for (int j=0; j<8; j++) {
+                b[b.length - 1 - 8 * k - j] = (byte) (x >>> (8 * j));
+            }
+        }
+        return new BigInteger(b);
+    }
+
+    /*
+     * The n low-order bits of x (in two's complement) as words
+     */
+    static long[] toWords(BigInteger x, int n) {
+        long[] w = new long[numWords(n)];
+        byte[] b = x.toByteArray();       // big endian, at least one byte
+        byte sign = (byte) (x.signum() < 0 ? -1 : 0);
+        for (int i=0; i<8 * w.length; i++) {
+            int j = b.length - 1 - i;
+            long v = (j >= 0 ? b[j] : sign) & 0xFFL;
+            w[i >>> 3] |= v << (8 * (i & 7));
+        }
+        return w;
+    }
+}
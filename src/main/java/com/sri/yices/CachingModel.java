@@ -0,0 +1,152 @@
+package com.sri.yices;
+
+/**
+ * Model wrapper that remembers the values it has computed.
+ *
+ * Tools that render traces or counterexamples often ask for the value of the
+ * same terms many times. A CachingModel evaluates each term once for each of
+ * getValue, valueAsTerm, and bvValue, then answers from its cache.
+ *
+ * - The cache is keyed by term id (see TermValueCache: primitive open-addressing
+ *   table, no boxing). It holds at most capacity terms; when it's full, the
+ *   least recently used term is evicted.
+ * - The cache is cleared when the model is modified (by setBoolean, setInteger,
+ *   setBVInteger, ..., called on this object or directly on the model).
+ * - Errors are not cached.
+ *
+ * The CachingModel owns the model: close closes it. Like Model, it's not thread safe.
+ */
+public final class CachingModel implements AutoCloseable {
+
+    public static final int DEFAULT_CAPACITY = 4096;
+
+    private final Model model;
+    private final TermValueCache cache;
+    private int version;
+
+    public CachingModel(Model model) {
+        this(model, DEFAULT_CAPACITY);
+    }
+
+    public CachingModel(Model model, int capacity) {
+        if (model == null) throw new IllegalArgumentException("null model");
+        this.model = model;
+        this.cache = new TermValueCache(capacity);
+        this.version = model.version();
+    }
+
+    public Model getModel() {
+        return model;
+    }
+
+    // clear the cache if the model has changed
+    private void validate() {
+        int v = model.version();
+        if (v != version) {
+            cache.clear();
+            version = v;
+        }
+    }
+
+    /*
+     * Cached queries: same behavior as the Model methods
+     */
+    public YVal getValue(int t) {
+        validate();
+        int s = cache.lookup(t, TermValueCache.YVAL);
+        if (s >= 0) return cache.yvals[s];
+        YVal v = model.getValue(t);
+        if (v != null) {
+            s = cache.slotFor(t);
+            cache.yvals[s] = v;
+            cache.flags[s] |= TermValueCache.YVAL;
+        }
+        return v;
+    }
+
+    public int valueAsTerm(int t) throws YicesException {
+        validate();
+        int s = cache.lookup(t, TermValueCache.TERM);
+        if (s >= 0) return cache.terms[s];
+        int v = model.valueAsTerm(t);
+        s = cache.slotFor(t);
+        cache.terms[s] = v;
+        cache.flags[s] |= TermValueCache.TERM;
+        return v;
+    }
+
+    // the result is a copy: the caller can modify it
+    public boolean[] bvValue(int t) throws YicesException {
+        validate();
+        int s = cache.lookup(t, TermValueCache.BV);
+        if (s >= 0) return cache.bvs[s].clone();
+        boolean[] v = model.bvValue(t);
+        s = cache.slotFor(t);
+        cache.bvs[s] = v.clone();
+        cache.flags[s] |= TermValueCache.BV;
+        return v;
+    }
+
+    /*
+     * Modifications: forwarded to the model (which invalidates the cache)
+     */
+    public void setBoolean(int t, boolean val) throws YicesException {
+        model.setBoolean(t, val);
+    }
+
+    public void setInteger(int t, long val) throws YicesException {
+        model.setInteger(t, val);
+    }
+
+    public void setRational(int t, long num, long den) throws YicesException {
+        model.setRational(t, num, den);
+    }
+
+    public void setBVInteger(int t, long val) throws YicesException {
+        model.setBVInteger(t, val);
+    }
+
+    public void setBVFromArray(int t, int[] arr) throws YicesException {
+        model.setBVFromArray(t, arr);
+    }
+
+    /**
+     * Forget all cached values
+     */
+    public void invalidate() {
+        cache.clear();
+    }
+
+    /*
+     * Statistics
+     */
+    public int size() {
+        return cache.size();
+    }
+
+    public int capacity() {
+        return cache.capacity();
+    }
+
+    public long hits() {
+        return cache.hits();
+    }
+
+    public long misses() {
+        return cache.misses();
+    }
+
+    public long evictions() {
+        return cache.evictions();
+    }
+
+    public void close() {
+        cache.clear();
+        model.close();
+    }
+
+    @Override
+    public String toString() {
+        return model.toString();
+    }
+}
@@ -1,5 +1,7 @@
 package com.sri.yices;
 
+import java.lang.ref.Reference;
+
 /*
  * Context configuration
  */
@@ -8,14 +10,15 @@ public class Config implements AutoCloseable {
     private long ptr;
 
     //<PROFILING>
-    static private long population = 0;
+    // owns the pointer: frees it on close or when this object is garbage collected
+    private ResourceTracker.Handle handle;
 
     /**
      * Returns the count of Config objects that have an unfreed
      * pointer to a Yices shared library object.
      */
     public static long getCensus(){
-        return population;
+        return ResourceTracker.getCensus(ResourceTracker.Kind.CONFIG);
     }
     //</PROFILING>
 
@@ -24,7 +27,7 @@ public class Config implements AutoCloseable {
      */
     public Config () {
         ptr = Yices.newConfig();
-        population++;
+        handle = ResourceTracker.register(this, ResourceTracker.Kind.CONFIG, ptr);
     }
 
     /*
@@ -38,7 +41,7 @@ public class Config implements AutoCloseable {
             throw new YicesException();
         }
         ptr = p;
-        population++;
+        handle = ResourceTracker.register(this, ResourceTracker.Kind.CONFIG, ptr);
     }
 
     /*
@@ -51,9 +54,8 @@ public class Config implements AutoCloseable {
      */
     public void close() {
         if (ptr != 0) {
-            Yices.freeConfig(ptr);
+            handle.release();
             ptr = 0;
-            population--;
         }
     }
 
@@ -64,8 +66,12 @@ public class Config implements AutoCloseable {
      * - value = parameter value
      */
     public void set(String name, String value) throws YicesException {
-        int code = Yices.setConfig(ptr, name, value);
-        if (code < 0) throw new YicesException();
+        try {
+            int code = Yices.setConfig(ptr, name, value);
+            if (code < 0) throw new YicesException();
+        } finally {
+            Reference.reachabilityFence(this);
+        }
     }
 
 }
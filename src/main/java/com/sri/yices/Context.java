@@ -1,10 +1,17 @@
 package com.sri.yices;
 
+import java.lang.ref.Reference;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
 import java.util.Collection;
 import java.util.List;
-import java.util.Timer;
-import java.util.TimerTask;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * Class for wrapping yices contexts
@@ -16,18 +23,35 @@ public class Context implements AutoCloseable {
     private long ptr;
 
     /**
-     * A counter used to prevent memory leaks.
+     * Owns the pointer: frees it on close or when this object is garbage collected.
+     * The census is maintained by ResourceTracker.
      */
-    static private long population = 0;
+    private ResourceTracker.Handle handle;
 
     /**
      * Returns the count of Context objects that have an unfreed
      * pointer to a Yices shared library object.
      */
     public static long getCensus(){
-        return population;
+        return ResourceTracker.getCensus(ResourceTracker.Kind.CONTEXT);
     }
 
+    /*
+     * Unique id: identifies the context in JFR events (see SolverEvents)
+     */
+    private static final AtomicLong nextId = new AtomicLong();
+    private final long id = nextId.incrementAndGet();
+
+    /*
+     * Used by Timeouts: a new generation starts with every timed check.
+     * Both fields are protected by timeoutLock.
+     */
+    final Object timeoutLock = new Object();
+    long checkGeneration;
+
+    // push level: incremented by push, decremented by pop, 0 after reset
+    private int level;
+
     static private final int ERROR_STATUS;
 
     static {
@@ -44,17 +68,21 @@ public class Context implements AutoCloseable {
      */
     public Context() {
         ptr = Yices.newContext(0);
-        population++;
+        handle = ResourceTracker.register(this, ResourceTracker.Kind.CONTEXT, ptr);
     }
 
     /*
      * Constructor using a configuration
      */
     public Context(Config config) throws YicesException {
-        long p = Yices.newContext(config.getPtr());
-        if (p == 0) throw new YicesException();
-        ptr = p;
-        population++;
+        try {
+            long p = Yices.newContext(config.getPtr());
+            if (p == 0) throw new YicesException();
+            ptr = p;
+            handle = ResourceTracker.register(this, ResourceTracker.Kind.CONTEXT, ptr);
+        } finally {
+            Reference.reachabilityFence(config);
+        }
     }
 
     /*
@@ -75,7 +103,7 @@ public class Context implements AutoCloseable {
         }
         Yices.freeConfig(config);
         ptr = p;
-        population++;
+        handle = ResourceTracker.register(this, ResourceTracker.Kind.CONTEXT, ptr);
     }
 
     /*
@@ -100,26 +128,33 @@ public class Context implements AutoCloseable {
         }
         Yices.freeConfig(config);
         ptr = p;
-        population++;
+        handle = ResourceTracker.register(this, ResourceTracker.Kind.CONTEXT, ptr);
     }
 
     protected long getPtr() { return ptr; }
 
+    public long getId() { return id; }
+
     /*
      * Close: free the Yices data structure
      */
     public void close() {
 	    if (ptr != 0) {
+            // a running async check must return before the context is freed
+            AsyncCheck a = async;
+            if (a != null) {
+                a.detach();
+                async = null;
+            }
             if (Profiler.enabled) {
                 long start = System.nanoTime();
-                Yices.freeContext(ptr);
+                handle.release();
                 long finish = System.nanoTime();
                 Profiler.delta("Yices.freeContext", start, finish);
             } else {
-                Yices.freeContext(ptr);
+                handle.release();
             }
 	        ptr = 0;
-            population--;
 	    }
     }
 
@@ -127,20 +162,32 @@ public class Context implements AutoCloseable {
      * Enable/disable options
      */
     public void enableOption(String option) throws YicesException {
-        int code = Yices.contextEnableOption(ptr, option);
-        if (code < 0) throw new YicesException();
+        try {
+            int code = Yices.contextEnableOption(ptr, option);
+            if (code < 0) throw new YicesException();
+        } finally {
+            Reference.reachabilityFence(this);
+        }
     }
 
     public void disableOption(String option) throws YicesException {
-        int code = Yices.contextDisableOption(ptr, option);
-        if (code < 0) throw new YicesException();
+        try {
+            int code = Yices.contextDisableOption(ptr, option);
+            if (code < 0) throw new YicesException();
+        } finally {
+            Reference.reachabilityFence(this);
+        }
     }
 
     /*
      * Get the status
      */
     public Status getStatus() {
-        return Status.idToStatus(Yices.contextStatus(ptr));
+        try {
+            return Status.idToStatus(Yices.contextStatus(ptr));
+        } finally {
+            Reference.reachabilityFence(this);
+        }
     }
 
     /*
@@ -148,58 +195,98 @@ public class Context implements AutoCloseable {
      * - push and pop may fail if the context does not support them
      */
     public void reset() {
-        Yices.resetContext(ptr);
+        try {
+            Yices.resetContext(ptr);
+            level = 0;
+        } finally {
+            Reference.reachabilityFence(this);
+        }
     }
 
     public void push() throws YicesException {
-        int code = Yices.push(ptr);
-        if (code < 0) throw new YicesException();
+        try {
+            int code = Yices.push(ptr);
+            if (code < 0) throw new YicesException();
+            level ++;
+        } finally {
+            Reference.reachabilityFence(this);
+        }
     }
 
     public void pop() throws YicesException {
-        int code = Yices.pop(ptr);
-        if (code < 0) throw new YicesException();
+        try {
+            int code = Yices.pop(ptr);
+            if (code < 0) throw new YicesException();
+            level --;
+        } finally {
+            Reference.reachabilityFence(this);
+        }
     }
 
+    // number of push without matching pop (used by ContextPool)
+    int level() { return level; }
+
     /*
      * Stop search
      */
     public void stopSearch() {
-        Yices.stopSearch(ptr);
+        try {
+            Yices.stopSearch(ptr);
+        } finally {
+            Reference.reachabilityFence(this);
+        }
     }
 
     /*
      * Get a model
      */
     public Model getModel() throws YicesException {
-        long model = 0;
-        if (Profiler.enabled) {
-            long start = System.nanoTime();
-            model = Yices.getModel(ptr, 1);
-            long finish = System.nanoTime();
-            Profiler.delta("Yices.getModel", start, finish);
-        } else {
-            model = Yices.getModel(ptr, 1);
+        try {
+            long model = 0;
+            SolverEvents.ModelEvent event = SolverEvents.beginModel(id);
+            try {
+                if (Profiler.enabled) {
+                    long start = System.nanoTime();
+                    model = Yices.getModel(ptr, 1);
+                    long finish = System.nanoTime();
+                    Profiler.delta("Yices.getModel", start, finish);
+                } else {
+                    model = Yices.getModel(ptr, 1);
+                }
+            } finally {
+                SolverEvents.endModel(event, model);
+            }
+            if (model == 0) throw new YicesException();
+            return new Model(model);
+        } finally {
+            Reference.reachabilityFence(this);
         }
-        if (model == 0) throw new YicesException();
-        return new Model(model);
     }
 
     /*
      * Assert a formula f
      */
     public void assertFormula(int f) throws YicesException {
-        int code;
-        if (Profiler.enabled) {
-            long start = System.nanoTime();
-            code = Yices.assertFormula(ptr, f);
-            long finish = System.nanoTime();
-            Profiler.delta("Yices.assertFormula", start, finish, true);
-        } else {
-            code = Yices.assertFormula(ptr, f);
-        }
-        if (code < 0) {
-            throw new YicesException();
+        try {
+            int code = -1;
+            SolverEvents.AssertEvent event = SolverEvents.beginAssert(id, 1);
+            try {
+                if (Profiler.enabled) {
+                    long start = System.nanoTime();
+                    code = Yices.assertFormula(ptr, f);
+                    long finish = System.nanoTime();
+                    Profiler.delta("Yices.assertFormula", start, finish, true);
+                } else {
+                    code = Yices.assertFormula(ptr, f);
+                }
+            } finally {
+                SolverEvents.endAssert(event, code);
+            }
+            if (code < 0) {
+                throw new YicesException();
+            }
+        } finally {
+            Reference.reachabilityFence(this);
         }
     }
 
@@ -207,17 +294,26 @@ public class Context implements AutoCloseable {
      * Assert an array of formulas a[]
      */
     public void assertFormulas(int[] a) throws YicesException {
-        int code;
-        if (Profiler.enabled) {
-            long start = System.nanoTime();
-            code = Yices.assertFormulas(ptr, a);
-            long finish = System.nanoTime();
-            Profiler.delta("Yices.assertFormulas", start, finish, true);
-        } else {
-            code = Yices.assertFormulas(ptr, a);
-        }
-        if (code < 0) {
-            throw new YicesException();
+        try {
+            int code = -1;
+            SolverEvents.AssertEvent event = SolverEvents.beginAssert(id, a.length);
+            try {
+                if (Profiler.enabled) {
+                    long start = System.nanoTime();
+                    code = Yices.assertFormulas(ptr, a);
+                    long finish = System.nanoTime();
+                    Profiler.delta("Yices.assertFormulas", start, finish, true);
+                } else {
+                    code = Yices.assertFormulas(ptr, a);
+                }
+            } finally {
+                SolverEvents.endAssert(event, code);
+            }
+            if (code < 0) {
+                throw new YicesException();
+            }
+        } finally {
+            Reference.reachabilityFence(this);
         }
     }
 
@@ -238,12 +334,129 @@ public class Context implements AutoCloseable {
         assertFormulas(a);
     }
 
+    /*
+     * Assert all the formulas in a TermList
+     */
+    public void assertFormulas(TermList list) throws YicesException {
+        try {
+            int code = -1;
+            SolverEvents.AssertEvent event = SolverEvents.beginAssert(id, list.size());
+            try {
+                if (Profiler.enabled) {
+                    long start = System.nanoTime();
+                    code = Yices.assertFormulasN(ptr, list.array(), list.size());
+                    long finish = System.nanoTime();
+                    Profiler.delta("Yices.assertFormulas", start, finish, true);
+                } else {
+                    code = Yices.assertFormulasN(ptr, list.array(), list.size());
+                }
+            } finally {
+                SolverEvents.endAssert(event, code);
+            }
+            if (code < 0) {
+                throw new YicesException();
+            }
+        } finally {
+            Reference.reachabilityFence(this);
+        }
+    }
+
+    /*
+     * Assert the formulas stored in b[offset ... offset+length-1]
+     * - b must be a direct buffer in native byte order (see Yices.assertFormulas)
+     */
+    public void assertFormulas(IntBuffer b, int offset, int length) throws YicesException {
+        try {
+            int code = -1;
+            SolverEvents.AssertEvent event = SolverEvents.beginAssert(id, length);
+            try {
+                if (Profiler.enabled) {
+                    long start = System.nanoTime();
+                    code = Yices.assertFormulas(ptr, b, offset, length);
+                    long finish = System.nanoTime();
+                    Profiler.delta("Yices.assertFormulas", start, finish, true);
+                } else {
+                    code = Yices.assertFormulas(ptr, b, offset, length);
+                }
+            } finally {
+                SolverEvents.endAssert(event, code);
+            }
+            if (code < 0) {
+                throw new YicesException();
+            }
+        } finally {
+            Reference.reachabilityFence(this);
+        }
+    }
+
+    public void assertFormulas(ByteBuffer b, int offset, int length) throws YicesException {
+        try {
+            int code = -1;
+            SolverEvents.AssertEvent event = SolverEvents.beginAssert(id, length);
+            try {
+                if (Profiler.enabled) {
+                    long start = System.nanoTime();
+                    code = Yices.assertFormulas(ptr, b, offset, length);
+                    long finish = System.nanoTime();
+                    Profiler.delta("Yices.assertFormulas", start, finish, true);
+                } else {
+                    code = Yices.assertFormulas(ptr, b, offset, length);
+                }
+            } finally {
+                SolverEvents.endAssert(event, code);
+            }
+            if (code < 0) {
+                throw new YicesException();
+            }
+        } finally {
+            Reference.reachabilityFence(this);
+        }
+    }
+
     /*
      * Assert a blocking clause
      */
     public void assertBlockingClause() throws YicesException {
-        int code = Yices.assertBlockingClause(ptr);
-        if (code < 0) throw new YicesException();
+        try {
+            int code = Yices.assertBlockingClause(ptr);
+            if (code < 0) throw new YicesException();
+        } finally {
+            Reference.reachabilityFence(this);
+        }
+    }
+
+    /*
+     * Enumerate the models of this context projected on vars (AllSAT).
+     * - vars: projection variables (uninterpreted terms)
+     * - limit: maximal number of models (0 means no limit)
+     * - params: search parameters (null for the defaults)
+     *
+     * The result is a lazy stream of projected assignments: each element is an
+     * array a such that a[i] is the value of vars[i] as a constant term. Each
+     * assignment is produced once: after a model is found, the context gets a
+     * blocking clause over vars only, so models that differ only on other
+     * variables are skipped. Each step is one native call and the Yices model is
+     * freed before the assignment is returned.
+     *
+     * The stream stops when limit assignments have been produced (if limit > 0,
+     * limit = 0 means that the stream ends only when the check is not SAT) or when
+     * the check is not SAT. Then getStatus() is:
+     * - UNSAT if all assignments have been produced
+     * - UNKNOWN or INTERRUPTED if the last check gave up or was stopped
+     * - IDLE if the stream stopped at limit: the blocking clause of the last
+     *   assignment was asserted after the SAT answer, and that resets the status
+     * The blocking clauses stay in the context (use push/pop around the
+     * enumeration to remove them). The context must not be used for anything
+     * else while the stream is being consumed.
+     */
+    public Stream<int[]> enumerateModels(int[] vars, int limit) throws YicesException {
+        return enumerateModels(null, vars, limit);
+    }
+
+    public Stream<int[]> enumerateModels(Parameters params, int[] vars, int limit) throws YicesException {
+        if (vars == null) throw new IllegalArgumentException("null projection");
+        if (limit < 0) throw new IllegalArgumentException("negative limit");
+        return StreamSupport.stream(new ModelEnumerator(this, params, vars.clone(), limit), false);
     }
 
     /*
@@ -263,9 +476,13 @@ public class Context implements AutoCloseable {
     }
 
     private int doCheck(long p) throws YicesException {
-        int code = doCheck(ptr, p);
-        if (code == ERROR_STATUS) throw new YicesException();
-        return code;
+        try {
+            int code = doCheck(ptr, p);
+            if (code == ERROR_STATUS) throw new YicesException();
+            return code;
+        } finally {
+            Reference.reachabilityFence(this);
+        }
     }
 
     /*
@@ -279,91 +496,264 @@ public class Context implements AutoCloseable {
      * Call the solver, use the given parameter set.
      */
     public Status check(Parameters p) throws YicesException {
-        int code = doCheck(p == null ? 0 : p.getPtr());
-        return Status.idToStatus(code);
+        try {
+            int code = ERROR_STATUS;
+            SolverEvents.CheckEvent event = SolverEvents.beginCheck(id, "check", 0);
+            try {
+                code = doCheck(p == null ? 0 : p.getPtr());
+            } finally {
+                SolverEvents.endCheck(event, code);
+            }
+            return Status.idToStatus(code);
+        } finally {
+            Reference.reachabilityFence(this);
+            Reference.reachabilityFence(p);
+        }
     }
 
     /*
-     * Check with a timeout in seconds
+     * Check with a timeout in seconds (a timeout less than 1 is treated as 1 second)
      */
     public Status check(int timeout) throws YicesException {
-        return doCheckWithTimer(0, timeout);
+        return doCheckWithTimeout(0, (timeout < 1) ? 1000L : 1000L * timeout, TimeUnit.MILLISECONDS);
     }
 
     public Status check(Parameters p, int timeout) throws YicesException {
-        return doCheckWithTimer(p.getPtr(), timeout);
+        try {
+            return doCheckWithTimeout(p.getPtr(), (timeout < 1) ? 1000L : 1000L * timeout, TimeUnit.MILLISECONDS);
+        } finally {
+            Reference.reachabilityFence(this);
+            Reference.reachabilityFence(p);
+        }
+    }
+
+    /*
+     * Check with a timeout in any unit (p may be null)
+     */
+    public Status check(Parameters p, long timeout, TimeUnit unit) throws YicesException {
+        try {
+            return doCheckWithTimeout(p == null ? 0 : p.getPtr(), timeout, unit);
+        } finally {
+            Reference.reachabilityFence(this);
+            Reference.reachabilityFence(p);
+        }
     }
 
     /*
      * Check with a timeout:
      * - p = pointer to the Yices internal parameter descriptor
-     * - timeout = timeout in seconds
-     * This calls Yices.stopSearch if the timer expires.
+     * This calls Yices.stopSearch if the deadline expires (see Timeouts).
+     * All contexts share the same scheduler thread.
      */
-    private Status doCheckWithTimer(long p, int timeout)  throws YicesException {
-        Timer timer = new Timer();
-        TimerTask task = new TimerTask() {
-            public void run() {
-                Yices.stopSearch(ptr);
+    private Status doCheckWithTimeout(long p, long timeout, TimeUnit unit)  throws YicesException {
+        try {
+            Timeouts.Deadline deadline = Timeouts.arm(this, timeout, unit);
+            int code = ERROR_STATUS;
+            SolverEvents.CheckEvent event = SolverEvents.beginCheck(id, "checkWithTimeout", 0);
+            try {
+                code = doCheck(ptr, p);
+            } finally {
+                deadline.disarm();
+                SolverEvents.endCheck(event, code);
             }
-        };
-        long delay = (timeout < 1) ? 1000L : 1000L * timeout; //need miliseconds, have seconds.
-        timer.schedule(task, delay);
-        int code = doCheck(ptr, p);
-        timer.cancel();
-        if (code < 0) throw new YicesException();
-        return Status.idToStatus(code);
+            if (code < 0) throw new YicesException();
+            return Status.idToStatus(code);
+        } finally {
+            Reference.reachabilityFence(this);
+        }
+    }
+
+    /*
+     * ASYNCHRONOUS CHECKS
+     *
+     * checkAsync and checkWithAssumptionsAsync run the check on an executor
+     * and return a CompletableFuture. Calling cancel(true) on the future
+     * calls stopSearch if the check is running.
+     *
+     * The default executor uses daemon threads created on demand. Any
+     * executor can be used instead (e.g., a virtual-thread-per-task executor).
+     * The context must not be used by other threads until the check has returned.
+     * After cancel(true), the future completes right away but the native search
+     * may still be running: asyncTermination tells when the check has returned.
+     * close waits for it (and stops the search if needed).
+     */
+    private static volatile Executor asyncExecutor = Executors.newCachedThreadPool(r -> {
+            Thread t = new Thread(r, "yices-check");
+            t.setDaemon(true);
+            return t;
+        });
+
+    // last async check started on this context
+    private volatile AsyncCheck async;
+
+    public static void setAsyncExecutor(Executor executor) {
+        if (executor == null) throw new NullPointerException("executor");
+        asyncExecutor = executor;
+    }
+
+    public static Executor getAsyncExecutor() {
+        return asyncExecutor;
+    }
+
+    public CompletableFuture<Status> checkAsync(Parameters params) {
+        return checkAsync(params, asyncExecutor);
+    }
+
+    public CompletableFuture<Status> checkAsync(Parameters params, Executor executor) {
+        AsyncCheck check = new AsyncCheck(this, params, null);
+        async = check;
+        executor.execute(check);
+        return check;
+    }
+
+    public CompletableFuture<Status> checkWithAssumptionsAsync(Parameters params, int[] assumptions) {
+        return checkWithAssumptionsAsync(params, assumptions, asyncExecutor);
+    }
+
+    public CompletableFuture<Status> checkWithAssumptionsAsync(Parameters params, int[] assumptions, Executor executor) {
+        AsyncCheck check = new AsyncCheck(this, params, assumptions.clone());
+        async = check;
+        executor.execute(check);
+        return check;
+    }
+
+    /*
+     * Completes when the last async check started on this context has returned,
+     * even if its future was cancelled. Then the context can be used or closed.
+     */
+    public CompletableFuture<Void> asyncTermination() {
+        AsyncCheck a = async;
+        return (a == null) ? CompletableFuture.completedFuture(null) : a.termination();
     }
 
     // Since 2.6.4
     public int getModelInterpolant() {
-        int retval = Yices.getModelInterpolant(ptr);
-        if (retval < 0){
-            YicesException error = YicesException.checkVersion(2, 6, 4);
-            if (error == null) {
-                // not a library mismatch error; so do the default
-                error = new YicesException();
+        try {
+            int retval = Yices.getModelInterpolant(ptr);
+            if (retval < 0){
+                YicesException error = YicesException.checkVersion(2, 6, 4);
+                if (error == null) {
+                    // not a library mismatch error; so do the default
+                    error = new YicesException();
+                }
+                throw error;
             }
-            throw error;
+            return retval;
+        } finally {
+            Reference.reachabilityFence(this);
         }
-        return retval;
     }
 
     // Since 2.6.4
     public Status checkWithAssumptions(Parameters params, int[] assumptions) {
-        int code = Yices.checkContextWithAssumptions(ptr, params.getPtr(), assumptions);
-        if (code < 0) {
-            throw new YicesException();
+        try {
+            long p = (params == null) ? 0 : params.getPtr();
+            int code = ERROR_STATUS;
+            SolverEvents.CheckEvent event = SolverEvents.beginCheck(id, "checkWithAssumptions", assumptions.length);
+            try {
+                code = Yices.checkContextWithAssumptions(ptr, p, assumptions);
+            } finally {
+                SolverEvents.endCheck(event, code);
+            }
+            if (code < 0) {
+                throw new YicesException();
+            }
+            return Status.idToStatus(code);
+        } finally {
+            Reference.reachabilityFence(this);
+            Reference.reachabilityFence(params);
+        }
+    }
+
+    // Assumptions stored in a direct buffer: b[offset ... offset+length-1]
+    public Status checkWithAssumptions(Parameters params, IntBuffer b, int offset, int length) {
+        try {
+            long p = (params == null) ? 0 : params.getPtr();
+            int code = ERROR_STATUS;
+            SolverEvents.CheckEvent event = SolverEvents.beginCheck(id, "checkWithAssumptions", length);
+            try {
+                code = Yices.checkContextWithAssumptions(ptr, p, b, offset, length);
+            } finally {
+                SolverEvents.endCheck(event, code);
+            }
+            if (code < 0) {
+                throw new YicesException();
+            }
+            return Status.idToStatus(code);
+        } finally {
+            Reference.reachabilityFence(this);
+            Reference.reachabilityFence(params);
+        }
+    }
+
+    public Status checkWithAssumptions(Parameters params, ByteBuffer b, int offset, int length) {
+        try {
+            long p = (params == null) ? 0 : params.getPtr();
+            int code = ERROR_STATUS;
+            SolverEvents.CheckEvent event = SolverEvents.beginCheck(id, "checkWithAssumptions", length);
+            try {
+                code = Yices.checkContextWithAssumptions(ptr, p, b, offset, length);
+            } finally {
+                SolverEvents.endCheck(event, code);
+            }
+            if (code < 0) {
+                throw new YicesException();
+            }
+            return Status.idToStatus(code);
+        } finally {
+            Reference.reachabilityFence(this);
+            Reference.reachabilityFence(params);
         }
-        return Status.idToStatus(code);
     }
 
     // Since 2.6.4
     public Status checkWithModel(Parameters params, Model model, int[] assumptions) {
-        int code = Yices.checkContextWithModel(ptr, params.getPtr(), model.getPtr(), assumptions);
-        if (code < 0) {
-            YicesException error = YicesException.checkVersion(2, 6, 4);
-            if (error == null) {
-                // not a library mismatch error; so do the default
-                error = new YicesException();
+        try {
+            int code = ERROR_STATUS;
+            SolverEvents.CheckEvent event = SolverEvents.beginCheck(id, "checkWithModel", assumptions.length);
+            try {
+                code = Yices.checkContextWithModel(ptr, params.getPtr(), model.getPtr(), assumptions);
+            } finally {
+                SolverEvents.endCheck(event, code);
+            }
+            if (code < 0) {
+                YicesException error = YicesException.checkVersion(2, 6, 4);
+                if (error == null) {
+                    // not a library mismatch error; so do the default
+                    error = new YicesException();
+                }
+                throw error;
             }
-            throw error;
+            return Status.idToStatus(code);
+        } finally {
+            Reference.reachabilityFence(this);
+            Reference.reachabilityFence(params);
+            Reference.reachabilityFence(model);
         }
-        return Status.idToStatus(code);
     }
 
     // Since 2.6.4
     public int[] getUnsatCore() {
-        int[] retval = Yices.getUnsatCore(ptr);
-        if (retval == null) {
-            YicesException error = YicesException.checkVersion(2, 6, 4);
-            if (error == null) {
-                // not a library mismatch error; so do the default
-                error = new YicesException();
+        try {
+            int[] retval = null;
+            SolverEvents.UnsatCoreEvent event = SolverEvents.beginUnsatCore(id);
+            try {
+                retval = Yices.getUnsatCore(ptr);
+            } finally {
+                SolverEvents.endUnsatCore(event, retval);
+            }
+            if (retval == null) {
+                YicesException error = YicesException.checkVersion(2, 6, 4);
+                if (error == null) {
+                    // not a library mismatch error; so do the default
+                    error = new YicesException();
+                }
+                throw error;
             }
-            throw error;
+            return retval;
+        } finally {
+            Reference.reachabilityFence(this);
         }
-        return retval;
     }
 
 
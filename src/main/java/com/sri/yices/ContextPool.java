@@ -0,0 +1,358 @@
+package com.sri.yices;
+
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Pool of contexts keyed by logic, mode, and configuration options.
+ *
+ * acquire returns a Lease on a context. Closing the lease returns the
+ * context to the pool where it can be reused by the next acquire with
+ * the same key. Before a context is reused, it is restored to its initial
+ * state:
+ * - if the pool was created with usePushPop and the context supports
+ *   push/pop, the lease records the context's level and pushes one level
+ *   when it's acquired. When it's returned, the context is popped back to
+ *   the recorded level, including any scopes the holder left open.
+ * - otherwise, if a pop fails, or if the holder popped below the lease's
+ *   level, the context is reset
+ *
+ * Limits:
+ * - maxPerKey: maximal number of contexts (leased or idle) for a key.
+ *   acquire blocks when the limit is reached.
+ * - maxIdlePerKey: maximal number of idle contexts kept for a key.
+ * - maxIdleNanos: idle contexts older than this are freed on the next
+ *   acquire/release or by evictIdle().
+ */
+public final class ContextPool implements AutoCloseable {
+
+    /**
+     * Pool key: logic and mode may be null (defaults), options are Config options.
+     */
+    public static final class Key {
+        public final String logic;
+        public final String mode;
+        private final Map<String, String> options;
+
+        public Key(String logic, String mode) {
+            this(logic, mode, Collections.emptyMap());
+        }
+
+        public Key(String logic, String mode, Map<String, String> options) {
+            this.logic = logic;
+            this.mode = mode;
+            this.options = Collections.unmodifiableMap(new TreeMap<>(options));
+        }
+
+        public Map<String, String> getOptions() { return options; }
+
+        // true if contexts for this key support push and pop
+        boolean supportsPushPop() {
+            return mode == null || mode.equals("push-pop") || mode.equals("interactive");
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Key)) return false;
+            Key k = (Key) o;
+            return Objects.equals(logic, k.logic) && Objects.equals(mode, k.mode) && options.equals(k.options);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(logic, mode, options);
+        }
+
+        @Override
+        public String toString() {
+            return "(" + logic + ", " + mode + ", " + options + ")";
+        }
+    }
+
+    /**
+     * A leased context. Close the lease to return the context to the pool.
+     * The context must not be closed directly.
+     */
+    public final class Lease implements AutoCloseable {
+        private final Slot slot;
+        private Context context;
+        private final int base;    // level to restore, or -1 if the context must be reset
+
+        private Lease(Slot slot, Context context, int base) {
+            this.slot = slot;
+            this.context = context;
+            this.base = base;
+        }
+
+        public Context context() {
+            if (context == null) throw new IllegalStateException("lease closed");
+            return context;
+        }
+
+        public Key key() { return slot.key; }
+
+        public void close() {
+            if (context != null) {
+                Context c = context;
+                context = null;
+                release(slot, c, base);
+            }
+        }
+    }
+
+    /**
+     * Snapshot of the pool statistics
+     */
+    public static final class Stats {
+        public final long hits;
+        public final long misses;
+        public final long evictions;
+        public final long resets;
+        public final long creationNanos;
+
+        Stats(long hits, long misses, long evictions, long resets, long creationNanos) {
+            this.hits = hits;
+            this.misses = misses;
+            this.evictions = evictions;
+            this.resets = resets;
+            this.creationNanos = creationNanos;
+        }
+
+        // fraction of acquires served by an idle context
+        public double hitRate() {
+            long total = hits + misses;
+            return total == 0 ? 0.0 : (double) hits / total;
+        }
+
+        // average time to create a context (in nanoseconds)
+        public double meanCreationNanos() {
+            return misses == 0 ? 0.0 : (double) creationNanos / misses;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("hits: %d, misses: %d (hit rate %.3f), evictions: %d, resets: %d, mean creation time: %.1f us",
+                                 hits, misses, hitRate(), evictions, resets, meanCreationNanos() / 1000.0);
+        }
+    }
+
+    private static final class Idle {
+        final Context context;
+        final long since;
+
+        Idle(Context context, long since) {
+            this.context = context;
+            this.since = since;
+        }
+    }
+
+    private static final class Slot {
+        final Key key;
+        final Semaphore permits;
+        final ArrayDeque<Idle> idle = new ArrayDeque<>(); // protected by this
+
+        Slot(Key key, int max) {
+            this.key = key;
+            this.permits = new Semaphore(max);
+        }
+    }
+
+    private final int maxPerKey;
+    private final int maxIdlePerKey;
+    private final long maxIdleNanos;
+    private final boolean usePushPop;
+    private final ConcurrentHashMap<Key, Slot> slots = new ConcurrentHashMap<>();
+    private volatile boolean closed;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder resets = new LongAdder();
+    private final LongAdder creationNanos = new LongAdder();
+
+    public ContextPool(int maxPerKey, int maxIdlePerKey, long maxIdle, TimeUnit unit, boolean usePushPop) {
+        if (maxPerKey <= 0) throw new IllegalArgumentException("maxPerKey must be positive");
+        if (maxIdlePerKey < 0) throw new IllegalArgumentException("negative maxIdlePerKey");
+        this.maxPerKey = maxPerKey;
+        this.maxIdlePerKey = maxIdlePerKey;
+        this.maxIdleNanos = unit.toNanos(maxIdle);
+        this.usePushPop = usePushPop;
+    }
+
+    // no limit on the number of contexts, keep up to 4 idle contexts per key for one minute
+    public ContextPool() {
+        this(Integer.MAX_VALUE, 4, 1, TimeUnit.MINUTES, true);
+    }
+
+    public Lease acquire(String logic, String mode) throws YicesException {
+        return acquire(new Key(logic, mode));
+    }
+
+    /**
+     * Get a context for key k (blocks if maxPerKey contexts are already leased for k)
+     */
+    public Lease acquire(Key k) throws YicesException {
+        Slot slot = slots.computeIfAbsent(k, key -> new Slot(key, maxPerKey));
+        slot.permits.acquireUninterruptibly();
+        try {
+            return lease(slot);
+        } catch (RuntimeException e) {
+            slot.permits.release();
+            throw e;
+        }
+    }
+
+    /**
+     * Same thing but wait at most timeout; return null if no context is available.
+     */
+    public Lease tryAcquire(Key k, long timeout, TimeUnit unit) throws YicesException, InterruptedException {
+        Slot slot = slots.computeIfAbsent(k, key -> new Slot(key, maxPerKey));
+        if (!slot.permits.tryAcquire(timeout, unit)) return null;
+        try {
+            return lease(slot);
+        } catch (RuntimeException e) {
+            slot.permits.release();
+            throw e;
+        }
+    }
+
+    private Lease lease(Slot slot) throws YicesException {
+        if (closed) throw new IllegalStateException("pool closed");
+        evict(slot, System.nanoTime());
+        Context c = null;
+        synchronized (slot) {
+            Idle i = slot.idle.pollLast(); // most recently used
+            if (i != null) c = i.context;
+        }
+        if (c != null) {
+            hits.increment();
+        } else {
+            misses.increment();
+            long start = System.nanoTime();
+            c = newContext(slot.key);
+            creationNanos.add(System.nanoTime() - start);
+        }
+        int base = -1;
+        if (usePushPop && slot.key.supportsPushPop()) {
+            int level = c.level();
+            try {
+                c.push();
+                base = level;
+            } catch (YicesException e) {
+                c.reset();
+            }
+        }
+        return new Lease(slot, c, base);
+    }
+
+    private static Context newContext(Key k) throws YicesException {
+        try (Config config = (k.logic == null) ? new Config() : new Config(k.logic)) {
+            if (k.mode != null) config.set("mode", k.mode);
+            for (Map.Entry<String, String> e: k.options.entrySet()) {
+                config.set(e.getKey(), e.getValue());
+            }
+            return new Context(config);
+        }
+    }
+
+    private void release(Slot slot, Context c, int base) {
+        try {
+            boolean clean = false;
+            if (base >= 0 && c.level() > base) {
+                try {
+                    while (c.level() > base) c.pop();
+                    clean = true;
+                } catch (YicesException e) {
+                    // fall back to reset
+                }
+            }
+            if (!clean) {
+                c.reset();
+                resets.increment();
+            }
+            long now = System.nanoTime();
+            boolean kept = false;
+            if (!closed) {
+                synchronized (slot) {
+                    if (slot.idle.size() < maxIdlePerKey) {
+                        slot.idle.addLast(new Idle(c, now));
+                        kept = true;
+                    }
+                }
+            }
+            if (!kept) {
+                c.close();
+                evictions.increment();
+            }
+            evict(slot, now);
+        } finally {
+            slot.permits.release();
+        }
+    }
+
+    // free the contexts of slot that have been idle for too long
+    private void evict(Slot slot, long now) {
+        while (true) {
+            Context c = null;
+            synchronized (slot) {
+                Idle i = slot.idle.peekFirst(); // least recently used
+                if (i != null && now - i.since > maxIdleNanos) {
+                    slot.idle.pollFirst();
+                    c = i.context;
+                }
+            }
+            if (c == null) return;
+            c.close();
+            evictions.increment();
+        }
+    }
+
+    /**
+     * Free all the contexts that have been idle for more than maxIdle
+     */
+    public void evictIdle() {
+        long now = System.nanoTime();
+        for (Slot slot: slots.values()) {
+            evict(slot, now);
+        }
+    }
+
+    // number of idle contexts in the pool
+    public int idleCount() {
+        int n = 0;
+        for (Slot slot: slots.values()) {
+            synchronized (slot) {
+                n += slot.idle.size();
+            }
+        }
+        return n;
+    }
+
+    public Stats getStats() {
+        return new Stats(hits.sum(), misses.sum(), evictions.sum(), resets.sum(), creationNanos.sum());
+    }
+
+    /**
+     * Free all idle contexts. Leased contexts are freed when they are returned.
+     */
+    public void close() {
+        closed = true;
+        for (Slot slot: slots.values()) {
+            synchronized (slot) {
+                Iterator<Idle> it = slot.idle.iterator();
+                while (it.hasNext()) {
+                    it.next().context.close();
+                    it.remove();
+                }
+            }
+        }
+    }
+}
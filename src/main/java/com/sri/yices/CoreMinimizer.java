@@ -0,0 +1,333 @@
+package com.sri.yices;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Minimal unsat cores (MUS extraction) over checkWithAssumptions.
+ *
+ * Given formulas and assumptions such that the formulas and the assumptions are
+ * unsat, minimize returns a subset of the assumptions that is still unsat with
+ * the formulas and that's minimal: removing any element makes it sat.
+ * Two strategies:
+ * - DELETION (default): try to remove each element of the core. Up to n
+ *   removals are checked at once; a sat answer proves that the element is
+ *   needed, and an unsat answer replaces the core with the (smaller) core of
+ *   that check. When the time budget runs out, the result is the smallest
+ *   core found so far.
+ * - QUICKXPLAIN: divide and conquer (Junker's QuickXplain), checking the two
+ *   halves of each split in parallel. Fewer checks when the minimal core is
+ *   small compared to the initial core. There's no intermediate result: when
+ *   the time budget runs out, the result is the initial core.
+ *
+ * Yices can't copy a context, so the checks run on n clones built by creating
+ * a context for the logic and asserting the formulas, one thread per clone.
+ * The Yices library must be thread safe if n > 1.
+ *
+ * Example:
+ * <pre>
+ *   try (CoreMinimizer cm = new CoreMinimizer("QF_LIA", 4)) {
+ *       CoreMinimizer.Result r = cm.minimize(formulas, ctx.getUnsatCore(), 10, TimeUnit.SECONDS);
+ *       if (r.status == Status.UNSAT) { ... r.core ... }
+ *   }
+ * </pre>
+ */
+public final class CoreMinimizer implements AutoCloseable {
+
+    public enum Strategy { DELETION, QUICKXPLAIN }
+
+    /**
+     * Result of minimize:
+     * - status is UNSAT if there's a core, SAT if the assumptions are consistent
+     *   with the formulas, UNKNOWN if that couldn't be decided in time
+     * - core is a subset of the assumptions (null if status is not UNSAT)
+     * - minimal is true if core is minimal (false if the time budget ran out)
+     * - checks is the number of calls to the solver
+     */
+    public static final class Result {
+        public final Status status;
+        public final int[] core;
+        public final boolean minimal;
+        public final int checks;
+
+        Result(Status status, int[] core, boolean minimal, int checks) {
+            this.status = status;
+            this.core = core;
+            this.minimal = minimal;
+            this.checks = checks;
+        }
+    }
+
+    // result of one check: core is set if status is UNSAT
+    private static final class Outcome {
+        final Status status;
+        final int[] core;
+
+        Outcome(Status status, int[] core) {
+            this.status = status;
+            this.core = core;
+        }
+    }
+
+    // the time budget ran out or a check was interrupted
+    private static final class Expired extends Exception {
+        Expired() {
+            super(null, null, false, false);
+        }
+    }
+
+    private static final int[] EMPTY = new int[0];
+
+    private final String logic;
+    private final int threads;
+    private final ExecutorService executor;
+    private Strategy strategy = Strategy.DELETION;
+
+    // state of the current minimization
+    private BlockingQueue<Context> clones;
+    private long deadline;   // System.nanoTime() or 0 for no budget
+    private final AtomicInteger checks = new AtomicInteger();
+
+    /**
+     * Minimizer for the given logic (may be null) with n parallel checks.
+     */
+    public CoreMinimizer(String logic, int n) {
+        if (n <= 0) throw new IllegalArgumentException("n must be positive");
+        this.logic = logic;
+        this.threads = n;
+        this.executor = Executors.newFixedThreadPool(n, r -> {
+                Thread t = new Thread(r, "yices-core-minimizer");
+                t.setDaemon(true);
+                return t;
+            });
+    }
+
+    public CoreMinimizer setStrategy(Strategy strategy) {
+        if (strategy == null) throw new IllegalArgumentException("null strategy");
+        this.strategy = strategy;
+        return this;
+    }
+
+    public Result minimize(int[] formulas, int[] assumptions) throws YicesException {
+        return minimize(formulas, assumptions, 0, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Minimize a core. timeout <= 0 means no time budget.
+     * Not thread safe: one minimization at a time.
+     */
+    public Result minimize(int[] formulas, int[] assumptions, long timeout, TimeUnit unit) throws YicesException {
+        deadline = (timeout > 0) ? System.nanoTime() + unit.toNanos(timeout) : 0;
+        checks.set(0);
+        clones = new ArrayBlockingQueue<>(threads);
+        try {
+            for (int i=0; i<threads; i++) {
+                clones.add(newClone(formulas));
+            }
+            Outcome first = check(assumptions);
+            if (first.status != Status.UNSAT) {
+                return new Result(first.status == Status.SAT ? Status.SAT : Status.UNKNOWN, null, false, checks.get());
+            }
+            if (strategy == Strategy.QUICKXPLAIN) {
+                try {
+                    int[] core = quickXplain(EMPTY, false, first.core);
+                    return new Result(Status.UNSAT, core, true, checks.get());
+                } catch (Expired e) {
+                    return new Result(Status.UNSAT, first.core, false, checks.get());
+                }
+            }
+            return deletion(first.core);
+        } finally {
+            for (Context ctx: clones) ctx.close();
+            clones = null;
+        }
+    }
+
+    private Context newClone(int[] formulas) throws YicesException {
+        Context ctx = (logic == null) ? new Context() : new Context(logic);
+        try {
+            ctx.assertFormulas(formulas);
+        } catch (YicesException e) {
+            ctx.close();
+            throw e;
+        }
+        return ctx;
+    }
+
+    /*
+     * Deletion: elements known to be needed are kept in every core
+     * (if core - {a} is sat, then so is any subset of it).
+     */
+    private Result deletion(int[] core) {
+        Set<Integer> needed = new HashSet<>();
+        for (;;) {
+            List<Integer> candidates = new ArrayList<>(threads);
+            for (int a: core) {
+                if (!needed.contains(a)) {
+                    candidates.add(a);
+                    if (candidates.size() == threads) break;
+                }
+            }
+            if (candidates.isEmpty()) {
+                return new Result(Status.UNSAT, core, true, checks.get());
+            }
+            int[][] queries = new int[candidates.size()][];
+            for (int i=0; i<queries.length; i++) {
+                queries[i] = remove(core, candidates.get(i));
+            }
+            Outcome[] outcomes = checkAll(queries);
+            int[] smaller = null;
+            boolean expired = false;
+            for (int i=0; i<outcomes.length; i++) {
+                Status s = outcomes[i].status;
+                if (s == Status.SAT) {
+                    needed.add(candidates.get(i));
+                } else if (s == Status.UNSAT) {
+                    if (smaller == null || outcomes[i].core.length < smaller.length) smaller = outcomes[i].core;
+                } else {
+                    expired = true;
+                }
+            }
+            if (smaller != null) core = smaller;
+            if (expired) {
+                return new Result(Status.UNSAT, core, false, checks.get());
+            }
+        }
+    }
+
+    /*
+     * Minimal subset x of c such that b + x is unsat, given that b + c is unsat.
+     * If check is true, b may be unsat on its own (and then x is empty).
+     */
+    private int[] quickXplain(int[] b, boolean check, int[] c) throws Expired {
+        if (check && status(check(b)) == Status.UNSAT) return EMPTY;
+        if (c.length <= 1) return c;
+        int k = c.length/2;
+        int[] c1 = Arrays.copyOfRange(c, 0, k);
+        int[] c2 = Arrays.copyOfRange(c, k, c.length);
+        Outcome[] o = checkAll(new int[][] { concat(b, c1), concat(b, c2) });
+        // on unsat, keep only the part of the half that's in the core
+        if (status(o[0]) == Status.UNSAT) return quickXplain(b, false, retain(c1, o[0].core));
+        if (status(o[1]) == Status.UNSAT) return quickXplain(b, false, retain(c2, o[1].core));
+        // b + c1 is sat
+        int[] x2 = quickXplain(concat(b, c1), false, c2);
+        int[] x1 = quickXplain(concat(b, x2), true, c1);
+        return concat(x1, x2);
+    }
+
+    private static Status status(Outcome o) throws Expired {
+        if (o.status != Status.SAT && o.status != Status.UNSAT) throw new Expired();
+        return o.status;
+    }
+
+    /*
+     * Checks on the clones
+     */
+    private Outcome check(int[] assumptions) {
+        return checkAll(new int[][] { assumptions })[0];
+    }
+
+    private Outcome[] checkAll(int[][] queries) {
+        List<Future<Outcome>> futures = new ArrayList<>(queries.length);
+        for (int[] q: queries) {
+            futures.add(executor.submit(() -> run(q)));
+        }
+        Outcome[] result = new Outcome[queries.length];
+        boolean interrupted = false;
+        RuntimeException error = null;
+        for (int i=0; i<result.length; i++) {
+            while (true) {
+                try {
+                    result[i] = futures.get(i).get();
+                    break;
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                } catch (ExecutionException e) {
+                    Throwable cause = e.getCause();
+                    if (error == null) {
+                        error = (cause instanceof RuntimeException) ? (RuntimeException) cause : new RuntimeException(cause);
+                    }
+                    break;
+                }
+            }
+        }
+        if (interrupted) Thread.currentThread().interrupt();
+        if (error != null) throw error;
+        return result;
+    }
+
+    // called from the worker threads
+    private Outcome run(int[] assumptions) throws InterruptedException {
+        long remaining = 0;
+        if (deadline != 0) {
+            remaining = deadline - System.nanoTime();
+            if (remaining <= 0) return new Outcome(Status.INTERRUPTED, null);
+        }
+        Context ctx = clones.take();
+        try {
+            checks.incrementAndGet();
+            Status s;
+            if (deadline != 0) {
+                Timeouts.Deadline d = Timeouts.arm(ctx, remaining, TimeUnit.NANOSECONDS);
+                try {
+                    s = ctx.checkWithAssumptions(null, assumptions);
+                } finally {
+                    d.disarm();
+                }
+            } else {
+                s = ctx.checkWithAssumptions(null, assumptions);
+            }
+            return new Outcome(s, (s == Status.UNSAT) ? ctx.getUnsatCore() : null);
+        } finally {
+            clones.put(ctx);
+        }
+    }
+
+    /*
+     * Term arrays
+     */
+    private static int[] concat(int[] a, int[] b) {
+        int[] r = Arrays.copyOf(a, a.length + b.length);
+        System.arraycopy(b, 0, r, a.length, b.length);
+        return r;
+    }
+
+    private static int[] remove(int[] a, int x) {
+        int[] r = new int[a.length];
+        int n = 0;
+        for (int t: a) {
+            if (t != x) r[n++] = t;
+        }
+        return Arrays.copyOf(r, n);
+    }
+
+    // elements of a that occur in b
+    private static int[] retain(int[] a, int[] b) {
+        Set<Integer> s = new HashSet<>();
+        for (int t: b) s.add(t);
+        int[] r = new int[a.length];
+        int n = 0;
+        for (int t: a) {
+            if (s.contains(t)) r[n++] = t;
+        }
+        return Arrays.copyOf(r, n);
+    }
+
+    /*
+     * Shut down the worker threads
+     */
+    public void close() {
+        executor.shutdownNow();
+    }
+}
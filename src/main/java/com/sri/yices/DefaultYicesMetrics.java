@@ -0,0 +1,152 @@
+package com.sri.yices;
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.management.InstanceAlreadyExistsException;
+import javax.management.InstanceNotFoundException;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ * Default metrics: counters (LongAdders) and a check-latency histogram.
+ *
+ * Example:
+ * <pre>
+ *   DefaultYicesMetrics m = DefaultYicesMetrics.install();  // also registers the MBean
+ *   ...
+ *   System.out.println(m.getChecksSat() + " sat checks, p99 = " + m.getCheckTimeP99() + " ns");
+ * </pre>
+ *
+ * The gauges (live objects and term table sizes) are read when they are
+ * requested. The term table sizes are read with a Yices call: if Yices is not
+ * thread safe, the values may be slightly off while another thread creates terms.
+ */
+public class DefaultYicesMetrics implements YicesMetrics, YicesMetricsMXBean {
+
+    public static final String OBJECT_NAME = "com.sri.yices:type=Metrics";
+
+    private final LongAdder[] checks;
+    private final LongAdder checkTime = new LongAdder();
+    private final LatencyHistogram checkLatency = new LatencyHistogram();
+    private final LongAdder asserted = new LongAdder();
+
+    public DefaultYicesMetrics() {
+        checks = new LongAdder[Status.values().length];
+        for (int i=0; i<checks.length; i++) {
+            checks[i] = new LongAdder();
+        }
+    }
+
+    /**
+     * Create a DefaultYicesMetrics, install it, and register it as
+     * MBean OBJECT_NAME (replacing any previous one).
+     */
+    public static DefaultYicesMetrics install() {
+        DefaultYicesMetrics m = new DefaultYicesMetrics();
+        YicesMetrics.install(m);
+        m.registerMBean();
+        return m;
+    }
+
+    public void registerMBean() {
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName name = new ObjectName(OBJECT_NAME);
+            try {
+                server.registerMBean(this, name);
+            } catch (InstanceAlreadyExistsException e) {
+                server.unregisterMBean(name);
+                server.registerMBean(this, name);
+            }
+        } catch (JMException e) {
+            throw new IllegalStateException("failed to register " + OBJECT_NAME, e);
+        }
+    }
+
+    public void unregisterMBean() {
+        try {
+            ManagementFactory.getPlatformMBeanServer().unregisterMBean(new ObjectName(OBJECT_NAME));
+        } catch (InstanceNotFoundException e) {
+            // not registered
+        } catch (JMException e) {
+            throw new IllegalStateException("failed to unregister " + OBJECT_NAME, e);
+        }
+    }
+
+    @Override
+    public void recordCheck(Status status, long nanos) {
+        checks[status.ordinal()].increment();
+        checkTime.add(nanos);
+        checkLatency.record(nanos);
+    }
+
+    @Override
+    public void recordAssertions(int count) {
+        asserted.add(count);
+    }
+
+    public long getChecks(Status status) {
+        return checks[status.ordinal()].sum();
+    }
+
+    public long getChecks() {
+        long n = 0;
+        for (LongAdder c: checks) n += c.sum();
+        return n;
+    }
+
+    public long getChecksSat() { return getChecks(Status.SAT); }
+
+    public long getChecksUnsat() { return getChecks(Status.UNSAT); }
+
+    public long getChecksUnknown() { return getChecks(Status.UNKNOWN); }
+
+    public long getChecksInterrupted() { return getChecks(Status.INTERRUPTED); }
+
+    public long getChecksError() { return getChecks(Status.ERROR); }
+
+    public long getCheckTimeTotal() { return checkTime.sum(); }
+
+    public double getCheckTimeMean() {
+        long n = getChecks();
+        return n == 0 ? 0.0 : (double) checkTime.sum() / n;
+    }
+
+    public long getCheckTimeP50() { return checkLatency.snapshot().percentile(0.50); }
+
+    public long getCheckTimeP99() { return checkLatency.snapshot().percentile(0.99); }
+
+    public long getCheckTimeP999() { return checkLatency.snapshot().percentile(0.999); }
+
+    public long getCheckTimeMax() { return checkLatency.snapshot().max; }
+
+    public long getAssertedFormulas() { return asserted.sum(); }
+
+    public long getLiveContexts() { return ResourceTracker.getCensus(ResourceTracker.Kind.CONTEXT); }
+
+    public long getLiveModels() { return ResourceTracker.getCensus(ResourceTracker.Kind.MODEL); }
+
+    public long getLiveConfigs() { return ResourceTracker.getCensus(ResourceTracker.Kind.CONFIG); }
+
+    public long getLiveParameters() { return ResourceTracker.getCensus(ResourceTracker.Kind.PARAMETERS); }
+
+    public int getNumTerms() { return Yices.yicesNumTerms(); }
+
+    public int getNumTypes() { return Yices.yicesNumTypes(); }
+
+    public int getNumPosrefTerms() { return Yices.yicesNumPosrefTerms(); }
+
+    public int getNumPosrefTypes() { return Yices.yicesNumPosrefTypes(); }
+
+    /**
+     * Reset the counters and the histogram (not the gauges)
+     */
+    public void reset() {
+        for (LongAdder c: checks) c.reset();
+        checkTime.reset();
+        checkLatency.reset();
+        asserted.reset();
+    }
+}
@@ -15,7 +15,13 @@ public class  Delegate {
             throw new IllegalArgumentException("array too small");
         }
         long[] larr = marr == null ? null : new long[1];
-        int status = Yices.checkFormula(term, logic, delegate, larr);
+        int status = Status.ERROR.ordinal();
+        SolverEvents.CheckEvent event = SolverEvents.beginCheck(0, "checkFormula", 1);
+        try {
+            status = Yices.checkFormula(term, logic, delegate, larr);
+        } finally {
+            SolverEvents.endCheck(event, status, delegate);
+        }
         Status retval = Status.idToStatus(status);
         if ( retval == Status.ERROR) {
             System.err.println(String.format("checkFormula ERROR: code = %d string = %s", Yices.errorCode(), Yices.errorString()));
@@ -31,7 +37,13 @@ public class  Delegate {
             throw new IllegalArgumentException("array too small");
         }
         long[] larr = marr == null ? null : new long[1];
-        int status = Yices.checkFormulas(terms, logic, delegate, larr);
+        int status = Status.ERROR.ordinal();
+        SolverEvents.CheckEvent event = SolverEvents.beginCheck(0, "checkFormulas", terms.length);
+        try {
+            status = Yices.checkFormulas(terms, logic, delegate, larr);
+        } finally {
+            SolverEvents.endCheck(event, status, delegate);
+        }
         Status retval = Status.idToStatus(status);
         if (retval == Status.ERROR) {
             System.err.println(String.format("checkFormula ERROR: code = %d string = %s", Yices.errorCode(), Yices.errorString()));
@@ -0,0 +1,143 @@
+package com.sri.yices;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Named groups of constraints that can be switched on and off without push/pop.
+ *
+ * Each group gets a fresh Boolean selector s, and the formulas f of the group
+ * are asserted once as (s => f). A check activates a subset of the groups by
+ * passing their selectors as assumptions (Context.checkWithAssumptions), so
+ * nothing is retracted or asserted again between queries and the solver keeps
+ * what it learned. If the check is unsat, getUnsatCore gives the names of the
+ * groups in the core.
+ *
+ * Example:
+ * <pre>
+ *   IncrementalSession s = new IncrementalSession(ctx);
+ *   s.addGroup("bounds", f1, f2);
+ *   s.addGroup("spec", f3);
+ *   if (s.check("bounds", "spec") == Status.UNSAT) {
+ *       List&lt;String&gt; core = s.getUnsatCore();
+ *   }
+ * </pre>
+ *
+ * Formulas asserted directly in the context are always active. The session doesn't
+ * own the context. Like Context, it's not thread safe.
+ */
+public final class IncrementalSession {
+    private final Context ctx;
+    private final Map<String, Integer> selectors = new LinkedHashMap<>();
+    private final Map<Integer, String> names = new HashMap<>();
+
+    public IncrementalSession(Context ctx) {
+        if (ctx == null) throw new IllegalArgumentException("null context");
+        this.ctx = ctx;
+    }
+
+    public Context getContext() {
+        return ctx;
+    }
+
+    /**
+     * Add formulas to a group (created if needed) and return the group's selector.
+     */
+    public int addGroup(String name, int... formulas) throws YicesException {
+        if (name == null) throw new IllegalArgumentException("null group name");
+        Integer s = selectors.get(name);
+        int selector;
+        if (s == null) {
+            selector = Terms.newUninterpretedTerm(Types.BOOL);
+            selectors.put(name, selector);
+            names.put(selector, name);
+        } else {
+            selector = s;
+        }
+        if (formulas.length > 0) {
+            int[] guarded = new int[formulas.length];
+            for (int i=0; i<formulas.length; i++) {
+                guarded[i] = Terms.implies(selector, formulas[i]);
+            }
+            ctx.assertFormulas(guarded);
+        }
+        return selector;
+    }
+
+    public int addGroup(String name, Collection<Integer> formulas) throws YicesException {
+        int[] a = new int[formulas.size()];
+        int i = 0;
+        for (int f: formulas) a[i++] = f;
+        return addGroup(name, a);
+    }
+
+    /**
+     * Disable a group for good: its selector is asserted false and its name can
+     * be used again for a new group.
+     */
+    public void removeGroup(String name) throws YicesException {
+        Integer s = selectors.remove(name);
+        if (s == null) throw new IllegalArgumentException("no group " + name);
+        names.remove(s);
+        ctx.assertFormula(Terms.not(s));
+    }
+
+    public boolean hasGroup(String name) {
+        return selectors.containsKey(name);
+    }
+
+    // selector of a group
+    public int selector(String name) {
+        Integer s = selectors.get(name);
+        if (s == null) throw new IllegalArgumentException("no group " + name);
+        return s;
+    }
+
+    // group names in creation order
+    public Set<String> groups() {
+        return Collections.unmodifiableSet(selectors.keySet());
+    }
+
+    /*
+     * Check with the given groups active (the others are ignored)
+     */
+    public Status check(String... active) throws YicesException {
+        return check(null, active);
+    }
+
+    public Status check(Parameters params, String... active) throws YicesException {
+        int[] a = new int[active.length];
+        for (int i=0; i<active.length; i++) {
+            a[i] = selector(active[i]);
+        }
+        return ctx.checkWithAssumptions(params, a);
+    }
+
+    public Status check(Parameters params, Collection<String> active) throws YicesException {
+        return check(params, active.toArray(new String[0]));
+    }
+
+    // check with all the groups active
+    public Status checkAll(Parameters params) throws YicesException {
+        return check(params, selectors.keySet());
+    }
+
+    /**
+     * Names of the groups in the unsat core of the last check (which must have returned UNSAT).
+     */
+    public List<String> getUnsatCore() throws YicesException {
+        int[] core = ctx.getUnsatCore();
+        List<String> list = new ArrayList<>(core.length);
+        for (int s: core) {
+            String name = names.get(s);
+            if (name != null) list.add(name);
+        }
+        return list;
+    }
+}
@@ -1,5 +1,7 @@
 package com.sri.yices;
 
+import java.lang.ref.Reference;
+
 // Since 2.6.4
 
 public class InterpolationContext {
@@ -32,22 +34,34 @@ public class InterpolationContext {
      * Only the first call to  getModel() returns a non-null model. The caller should free/close it when done.
      */
     public Status check(Parameters params, boolean buildModel) {
-        int[] tarr = { 0 };
-        long[] marr = { 0 };
-        if (!buildModel) { marr = null; }
-        int code = Yices.checkContextWithInterpolation(this.ctxA.getPtr(), this.ctxB.getPtr(), params.getPtr(), marr, tarr);
-        Status status = Status.idToStatus(code);
-        if (status == Status.ERROR) {
-            throw new YicesException();
-        }
-        if (buildModel && status == Status.SAT) {
-            long model = marr[0];
-            if (model == 0) throw new YicesException();
-            this.model = new Model(model);
-        } else if (status == Status.UNSAT) {
-            this.interpolant = tarr[0];
+        try {
+            int[] tarr = { 0 };
+            long[] marr = { 0 };
+            if (!buildModel) { marr = null; }
+            int code = Status.ERROR.ordinal();
+            SolverEvents.CheckEvent event = SolverEvents.beginCheck(this.ctxA.getId(), "checkWithInterpolation", 0);
+            try {
+                code = Yices.checkContextWithInterpolation(this.ctxA.getPtr(), this.ctxB.getPtr(), params.getPtr(), marr, tarr);
+            } finally {
+                SolverEvents.endCheck(event, code);
+            }
+            Status status = Status.idToStatus(code);
+            if (status == Status.ERROR) {
+                throw new YicesException();
+            }
+            if (buildModel && status == Status.SAT) {
+                long model = marr[0];
+                if (model == 0) throw new YicesException();
+                this.model = new Model(model);
+            } else if (status == Status.UNSAT) {
+                this.interpolant = tarr[0];
+            }
+            return status;
+        } finally {
+            Reference.reachabilityFence(ctxA);
+            Reference.reachabilityFence(ctxB);
+            Reference.reachabilityFence(params);
         }
-        return status;
     }
 
 
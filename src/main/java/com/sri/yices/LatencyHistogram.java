@@ -0,0 +1,94 @@
+package com.sri.yices;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+
+/**
+ * Lock-free log-linear histogram of durations in nanoseconds
+ * (same idea as HdrHistogram: the relative error is below 1/32).
+ *
+ * Values below 2^(SUB_BITS+1) have their own bucket, above that each
+ * power of two is split in 2^SUB_BITS buckets. Values of 2^(MAX_BITS+1) ns
+ * or more (about 9.8 hours) go to the last bucket.
+ */
+final class LatencyHistogram {
+    private static final int SUB_BITS = 5;
+    private static final int SUB_COUNT = 1 << SUB_BITS;
+    private static final int MAX_BITS = 44;
+    static final int BUCKETS = (MAX_BITS - SUB_BITS + 2) * SUB_COUNT;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    private final LongAccumulator max = new LongAccumulator(Math::max, 0);
+
+    void record(long nanos) {
+        counts.getAndIncrement(bucket(nanos));
+        max.accumulate(nanos);
+    }
+
+    // not atomic: values recorded concurrently may be kept
+    void reset() {
+        for (int i=0; i<BUCKETS; i++) {
+            counts.set(i, 0);
+        }
+        max.reset();
+    }
+
+    Snapshot snapshot() {
+        return new Snapshot(this);
+    }
+
+    /*
+     * Copy of the counts (read without stopping the writers)
+     */
+    static final class Snapshot {
+        private final long[] counts;
+        final long count;
+        final long max;
+
+        private Snapshot(LatencyHistogram h) {
+            long[] a = new long[BUCKETS];
+            long n = 0;
+            for (int i=0; i<BUCKETS; i++) {
+                a[i] = h.counts.get(i);
+                n += a[i];
+            }
+            this.counts = a;
+            this.count = n;
+            this.max = h.max.get();
+        }
+
+        /*
+         * Value t such that a fraction q of the recorded values are at most t
+         * (up to the histogram precision). q must be between 0 and 1.
+         */
+        long percentile(double q) {
+            if (q < 0 || q > 1) throw new IllegalArgumentException("percentile must be between 0 and 1");
+            if (count == 0) return 0;
+            long rank = (long) Math.ceil(q * count);
+            if (rank < 1) rank = 1;
+            long seen = 0;
+            for (int i=0; i<BUCKETS; i++) {
+                seen += counts[i];
+                if (seen >= rank) return Math.min(highestValue(i), max);
+            }
+            return max;
+        }
+    }
+
+    // bucket for a value v >= 0
+    static int bucket(long v) {
+        if (v < 2 * SUB_COUNT) return (int) v;
+        int m = 63 - Long.numberOfLeadingZeros(v);
+        if (m > MAX_BITS) return BUCKETS - 1;
+        int shift = m - SUB_BITS;
+        return (shift << SUB_BITS) + (int) (v >>> shift);
+    }
+
+    // largest value that goes into bucket i
+    static long highestValue(int i) {
+        if (i < 2 * SUB_COUNT) return i;
+        int shift = (i >>> SUB_BITS) - 1;
+        long top = i - ((long) shift << SUB_BITS);
+        return ((top + 1) << shift) - 1;
+    }
+}
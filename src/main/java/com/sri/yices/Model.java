@@ -1,5 +1,6 @@
 package com.sri.yices;
 
+import java.lang.ref.Reference;
 import java.math.BigInteger;
 
 /**
@@ -16,7 +17,7 @@ public class Model implements AutoCloseable {
             }
             throw error;
         }
-        population++;
+        handle = ResourceTracker.register(this, ResourceTracker.Kind.MODEL, ptr);
     }
 
     /*
@@ -26,20 +27,26 @@ public class Model implements AutoCloseable {
 
     protected Model(long p) {
         ptr = p;
-        population++;
+        handle = ResourceTracker.register(this, ResourceTracker.Kind.MODEL, ptr);
     }
 
     protected long getPtr() { return ptr; }
 
+    // number of successful set operations on this model
+    private int version;
+
+    int version() { return version; }
+
     //<PROFILING>
-    static private long population = 0;
+    // owns the pointer: frees it on close or when this object is garbage collected
+    private ResourceTracker.Handle handle;
 
     /**
      * Returns the count of Model objects that have an unfreed pointer
      * to a Yices shared library object.
      */
     public static long getCensus(){
-        return population;
+        return ResourceTracker.getCensus(ResourceTracker.Kind.MODEL);
     }
     //</PROFILING>
 
@@ -55,7 +62,7 @@ public class Model implements AutoCloseable {
         long p = Yices.modelFromMap(var, map);
         if (p == 0) throw new YicesException();
         ptr = p;
-        population++;
+        handle = ResourceTracker.register(this, ResourceTracker.Kind.MODEL, ptr);
     }
 
     /*
@@ -63,9 +70,8 @@ public class Model implements AutoCloseable {
      */
     public void close() {
         if (ptr != 0) {
-            Yices.freeModel(ptr);
+            handle.release();
             ptr = 0;
-            population--;
         }
     }
 
@@ -77,161 +83,305 @@ public class Model implements AutoCloseable {
      * - the second version uses numColumns and numLines
      */
     public String toString() {
-        return Yices.modelToString(ptr);
+        try {
+            return Yices.modelToString(ptr);
+        } finally {
+            Reference.reachabilityFence(this);
+        }
     }
 
     public String toString(int numColumns, int numLines) {
-        return Yices.modelToString(ptr, numColumns, numLines);
+        try {
+            return Yices.modelToString(ptr, numColumns, numLines);
+        } finally {
+            Reference.reachabilityFence(this);
+        }
     }
 
     /*
      * Value of a term t in the model
      */
     public boolean boolValue(int t) throws YicesException {
-        int x = Yices.getBoolValue(ptr, t);
-        // x is either -1 (error), 0 (false), or 1 (true).
-        if (x < 0) throw new YicesException();
-        return x != 0;
+        try {
+            int x = Yices.getBoolValue(ptr, t);
+            // x is either -1 (error), 0 (false), or 1 (true).
+            if (x < 0) throw new YicesException();
+            return x != 0;
+        } finally {
+            Reference.reachabilityFence(this);
+        }
     }
 
     public long integerValue(int t) throws YicesException {
-        long[] aux = new long[1];
-        int code = Yices.getIntegerValue(ptr, t, aux);
-        if (code < 0) throw new YicesException();
-        return aux[0];
+        try {
+            long[] aux = new long[1];
+            int code = Yices.getIntegerValue(ptr, t, aux);
+            if (code < 0) throw new YicesException();
+            return aux[0];
+        } finally {
+            Reference.reachabilityFence(this);
+        }
     }
 
     public double doubleValue(int t) throws YicesException {
-        double[] aux = new double[1];
-        int code = Yices.getDoubleValue(ptr, t, aux);
-        if (code < 0) throw new YicesException();
-        return aux[0];
+        try {
+            double[] aux = new double[1];
+            int code = Yices.getDoubleValue(ptr, t, aux);
+            if (code < 0) throw new YicesException();
+            return aux[0];
+        } finally {
+            Reference.reachabilityFence(this);
+        }
     }
 
     // the numerator is returned in a[0].
     // the denominator is returned in a[1].
     public void rationalValue(int t, long[] a) throws YicesException {
-        if (a.length < 2) throw new IllegalArgumentException("array too small");
-        int code = Yices.getRationalValue(ptr, t, a);
-        if (code < 0) throw new YicesException();
+        try {
+            if (a.length < 2) throw new IllegalArgumentException("array too small");
+            int code = Yices.getRationalValue(ptr, t, a);
+            if (code < 0) throw new YicesException();
+        } finally {
+            Reference.reachabilityFence(this);
+        }
     }
 
     public BigInteger bigIntegerValue(int t) throws YicesException {
-        BigInteger v = Yices.getIntegerValue(ptr, t);
-        if (v == null) throw new YicesException();
-        return v;
+        try {
+            BigInteger v = Yices.getIntegerValue(ptr, t);
+            if (v == null) throw new YicesException();
+            return v;
+        } finally {
+            Reference.reachabilityFence(this);
+        }
     }
 
     public BigRational bigRationalValue(int t) throws YicesException {
-        BigRational v = Yices.getRationalValue(ptr, t);
-        if (v == null) throw new YicesException();
-        return v;
+        try {
+            BigRational v = Yices.getRationalValue(ptr, t);
+            if (v == null) throw new YicesException();
+            return v;
+        } finally {
+            Reference.reachabilityFence(this);
+        }
     }
 
     public boolean[] bvValue(int t) throws YicesException {
-        boolean[] b = Yices.getBvValue(ptr, t);
-        if (b == null) throw new YicesException();
-        return b;
+        try {
+            boolean[] b = Yices.getBvValue(ptr, t);
+            if (b == null) throw new YicesException();
+            return b;
+        } finally {
+            Reference.reachabilityFence(this);
+        }
+    }
+
+    /*
+     * Packed bitvector values (no boolean per bit):
+     * - bvValueAsLong: value of a bitvector of at most 64 bits (zero-extended)
+     * - bvValueAsWords: store the value in a (bit i is bit (i % 64) of a[i/64])
+     *   and return the number of bits n. a must have at least (n+63)/64 elements.
+     * - bvValueAsBigInteger: value as a non-negative BigInteger
+     */
+    public long bvValueAsLong(int t) throws YicesException {
+        try {
+            long[] a = new long[1];
+            int n = Yices.getBvValueAsWords(ptr, t, a);
+            if (n < 0) throw new YicesException();
+            if (n > 64) throw new IllegalArgumentException("bitvector has more than 64 bits");
+            return a[0];
+        } finally {
+            Reference.reachabilityFence(this);
+        }
+    }
+
+    public int bvValueAsWords(int t, long[] a) throws YicesException {
+        try {
+            int n = Yices.getBvValueAsWords(ptr, t, a);
+            if (n < 0) throw new YicesException();
+            if (a.length < BitVectors.numWords(n)) throw new IllegalArgumentException("array too small");
+            return n;
+        } finally {
+            Reference.reachabilityFence(this);
+        }
+    }
+
+    public BigInteger bvValueAsBigInteger(int t) throws YicesException {
+        try {
+            long[] a = new long[BitVectors.numWords(Yices.termBitSize(t))];
+            int n = Yices.getBvValueAsWords(ptr, t, a);
+            if (n < 0) throw new YicesException();
+            return BitVectors.toBigInteger(a, 0, a.length);
+        } finally {
+            Reference.reachabilityFence(this);
+        }
     }
 
     public int scalarValue(int t) throws YicesException {
-        int v = Yices.getScalarValue(ptr, t);
-        if (v < 0) throw new YicesException();
-        return v;
+        try {
+            int v = Yices.getScalarValue(ptr, t);
+            if (v < 0) throw new YicesException();
+            return v;
+        } finally {
+            Reference.reachabilityFence(this);
+        }
     }
 
     public int valueAsTerm(int t) throws YicesException {
-        int v = Yices.valueAsTerm(ptr, t);
-        if (v < 0) throw new YicesException();
-        return v;
+        try {
+            int v = Yices.valueAsTerm(ptr, t);
+            if (v < 0) throw new YicesException();
+            return v;
+        } finally {
+            Reference.reachabilityFence(this);
+        }
     }
 
     public int[] valuesAsTerms(int[] terms) throws YicesException {
-        if (terms == null) {
-            throw new IllegalArgumentException();
+        try {
+            if (terms == null) {
+                throw new IllegalArgumentException();
+            }
+            int[] output = new int[terms.length];
+            int v = Yices.valuesAsTerms(ptr, terms, output);
+            if (v < 0) throw new YicesException();
+            return output;
+        } finally {
+            Reference.reachabilityFence(this);
+        }
+    }
+
+    /*
+     * Values of all the terms in one native call (see ModelSnapshot).
+     * Terms whose value can't be computed get kind ModelSnapshot.ERROR
+     * rather than an exception.
+     */
+    public ModelSnapshot extract(int[] terms) throws YicesException {
+        try {
+            if (terms == null) {
+                throw new IllegalArgumentException();
+            }
+            int n = terms.length;
+            int[] t = terms.clone();
+            byte[] kinds = new byte[n];
+            long[] values = new long[n];
+            long[] aux = new long[n];
+            long[] bools = new long[(n + 63) >>> 6];
+            Object[] out = new Object[2];
+            int errors = Yices.extractValues(ptr, t, kinds, values, aux, bools, out);
+            if (errors < 0) throw new YicesException();
+            return new ModelSnapshot(t, kinds, values, aux, bools, (long[]) out[0], (byte[][]) out[1], errors);
+        } finally {
+            Reference.reachabilityFence(this);
         }
-        int[] output = new int[terms.length];
-        int v = Yices.valuesAsTerms(ptr, terms, output);
-        if (v < 0) throw new YicesException();
-        return output;
     }
 
     /*
      * Set the value of a term t in the model
+     * (each successful call increments the model version, see CachingModel)
      */
     public void setBoolean(int t, boolean val)  throws YicesException {
-        int code = Yices.modelSetBool(ptr, t, val ? 1 : 0);
-        if (code < 0) {
-            YicesException error = YicesException.checkVersion(2, 6, 4);
-            if (error == null) {
-                // not a library mismatch error; so do the default
-                error = new YicesException();
+        try {
+            int code = Yices.modelSetBool(ptr, t, val ? 1 : 0);
+            if (code < 0) {
+                YicesException error = YicesException.checkVersion(2, 6, 4);
+                if (error == null) {
+                    // not a library mismatch error; so do the default
+                    error = new YicesException();
+                }
+                throw error;
             }
-            throw error;
+            version++;
+        } finally {
+            Reference.reachabilityFence(this);
         }
     }
 
     public void setInteger(int t, long val)  throws YicesException {
-        int code = Yices.modelSetInteger(ptr, t, val);
-        if (code < 0) {
-            YicesException error = YicesException.checkVersion(2, 6, 4);
-            if (error == null) {
-                // not a library mismatch error; so do the default
-                error = new YicesException();
+        try {
+            int code = Yices.modelSetInteger(ptr, t, val);
+            if (code < 0) {
+                YicesException error = YicesException.checkVersion(2, 6, 4);
+                if (error == null) {
+                    // not a library mismatch error; so do the default
+                    error = new YicesException();
+                }
+                throw error;
             }
-            throw error;
+            version++;
+        } finally {
+            Reference.reachabilityFence(this);
         }
     }
 
     public void setRational(int t, long num, long den)  throws YicesException {
-        int code = Yices.modelSetRational(ptr, t, num, den);
-        if (code < 0) {
-            YicesException error = YicesException.checkVersion(2, 6, 4);
-            if (error == null) {
-                // not a library mismatch error; so do the default
-                error = new YicesException();
+        try {
+            int code = Yices.modelSetRational(ptr, t, num, den);
+            if (code < 0) {
+                YicesException error = YicesException.checkVersion(2, 6, 4);
+                if (error == null) {
+                    // not a library mismatch error; so do the default
+                    error = new YicesException();
+                }
+                throw error;
             }
-            throw error;
+            version++;
+        } finally {
+            Reference.reachabilityFence(this);
         }
     }
 
     public void setBVInteger(int t, long val)  throws YicesException {
-        int code = Yices.modelSetBVInteger(ptr, t, val);
-        if (code < 0) {
-            YicesException error = YicesException.checkVersion(2, 6, 4);
-            if (error == null) {
-                // not a library mismatch error; so do the default
-                error = new YicesException();
+        try {
+            int code = Yices.modelSetBVInteger(ptr, t, val);
+            if (code < 0) {
+                YicesException error = YicesException.checkVersion(2, 6, 4);
+                if (error == null) {
+                    // not a library mismatch error; so do the default
+                    error = new YicesException();
+                }
+                throw error;
             }
-            throw error;
+            version++;
+        } finally {
+            Reference.reachabilityFence(this);
         }
     }
 
     public void setBVFromArray(int t, int[] arr)  throws YicesException {
-        int code = Yices.modelSetBVFromArray(ptr, t, arr);
-        if (code < 0) {
-            YicesException error = YicesException.checkVersion(2, 6, 4);
-            if (error == null) {
-                // not a library mismatch error; so do the default
-                error = new YicesException();
+        try {
+            int code = Yices.modelSetBVFromArray(ptr, t, arr);
+            if (code < 0) {
+                YicesException error = YicesException.checkVersion(2, 6, 4);
+                if (error == null) {
+                    // not a library mismatch error; so do the default
+                    error = new YicesException();
+                }
+                throw error;
             }
-            throw error;
+            version++;
+        } finally {
+            Reference.reachabilityFence(this);
         }
     }
 
 
 
     public int[] collectDefinedTerms() {
-        int[] retval = Yices.modelCollectDefinedTerms(ptr);
-        if (retval == null) {
-            YicesException error = YicesException.checkVersion(2, 6, 4);
-            if (error == null) {
-                // not a library mismatch error; so do the default
-                error = new YicesException();
+        try {
+            int[] retval = Yices.modelCollectDefinedTerms(ptr);
+            if (retval == null) {
+                YicesException error = YicesException.checkVersion(2, 6, 4);
+                if (error == null) {
+                    // not a library mismatch error; so do the default
+                    error = new YicesException();
+                }
+                throw error;
             }
-            throw error;
+            return retval;
+        } finally {
+            Reference.reachabilityFence(this);
         }
-        return retval;
     }
 
 
@@ -250,7 +400,11 @@ public class Model implements AutoCloseable {
      * The implicant is returned in an int array, or null indicating an error.
      */
     public int[] implicant(int t){
-        return Yices.implicantForFormula(ptr, t);
+        try {
+            return Yices.implicantForFormula(ptr, t);
+        } finally {
+            Reference.reachabilityFence(this);
+        }
     }
 
     /*
@@ -264,7 +418,11 @@ public class Model implements AutoCloseable {
      * The implicant is returned in an int array, or null indicating an error.
      */
     public int[] implicant(int[] terms){
-        return Yices.implicantForFormulas(ptr, terms);
+        try {
+            return Yices.implicantForFormulas(ptr, terms);
+        } finally {
+            Reference.reachabilityFence(this);
+        }
     }
 
 
@@ -278,142 +436,265 @@ public class Model implements AutoCloseable {
      */
 
     public int[] support(int term) throws YicesException {
-        int[] retval = Yices.getSupport(ptr, term);
-        if (retval == null) throw new YicesException();
-        return retval;
+        try {
+            int[] retval = Yices.getSupport(ptr, term);
+            if (retval == null) throw new YicesException();
+            return retval;
+        } finally {
+            Reference.reachabilityFence(this);
+        }
     }
 
     public int[] support(int[] terms) throws YicesException {
-        int[] retval = Yices.getSupport(ptr, terms);
-        if (retval == null) throw new YicesException();
-        return retval;
+        try {
+            int[] retval = Yices.getSupport(ptr, terms);
+            if (retval == null) throw new YicesException();
+            return retval;
+        } finally {
+            Reference.reachabilityFence(this);
+        }
     }
 
     /*
      * Term exploration in a model
      */
     public YVal getValue(int t){
-        return Yices.getValue(ptr, t);
+        try {
+            return Yices.getValue(ptr, t);
+        } finally {
+            Reference.reachabilityFence(this);
+        }
     }
 
     public boolean isInt(YVal yval){
-        return Yices.valIsInt(ptr, yval.tag.ordinal(), yval.id);
+        try {
+            return Yices.valIsInt(ptr, yval.tag.ordinal(), yval.id);
+        } finally {
+            Reference.reachabilityFence(this);
+        }
     }
 
     public boolean isLong(YVal yval){
-        return Yices.valIsLong(ptr, yval.tag.ordinal(), yval.id);
+        try {
+            return Yices.valIsLong(ptr, yval.tag.ordinal(), yval.id);
+        } finally {
+            Reference.reachabilityFence(this);
+        }
     }
 
     public boolean isInteger(YVal yval){
-        return Yices.valIsLong(ptr, yval.tag.ordinal(), yval.id);
+        try {
+            return Yices.valIsLong(ptr, yval.tag.ordinal(), yval.id);
+        } finally {
+            Reference.reachabilityFence(this);
+        }
     }
 
     public int bitSize(YVal yval){
-        return Yices.valBitSize(ptr, yval.tag.ordinal(), yval.id);
+        try {
+            return Yices.valBitSize(ptr, yval.tag.ordinal(), yval.id);
+        } finally {
+            Reference.reachabilityFence(this);
+        }
     }
 
     public int tupleArity(YVal yval){
-        return Yices.valTupleArity(ptr, yval.tag.ordinal(), yval.id);
+        try {
+            return Yices.valTupleArity(ptr, yval.tag.ordinal(), yval.id);
+        } finally {
+            Reference.reachabilityFence(this);
+        }
     }
 
     public int mappingArity(YVal yval){
-        return Yices.valMappingArity(ptr, yval.tag.ordinal(), yval.id);
+        try {
+            return Yices.valMappingArity(ptr, yval.tag.ordinal(), yval.id);
+        } finally {
+            Reference.reachabilityFence(this);
+        }
     }
 
     public int functionArity(YVal yval){
-        return Yices.valFunctionArity(ptr, yval.tag.ordinal(), yval.id);
+        try {
+            return Yices.valFunctionArity(ptr, yval.tag.ordinal(), yval.id);
+        } finally {
+            Reference.reachabilityFence(this);
+        }
     }
 
     public int functionType(YVal yval){
-        return Yices.valFunctionType(ptr, yval.tag.ordinal(), yval.id);
+        try {
+            return Yices.valFunctionType(ptr, yval.tag.ordinal(), yval.id);
+        } finally {
+            Reference.reachabilityFence(this);
+        }
     }
 
     public boolean boolValue(YVal yval) throws YicesException {
-        int code = Yices.valGetBool(ptr, yval.tag.ordinal(), yval.id);
-        if (code < 0) throw new YicesException();
-        return code == 1;
+        try {
+            int code = Yices.valGetBool(ptr, yval.tag.ordinal(), yval.id);
+            if (code < 0) throw new YicesException();
+            return code == 1;
+        } finally {
+            Reference.reachabilityFence(this);
+        }
     }
 
     public long integerValue(YVal yval) throws YicesException {
-        long[] aux = new long[1];
-        int code = Yices.valGetInteger(ptr, yval.tag.ordinal(), yval.id, aux);
-        if (code < 0) throw new YicesException();
-        return aux[0];
+        try {
+            long[] aux = new long[1];
+            int code = Yices.valGetInteger(ptr, yval.tag.ordinal(), yval.id, aux);
+            if (code < 0) throw new YicesException();
+            return aux[0];
+        } finally {
+            Reference.reachabilityFence(this);
+        }
     }
 
     public double doubleValue(YVal yval) throws YicesException {
-        double[] aux = new double[1];
-        int code = Yices.valGetDouble(ptr, yval.tag.ordinal(), yval.id, aux);
-        if (code < 0) throw new YicesException();
-        return aux[0];
+        try {
+            double[] aux = new double[1];
+            int code = Yices.valGetDouble(ptr, yval.tag.ordinal(), yval.id, aux);
+            if (code < 0) throw new YicesException();
+            return aux[0];
+        } finally {
+            Reference.reachabilityFence(this);
+        }
     }
 
     // the numerator is returned in a[0].
     // the denominator is returned in a[1].
     public void rationalValue(YVal yval, long[] a) throws YicesException {
-        if (a.length < 2) throw new IllegalArgumentException("array too small");
-        int code = Yices.valGetRational(ptr, yval.tag.ordinal(), yval.id, a);
-        if (code < 0) throw new YicesException();
+        try {
+            if (a.length < 2) throw new IllegalArgumentException("array too small");
+            int code = Yices.valGetRational(ptr, yval.tag.ordinal(), yval.id, a);
+            if (code < 0) throw new YicesException();
+        } finally {
+            Reference.reachabilityFence(this);
+        }
     }
 
     public BigInteger bigIntegerValue(YVal yval) throws YicesException {
-        BigInteger v = Yices.valGetInteger(ptr, yval.tag.ordinal(), yval.id);
-        if (v == null) throw new YicesException();
-        return v;
+        try {
+            BigInteger v = Yices.valGetInteger(ptr, yval.tag.ordinal(), yval.id);
+            if (v == null) throw new YicesException();
+            return v;
+        } finally {
+            Reference.reachabilityFence(this);
+        }
     }
 
     public BigRational bigRationalValue(YVal yval) throws YicesException {
-        BigRational v = Yices.valGetRational(ptr, yval.tag.ordinal(), yval.id);
-        if (v == null) throw new YicesException();
-        return v;
+        try {
+            BigRational v = Yices.valGetRational(ptr, yval.tag.ordinal(), yval.id);
+            if (v == null) throw new YicesException();
+            return v;
+        } finally {
+            Reference.reachabilityFence(this);
+        }
     }
 
     public boolean[] bvValue(YVal yval) throws YicesException {
-        boolean[] b = Yices.valGetBV(ptr, yval.tag.ordinal(), yval.id);
-        if (b == null) throw new YicesException();
-        return b;
+        try {
+            boolean[] b = Yices.valGetBV(ptr, yval.tag.ordinal(), yval.id);
+            if (b == null) throw new YicesException();
+            return b;
+        } finally {
+            Reference.reachabilityFence(this);
+        }
+    }
+
+    // packed versions (same conventions as for terms)
+    public long bvValueAsLong(YVal yval) throws YicesException {
+        try {
+            long[] a = new long[1];
+            int n = Yices.valGetBVAsWords(ptr, yval.tag.ordinal(), yval.id, a);
+            if (n < 0) throw new YicesException();
+            if (n > 64) throw new IllegalArgumentException("bitvector has more than 64 bits");
+            return a[0];
+        } finally {
+            Reference.reachabilityFence(this);
+        }
+    }
+
+    public int bvValueAsWords(YVal yval, long[] a) throws YicesException {
+        try {
+            int n = Yices.valGetBVAsWords(ptr, yval.tag.ordinal(), yval.id, a);
+            if (n < 0) throw new YicesException();
+            if (a.length < BitVectors.numWords(n)) throw new IllegalArgumentException("array too small");
+            return n;
+        } finally {
+            Reference.reachabilityFence(this);
+        }
+    }
+
+    public BigInteger bvValueAsBigInteger(YVal yval) throws YicesException {
+        try {
+            long[] a = new long[BitVectors.numWords(bitSize(yval))];
+            int n = Yices.valGetBVAsWords(ptr, yval.tag.ordinal(), yval.id, a);
+            if (n < 0) throw new YicesException();
+            return BitVectors.toBigInteger(a, 0, a.length);
+        } finally {
+            Reference.reachabilityFence(this);
+        }
     }
 
     // returns an array a of two elements: the value of yval is stored
     // in a[0] (constant index), and its type in a[1]
     public int[] scalarValue(YVal yval) throws YicesException {
-        int[] a = new int[2];
-        int v = Yices.valGetScalar(ptr, yval.tag.ordinal(), yval.id, a);
-        if (v < 0) throw new YicesException();
-        return a;
+        try {
+            int[] a = new int[2];
+            int v = Yices.valGetScalar(ptr, yval.tag.ordinal(), yval.id, a);
+            if (v < 0) throw new YicesException();
+            return a;
+        } finally {
+            Reference.reachabilityFence(this);
+        }
     }
 
     public YVal[] expandTuple(YVal yval) throws YicesException {
-        YVal[] retval = null;
-        int n = this.tupleArity(yval);
-        if (n > 0) {
-            retval = new YVal[n];
-            int code = Yices.valExpandTuple(ptr, yval.tag.ordinal(), yval.id, retval);
-            if (code < 0) throw new YicesException();
-        } else {
-            throw new YicesException();
+        try {
+            YVal[] retval = null;
+            int n = this.tupleArity(yval);
+            if (n > 0) {
+                retval = new YVal[n];
+                int code = Yices.valExpandTuple(ptr, yval.tag.ordinal(), yval.id, retval);
+                if (code < 0) throw new YicesException();
+            } else {
+                throw new YicesException();
+            }
+            return retval;
+        } finally {
+            Reference.reachabilityFence(this);
         }
-        return retval;
     }
 
     public VectorValue expandFunction(YVal yval) throws YicesException {
-        int n = Yices.valFunctionCardinality(ptr, yval.tag.ordinal(), yval.id);
-        if (n <= 0) throw new YicesException();
-        YVal[] vector =  new YVal[n];
-        YVal[] value = new YVal[1];
-        int code = Yices.valExpandFunction(ptr, yval.tag.ordinal(), yval.id, value, vector);
-        if (code < 0) throw new YicesException();
-        return new VectorValue(vector, value[0]);
+        try {
+            int n = Yices.valFunctionCardinality(ptr, yval.tag.ordinal(), yval.id);
+            if (n <= 0) throw new YicesException();
+            YVal[] vector =  new YVal[n];
+            YVal[] value = new YVal[1];
+            int code = Yices.valExpandFunction(ptr, yval.tag.ordinal(), yval.id, value, vector);
+            if (code < 0) throw new YicesException();
+            return new VectorValue(vector, value[0]);
+        } finally {
+            Reference.reachabilityFence(this);
+        }
     }
 
     public VectorValue expandMapping(YVal yval) throws YicesException {
-        YVal[] value = new YVal[1];
-        int n = this.mappingArity(yval);
-        if (n <= 0) throw new YicesException();
-        YVal[] vector =  new YVal[n];
-        int code = Yices.valExpandMapping(ptr, yval.tag.ordinal(), yval.id, vector, value);
-        if (code < 0) throw new YicesException();
-        return new VectorValue(vector, value[0]);
+        try {
+            YVal[] value = new YVal[1];
+            int n = this.mappingArity(yval);
+            if (n <= 0) throw new YicesException();
+            YVal[] vector =  new YVal[n];
+            int code = Yices.valExpandMapping(ptr, yval.tag.ordinal(), yval.id, vector, value);
+            if (code < 0) throw new YicesException();
+            return new VectorValue(vector, value[0]);
+        } finally {
+            Reference.reachabilityFence(this);
+        }
     }
 
 
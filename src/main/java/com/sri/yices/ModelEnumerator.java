@@ -0,0 +1,68 @@
+package com.sri.yices;
+
+import java.lang.ref.Reference;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+
+/**
+ * Spliterator for Context.enumerateModels.
+ *
+ * Each step is a single native call (Yices.enumerateNext): check, read the
+ * values of the projection variables, free the model, and assert a blocking
+ * clause over these variables only. No Model object is created, so memory
+ * use on the Java side doesn't depend on the number of models.
+ *
+ * The enumeration stops after limit models (if limit > 0, 0 means no limit) or
+ * when the check returns something other than SAT. Then Context.getStatus tells
+ * whether all the projected assignments have been produced (UNSAT) or not
+ * (UNKNOWN or INTERRUPTED). After a stop at limit, the status is IDLE, not SAT:
+ * the blocking clause asserted after the last SAT answer resets the context.
+ */
+final class ModelEnumerator extends Spliterators.AbstractSpliterator<int[]> {
+    private final Context ctx;
+    private final Parameters params;  // may be null
+    private final int[] vars;
+    private final int limit;
+    private int count;
+    private Status last;
+
+    ModelEnumerator(Context ctx, Parameters params, int[] vars, int limit) {
+        super(limit > 0 ? limit : Long.MAX_VALUE, Spliterator.ORDERED | Spliterator.NONNULL | Spliterator.IMMUTABLE);
+        this.ctx = ctx;
+        this.params = params;
+        this.vars = vars;
+        this.limit = limit;
+    }
+
+    @Override
+    public boolean tryAdvance(Consumer<? super int[]> action) {
+        if (last != null && last != Status.SAT) return false;
+        if (limit > 0 && count >= limit) return false;
+        int[] values = new int[vars.length];
+        int code = Status.ERROR.ordinal();
+        SolverEvents.CheckEvent event = SolverEvents.beginCheck(ctx.getId(), "enumerateModels", vars.length);
+        try {
+            long p = (params == null) ? 0 : params.getPtr();
+            if (Profiler.enabled) {
+                long start = System.nanoTime();
+                code = Yices.enumerateNext(ctx.getPtr(), p, vars, values);
+                long finish = System.nanoTime();
+                Profiler.delta("Yices.enumerateNext", start, finish);
+            } else {
+                code = Yices.enumerateNext(ctx.getPtr(), p, vars, values);
+            }
+        } finally {
+            SolverEvents.endCheck(event, code);
+            // the native call uses the pointers: ctx and params must not be cleaned before it returns
+            Reference.reachabilityFence(ctx);
+            Reference.reachabilityFence(params);
+        }
+        if (code < 0 || code == Status.ERROR.ordinal()) throw new YicesException();
+        last = Status.idToStatus(code);
+        if (last != Status.SAT) return false;
+        count++;
+        action.accept(values);
+        return true;
+    }
+}
@@ -0,0 +1,211 @@
+package com.sri.yices;
+
+import java.math.BigInteger;
+
+/**
+ * Values of an array of terms in a model, extracted in one native call
+ * (see Model.extract).
+ *
+ * The values are stored by column rather than as one object per term:
+ * - Booleans are bits in a long[]
+ * - integers and rationals that fit in 64 bits are in two long[] (numerator, denominator)
+ * - bitvectors are packed into 64-bit words (bit i of a value is bit i%64 of word i/64)
+ * - larger integers and rationals go to a side table of BigIntegers
+ *
+ * A snapshot does not depend on the model: it's still valid after the model is closed
+ * or modified. Terms are indexed by their position i in the array given to extract.
+ */
+public final class ModelSnapshot {
+
+    /*
+     * Kind of value (must match the codes in yicesJNI.cpp)
+     * - ERROR: Yices could not compute the value of this term
+     * - UNSUPPORTED: the term has a type not covered by snapshots
+     *   (e.g., tuple or function); use Model.getValue instead
+     */
+    public static final byte ERROR = 0;
+    public static final byte BOOL = 1;
+    public static final byte INT64 = 2;
+    public static final byte RATIONAL64 = 3;
+    public static final byte BIG_INTEGER = 4;
+    public static final byte BIG_RATIONAL = 5;
+    public static final byte BITVECTOR = 6;
+    public static final byte SCALAR = 7;
+    public static final byte UNSUPPORTED = 8;
+
+    private final int[] terms;
+    private final byte[] kinds;
+    private final long[] values;
+    private final long[] aux;
+    private final long[] bools;
+    private final long[] words;
+    private final BigInteger[] big;
+    private final int errors;
+
+    ModelSnapshot(int[] terms, byte[] kinds, long[] values, long[] aux, long[] bools,
+                  long[] words, byte[][] table, int errors) {
+        this.terms = terms;
+        this.kinds = kinds;
+        this.values = values;
+        this.aux = aux;
+        this.bools = bools;
+        this.words = words;
+        this.errors = errors;
+        if (table == null) {
+            big = null;
+        } else {
+            big = new BigInteger[table.length];
+            for (int i=0; i<table.length; i++) {
+                if (table[i] != null) big[i] = new BigInteger(table[i]);
+            }
+        }
+    }
+
+    public int size() {
+        return terms.length;
+    }
+
+    public int term(int i) {
+        return terms[i];
+    }
+
+    public byte kind(int i) {
+        return kinds[i];
+    }
+
+    /**
+     * Number of terms of kind ERROR
+     */
+    public int errorCount() {
+        return errors;
+    }
+
+    private void check(int i, byte kind) {
+        if (kinds[i] != kind) {
+            throw new IllegalStateException("term " + terms[i] + " has kind " + kinds[i] + ", not " + kind);
+        }
+    }
+
+    public boolean boolValue(int i) {
+        check(i, BOOL);
+        return (bools[i >>> 6] & (1L << i)) != 0;
+    }
+
+    public boolean isInteger(int i) {
+        return kinds[i] == INT64 || kinds[i] == BIG_INTEGER;
+    }
+
+    /**
+     * Value of an integer that fits in 64 bits
+     */
+    public long longValue(int i) {
+        check(i, INT64);
+        return values[i];
+    }
+
+    /**
+     * Numerator and denominator of a number of kind INT64 or RATIONAL64
+     */
+    public long numerator(int i) {
+        if (kinds[i] != RATIONAL64) check(i, INT64);
+        return values[i];
+    }
+
+    public long denominator(int i) {
+        if (kinds[i] != RATIONAL64) check(i, INT64);
+        return aux[i];
+    }
+
+    /**
+     * Value of an integer of any size
+     */
+    public BigInteger bigIntegerValue(int i) {
+        if (kinds[i] == INT64) return BigInteger.valueOf(values[i]);
+        check(i, BIG_INTEGER);
+        return big[2 * (int) values[i]];
+    }
+
+    /**
+     * Value of an arithmetic term of any kind
+     */
+    public BigRational rationalValue(int i) {
+        switch (kinds[i]) {
+        case INT64:
+        case RATIONAL64:
+            return new BigRational(BigInteger.valueOf(values[i]), BigInteger.valueOf(aux[i]));
+        case BIG_INTEGER:
+            return new BigRational(big[2 * (int) values[i]], BigInteger.ONE);
+        default:
+            check(i, BIG_RATIONAL);
+            return new BigRational(big[2 * (int) values[i]], big[2 * (int) values[i] + 1]);
+        }
+    }
+
+    public int scalarValue(int i) {
+        check(i, SCALAR);
+        return (int) values[i];
+    }
+
+    /**
+     * Number of bits of a bitvector value
+     */
+    public int bvSize(int i) {
+        check(i, BITVECTOR);
+        return (int) aux[i];
+    }
+
+    /**
+     * Word k of a bitvector value (bits 64k to 64k+63, the high-order bits
+     * of the last word are 0)
+     */
+    public long bvWord(int i, int k) {
+        check(i, BITVECTOR);
+        if (k < 0 || k >= numWords(i)) throw new IndexOutOfBoundsException("no word " + k);
+        return words[(int) values[i] + k];
+    }
+
+    /**
+     * Copy the words of a bitvector value into a.
+     * Returns the number of words copied ((bvSize + 63)/64).
+     */
+    public int bvWords(int i, long[] a) {
+        check(i, BITVECTOR);
+        int n = numWords(i);
+        if (a.length < n) throw new IllegalArgumentException("array too small");
+        System.arraycopy(words, (int) values[i], a, 0, n);
+        return n;
+    }
+
+    /**
+     * Value of a bitvector of at most 64 bits (zero extended)
+     */
+    public long bvValueAsLong(int i) {
+        if (bvSize(i) > 64) throw new IllegalArgumentException("bitvector has more than 64 bits");
+        return words[(int) values[i]];
+    }
+
+    /**
+     * Bitvector value as a non-negative BigInteger
+     */
+    public BigInteger bvValueAsBigInteger(int i) {
+        check(i, BITVECTOR);
+        return BitVectors.toBigInteger(words, (int) values[i], numWords(i));
+    }
+
+    /**
+     * Bitvector value as an array of booleans (little endian as in Model.bvValue)
+     */
+    public boolean[] bvValue(int i) {
+        int n = bvSize(i);
+        int offset = (int) values[i];
+        boolean[] b = new boolean[n];
+        for (int j=0; j<n; j++) {
+            b[j] = (words[offset + (j >>> 6)] & (1L << j)) != 0;
+        }
+        return b;
+    }
+
+    private int numWords(int i) {
+        return BitVectors.numWords((int) aux[i]);
+    }
+}
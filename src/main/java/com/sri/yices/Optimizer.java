@@ -0,0 +1,401 @@
+package com.sri.yices;
+
+import java.math.BigInteger;
+
+/**
+ * Minimize or maximize an arithmetic objective under the assertions of a context.
+ *
+ * This is the loop of examples/Solver.java, packaged: find a model, then look for
+ * a model where F <= F(best) - delta, and so on until that's unsat. The result is
+ * optimal up to delta (delta = 1 gives the exact optimum of an integer objective).
+ *
+ * Three strategies:
+ * - LINEAR: assert F <= F(best) - delta after each model, in a scope
+ *   pushed for the whole search (so the solver keeps what it learned).
+ *   Unless a bound is given, the search starts with one probe F <= -L
+ *   (see below).
+ * - BINARY (default): bisection between the best value and the largest infeasible
+ *   bound. Each probe F <= v is asserted in its own push/pop scope; refuted
+ *   probes are kept as F > v in the outer scope. While no infeasible bound is known,
+ *   the probes go down from the best value with a doubling step, but not below -L.
+ * - ASSUMPTIONS: no push/pop and no assertion; each probe F <= v is passed as an
+ *   assumption to checkWithAssumptions. The probes go down from the best value
+ *   as in BINARY. Once a lower bound is known (a refuted probe), probes go up from
+ *   it, with a step that doubles after each unsat answer and is reset by each new
+ *   model. This works for contexts that don't support push/pop, and leaves the
+ *   context as it was.
+ *
+ * Unbounded objectives: L is the unbounded limit (default 2^64, see setUnboundedLimit).
+ * No probe goes below -L. If the probe F <= -L is sat, the search stops there: the
+ * result is marked unbounded and the model is a witness with F <= -L. So every
+ * strategy terminates (LINEAR may still need many checks, see setMaxChecks).
+ *
+ * Example:
+ * <pre>
+ *   Optimizer.Result r = new Optimizer(ctx).setListener((v, m) -> System.out.println("F = " + v)).minimize(f);
+ *   if (r.status == Status.SAT) {
+ *       try (Model m = r.model) { ... }
+ *   }
+ * </pre>
+ *
+ * The context must not be used by other threads during the search. Checks can be
+ * interrupted with Context.stopSearch: the result is then the best model so far.
+ */
+public final class Optimizer {
+
+    public enum Strategy { LINEAR, BINARY, ASSUMPTIONS }
+
+    /**
+     * Called on each improving model, with the value of the objective.
+     * The model is owned by the optimizer: it's valid until the next call.
+     */
+    public interface Listener {
+        void improved(BigRational value, Model model);
+    }
+
+    /**
+     * Result of minimize or maximize:
+     * - status is SAT if a model was found, otherwise the status of the first check
+     * - optimal is true if no model is better than value by delta or more
+     * - unbounded is true if the objective reached the unbounded limit
+     * - value is the objective value in the best model (null if there's no model)
+     * - model is the best model (null if there's none), the caller must close it
+     * - checks is the number of calls to the solver
+     */
+    public static final class Result {
+        public final Status status;
+        public final boolean optimal;
+        public final boolean unbounded;
+        public final BigRational value;
+        public final Model model;
+        public final int checks;
+
+        Result(Status status, boolean optimal, boolean unbounded, BigRational value, Model model, int checks) {
+            this.status = status;
+            this.optimal = optimal;
+            this.unbounded = unbounded;
+            this.value = value;
+            this.model = model;
+            this.checks = checks;
+        }
+    }
+
+    private static final BigRational ONE = new BigRational(BigInteger.ONE, BigInteger.ONE);
+    private static final BigRational TWO_64 = new BigRational(BigInteger.ONE.shiftLeft(64), BigInteger.ONE);
+
+    private final Context ctx;
+    private Strategy strategy = Strategy.BINARY;
+    private Parameters params;      // may be null
+    private Listener listener;      // may be null
+    private BigRational delta = ONE;
+    private BigRational bound;      // known bound on the objective (may be null)
+    private BigRational limit = TWO_64;
+    private int maxChecks;          // 0 means no limit
+
+    // search state: we minimize objective (which is -t if we maximize t)
+    private int objective;
+    private boolean negated;
+    private boolean integer;
+    private int checks;
+    private Model best;
+    private BigRational bestValue;
+    private BigRational infeasible; // F <= infeasible has no solution (null if unknown)
+    private boolean unbounded;      // F <= -limit has a solution
+
+    public Optimizer(Context ctx) {
+        if (ctx == null) throw new IllegalArgumentException("null context");
+        this.ctx = ctx;
+    }
+
+    public Optimizer setStrategy(Strategy strategy) {
+        if (strategy == null) throw new IllegalArgumentException("null strategy");
+        this.strategy = strategy;
+        return this;
+    }
+
+    // search parameters for all the checks (may be null)
+    public Optimizer setParameters(Parameters params) {
+        this.params = params;
+        return this;
+    }
+
+    public Optimizer setListener(Listener listener) {
+        this.listener = listener;
+        return this;
+    }
+
+    // minimal improvement: must be positive (default 1)
+    public Optimizer setDelta(BigRational delta) {
+        if (delta.getNumerator().signum() * delta.getDenominator().signum() <= 0) {
+            throw new IllegalArgumentException("delta must be positive");
+        }
+        this.delta = copy(delta);
+        return this;
+    }
+
+    /**
+     * Bound known in advance: lower bound if we minimize, upper bound if we maximize
+     * (null if none). This lets BINARY and ASSUMPTIONS skip the search for a bound
+     * and stop as soon as the bound is reached. There's no unboundedness probe then.
+     */
+    public Optimizer setBound(BigRational bound) {
+        this.bound = (bound == null) ? null : copy(bound);
+        return this;
+    }
+
+    /**
+     * Objective values beyond the limit are treated as unbounded: below -limit
+     * if we minimize, above limit if we maximize. Must be positive (default 2^64).
+     */
+    public Optimizer setUnboundedLimit(BigRational limit) {
+        if (limit.getNumerator().signum() * limit.getDenominator().signum() <= 0) {
+            throw new IllegalArgumentException("limit must be positive");
+        }
+        this.limit = copy(limit);
+        return this;
+    }
+
+    // maximal number of checks per search (0 means no limit)
+    public Optimizer setMaxChecks(int maxChecks) {
+        if (maxChecks < 0) throw new IllegalArgumentException("negative limit");
+        this.maxChecks = maxChecks;
+        return this;
+    }
+
+    public Result minimize(int t) throws YicesException {
+        return optimize(t, false);
+    }
+
+    public Result maximize(int t) throws YicesException {
+        if (!Terms.isArithmetic(t)) throw new IllegalArgumentException("objective must be arithmetic");
+        return optimize(Terms.neg(t), true);
+    }
+
+    private Result optimize(int f, boolean neg) throws YicesException {
+        if (!Terms.isArithmetic(f)) throw new IllegalArgumentException("objective must be arithmetic");
+        objective = f;
+        negated = neg;
+        integer = Terms.isInteger(f);
+        checks = 0;
+        best = null;
+        bestValue = null;
+        infeasible = (bound == null) ? null : sub(neg ? negate(bound) : bound, delta);
+        unbounded = false;
+        try {
+            boolean optimal = false;
+            Status s = check();
+            if (s == Status.SAT) {
+                improve();
+                Status last;
+                switch (strategy) {
+                case LINEAR:
+                    last = linear();
+                    break;
+                case BINARY:
+                    last = binary();
+                    break;
+                default:
+                    last = assumptions();
+                    break;
+                }
+                optimal = (last == Status.UNSAT);
+            }
+            Result r = new Result(s, optimal, unbounded, external(bestValue), best, checks);
+            best = null;
+            return r;
+        } finally {
+            if (best != null) {
+                best.close();
+                best = null;
+            }
+        }
+    }
+
+    /*
+     * Each search returns UNSAT if the best model is optimal,
+     * or the reason why it stopped (UNKNOWN if the limit is reached,
+     * SAT if the objective is unbounded).
+     */
+    private Status linear() throws YicesException {
+        ctx.push();
+        try {
+            if (infeasible == null) {
+                if (exhausted()) return Status.UNKNOWN;
+                BigRational v = negate(limit);
+                Status s;
+                ctx.push();
+                try {
+                    ctx.assertFormula(atMost(v));
+                    s = check();
+                    if (s == Status.SAT) improve();
+                } finally {
+                    ctx.pop();
+                }
+                if (s == Status.SAT) {
+                    unbounded = true;
+                    return s;
+                }
+                if (s != Status.UNSAT) return s;
+                ctx.assertFormula(Terms.not(atMost(v)));
+            }
+            for (;;) {
+                if (exhausted()) return Status.UNKNOWN;
+                ctx.assertFormula(atMost(sub(bestValue, delta)));
+                Status s = check();
+                if (s != Status.SAT) return s;
+                improve();
+            }
+        } finally {
+            ctx.pop();
+        }
+    }
+
+    private Status binary() throws YicesException {
+        ctx.push();
+        try {
+            BigRational step = delta;
+            for (;;) {
+                BigRational target = sub(bestValue, delta);
+                if (infeasible != null && compare(target, infeasible) <= 0) return Status.UNSAT;
+                if (exhausted()) return Status.UNKNOWN;
+                BigRational v = (infeasible == null) ? down(step) : split(infeasible, target);
+                Status s;
+                ctx.push();
+                try {
+                    ctx.assertFormula(atMost(v));
+                    s = check();
+                    if (s == Status.SAT) improve();
+                } finally {
+                    ctx.pop();
+                }
+                if (s == Status.SAT) {
+                    if (infeasible == null && compare(v, negate(limit)) == 0) {
+                        unbounded = true;
+                        return s;
+                    }
+                    step = add(step, step);
+                } else if (s == Status.UNSAT) {
+                    infeasible = v;
+                    ctx.assertFormula(Terms.not(atMost(v)));
+                } else {
+                    return s;
+                }
+            }
+        } finally {
+            ctx.pop();
+        }
+    }
+
+    private Status assumptions() throws YicesException {
+        BigRational step = delta;
+        int[] assumption = new int[1];
+        for (;;) {
+            BigRational target = sub(bestValue, delta);
+            if (infeasible != null && compare(target, infeasible) <= 0) return Status.UNSAT;
+            if (exhausted()) return Status.UNKNOWN;
+            BigRational v;
+            if (infeasible == null) {
+                v = down(step);
+            } else {
+                v = add(infeasible, step);
+                if (compare(v, target) > 0) v = target;
+            }
+            assumption[0] = atMost(v);
+            checks++;
+            Status s = ctx.checkWithAssumptions(params, assumption);
+            if (s == Status.SAT) {
+                improve();
+                if (infeasible == null && compare(v, negate(limit)) == 0) {
+                    unbounded = true;
+                    return s;
+                }
+                step = (infeasible == null) ? add(step, step) : delta;
+            } else if (s == Status.UNSAT) {
+                // an empty core means that the assertions alone are now unsat:
+                // nothing is better than the best model
+                if (ctx.getUnsatCore().length == 0) return Status.UNSAT;
+                infeasible = v;
+                step = add(step, step);
+            } else {
+                return s;
+            }
+        }
+    }
+
+    // probe below the best value: max(F(best) - step, -limit)
+    private BigRational down(BigRational step) {
+        BigRational v = sub(bestValue, step);
+        BigRational floor = negate(limit);
+        return (compare(v, floor) < 0) ? floor : v;
+    }
+
+    private Status check() throws YicesException {
+        checks++;
+        return ctx.check(params);
+    }
+
+    private boolean exhausted() {
+        return maxChecks > 0 && checks >= maxChecks;
+    }
+
+    // store the context's model as the best one so far
+    private void improve() throws YicesException {
+        Model m = ctx.getModel();
+        if (best != null) best.close();
+        best = m;
+        bestValue = m.bigRationalValue(objective);
+        bestValue.normalize();
+        if (listener != null) listener.improved(external(bestValue), m);
+    }
+
+    // objective <= v
+    private int atMost(BigRational v) throws YicesException {
+        return Terms.arithLeq(objective, Terms.rationalConst(v));
+    }
+
+    // a value in (lo, hi]: the midpoint, or hi if the interval is at most delta
+    private BigRational split(BigRational lo, BigRational hi) {
+        BigRational d = sub(hi, lo);
+        if (compare(d, delta) <= 0) return hi;
+        BigRational m = add(lo, new BigRational(d.getNumerator(), d.getDenominator().shiftLeft(1)));
+        if (integer) {
+            BigInteger[] qr = m.getNumerator().divideAndRemainder(m.getDenominator());
+            BigInteger q = (qr[1].signum() < 0) ? qr[0].subtract(BigInteger.ONE) : qr[0];
+            m = new BigRational(q, BigInteger.ONE);
+            if (compare(m, lo) <= 0) return hi;
+        }
+        return m;
+    }
+
+    private BigRational external(BigRational v) {
+        return (v == null || !negated) ? v : negate(v);
+    }
+
+    /*
+     * Rational arithmetic (denominators are positive)
+     */
+    private static BigRational copy(BigRational a) {
+        BigRational r = new BigRational(a.getNumerator(), a.getDenominator());
+        r.normalize();
+        return r;
+    }
+
+    private static BigRational add(BigRational a, BigRational b) {
+        BigRational r = new BigRational(a.getNumerator().multiply(b.getDenominator()).add(b.getNumerator().multiply(a.getDenominator())),
+                                        a.getDenominator().multiply(b.getDenominator()));
+        r.normalize();
+        return r;
+    }
+
+    private static BigRational sub(BigRational a, BigRational b) {
+        return add(a, negate(b));
+    }
+
+    private static BigRational negate(BigRational a) {
+        return new BigRational(a.getNumerator().negate(), a.getDenominator());
+    }
+
+    private static int compare(BigRational a, BigRational b) {
+        return a.getNumerator().multiply(b.getDenominator()).compareTo(b.getNumerator().multiply(a.getDenominator()));
+    }
+}
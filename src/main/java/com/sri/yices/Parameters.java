@@ -1,5 +1,7 @@
 package com.sri.yices;
 
+import java.lang.ref.Reference;
+
 /*
  * Wrapper around a Yices param_t structure
  */
@@ -8,14 +10,15 @@ public class Parameters implements AutoCloseable {
     private long ptr;
 
     //<PROFILING>
-    static private long population = 0;
+    // owns the pointer: frees it on close or when this object is garbage collected
+    private ResourceTracker.Handle handle;
 
     /**
      * Returns the count of Parameters objects that have an unfreed
      * pointer to a Yices shared library object.
      */
     public static long getCensus(){
-        return population;
+        return ResourceTracker.getCensus(ResourceTracker.Kind.PARAMETERS);
     }
     //</PROFILING>
 
@@ -24,7 +27,7 @@ public class Parameters implements AutoCloseable {
      */
     public Parameters() {
         ptr = Yices.newParamRecord();
-        population++;
+        handle = ResourceTracker.register(this, ResourceTracker.Kind.PARAMETERS, ptr);
     }
 
     /*
@@ -32,9 +35,8 @@ public class Parameters implements AutoCloseable {
      */
     public void close() {
         if (ptr != 0) {
-            Yices.freeParamRecord(ptr);
+            handle.release();
             ptr = 0;
-            population--;
         }
     }
 
@@ -45,14 +47,23 @@ public class Parameters implements AutoCloseable {
      * Set a search parameter: name and value are both given as strings
      */
     public void setParam(String name, String value) throws YicesException {
-        int code = Yices.setParam(ptr, name, value);
-        if (code < 0) throw new YicesException();
+        try {
+            int code = Yices.setParam(ptr, name, value);
+            if (code < 0) throw new YicesException();
+        } finally {
+            Reference.reachabilityFence(this);
+        }
     }
 
     /*
      * Set parameters for a context
      */
     public void defaultsForContext(Context ctx) {
-        Yices.defaultParamsForContext(ctx.getPtr(), ptr);
+        try {
+            Yices.defaultParamsForContext(ctx.getPtr(), ptr);
+        } finally {
+            Reference.reachabilityFence(this);
+            Reference.reachabilityFence(ctx);
+        }
     }
 }
@@ -0,0 +1,308 @@
+package com.sri.yices;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Portfolio solving: check the same formulas in several contexts
+ * that use different configurations and search parameters, one thread
+ * per context. The first variant to return SAT or UNSAT wins and
+ * the search is stopped in all the others.
+ *
+ * Example:
+ * <pre>
+ *   try (PortfolioSolver ps = new PortfolioSolver(PortfolioSolver.defaultVariants("QF_BV", 4))) {
+ *       PortfolioSolver.Result r = ps.solve(formulas);
+ *       if (r.status == Status.SAT) {
+ *           try (Model m = r.model) { ... }
+ *       }
+ *   }
+ * </pre>
+ *
+ * Variants whose context can't be created (e.g., mcsat for a logic it
+ * doesn't support) are ignored. The Yices library must be thread safe.
+ */
+public final class PortfolioSolver implements AutoCloseable {
+
+    /**
+     * A variant: a logic (may be null), configuration options and search parameters.
+     */
+    public static final class Variant {
+        public final String name;
+        public final String logic;
+        private final Map<String, String> config = new LinkedHashMap<>();
+        private final Map<String, String> params = new LinkedHashMap<>();
+
+        public Variant(String name, String logic) {
+            this.name = name;
+            this.logic = logic;
+        }
+
+        // configuration option (see Config.set)
+        public Variant config(String option, String value) {
+            config.put(option, value);
+            return this;
+        }
+
+        // search parameter (see Parameters.setParam)
+        public Variant param(String param, String value) {
+            params.put(param, value);
+            return this;
+        }
+
+        public Map<String, String> getConfig() { return Collections.unmodifiableMap(config); }
+
+        public Map<String, String> getParams() { return Collections.unmodifiableMap(params); }
+
+        @Override
+        public String toString() {
+            return name + " " + config + " " + params;
+        }
+    }
+
+    /**
+     * Result of solve:
+     * - status is SAT or UNSAT if a variant succeeded (UNKNOWN otherwise)
+     * - winner is the index of the winning variant or -1
+     * - model is the model found (if status is SAT), the caller must close it
+     * - core is the unsat core (if status is UNSAT and there were assumptions)
+     */
+    public static final class Result {
+        public final Status status;
+        public final int winner;
+        public final Variant variant;
+        public final Model model;
+        public final int[] core;
+
+        Result(Status status, int winner, Variant variant, Model model, int[] core) {
+            this.status = status;
+            this.winner = winner;
+            this.variant = variant;
+            this.model = model;
+            this.core = core;
+        }
+    }
+
+    private static final String[] BRANCHING = { "default", "negative", "positive", "theory", "th-neg", "th-pos" };
+
+    /**
+     * Default portfolio of n variants for the given logic:
+     * - variant 0 uses the default configuration and parameters
+     * - variant 1 uses mcsat (if available)
+     * - the others vary branching, restarts, randomness, and random seed
+     */
+    public static List<Variant> defaultVariants(String logic, int n) {
+        List<Variant> list = new ArrayList<>(n);
+        if (n > 0) list.add(new Variant("default", logic));
+        if (n > 1 && Yices.hasMcsat()) list.add(new Variant("mcsat", null).config("solver-type", "mcsat"));
+        for (int k = list.size(); k < n; k++) {
+            Variant v = new Variant("dpllt-" + k, logic);
+            v.param("branching", BRANCHING[k % BRANCHING.length]);
+            v.param("fast-restarts", (k & 1) == 0 ? "true" : "false");
+            v.param("randomness", (k % 3 == 0) ? "0.05" : "0.02");
+            v.param("random-seed", Integer.toString(0xbeef + k));
+            list.add(v);
+        }
+        return list;
+    }
+
+    private final List<Variant> variants;
+    private final ExecutorService executor;
+
+    public PortfolioSolver(List<Variant> variants) {
+        if (variants.isEmpty()) throw new IllegalArgumentException("empty portfolio");
+        this.variants = new ArrayList<>(variants);
+        this.executor = Executors.newFixedThreadPool(variants.size(), r -> {
+                Thread t = new Thread(r, "yices-portfolio");
+                t.setDaemon(true);
+                return t;
+            });
+    }
+
+    public List<Variant> getVariants() {
+        return Collections.unmodifiableList(variants);
+    }
+
+    public Result solve(int[] formulas) throws YicesException {
+        return solve(formulas, null, 0, TimeUnit.MILLISECONDS);
+    }
+
+    public Result solve(int[] formulas, int[] assumptions) throws YicesException {
+        return solve(formulas, assumptions, 0, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Assert formulas in all variants and check them in parallel.
+     * - assumptions may be null
+     * - timeout <= 0 means no timeout; if the timeout expires all variants are stopped
+     *   and the result has status UNKNOWN
+     */
+    public Result solve(int[] formulas, int[] assumptions, long timeout, TimeUnit unit) throws YicesException {
+        int n = variants.size();
+        Context[] contexts = new Context[n];
+        Parameters[] params = new Parameters[n];
+        try {
+            YicesException failure = null;
+            int ready = 0;
+            for (int i=0; i<n; i++) {
+                try {
+                    contexts[i] = newContext(variants.get(i));
+                    params[i] = newParameters(variants.get(i), contexts[i]);
+                    contexts[i].assertFormulas(formulas);
+                    ready ++;
+                } catch (YicesException e) {
+                    // skip this variant
+                    failure = e;
+                    if (contexts[i] != null) contexts[i].close();
+                    if (params[i] != null) params[i].close();
+                    contexts[i] = null;
+                    params[i] = null;
+                }
+            }
+            if (ready == 0) throw failure;
+            return race(contexts, params, ready, assumptions, timeout, unit);
+        } finally {
+            for (int i=0; i<n; i++) {
+                if (contexts[i] != null) contexts[i].close();
+                if (params[i] != null) params[i].close();
+            }
+        }
+    }
+
+    private static Context newContext(Variant v) throws YicesException {
+        try (Config config = (v.logic == null) ? new Config() : new Config(v.logic)) {
+            for (Map.Entry<String, String> e: v.config.entrySet()) {
+                config.set(e.getKey(), e.getValue());
+            }
+            return new Context(config);
+        }
+    }
+
+    private static Parameters newParameters(Variant v, Context ctx) throws YicesException {
+        Parameters p = new Parameters();
+        try {
+            p.defaultsForContext(ctx);
+            for (Map.Entry<String, String> e: v.params.entrySet()) {
+                p.setParam(e.getKey(), e.getValue());
+            }
+        } catch (YicesException e) {
+            p.close();
+            throw e;
+        }
+        return p;
+    }
+
+    private static boolean definitive(Status s) {
+        return s == Status.SAT || s == Status.UNSAT;
+    }
+
+    private Result race(Context[] contexts, Parameters[] params, int ready, int[] assumptions, long timeout, TimeUnit unit) {
+        int n = contexts.length;
+        AtomicInteger winner = new AtomicInteger(-1);
+        AtomicLongArray generations = new AtomicLongArray(n);
+        CountDownLatch decided = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(ready);
+        AtomicInteger remaining = new AtomicInteger(ready);
+        Status[] status = new Status[n];
+        Throwable[] errors = new Throwable[n];
+
+        for (int i=0; i<n; i++) {
+            if (contexts[i] == null) continue;
+            int index = i;
+            executor.execute(() -> {
+                    Context ctx = contexts[index];
+                    long g = Timeouts.begin(ctx);
+                    generations.set(index, g);
+                    try {
+                        if (winner.get() < 0) {
+                            Status s = (assumptions == null) ? ctx.check(params[index]) : ctx.checkWithAssumptions(params[index], assumptions);
+                            status[index] = s;
+                            if (definitive(s) && winner.compareAndSet(-1, index)) {
+                                stopAll(contexts, generations, index);
+                                decided.countDown();
+                            }
+                        }
+                    } catch (Throwable e) {
+                        errors[index] = e;
+                    } finally {
+                        Timeouts.end(ctx, g);
+                        if (remaining.decrementAndGet() == 0) decided.countDown();
+                        done.countDown();
+                    }
+                });
+        }
+
+        boolean interrupted = false;
+        try {
+            if (timeout > 0) {
+                if (!decided.await(timeout, unit)) {
+                    winner.compareAndSet(-1, n); // no winner: prevent late starts
+                }
+            } else {
+                decided.await();
+            }
+        } catch (InterruptedException e) {
+            interrupted = true;
+            winner.compareAndSet(-1, n);
+        }
+        stopAll(contexts, generations, -1);
+        // wait for all the searches to stop before we use or free the contexts
+        while (true) {
+            try {
+                done.await();
+                break;
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) Thread.currentThread().interrupt();
+
+        int w = winner.get();
+        if (w < 0 || w >= n) {
+            // no winner: if no variant returned a status, report the first error
+            boolean someStatus = false;
+            Throwable error = null;
+            for (int i=0; i<n; i++) {
+                if (status[i] != null) someStatus = true;
+                if (error == null) error = errors[i];
+            }
+            if (!someStatus && error instanceof YicesException) throw (YicesException) error;
+            return new Result(Status.UNKNOWN, -1, null, null, null);
+        }
+
+        Model model = null;
+        int[] core = null;
+        if (status[w] == Status.SAT) {
+            model = contexts[w].getModel();
+        } else if (assumptions != null) {
+            core = contexts[w].getUnsatCore();
+        }
+        return new Result(status[w], w, variants.get(w), model, core);
+    }
+
+    // stop all searches except the one at index keep
+    private static void stopAll(Context[] contexts, AtomicLongArray generations, int keep) {
+        for (int j=0; j<contexts.length; j++) {
+            long g = generations.get(j);
+            if (j != keep && contexts[j] != null && g != 0) {
+                Timeouts.stop(contexts[j], g);
+            }
+        }
+    }
+
+    /*
+     * Shut down the worker threads
+     */
+    public void close() {
+        executor.shutdownNow();
+    }
+}
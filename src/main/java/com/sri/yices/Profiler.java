@@ -2,14 +2,29 @@ package com.sri.yices;
 
 import java.util.Comparator;
 import java.util.HashMap;
-import java.util.HashSet;
 import java.util.LinkedHashMap;
 import java.util.Map;
-import java.util.Set;
-
-
-//FIXME: decide on the units. millisecs or nanoseconds.
-
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+
+/**
+ * Profiling of the calls to Yices.
+ *
+ * All times are in nanoseconds. The profiler is thread safe:
+ * - totals and call counts are LongAdders (striped per thread, summed on read)
+ * - each instrumented call site has a log-linear histogram of call times
+ *   (see LatencyHistogram: relative error below 1/32) updated with atomic increments
+ * - nothing is locked on the recording path, reports read a consistent-enough
+ *   snapshot without stopping the recording threads
+ *
+ * When profiling is disabled, the callers only test Profiler.enabled.
+ *
+ * Native instrumentation (see instrumentNatives) is independent of the
+ * enabled flag: it times every native method of class Yices in the JNI
+ * library, including the ones that are not wrapped in a Profiler.enabled
+ * test on the Java side.
+ */
 public final class Profiler {
 
     /**
@@ -17,82 +32,202 @@ public final class Profiler {
      */
     public static boolean enabled = false;
 
-    static private final boolean distributions = false;
+    private static final LongAdder cost = new LongAdder();
 
-    static private long cost = 0;
+    private static final LongAdder threads = new LongAdder();
 
-    static private Set<Long> threads = new HashSet<Long>();
+    // set the first time a thread records a call
+    private static final ThreadLocal<Boolean> seen = ThreadLocal.withInitial(() -> {
+            threads.increment();
+            return Boolean.TRUE;
+        });
 
-    static private Map<String,Long> lineItems = new HashMap<String,Long>();
-    // for pretty printing
-    static private int lineItemMax = 0;
+    private static final ConcurrentHashMap<String, Site> sites = new ConcurrentHashMap<>();
 
-    // for each instrumented API routine: the value maps a call time in TENTHS of a second to the number of calls that have that time.
-    static private Map<String, Map<Integer,Integer>> distribution = new HashMap<String, Map<Integer,Integer>>();
+    // set once native instrumentation has been enabled (so that we don't load Yices otherwise)
+    private static volatile boolean nativesUsed = false;
 
-    private static void addThread(){
-        long tid = Thread.currentThread().getId();
-        threads.add(tid);
+    private static final String JNI_PREFIX = "Java_com_sri_yices_Yices_";
+
+    /*
+     * Data for an instrumented API routine
+     */
+    private static final class Site {
+        final LongAdder calls = new LongAdder();
+        final LongAdder total = new LongAdder();
+        final LatencyHistogram histogram = new LatencyHistogram();
+
+        void record(long nanos) {
+            calls.increment();
+            total.add(nanos);
+            histogram.record(nanos);
+        }
     }
 
-    private static void addLineItem(String caller, long cost){
-        Long current = lineItems.get(caller);
-        if (current == null){
-            int len = caller.length();
-            lineItems.put(caller, cost);
-            lineItemMax = (lineItemMax < len ? len : lineItemMax);
-        } else {
-            lineItems.put(caller, current + cost);
+    /**
+     * Statistics for one instrumented routine (times in nanoseconds)
+     */
+    public static final class Stats {
+        public final String caller;
+        public final long calls;
+        public final long total;
+        public final long max;
+        private final LatencyHistogram.Snapshot histogram;
+
+        Stats(String caller, Site s) {
+            this.caller = caller;
+            this.calls = s.calls.sum();
+            this.total = s.total.sum();
+            this.histogram = s.histogram.snapshot();
+            this.max = histogram.max;
+        }
+
+        public double mean() {
+            return calls == 0 ? 0.0 : (double) total / calls;
+        }
+
+        /**
+         * Time t such that a fraction q of the calls took at most t
+         * (up to the histogram precision). q must be between 0 and 1.
+         */
+        public long percentile(double q) {
+            return histogram.percentile(q);
+        }
+
+        public long p50() { return percentile(0.50); }
+
+        public long p99() { return percentile(0.99); }
+
+        public long p999() { return percentile(0.999); }
+
+        @Override
+        public String toString() {
+            return String.format("%s: %d calls, %d ms, mean %.1f us, p50 %.1f us, p99 %.1f us, p999 %.1f us, max %.1f us",
+                                 caller, calls, total/1000000, mean()/1000.0, p50()/1000.0, p99()/1000.0,
+                                 p999()/1000.0, max/1000.0);
         }
     }
 
-    private static void addDistribution(String caller, int callTime){
-        // callTime is in millseconds; lets try tenths for a readable histogram
-        callTime /= 100;
-        Map<Integer,Integer> map = distribution.get(caller);
-        if (map == null){
-            map = new HashMap<Integer,Integer>();
-            distribution.put(caller, map);
+    /**
+     * Calls and total time (in nanoseconds) of a native method of class Yices.
+     * Overloaded methods are merged.
+     */
+    public static final class NativeStats {
+        public final String method;
+        public final long calls;
+        public final long total;
+
+        NativeStats(String method, long calls, long total) {
+            this.method = method;
+            this.calls = calls;
+            this.total = total;
+        }
+
+        public double mean() {
+            return calls == 0 ? 0.0 : (double) total / calls;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%s: %d calls, %d ms, mean %.1f us", method, calls, total/1000000, mean()/1000.0);
         }
-        int count = map.getOrDefault(callTime, 0);
-        map.put(callTime, count + 1);
     }
 
     public static int getThreadCount(){
-        return threads.size();
+        return threads.intValue();
     }
 
     public static void configure(boolean enabled){
         Profiler.enabled = enabled;
     }
 
+    /**
+     * Enable or disable the instrumentation of all the native methods.
+     * This can be changed at any time.
+     */
+    public static void instrumentNatives(boolean enabled){
+        if (enabled) nativesUsed = true;
+        if (enabled || nativesUsed) Yices.setNativeProfiling(enabled);
+    }
+
+    public static boolean isInstrumentingNatives(){
+        return nativesUsed && Yices.isNativeProfilingEnabled();
+    }
 
     /**
-     * Increments the cost by (stop - start)
+     * Statistics for all native methods called while the instrumentation
+     * was enabled, sorted by decreasing total time. The keys are "Yices.method".
      */
-    public static void delta(String caller, long start, long stop){
-        delta(caller, start, stop, false);
+    public static Map<String, NativeStats> getNativeStats(){
+        LinkedHashMap<String, NativeStats> result = new LinkedHashMap<String, NativeStats>();
+        if (!nativesUsed) return result;
+        String[] names = Yices.nativeProfileNames();
+        long[] data = new long[2 * names.length];
+        Yices.nativeProfileData(data);
+        Map<String, long[]> merged = new HashMap<String, long[]>();
+        for (int i = 0; i < names.length; i++){
+            if (data[2*i] == 0) continue;
+            long[] acc = merged.computeIfAbsent(methodName(names[i]), k -> new long[2]);
+            acc[0] += data[2*i];
+            acc[1] += data[2*i + 1];
+        }
+        merged.entrySet()
+            .stream()
+            .map(x -> new NativeStats(x.getKey(), x.getValue()[0], x.getValue()[1]))
+            .sorted(Comparator.comparingLong((NativeStats x) -> x.total).reversed())
+            .forEachOrdered(x -> result.put(x.method, x));
+        return result;
+    }
+
+    /*
+     * Convert a JNI name to "Yices.method":
+     * remove the prefix and the signature of overloaded methods, then undo the '_' escape.
+     */
+    static String methodName(String jniName){
+        String s = jniName.startsWith(JNI_PREFIX) ? jniName.substring(JNI_PREFIX.length()) : jniName;
+        int i = s.indexOf("__");
+        if (i >= 0) s = s.substring(0, i);
+        return "Yices." + s.replace("_1", "_");
     }
 
+
     /**
      * Increments the cost by (stop - start)
-     * If distribution is true, adds the delta to the distribution.
      */
-    public static void delta(String caller, long start, long stop, boolean distribution){
+    public static void delta(String caller, long start, long stop){
         long dcost = stop >= start ? stop - start : start - stop;
-        addThread();
-        addLineItem(caller, dcost);
-        cost += dcost;
-        if (distributions && distribution) {
-            addDistribution(caller, (int)(cost/1000000));
+        seen.get();
+        Site s = sites.get(caller);
+        if (s == null) {
+            s = sites.computeIfAbsent(caller, k -> new Site());
         }
+        s.record(dcost);
+        cost.add(dcost);
+    }
+
+    /**
+     * Same thing. The distribution flag is kept for compatibility:
+     * the distribution of call times is now recorded for all callers.
+     */
+    public static void delta(String caller, long start, long stop, boolean distribution){
+        delta(caller, start, stop);
     }
 
     /**
      * Resets the cost accumulation counter to zero.
      */
     public static void reset(){
-        cost = 0;
+        cost.reset();
+    }
+
+    /**
+     * Forget everything: cost, call counts, and histograms.
+     * (Calls recorded concurrently with clear may be partially kept.)
+     */
+    public static void clear(){
+        cost.reset();
+        sites.clear();
+        if (nativesUsed) Yices.resetNativeProfile();
     }
 
 
@@ -100,9 +235,28 @@ public final class Profiler {
      * Returns the accumulated time spent in the Yices solver in nanoseconds.
      */
     public static long get(){
-        long retval = cost;
-        cost = 0;
-        return retval;
+        return cost.sumThenReset();
+    }
+
+    /**
+     * Statistics for caller or null if caller has not been recorded.
+     */
+    public static Stats getStats(String caller){
+        Site s = sites.get(caller);
+        return s == null ? null : new Stats(caller, s);
+    }
+
+    /**
+     * Statistics for all callers, sorted by decreasing total time.
+     */
+    public static Map<String, Stats> getStats(){
+        LinkedHashMap<String, Stats> result = new LinkedHashMap<String, Stats>();
+        sites.entrySet()
+            .stream()
+            .map(x -> new Stats(x.getKey(), x.getValue()))
+            .sorted(Comparator.comparingLong((Stats x) -> x.total).reversed())
+            .forEachOrdered(x -> result.put(x.caller, x));
+        return result;
     }
 
     public static String report(){
@@ -132,61 +286,31 @@ public final class Profiler {
 
 
     private static void lineItems2StringBuilder(StringBuilder sb){
-        LinkedHashMap<String, Long> sortedLineItems = new LinkedHashMap<String, Long>();
-        lineItems.entrySet()
-            .stream()
-            .sorted(Map.Entry.comparingByValue(Comparator.reverseOrder()))
-            .forEachOrdered(x -> sortedLineItems.put(x.getKey(), x.getValue()));
-
-        int padLength = lineItemMax + 5;
-
-        for (String caller : sortedLineItems.keySet()){
-            sb.append(pad(caller, padLength)).append(lineItems.get(caller)/1000000).append(" milliseconds\n");
+        Map<String, Stats> stats = getStats();
+        int lineItemMax = 0;
+        for (String caller : stats.keySet()){
+            lineItemMax = Math.max(lineItemMax, caller.length());
         }
-    }
 
-    /* Data is formatted for this:
-<python graph plot code>
-import matplotlib.pyplot as plt
-# frequencies
-counts = <data goes here>
-rng = list(range(0, 100))
-plt.bar(rng, counts)
-plt.xlabel('call time (tenths of a second)')
-plt.ylabel('No. of calls')
-plt.title('<caller> on ...')
-plt.show()
-</python graph plot code>
-     */
-    private static void distribution2StringBuilder(String caller, StringBuilder sb){
-        Map<Integer,Integer> map = distribution.get(caller);
-        sb.append("[");
-        for (int i = 0; i < 100; i++) {
-            sb.append(map.getOrDefault(i, 0));
-            if (i < 99) {
-                sb.append(", ");
-            }
-        }
-        sb.append("]\n");
-    }
+        int padLength = lineItemMax + 5;
 
-    private static void distribution2StringBuilder(StringBuilder sb){
-        for (String caller : distribution.keySet()){
-            sb.append("\n").append(caller).append(" Distribution").append("\n\n");
-            distribution2StringBuilder(caller, sb);
+        for (Stats s : stats.values()){
+            sb.append(pad(s.caller, padLength)).append(s.total/1000000).append(" milliseconds")
+                .append(String.format(", %d calls, p50 %.1f us, p99 %.1f us, p999 %.1f us\n",
+                                      s.calls, s.p50()/1000.0, s.p99()/1000.0, s.p999()/1000.0));
         }
     }
 
-
-
     public static void toString(StringBuilder sb){
         if (enabled) {
             sb.append("\n--- PROFILING SUMMARY ---\n\n");
             sb.append("Calling thread count: ").append(getThreadCount()).append("\n\n");
             lineItems2StringBuilder(sb);
-            if (distributions) {
-                distribution2StringBuilder(sb);
-                sb.append("\n |distribution| = ").append(distribution.size()).append("\n");
+        }
+        if (nativesUsed) {
+            sb.append("\n--- NATIVE CALLS ---\n\n");
+            for (NativeStats s : getNativeStats().values()){
+                sb.append(s).append("\n");
             }
         }
     }
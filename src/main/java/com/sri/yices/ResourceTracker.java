@@ -0,0 +1,192 @@
+package com.sri.yices;
+
+import java.lang.ref.Cleaner;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bookkeeping for the native objects owned by Context, Model, Config, and Parameters.
+ *
+ * - Census: number of live objects of each kind (thread safe).
+ * - Safety net: if an object becomes unreachable without being closed, a
+ *   Cleaner frees the native object. If the Yices library is thread safe, this is
+ *   done on the cleaner thread. Otherwise, the object is queued and freed by the next
+ *   thread that allocates or closes an object.
+ *   Because of this, every method that passes the pointer to a native call must keep
+ *   the wrapper reachable until the call returns (Reference.reachabilityFence in a
+ *   finally block). Otherwise, the JIT may consider the wrapper unreachable during
+ *   the call and the cleaner could free the object under it.
+ * - Leak tracking (off by default): record the stack trace of every allocation
+ *   so that checkpoint() can tell where the objects still alive were created.
+ *
+ * Closing objects explicitly is still the right thing to do: the cleaner runs
+ * only after a garbage collection, which may be much later.
+ */
+public final class ResourceTracker {
+
+    public enum Kind { CONTEXT, MODEL, CONFIG, PARAMETERS }
+
+    /**
+     * A live object and where it was allocated.
+     */
+    public static final class Allocation {
+        public final Kind kind;
+        public final Throwable trace;
+
+        Allocation(Kind kind, Throwable trace) {
+            this.kind = kind;
+            this.trace = trace;
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder sb = new StringBuilder(kind.toString()).append(" allocated at:");
+            for (StackTraceElement e: trace.getStackTrace()) {
+                sb.append("\n    ").append(e);
+            }
+            return sb.toString();
+        }
+    }
+
+    private static final Cleaner cleaner = Cleaner.create();
+    private static final int KINDS = Kind.values().length;
+    private static final LongAdder[] census = new LongAdder[KINDS];
+    private static final LongAdder[] reclaimed = new LongAdder[KINDS];
+    private static final ConcurrentLinkedQueue<Handle> pending = new ConcurrentLinkedQueue<>();
+    private static final Set<Handle> tracked = ConcurrentHashMap.newKeySet();
+    private static volatile boolean leakTracking;
+
+    static {
+        for (int i=0; i<KINDS; i++) {
+            census[i] = new LongAdder();
+            reclaimed[i] = new LongAdder();
+        }
+    }
+
+    private ResourceTracker() { }
+
+    /**
+     * Handle on a native object: owned by the Java wrapper.
+     * The wrapper must not be reachable from the handle.
+     */
+    static final class Handle implements Runnable {
+        private final Kind kind;
+        private final long ptr;
+        private final AtomicBoolean released = new AtomicBoolean();
+        private Throwable trace;
+        private Cleaner.Cleanable cleanable;
+
+        private Handle(Kind kind, long ptr) {
+            this.kind = kind;
+            this.ptr = ptr;
+        }
+
+        /*
+         * Explicit close: free the native object now
+         */
+        void release() {
+            if (released.compareAndSet(false, true)) {
+                free(this);
+            }
+            cleanable.clean();
+            drain();
+        }
+
+        /*
+         * Called by the cleaner when the owner is unreachable (or by clean)
+         */
+        @Override
+        public void run() {
+            if (released.compareAndSet(false, true)) {
+                reclaimed[kind.ordinal()].increment();
+                if (Yices.isThreadSafe()) {
+                    free(this);
+                } else {
+                    pending.add(this);
+                }
+            }
+        }
+    }
+
+    /*
+     * Register a new native object owned by owner
+     */
+    static Handle register(Object owner, Kind kind, long ptr) {
+        drain();
+        Handle h = new Handle(kind, ptr);
+        census[kind.ordinal()].increment();
+        if (leakTracking) {
+            h.trace = new Throwable("allocation");
+            tracked.add(h);
+        }
+        h.cleanable = cleaner.register(owner, h);
+        return h;
+    }
+
+    private static void free(Handle h) {
+        if (h.ptr != 0) {
+            switch (h.kind) {
+            case CONTEXT: Yices.freeContext(h.ptr); break;
+            case MODEL: Yices.freeModel(h.ptr); break;
+            case CONFIG: Yices.freeConfig(h.ptr); break;
+            case PARAMETERS: Yices.freeParamRecord(h.ptr); break;
+            }
+        }
+        census[h.kind.ordinal()].decrement();
+        if (h.trace != null) tracked.remove(h);
+    }
+
+    // free the objects queued by the cleaner
+    private static void drain() {
+        Handle h;
+        while ((h = pending.poll()) != null) {
+            free(h);
+        }
+    }
+
+    /**
+     * Number of live objects of the given kind
+     */
+    public static long getCensus(Kind kind) {
+        return census[kind.ordinal()].sum();
+    }
+
+    /**
+     * Number of objects of the given kind that were not closed
+     * and were reclaimed by the cleaner (i.e., leaks)
+     */
+    public static long getReclaimed(Kind kind) {
+        return reclaimed[kind.ordinal()].sum();
+    }
+
+    /**
+     * Enable or disable leak tracking. Only objects allocated while
+     * tracking is enabled are reported by checkpoint.
+     */
+    public static void setLeakTracking(boolean enabled) {
+        leakTracking = enabled;
+    }
+
+    public static boolean isLeakTracking() {
+        return leakTracking;
+    }
+
+    /**
+     * Objects allocated while leak tracking was enabled that are still alive.
+     */
+    public static List<Allocation> checkpoint() {
+        List<Allocation> result = new ArrayList<>();
+        for (Handle h: tracked) {
+            Throwable t = h.trace;
+            if (t != null && !h.released.get()) {
+                result.add(new Allocation(h.kind, t));
+            }
+        }
+        return result;
+    }
+}
@@ -0,0 +1,197 @@
+package com.sri.yices;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Java Flight Recorder events for the expensive solver operations.
+ *
+ * JFR records the duration and thread of every event. The events are
+ * enabled by default (with no threshold) when a recording is running; they
+ * can be configured in a .jfc file using their names (e.g., com.sri.yices.Check).
+ * When no recording is running, creating an event costs almost nothing.
+ *
+ * contextId identifies the Context (see Context.getId). It's 0 for
+ * operations that don't use a context (e.g., Delegate.checkFormula).
+ *
+ * The same call sites also report to the installed YicesMetrics (if any).
+ *
+ * jdk.jfr is part of Java 11, the minimal Java version for this library.
+ */
+public final class SolverEvents {
+
+    // installed metrics (see YicesMetrics.install)
+    static volatile YicesMetrics metrics;
+
+    private SolverEvents() { }
+
+    @Name("com.sri.yices.Check")
+    @Label("Yices Check")
+    @Category({"Yices"})
+    @Description("Satisfiability check")
+    public static final class CheckEvent extends Event {
+        @Label("Context Id")
+        public long contextId;
+
+        @Label("Operation")
+        public String operation;
+
+        @Label("Delegate")
+        @Description("SAT solver used by Delegate.checkFormula(s), null otherwise")
+        public String delegate;
+
+        @Label("Formula Count")
+        @Description("Number of formulas or assumptions passed to the check")
+        public int formulas;
+
+        @Label("Status")
+        public String status;
+
+        // for the metrics (transient fields are not recorded)
+        transient long startNanos;
+    }
+
+    @Name("com.sri.yices.Assert")
+    @Label("Yices Assert")
+    @Category({"Yices"})
+    @Description("Assertion of formulas in a context")
+    public static final class AssertEvent extends Event {
+        @Label("Context Id")
+        public long contextId;
+
+        @Label("Formula Count")
+        public int formulas;
+
+        @Label("Success")
+        public boolean success;
+    }
+
+    @Name("com.sri.yices.GetModel")
+    @Label("Yices Get Model")
+    @Category({"Yices"})
+    @Description("Model construction after a satisfiable check")
+    public static final class ModelEvent extends Event {
+        @Label("Context Id")
+        public long contextId;
+
+        @Label("Success")
+        public boolean success;
+    }
+
+    @Name("com.sri.yices.GetUnsatCore")
+    @Label("Yices Get Unsat Core")
+    @Category({"Yices"})
+    @Description("Unsat core extraction after an unsatisfiable check with assumptions")
+    public static final class UnsatCoreEvent extends Event {
+        @Label("Context Id")
+        public long contextId;
+
+        @Label("Core Size")
+        @Description("Number of assumptions in the core (-1 on error)")
+        public int coreSize;
+    }
+
+    @Name("com.sri.yices.TermGc")
+    @Label("Yices Term GC")
+    @Category({"Yices"})
+    @Description("Garbage collection of the Yices term and type tables (see TermGc)")
+    public static final class TermGcEvent extends Event {
+        @Label("Reason")
+        public String reason;
+
+        @Label("Terms Before")
+        public int termsBefore;
+
+        @Label("Terms After")
+        public int termsAfter;
+
+        @Label("Roots")
+        public int roots;
+    }
+
+    /*
+     * Helpers for the call sites: start an event, then finish it
+     * with the result (in a finally block so that errors are recorded too).
+     */
+    static CheckEvent beginCheck(long contextId, String operation, int formulas) {
+        CheckEvent e = new CheckEvent();
+        e.contextId = contextId;
+        e.operation = operation;
+        e.formulas = formulas;
+        if (metrics != null) e.startNanos = System.nanoTime();
+        e.begin();
+        return e;
+    }
+
+    // code = status code returned by Yices (negative or ERROR if the check failed)
+    static void endCheck(CheckEvent e, int code) {
+        endCheck(e, code, null);
+    }
+
+    // delegate is stored only if the event is recorded
+    static void endCheck(CheckEvent e, int code, String delegate) {
+        e.end();
+        YicesMetrics m = metrics;
+        if (m != null && e.startNanos != 0) {
+            m.recordCheck(Status.idToStatus(code), System.nanoTime() - e.startNanos);
+        }
+        if (e.shouldCommit()) {
+            e.status = Status.idToStatus(code).toString();
+            e.delegate = delegate;
+            e.commit();
+        }
+    }
+
+    static AssertEvent beginAssert(long contextId, int formulas) {
+        AssertEvent e = new AssertEvent();
+        e.contextId = contextId;
+        e.formulas = formulas;
+        e.begin();
+        return e;
+    }
+
+    static void endAssert(AssertEvent e, int code) {
+        e.end();
+        YicesMetrics m = metrics;
+        if (m != null && code >= 0) {
+            m.recordAssertions(e.formulas);
+        }
+        if (e.shouldCommit()) {
+            e.success = code >= 0;
+            e.commit();
+        }
+    }
+
+    static ModelEvent beginModel(long contextId) {
+        ModelEvent e = new ModelEvent();
+        e.contextId = contextId;
+        e.begin();
+        return e;
+    }
+
+    static void endModel(ModelEvent e, long model) {
+        e.end();
+        if (e.shouldCommit()) {
+            e.success = model != 0;
+            e.commit();
+        }
+    }
+
+    static UnsatCoreEvent beginUnsatCore(long contextId) {
+        UnsatCoreEvent e = new UnsatCoreEvent();
+        e.contextId = contextId;
+        e.begin();
+        return e;
+    }
+
+    static void endUnsatCore(UnsatCoreEvent e, int[] core) {
+        e.end();
+        if (e.shouldCommit()) {
+            e.coreSize = (core == null) ? -1 : core.length;
+            e.commit();
+        }
+    }
+}
@@ -0,0 +1,371 @@
+package com.sri.yices;
+
+import java.util.Arrays;
+
+/**
+ * Records a sequence of term constructors in a primitive buffer and
+ * builds all of them with a single native call.
+ *
+ * Every constructor method appends one instruction and returns a reference
+ * to the term that instruction will produce. A reference can be used as an
+ * operand of later instructions in the same batch. Operands that are not
+ * references are ordinary term ids. References are negative integers (below
+ * NULL_TERM) so they can't be confused with terms.
+ *
+ * Example:
+ * <pre>
+ *   TermBatch b = new TermBatch();
+ *   int r1 = b.bvAdd(x, y);
+ *   int r2 = b.bvLt(r1, z);
+ *   int r3 = b.and(r2, p);
+ *   int[] terms = b.build();
+ *   int t = terms[TermBatch.slot(r3)];
+ * </pre>
+ *
+ * If an instruction fails, build throws a TermBatch.BatchException that
+ * gives the index of the failing slot.
+ *
+ * The opcodes must match the ones in yicesJNI.cpp.
+ */
+public final class TermBatch {
+    static final int OP_NOT = 0;
+    static final int OP_AND = 1;
+    static final int OP_OR = 2;
+    static final int OP_XOR = 3;
+    static final int OP_IFF = 4;
+    static final int OP_IMPLIES = 5;
+    static final int OP_ITE = 6;
+    static final int OP_EQ = 7;
+    static final int OP_NEQ = 8;
+    static final int OP_DISTINCT = 9;
+    static final int OP_APPLY = 10;
+
+    static final int OP_INT = 11;
+    static final int OP_ADD = 12;
+    static final int OP_SUB = 13;
+    static final int OP_NEG = 14;
+    static final int OP_MUL = 15;
+    static final int OP_SUM = 16;
+    static final int OP_PRODUCT = 17;
+    static final int OP_ARITH_EQ = 18;
+    static final int OP_ARITH_NEQ = 19;
+    static final int OP_ARITH_GEQ = 20;
+    static final int OP_ARITH_LEQ = 21;
+    static final int OP_ARITH_GT = 22;
+    static final int OP_ARITH_LT = 23;
+
+    static final int OP_BV_CONST = 24;
+    static final int OP_BV_ADD = 25;
+    static final int OP_BV_SUB = 26;
+    static final int OP_BV_NEG = 27;
+    static final int OP_BV_MUL = 28;
+    static final int OP_BV_NOT = 29;
+    static final int OP_BV_AND = 30;
+    static final int OP_BV_OR = 31;
+    static final int OP_BV_XOR = 32;
+    static final int OP_BV_SHL = 33;
+    static final int OP_BV_LSHR = 34;
+    static final int OP_BV_ASHR = 35;
+    static final int OP_BV_EXTRACT = 36;
+    static final int OP_BV_EXTRACT_BIT = 37;
+    static final int OP_BV_CONCAT = 38;
+    static final int OP_BV_ZERO_EXTEND = 39;
+    static final int OP_BV_SIGN_EXTEND = 40;
+    static final int OP_BV_EQ = 41;
+    static final int OP_BV_NEQ = 42;
+    static final int OP_BV_GE = 43;
+    static final int OP_BV_GT = 44;
+    static final int OP_BV_LE = 45;
+    static final int OP_BV_LT = 46;
+    static final int OP_BV_SGE = 47;
+    static final int OP_BV_SGT = 48;
+    static final int OP_BV_SLE = 49;
+    static final int OP_BV_SLT = 50;
+
+    /**
+     * Exception raised by build when one of the instructions fails.
+     * The Yices error is for the instruction at index slot.
+     */
+    public static class BatchException extends YicesException {
+        public final int slot;
+
+        BatchException(int slot) {
+            super();
+            this.slot = slot;
+        }
+
+        @Override
+        public String getMessage() {
+            return "term batch slot " + slot + ": " + super.getMessage();
+        }
+    }
+
+    private int[] code;
+    private int length;   // number of words used in code
+    private int slots;    // number of instructions recorded
+    private int last;     // start of the last instruction
+
+    public TermBatch() {
+        this(64);
+    }
+
+    public TermBatch(int capacity) {
+        if (capacity < 4) capacity = 4;
+        code = new int[capacity];
+    }
+
+    /*
+     * References to the result of a previous instruction
+     */
+    public static int ref(int slot) {
+        if (slot < 0) throw new IllegalArgumentException("negative slot");
+        return -2 - slot;
+    }
+
+    public static boolean isRef(int x) {
+        return x <= -2;
+    }
+
+    public static int slot(int ref) {
+        if (ref > -2) throw new IllegalArgumentException("not a batch reference");
+        return -2 - ref;
+    }
+
+    // number of instructions recorded so far
+    public int size() { return slots; }
+
+    // remove all instructions (keep the buffer)
+    public void clear() {
+        length = 0;
+        slots = 0;
+    }
+
+    /**
+     * Build all the terms.
+     * Return an array a of size size() where a[i] is the term built by slot i.
+     * The batch is unchanged so it can be cleared and reused.
+     */
+    public int[] build() throws YicesException {
+        int[] terms = new int[slots];
+        build(terms);
+        return terms;
+    }
+
+    /**
+     * Same thing but store the terms in a (which must have size at least size()).
+     */
+    public void build(int[] a) throws YicesException {
+        if (a.length < slots) throw new IllegalArgumentException("array too small");
+        int n = Yices.replayTermBatch(code, length, a);
+        if (n < slots) throw new BatchException(n);
+    }
+
+    /*
+     * BOOLEAN CONSTRUCTORS
+     */
+    public int not(int arg) { return unary(OP_NOT, arg); }
+
+    public int and(int... arg) { return nary(OP_AND, arg); }
+
+    public int or(int... arg) { return nary(OP_OR, arg); }
+
+    public int xor(int... arg) { return nary(OP_XOR, arg); }
+
+    public int iff(int left, int right) { return binary(OP_IFF, left, right); }
+
+    public int implies(int left, int right) { return binary(OP_IMPLIES, left, right); }
+
+    public int ifThenElse(int cond, int a, int b) {
+        int s = start(OP_ITE, 3);
+        operand(cond);
+        operand(a);
+        operand(b);
+        return s;
+    }
+
+    public int eq(int left, int right) { return binary(OP_EQ, left, right); }
+
+    public int neq(int left, int right) { return binary(OP_NEQ, left, right); }
+
+    public int distinct(int... arg) { return nary(OP_DISTINCT, arg); }
+
+    public int funApplication(int fun, int... arg) {
+        if (arg.length == 0) throw new IllegalArgumentException("empty input");
+        int s = start(OP_APPLY, arg.length + 2);
+        operand(fun);
+        code[length++] = arg.length;
+        for (int x: arg) operand(x);
+        return s;
+    }
+
+    /*
+     * ARITHMETIC
+     */
+    public int intConst(int x) {
+        int s = start(OP_INT, 1);
+        code[length++] = x;
+        return s;
+    }
+
+    public int add(int left, int right) { return binary(OP_ADD, left, right); }
+
+    public int sub(int left, int right) { return binary(OP_SUB, left, right); }
+
+    public int neg(int arg) { return unary(OP_NEG, arg); }
+
+    public int mul(int left, int right) { return binary(OP_MUL, left, right); }
+
+    public int sum(int... arg) { return nary(OP_SUM, arg); }
+
+    public int product(int... arg) { return nary(OP_PRODUCT, arg); }
+
+    public int arithEq(int left, int right) { return binary(OP_ARITH_EQ, left, right); }
+
+    public int arithNeq(int left, int right) { return binary(OP_ARITH_NEQ, left, right); }
+
+    public int arithGeq(int left, int right) { return binary(OP_ARITH_GEQ, left, right); }
+
+    public int arithLeq(int left, int right) { return binary(OP_ARITH_LEQ, left, right); }
+
+    public int arithGt(int left, int right) { return binary(OP_ARITH_GT, left, right); }
+
+    public int arithLt(int left, int right) { return binary(OP_ARITH_LT, left, right); }
+
+    /*
+     * BITVECTORS
+     */
+
+    /**
+     * n-bit constant: x is truncated or sign-extended as in Terms.bvConst(n, x)
+     */
+    public int bvConst(int n, long x) {
+        if (n < 0) throw new IllegalArgumentException("negative bitvector size");
+        int s = start(OP_BV_CONST, 3);
+        code[length++] = n;
+        code[length++] = (int) x;
+        code[length++] = (int) (x >>> 32);
+        return s;
+    }
+
+    public int bvAdd(int left, int right) { return binary(OP_BV_ADD, left, right); }
+
+    public int bvSub(int left, int right) { return binary(OP_BV_SUB, left, right); }
+
+    public int bvNeg(int arg) { return unary(OP_BV_NEG, arg); }
+
+    public int bvMul(int left, int right) { return binary(OP_BV_MUL, left, right); }
+
+    public int bvNot(int arg) { return unary(OP_BV_NOT, arg); }
+
+    public int bvAnd(int... arg) { return nary(OP_BV_AND, arg); }
+
+    public int bvOr(int... arg) { return nary(OP_BV_OR, arg); }
+
+    public int bvXor(int... arg) { return nary(OP_BV_XOR, arg); }
+
+    public int bvShl(int left, int right) { return binary(OP_BV_SHL, left, right); }
+
+    public int bvLshr(int left, int right) { return binary(OP_BV_LSHR, left, right); }
+
+    public int bvAshr(int left, int right) { return binary(OP_BV_ASHR, left, right); }
+
+    // bits i to j of a (as in Terms.bvExtract)
+    public int bvExtract(int a, int i, int j) {
+        int s = start(OP_BV_EXTRACT, 3);
+        operand(a);
+        code[length++] = i;
+        code[length++] = j;
+        return s;
+    }
+
+    public int bvExtractBit(int a, int i) {
+        int s = start(OP_BV_EXTRACT_BIT, 2);
+        operand(a);
+        code[length++] = i;
+        return s;
+    }
+
+    public int bvConcat(int... arg) { return nary(OP_BV_CONCAT, arg); }
+
+    public int bvZeroExtend(int a, int n) {
+        int s = start(OP_BV_ZERO_EXTEND, 2);
+        operand(a);
+        code[length++] = n;
+        return s;
+    }
+
+    public int bvSignExtend(int a, int n) {
+        int s = start(OP_BV_SIGN_EXTEND, 2);
+        operand(a);
+        code[length++] = n;
+        return s;
+    }
+
+    public int bvEq(int left, int right) { return binary(OP_BV_EQ, left, right); }
+
+    public int bvNeq(int left, int right) { return binary(OP_BV_NEQ, left, right); }
+
+    public int bvGe(int left, int right) { return binary(OP_BV_GE, left, right); }
+
+    public int bvGt(int left, int right) { return binary(OP_BV_GT, left, right); }
+
+    public int bvLe(int left, int right) { return binary(OP_BV_LE, left, right); }
+
+    public int bvLt(int left, int right) { return binary(OP_BV_LT, left, right); }
+
+    public int bvSge(int left, int right) { return binary(OP_BV_SGE, left, right); }
+
+    public int bvSgt(int left, int right) { return binary(OP_BV_SGT, left, right); }
+
+    public int bvSle(int left, int right) { return binary(OP_BV_SLE, left, right); }
+
+    public int bvSlt(int left, int right) { return binary(OP_BV_SLT, left, right); }
+
+    /*
+     * Encoding: each instruction is an opcode followed by its operands.
+     * N-ary instructions store the number of operands first.
+     */
+    private int unary(int op, int arg) {
+        int s = start(op, 1);
+        operand(arg);
+        return s;
+    }
+
+    private int binary(int op, int left, int right) {
+        int s = start(op, 2);
+        operand(left);
+        operand(right);
+        return s;
+    }
+
+    private int nary(int op, int[] arg) {
+        if (arg.length == 0) throw new IllegalArgumentException("empty input");
+        int s = start(op, arg.length + 1);
+        code[length++] = arg.length;
+        for (int x: arg) operand(x);
+        return s;
+    }
+
+    // store the opcode and make room for k more words; return the reference to the new slot
+    private int start(int op, int k) {
+        int needed = length + k + 1;
+        if (needed > code.length) {
+            int n = code.length + (code.length >> 1);
+            code = Arrays.copyOf(code, Math.max(n, needed));
+        }
+        last = length;
+        code[length++] = op;
+        return ref(slots++);
+    }
+
+    // check that references are to earlier slots
+    // slots has already been incremented by start: undo the instruction on error
+    private void operand(int x) {
+        if (x <= -2 && -2 - x >= slots - 1) {
+            length = last;
+            slots --;
+            throw new IllegalArgumentException("reference to a later slot");
+        }
+        code[length++] = x;
+    }
+}
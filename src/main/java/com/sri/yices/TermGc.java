@@ -0,0 +1,273 @@
+package com.sri.yices;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * Garbage collection of the global Yices term and type tables.
+ *
+ * Yices never deletes terms on its own. A garbage collection keeps:
+ * - the terms and types rooted via TermGc (see TermHandle)
+ * - the terms and types with a positive Yices reference count (yicesIncrefTerm)
+ * - the terms and types used by live contexts and models
+ * - the named terms and types if keepNamed is true (the default)
+ * - the constants in Terms and Types (TermGc roots them)
+ * Every other term id becomes invalid and may be reused.
+ *
+ * Policy: maybeCollect() runs a collection when the number of terms reaches
+ * the trigger watermark, or after memoryPressure() was signaled. After a
+ * collection, the next trigger is max(highWatermark, growth * live terms) so
+ * that a large live set doesn't cause a collection on every call.
+ *
+ * Collections are never started in the background: the application must
+ * call maybeCollect (or collect) at points where every term it still needs
+ * is rooted, e.g., between requests. Yices calls on other threads must not
+ * be in progress.
+ *
+ * TermScope doesn't collect: terms tracked by open scopes have a positive
+ * reference count, and the terms released by closed scopes are deleted by
+ * the next collection.
+ *
+ * Every collection is reported to the listeners, as a JFR event
+ * (com.sri.yices.TermGc), and in the pause-time statistics.
+ */
+public final class TermGc {
+
+    /**
+     * Result of one collection
+     */
+    public static final class Result {
+        public final String reason;
+        public final long pauseNanos;
+        public final int termsBefore;
+        public final int termsAfter;
+        public final int typesBefore;
+        public final int typesAfter;
+        public final int roots;
+
+        Result(String reason, long pauseNanos, int termsBefore, int termsAfter,
+                   int typesBefore, int typesAfter, int roots) {
+            this.reason = reason;
+            this.pauseNanos = pauseNanos;
+            this.termsBefore = termsBefore;
+            this.termsAfter = termsAfter;
+            this.typesBefore = typesBefore;
+            this.typesAfter = typesAfter;
+            this.roots = roots;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("term gc (%s): %d -> %d terms, %d -> %d types, %d roots, pause %.3f ms",
+                                 reason, termsBefore, termsAfter, typesBefore, typesAfter, roots, pauseNanos / 1e6);
+        }
+    }
+
+    /**
+     * Pause time statistics (in nanoseconds)
+     */
+    public static final class Stats {
+        public final long collections;
+        public final long totalPause;
+        public final long maxPause;
+        public final long p50Pause;
+        public final long p99Pause;
+        public final long termsFreed;
+
+        Stats(long collections, long totalPause, LatencyHistogram.Snapshot h, long termsFreed) {
+            this.collections = collections;
+            this.totalPause = totalPause;
+            this.maxPause = h.max;
+            this.p50Pause = h.percentile(0.5);
+            this.p99Pause = h.percentile(0.99);
+            this.termsFreed = termsFreed;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%d collections, %d terms freed, pause total %.3f ms, p50 %.3f ms, p99 %.3f ms, max %.3f ms",
+                                 collections, termsFreed, totalPause / 1e6, p50Pause / 1e6, p99Pause / 1e6, maxPause / 1e6);
+        }
+    }
+
+    private TermGc() { }
+
+    // all fields are protected by the class lock
+    private static final Map<Integer, Integer> termRoots = new HashMap<>();
+    private static final Map<Integer, Integer> typeRoots = new HashMap<>();
+    private static int highWatermark = 1 << 20;
+    private static double growth = 2.0;
+    private static int trigger = highWatermark;
+    private static boolean keepNamed = true;
+    private static boolean pressure = false;
+    private static long collections = 0;
+    private static long totalPause = 0;
+    private static long termsFreed = 0;
+    private static final LatencyHistogram pauses = new LatencyHistogram();
+
+    private static final List<Consumer<Result>> listeners = new CopyOnWriteArrayList<>();
+
+    /*
+     * ROOTS
+     */
+
+    /**
+     * Root term t: returns a handle with count 1.
+     */
+    public static TermHandle handle(int t) {
+        if (t < 0) throw new IllegalArgumentException("invalid term");
+        synchronized (TermGc.class) {
+            termRoots.merge(t, 1, Integer::sum);
+        }
+        return new TermHandle(t, false);
+    }
+
+    /**
+     * Root type tau: returns a handle with count 1.
+     */
+    public static TermHandle typeHandle(int tau) {
+        if (tau < 0) throw new IllegalArgumentException("invalid type");
+        synchronized (TermGc.class) {
+            typeRoots.merge(tau, 1, Integer::sum);
+        }
+        return new TermHandle(tau, true);
+    }
+
+    // called when a handle's count reaches 0
+    static void unroot(int id, boolean isType) {
+        synchronized (TermGc.class) {
+            Map<Integer, Integer> roots = isType ? typeRoots : termRoots;
+            roots.computeIfPresent(id, (k, n) -> n == 1 ? null : n - 1);
+        }
+    }
+
+    public static synchronized boolean isRoot(int t) {
+        return termRoots.containsKey(t);
+    }
+
+    public static synchronized int numRoots() {
+        return termRoots.size() + typeRoots.size();
+    }
+
+    /*
+     * POLICY
+     */
+
+    /**
+     * Set the watermark: maybeCollect runs a collection when there are
+     * at least highWatermark terms. After a collection with n live terms,
+     * the next collection is triggered at max(highWatermark, growth * n).
+     */
+    public static synchronized void setWatermark(int highWatermark, double growth) {
+        if (highWatermark <= 0) throw new IllegalArgumentException("watermark must be positive");
+        if (growth < 1.0) throw new IllegalArgumentException("growth must be at least 1");
+        TermGc.highWatermark = highWatermark;
+        TermGc.growth = growth;
+        TermGc.trigger = highWatermark;
+    }
+
+    public static synchronized int getWatermark() { return highWatermark; }
+
+    // number of terms that triggers the next collection
+    public static synchronized int getTrigger() { return trigger; }
+
+    public static synchronized void setKeepNamed(boolean keep) { keepNamed = keep; }
+
+    /**
+     * Signal memory pressure: the next maybeCollect runs a collection
+     * regardless of the watermark. (This can be called from any thread,
+     * e.g., from a heap usage notification.)
+     */
+    public static synchronized void memoryPressure() { pressure = true; }
+
+    /**
+     * Run a collection if the number of terms reached the trigger or
+     * if memory pressure was signaled. Return the collection or null.
+     */
+    public static Result maybeCollect() {
+        String reason = null;
+        synchronized (TermGc.class) {
+            if (pressure) {
+                reason = "memory pressure";
+            } else if (Yices.yicesNumTerms() >= trigger) {
+                reason = "watermark";
+            }
+        }
+        return reason == null ? null : collect(reason);
+    }
+
+    /**
+     * Run a collection now
+     */
+    public static Result collect() {
+        return collect("explicit");
+    }
+
+    private static Result collect(String reason) {
+        Result c;
+        synchronized (TermGc.class) {
+            c = doCollect(reason);
+        }
+        for (Consumer<Result> l: listeners) {
+            l.accept(c);
+        }
+        return c;
+    }
+
+    private static Result doCollect(String reason) {
+        int[] terms = rootArray(termRoots, Terms.ZERO, Terms.ONE, Terms.MINUS_ONE);
+        int[] types = rootArray(typeRoots, Types.BV8, Types.BV16, Types.BV32, Types.BV64);
+        int termsBefore = Yices.yicesNumTerms();
+        int typesBefore = Yices.yicesNumTypes();
+        SolverEvents.TermGcEvent event = new SolverEvents.TermGcEvent();
+        event.begin();
+        long start = System.nanoTime();
+        Yices.yicesGarbageCollect(terms, types, keepNamed);
+        long pause = System.nanoTime() - start;
+        event.end();
+        int termsAfter = Yices.yicesNumTerms();
+        int typesAfter = Yices.yicesNumTypes();
+
+        pressure = false;
+        trigger = (int) Math.min(Integer.MAX_VALUE, Math.max(highWatermark, (long) (growth * termsAfter)));
+        collections ++;
+        totalPause += pause;
+        termsFreed += Math.max(0, termsBefore - termsAfter);
+        pauses.record(pause);
+
+        if (event.shouldCommit()) {
+            event.reason = reason;
+            event.termsBefore = termsBefore;
+            event.termsAfter = termsAfter;
+            event.roots = terms.length + types.length;
+            event.commit();
+        }
+        return new Result(reason, pause, termsBefore, termsAfter, typesBefore, typesAfter, terms.length + types.length);
+    }
+
+    private static int[] rootArray(Map<Integer, Integer> roots, int... constants) {
+        int[] a = new int[roots.size() + constants.length];
+        int i = 0;
+        for (int x: roots.keySet()) a[i++] = x;
+        for (int x: constants) a[i++] = x;
+        return a;
+    }
+
+    /*
+     * REPORTING
+     */
+    public static void addListener(Consumer<Result> listener) {
+        listeners.add(listener);
+    }
+
+    public static void removeListener(Consumer<Result> listener) {
+        listeners.remove(listener);
+    }
+
+    public static synchronized Stats getStats() {
+        return new Stats(collections, totalPause, pauses.snapshot(), termsFreed);
+    }
+}
@@ -0,0 +1,67 @@
+package com.sri.yices;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Reference-counted root for a term or a type.
+ *
+ * While a handle has a positive count, TermGc keeps its term (or type)
+ * alive across garbage collections. A handle starts with count 1;
+ * retain() increments it, release() (or close()) decrements it.
+ * The root is removed when the count reaches 0.
+ *
+ * Example:
+ * <pre>
+ *   try (TermHandle h = TermGc.handle(t)) {
+ *       ... TermGc.maybeCollect() won't delete t ...
+ *   }
+ * </pre>
+ */
+public final class TermHandle implements AutoCloseable {
+    private final int id;
+    private final boolean isType;
+    private final AtomicInteger count = new AtomicInteger(1);
+
+    TermHandle(int id, boolean isType) {
+        this.id = id;
+        this.isType = isType;
+    }
+
+    // the term (or type) this handle protects
+    public int get() {
+        if (count.get() <= 0) throw new IllegalStateException("handle released");
+        return id;
+    }
+
+    public boolean isType() { return isType; }
+
+    public int refCount() { return count.get(); }
+
+    public TermHandle retain() {
+        while (true) {
+            int n = count.get();
+            if (n <= 0) throw new IllegalStateException("handle released");
+            if (count.compareAndSet(n, n + 1)) return this;
+        }
+    }
+
+    public void release() {
+        int n = count.decrementAndGet();
+        if (n == 0) {
+            TermGc.unroot(id, isType);
+        } else if (n < 0) {
+            count.incrementAndGet();
+            throw new IllegalStateException("handle released");
+        }
+    }
+
+    // release one reference unless the handle is already released
+    public void close() {
+        if (count.get() > 0) release();
+    }
+
+    @Override
+    public String toString() {
+        return (isType ? "type " : "term ") + id + " (refs: " + count.get() + ")";
+    }
+}
@@ -0,0 +1,106 @@
+package com.sri.yices;
+
+import java.util.Arrays;
+
+/**
+ * Growable list of terms (or types) stored in an int array.
+ *
+ * This is meant to be reused: Context.assertFormulas, Terms.and/or and
+ * Terms.substArray accept a TermList directly and pass the
+ * backing array to the native code with the list's size, so there's no
+ * boxing or copying on the Java side.
+ */
+public final class TermList {
+    private int[] data;
+    private int size;
+
+    public TermList() {
+        this(16);
+    }
+
+    public TermList(int capacity) {
+        if (capacity < 0) throw new IllegalArgumentException("negative capacity");
+        data = new int[capacity];
+    }
+
+    // list that contains a[0 ... n-1] (not a constructor: new TermList(n) is an empty list of capacity n)
+    public static TermList of(int... a) {
+        TermList l = new TermList(0);
+        l.data = a.clone();
+        l.size = a.length;
+        return l;
+    }
+
+    public int size() { return size; }
+
+    public boolean isEmpty() { return size == 0; }
+
+    public int get(int i) {
+        if (i >= size) throw new IndexOutOfBoundsException("index " + i + " >= size " + size);
+        return data[i];
+    }
+
+    public void set(int i, int t) {
+        if (i >= size) throw new IndexOutOfBoundsException("index " + i + " >= size " + size);
+        data[i] = t;
+    }
+
+    public TermList add(int t) {
+        if (size == data.length) grow(size + 1);
+        data[size++] = t;
+        return this;
+    }
+
+    public TermList addAll(int... a) {
+        if (size + a.length > data.length) grow(size + a.length);
+        System.arraycopy(a, 0, data, size, a.length);
+        size += a.length;
+        return this;
+    }
+
+    public TermList addAll(TermList l) {
+        if (size + l.size > data.length) grow(size + l.size);
+        System.arraycopy(l.data, 0, data, size, l.size);
+        size += l.size;
+        return this;
+    }
+
+    // remove all elements (keep the backing array)
+    public void clear() {
+        size = 0;
+    }
+
+    // remove the last element and return it
+    public int removeLast() {
+        if (size == 0) throw new IndexOutOfBoundsException("empty list");
+        return data[--size];
+    }
+
+    public void ensureCapacity(int n) {
+        if (n > data.length) grow(n);
+    }
+
+    public int[] toArray() {
+        return Arrays.copyOf(data, size);
+    }
+
+    /*
+     * Backing array: elements 0 to size()-1 are the list
+     */
+    int[] array() { return data; }
+
+    private void grow(int n) {
+        int c = data.length + (data.length >> 1) + 1;
+        data = Arrays.copyOf(data, Math.max(c, n));
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder("[");
+        for (int i=0; i<size; i++) {
+            if (i > 0) sb.append(' ');
+            sb.append(data[i]);
+        }
+        return sb.append(']').toString();
+    }
+}
@@ -0,0 +1,103 @@
+package com.sri.yices;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Request-scoped reclamation of terms.
+ *
+ * Terms tracked by a scope are kept alive while the scope is open, and
+ * released when it's closed, unless they are escaped:
+ * <pre>
+ *   TermHandle result;
+ *   try (TermScope scope = TermScope.open()) {
+ *       int a = scope.track(Terms.arithLt(x, y));
+ *       int f = scope.track(Terms.and(a, ...));
+ *       ... assert, check ...
+ *       result = scope.escape(f);   // f survives the scope
+ *   }
+ *   ... use result.get(), then result.close() ...
+ *   TermGc.maybeCollect();          // between requests
+ * </pre>
+ *
+ * track(t) increments the Yices reference count of t, and close decrements
+ * the counts of all the tracked terms. Escaped terms are rooted in TermGc.
+ *
+ * Closing a scope doesn't run a collection: the released terms are deleted
+ * by the next TermGc collection (maybeCollect when the watermark is reached,
+ * or an explicit collect), unless they are still referenced otherwise.
+ * Terms built inside a scope but not tracked are not protected by the scope.
+ */
+public final class TermScope implements AutoCloseable {
+
+    private final List<TermHandle> escaped = new ArrayList<>();
+    private final TermList tracked = new TermList();
+    private final int termsAtOpen;
+    private boolean closed;
+
+    private TermScope() {
+        termsAtOpen = Yices.yicesNumTerms();
+    }
+
+    public static TermScope open() {
+        return new TermScope();
+    }
+
+    /**
+     * Keep t alive until the scope is closed. Return t.
+     */
+    public int track(int t) throws YicesException {
+        checkOpen();
+        if (Yices.yicesIncrefTerm(t) < 0) throw new YicesException();
+        tracked.add(t);
+        return t;
+    }
+
+    /**
+     * Keep t alive after the scope is closed. The caller owns the returned
+     * handle and must release it when t is no longer needed.
+     */
+    public TermHandle escape(int t) {
+        checkOpen();
+        TermHandle h = TermGc.handle(t);
+        escaped.add(h);
+        return h;
+    }
+
+    public TermHandle escapeType(int tau) {
+        checkOpen();
+        TermHandle h = TermGc.typeHandle(tau);
+        escaped.add(h);
+        return h;
+    }
+
+    // number of tracked terms (with repetitions)
+    public int numTracked() {
+        return tracked.size();
+    }
+
+    // approximate number of terms created since the scope was opened
+    public int termsCreated() {
+        return Math.max(0, Yices.yicesNumTerms() - termsAtOpen);
+    }
+
+    public List<TermHandle> getEscaped() {
+        return new ArrayList<>(escaped);
+    }
+
+    private void checkOpen() {
+        if (closed) throw new IllegalStateException("scope closed");
+    }
+
+    /**
+     * Close the scope: release the tracked terms.
+     */
+    public void close() {
+        if (closed) return;
+        closed = true;
+        for (int i=0; i<tracked.size(); i++) {
+            Yices.yicesDecrefTerm(tracked.get(i));
+        }
+        tracked.clear();
+    }
+}
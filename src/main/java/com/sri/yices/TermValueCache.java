@@ -0,0 +1,241 @@
+package com.sri.yices;
+
+import java.util.Arrays;
+
+/**
+ * Bounded map from term ids to cached values, with LRU eviction (used by CachingModel).
+ *
+ * - the index is an open-addressing hash table (linear probing) from term id
+ *   to slot number, stored in two int arrays
+ * - each slot stores the values cached for one term in parallel arrays:
+ *   a YVal, a term (value as term), and a bitvector value. Flags tell which are present.
+ * - the slots are in a doubly-linked list (int arrays prev/next) from most
+ *   recently used (head) to least recently used (tail). When all slots are
+ *   used, the tail is evicted.
+ * - the arrays start small and grow up to the capacity
+ *
+ * Not thread safe.
+ */
+final class TermValueCache {
+    static final byte YVAL = 1;
+    static final byte TERM = 2;
+    static final byte BV = 4;
+
+    private static final int EMPTY = -1;  // term ids are non-negative
+    private static final int INITIAL_SLOTS = 64;
+
+    private final int capacity;
+
+    // hash table: keys[h] = term id or EMPTY, index[h] = slot for that term
+    private int[] keys;
+    private int[] index;
+    private int mask;
+
+    // slots 0 ... size-1 are in use
+    private int size;
+    private int[] slotKey;
+    private int[] prev;
+    private int[] next;
+    private int head;
+    private int tail;
+
+    // cached values
+    byte[] flags;
+    YVal[] yvals;
+    int[] terms;
+    boolean[][] bvs;
+
+    private long hits;
+    private long misses;
+    private long evictions;
+
+    TermValueCache(int capacity) {
+        if (capacity <= 0) throw new IllegalArgumentException("capacity must be positive");
+        this.capacity = capacity;
+        allocate(Math.min(capacity, INITIAL_SLOTS));
+    }
+
+    private void allocate(int slots) {
+        slotKey = new int[slots];
+        prev = new int[slots];
+        next = new int[slots];
+        flags = new byte[slots];
+        yvals = new YVal[slots];
+        terms = new int[slots];
+        bvs = new boolean[slots][];
+        allocateTable(slots);
+        size = 0;
+        head = EMPTY;
+        tail = EMPTY;
+    }
+
+    // table size: power of two, at least twice the number of slots
+    private void allocateTable(int slots) {
+        int n = Integer.highestOneBit(Math.max(2 * slots - 1, 1)) << 1;
+        keys = new int[n];
+        index = new int[n];
+        Arrays.fill(keys, EMPTY);
+        mask = n - 1;
+    }
+
+    int capacity() {
+        return capacity;
+    }
+
+    int size() {
+        return size;
+    }
+
+    long hits() {
+        return hits;
+    }
+
+    long misses() {
+        return misses;
+    }
+
+    long evictions() {
+        return evictions;
+    }
+
+    void clear() {
+        Arrays.fill(keys, EMPTY);
+        Arrays.fill(flags, 0, size, (byte) 0);
+        Arrays.fill(yvals, 0, size, null);
+        Arrays.fill(bvs, 0, size, null);
+        size = 0;
+        head = EMPTY;
+        tail = EMPTY;
+    }
+
+    private static int hash(int key) {
+        int h = key * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    /*
+     * Slot for term t if it has a value of the given kind (and mark the slot
+     * as most recently used), or -1. This counts as a hit or a miss.
+     */
+    int lookup(int t, byte kind) {
+        int h = hash(t) & mask;
+        int k;
+        while ((k = keys[h]) != EMPTY) {
+            if (k == t) {
+                int s = index[h];
+                if ((flags[s] & kind) != 0) {
+                    hits++;
+                    moveToHead(s);
+                    return s;
+                }
+                break;
+            }
+            h = (h + 1) & mask;
+        }
+        misses++;
+        return -1;
+    }
+
+    /*
+     * Slot for term t: existing or new (possibly evicting the least recently used term)
+     * The caller must store a value and set the flag.
+     */
+    int slotFor(int t) {
+        int h = hash(t) & mask;
+        int k;
+        while ((k = keys[h]) != EMPTY) {
+            if (k == t) {
+                int s = index[h];
+                moveToHead(s);
+                return s;
+            }
+            h = (h + 1) & mask;
+        }
+
+        int s;
+        if (size < slotKey.length) {
+            s = size++;
+        } else if (size < capacity) {
+            grow();
+            s = size++;
+            h = hash(t) & mask;
+            while (keys[h] != EMPTY) h = (h + 1) & mask;
+        } else {
+            s = tail;
+            unlink(s);
+            remove(slotKey[s]);
+            evictions++;
+            flags[s] = 0;
+            yvals[s] = null;
+            bvs[s] = null;
+            h = hash(t) & mask;
+            while (keys[h] != EMPTY) h = (h + 1) & mask;
+        }
+        keys[h] = t;
+        index[h] = s;
+        slotKey[s] = t;
+        pushHead(s);
+        return s;
+    }
+
+    private void grow() {
+        int n = Math.min(capacity, 2 * slotKey.length);
+        slotKey = Arrays.copyOf(slotKey, n);
+        prev = Arrays.copyOf(prev, n);
+        next = Arrays.copyOf(next, n);
+        flags = Arrays.copyOf(flags, n);
+        yvals = Arrays.copyOf(yvals, n);
+        terms = Arrays.copyOf(terms, n);
+        bvs = Arrays.copyOf(bvs, n);
+        allocateTable(n);
+        for (int s=0; s<size; s++) {
+            int h = hash(slotKey[s]) & mask;
+            while (keys[h] != EMPTY) h = (h + 1) & mask;
+            keys[h] = slotKey[s];
+            index[h] = s;
+        }
+    }
+
+    // remove key t from the hash table (backward-shift deletion)
+    private void remove(int t) {
+        int h = hash(t) & mask;
+        while (keys[h] != t) h = (h + 1) & mask;
+        int hole = h;
+        int j = hole;
+        for (;;) {
+            j = (j + 1) & mask;
+            int k = keys[j];
+            if (k == EMPTY) break;
+            int home = hash(k) & mask;
+            // k can move to the hole if its home is not in the cyclic interval (hole, j]
+            if (((j - home) & mask) >= ((j - hole) & mask)) {
+                keys[hole] = k;
+                index[hole] = index[j];
+                hole = j;
+            }
+        }
+        keys[hole] = EMPTY;
+    }
+
+    private void pushHead(int s) {
+        prev[s] = EMPTY;
+        next[s] = head;
+        if (head != EMPTY) prev[head] = s;
+        head = s;
+        if (tail == EMPTY) tail = s;
+    }
+
+    private void unlink(int s) {
+        int p = prev[s];
+        int n = next[s];
+        if (p != EMPTY) next[p] = n; else head = n;
+        if (n != EMPTY) prev[n] = p; else tail = p;
+    }
+
+    private void moveToHead(int s) {
+        if (head != s) {
+            unlink(s);
+            pushHead(s);
+        }
+    }
+}
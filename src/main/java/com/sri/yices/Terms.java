@@ -2,6 +2,8 @@ package com.sri.yices;
 
 import java.math.BigDecimal;
 import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
 
 import java.util.List;
 
@@ -56,8 +58,10 @@ public class Terms {
      * - bvConst(n, x): convert x to an n-bit constant
      *   if n < 64, then x is truncated (i.e., only the n lower bits are used).
      *   if n > 64, then x is sign-extended to n bits
-     *
-     *  FIXME: add a bvConst constructor that takes a BigInteger x as value
+     * - bvConst(n, w): n-bit constant from words w (bit i is bit (i % 64) of w[i/64]),
+     *   w must have at least (n+63)/64 elements. The extra high-order bits are ignored.
+     * - bvConst(n, x) with x a BigInteger: the n low-order bits of x in two's complement
+     *   (i.e., x is truncated or sign-extended to n bits)
      */
     static public int bvConst(int n, long x) throws YicesException {
         int t = Yices.bvConst(n, x);
@@ -65,6 +69,19 @@ public class Terms {
         return t;
     }
 
+    static public int bvConst(int n, long[] w) throws YicesException {
+        if (n <= 0) throw new IllegalArgumentException("bitvector size must be positive");
+        if (w.length < BitVectors.numWords(n)) throw new IllegalArgumentException("array too small");
+        int t = Yices.bvConstFromWords(n, w);
+        if (t < 0) throw new YicesException();
+        return t;
+    }
+
+    static public int bvConst(int n, BigInteger x) throws YicesException {
+        if (n <= 0) throw new IllegalArgumentException("bitvector size must be positive");
+        return bvConst(n, BitVectors.toWords(x, n));
+    }
+
     static public int bvZero(int n) throws YicesException {
         if (n < 0) throw new IllegalArgumentException("negative bitvector size");
         int t = Yices.bvZero(n);
@@ -468,6 +485,28 @@ public class Terms {
         return and(arg.stream().mapToInt(Integer::intValue).toArray());
     }
 
+    static public int and(TermList arg) throws YicesException {
+        int t = Yices.andN(arg.array(), arg.size());
+        if (t < 0) throw new YicesException();
+        return t;
+    }
+
+    /*
+     * Direct buffer variants: the arguments are b[offset ... offset+length-1]
+     * - b must be a direct buffer in native byte order (see Yices.and)
+     */
+    static public int and(IntBuffer b, int offset, int length) throws YicesException {
+        int t = Yices.and(b, offset, length);
+        if (t < 0) throw new YicesException();
+        return t;
+    }
+
+    static public int and(ByteBuffer b, int offset, int length) throws YicesException {
+        int t = Yices.and(b, offset, length);
+        if (t < 0) throw new YicesException();
+        return t;
+    }
+
     static public int or(int... arg) throws YicesException {
         int t = Yices.or(arg);
         if (t < 0) throw new YicesException();
@@ -478,6 +517,24 @@ public class Terms {
         return or(arg.stream().mapToInt(Integer::intValue).toArray());
     }
 
+    static public int or(TermList arg) throws YicesException {
+        int t = Yices.orN(arg.array(), arg.size());
+        if (t < 0) throw new YicesException();
+        return t;
+    }
+
+    static public int or(IntBuffer b, int offset, int length) throws YicesException {
+        int t = Yices.or(b, offset, length);
+        if (t < 0) throw new YicesException();
+        return t;
+    }
+
+    static public int or(ByteBuffer b, int offset, int length) throws YicesException {
+        int t = Yices.or(b, offset, length);
+        if (t < 0) throw new YicesException();
+        return t;
+    }
+
 
     static public int xor(int... arg) throws YicesException {
         int t = Yices.xor(arg);
@@ -1304,6 +1361,29 @@ public class Terms {
         return b;
     }
 
+    // value of x packed into words (see Model.bvValueAsLong, bvValueAsWords, bvValueAsBigInteger)
+    static public long bvConstValueAsLong(int x) throws YicesException {
+        long[] a = new long[1];
+        int n = Yices.bvConstValueAsWords(x, a);
+        if (n < 0) throw new YicesException();
+        if (n > 64) throw new IllegalArgumentException("bitvector has more than 64 bits");
+        return a[0];
+    }
+
+    static public int bvConstValueAsWords(int x, long[] a) throws YicesException {
+        int n = Yices.bvConstValueAsWords(x, a);
+        if (n < 0) throw new YicesException();
+        if (a.length < BitVectors.numWords(n)) throw new IllegalArgumentException("array too small");
+        return n;
+    }
+
+    static public BigInteger bvConstValueAsBigInteger(int x) throws YicesException {
+        long[] a = new long[BitVectors.numWords(Yices.termBitSize(x))];
+        int n = Yices.bvConstValueAsWords(x, a);
+        if (n < 0) throw new YicesException();
+        return BitVectors.toBigInteger(a, 0, a.length);
+    }
+
     // value of an arithmetic constant returned as a BigRational
     static public BigRational arithConstValue(int x) throws YicesException {
         BigRational r = Yices.rationalConstValue(x);
@@ -1393,12 +1473,35 @@ public class Terms {
         return subst(t, av, amap);
      }
 
+     /*
+      * Same thing with a substitution stored in direct buffers:
+      * variables are v[voffset ... voffset+n-1], values are map[moffset ... moffset+n-1]
+      */
+     static public int subst(int t, IntBuffer v, int voffset, IntBuffer map, int moffset, int n) throws YicesException {
+         int w = Yices.substTerm(t, v, voffset, map, moffset, n);
+         if (w < 0) throw new YicesException();
+         return w;
+     }
+
+     static public int subst(int t, ByteBuffer v, int voffset, ByteBuffer map, int moffset, int n) throws YicesException {
+         int w = Yices.substTerm(t, v, voffset, map, moffset, n);
+         if (w < 0) throw new YicesException();
+         return w;
+     }
+
      static public void substArray(int[] a, int[] v, int[] map) throws YicesException {
          if (v.length != map.length) throw new IllegalArgumentException("bad substitution");
          int code = Yices.substTermArray(a, v, map);
          if (code < 0) throw new YicesException();
      }
 
+    // apply the substitution v := map to all elements of a (a is modified in place)
+    static public void substArray(TermList a, TermList v, TermList map) throws YicesException {
+        if (v.size() != map.size()) throw new IllegalArgumentException("bad substitution");
+        int code = Yices.substTermArrayN(a.array(), a.size(), v.array(), map.array(), v.size());
+        if (code < 0) throw new YicesException();
+    }
+
     static public void substArray(List<Integer> a, List<Integer> v, List<Integer> map) throws YicesException {
         int[] aa =  a.stream().mapToInt(Integer::intValue).toArray();
         int[] av =  v.stream().mapToInt(Integer::intValue).toArray();
@@ -0,0 +1,119 @@
+package com.sri.yices;
+
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Process-wide scheduler for check timeouts and cancellation.
+ *
+ * All timed checks share one daemon thread. When a deadline expires,
+ * the scheduler calls Yices.stopSearch on the context.
+ *
+ * Each check on a context gets a new generation number (begin). A stop
+ * request only stops the search if it belongs to the current generation,
+ * and ending a check bumps the generation under the same lock. So a timer
+ * that fires late (or a late cancellation) can't interrupt a later check
+ * on the same context.
+ *
+ * If a stop is requested while the context is not SEARCHING, the search
+ * hasn't started yet: the context is IDLE, or it still has the status of
+ * the previous check (SAT, UNSAT, UNKNOWN, INTERRUPTED). The stop is then
+ * retried every millisecond until the search starts or the check ends.
+ */
+final class Timeouts {
+    private static final ScheduledThreadPoolExecutor scheduler;
+
+    // delay before retrying a stop when the search hasn't started yet
+    private static final long RETRY_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    static {
+        scheduler = new ScheduledThreadPoolExecutor(1, r -> {
+                Thread t = new Thread(r, "yices-timeouts");
+                t.setDaemon(true);
+                return t;
+            });
+        scheduler.setRemoveOnCancelPolicy(true);
+    }
+
+    private Timeouts() { }
+
+    /*
+     * Start a new check generation on ctx
+     */
+    static long begin(Context ctx) {
+        synchronized (ctx.timeoutLock) {
+            return ++ ctx.checkGeneration;
+        }
+    }
+
+    /*
+     * End the check of the given generation: pending stops become stale
+     */
+    static void end(Context ctx, long generation) {
+        synchronized (ctx.timeoutLock) {
+            if (ctx.checkGeneration == generation) ctx.checkGeneration ++;
+        }
+    }
+
+    /*
+     * Stop the search of the given generation if it's still running
+     */
+    static void stop(Context ctx, long generation) {
+        new Stop(ctx, generation).run();
+    }
+
+    private static final class Stop implements Runnable {
+        private final Context ctx;
+        private final long generation;
+
+        Stop(Context ctx, long generation) {
+            this.ctx = ctx;
+            this.generation = generation;
+        }
+
+        @Override
+        public void run() {
+            synchronized (ctx.timeoutLock) {
+                if (ctx.checkGeneration != generation) return; // stale
+                Status status = Status.idToStatus(Yices.contextStatus(ctx.getPtr()));
+                if (status == Status.SEARCHING) {
+                    Yices.stopSearch(ctx.getPtr());
+                } else {
+                    // not started yet: retry until the generation ends
+                    scheduler.schedule(this, RETRY_NANOS, TimeUnit.NANOSECONDS);
+                }
+            }
+        }
+    }
+
+    /**
+     * A deadline for one check on a context.
+     */
+    static final class Deadline {
+        private final Context ctx;
+        private final long generation;
+        private final ScheduledFuture<?> future;
+
+        private Deadline(Context ctx, long delay, TimeUnit unit) {
+            this.ctx = ctx;
+            this.generation = begin(ctx);
+            this.future = scheduler.schedule(new Stop(ctx, generation), Math.max(delay, 0), unit);
+        }
+
+        /*
+         * Must be called when the check returns (even if it fails).
+         */
+        void disarm() {
+            end(ctx, generation);
+            future.cancel(false);
+        }
+    }
+
+    /**
+     * Start a new check generation on ctx and schedule a stop after the given delay.
+     */
+    static Deadline arm(Context ctx, long delay, TimeUnit unit) {
+        return new Deadline(ctx, delay, unit);
+    }
+}
@@ -0,0 +1,161 @@
+package com.sri.yices;
+
+import java.lang.ref.Reference;
+import java.math.BigInteger;
+
+/**
+ * Reads values from a model without allocating Java objects.
+ *
+ * The Model getters allocate a small array per call to get the result back
+ * from the native code (and BigIntegers go through byte arrays). A ValueReader
+ * keeps these arrays and reuses them, so the scalar getters below (Booleans,
+ * 64-bit integers and rationals, doubles, scalars, bitvectors of at most 64 bits)
+ * allocate nothing once the reader exists.
+ *
+ * A ValueReader is not thread safe: use one per thread. It does not own the
+ * model: closing the model makes the reader unusable.
+ *
+ * Usage:
+ * <pre>
+ *   ValueReader r = new ValueReader(model);
+ *   for (int t: terms) {
+ *     if (r.readRational(t)) {
+ *       sum += (double) r.numerator() / r.denominator();
+ *     }
+ *   }
+ * </pre>
+ */
+public final class ValueReader {
+    private final Model model;
+    private final long[] longs = new long[2];
+    private final double[] doubles = new double[1];
+    private long[] words = new long[4];
+    private int bits;
+
+    public ValueReader(Model model) {
+        if (model == null) throw new IllegalArgumentException("null model");
+        this.model = model;
+    }
+
+    public Model getModel() {
+        return model;
+    }
+
+    public boolean boolValue(int t) throws YicesException {
+        try {
+            int x = Yices.getBoolValue(model.getPtr(), t);
+            if (x < 0) throw new YicesException();
+            return x != 0;
+        } finally {
+            Reference.reachabilityFence(model);
+        }
+    }
+
+    public long integerValue(int t) throws YicesException {
+        try {
+            int code = Yices.getIntegerValue(model.getPtr(), t, longs);
+            if (code < 0) throw new YicesException();
+            return longs[0];
+        } finally {
+            Reference.reachabilityFence(model);
+        }
+    }
+
+    public double doubleValue(int t) throws YicesException {
+        try {
+            int code = Yices.getDoubleValue(model.getPtr(), t, doubles);
+            if (code < 0) throw new YicesException();
+            return doubles[0];
+        } finally {
+            Reference.reachabilityFence(model);
+        }
+    }
+
+    public int scalarValue(int t) throws YicesException {
+        try {
+            int v = Yices.getScalarValue(model.getPtr(), t);
+            if (v < 0) throw new YicesException();
+            return v;
+        } finally {
+            Reference.reachabilityFence(model);
+        }
+    }
+
+    /*
+     * Rationals: readRational returns false if the value of t doesn't fit in
+     * 64 bits (or if there's an error). Otherwise, the value is numerator()/denominator()
+     * until the next call to readRational.
+     */
+    public boolean readRational(int t) {
+        try {
+            return Yices.getRationalValue(model.getPtr(), t, longs) >= 0;
+        } finally {
+            Reference.reachabilityFence(model);
+        }
+    }
+
+    public long numerator() {
+        return longs[0];
+    }
+
+    public long denominator() {
+        return longs[1];
+    }
+
+    /*
+     * Arbitrary size numbers: these try the 64-bit path first so only the
+     * result is allocated for small values.
+     */
+    public BigInteger bigIntegerValue(int t) throws YicesException {
+        try {
+            if (Yices.getIntegerValue(model.getPtr(), t, longs) >= 0) {
+                return BigInteger.valueOf(longs[0]);
+            }
+            return model.bigIntegerValue(t);
+        } finally {
+            Reference.reachabilityFence(model);
+        }
+    }
+
+    public BigRational bigRationalValue(int t) throws YicesException {
+        if (readRational(t) && longs[1] > 0) {
+            return new BigRational(BigInteger.valueOf(longs[0]), BigInteger.valueOf(longs[1]));
+        }
+        return model.bigRationalValue(t);
+    }
+
+    /*
+     * Bitvectors:
+     * - bvValueAsLong: value of a bitvector of at most 64 bits (zero-extended)
+     * - readBv: read the value of t, return its number of bits n, then
+     *   bvWord(k) is bits 64k to 64k+63 of the value (for 0 <= k < (n+63)/64)
+     *   until the next call to readBv
+     * The scratch buffer grows to the largest bitvector read so far.
+     */
+    public long bvValueAsLong(int t) throws YicesException {
+        int n = readBv(t);
+        if (n > 64) throw new IllegalArgumentException("bitvector has more than 64 bits");
+        return words[0];
+    }
+
+    public int readBv(int t) throws YicesException {
+        try {
+            int n = Yices.getBvValueAsWords(model.getPtr(), t, words);
+            if (n < 0) throw new YicesException();
+            if (BitVectors.numWords(n) > words.length) {
+                words = new long[BitVectors.numWords(n)];
+                n = Yices.getBvValueAsWords(model.getPtr(), t, words);
+                if (n < 0) throw new YicesException();
+            }
+            bits = n;
+            return n;
+        } finally {
+            Reference.reachabilityFence(model);
+        }
+    }
+
+    public long bvWord(int k) {
+        if (k < 0 || k >= BitVectors.numWords(bits)) throw new IndexOutOfBoundsException("no word " + k);
+        return words[k];
+    }
+}
@@ -1,6 +1,10 @@
 package com.sri.yices;
 
 import java.math.BigInteger;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
 
 public final class Yices {
     private static boolean is_ready;
@@ -99,6 +103,20 @@ public final class Yices {
     // For testing only
     public static native void testException();
 
+    /*
+     * Native profiling: every native method of this class counts its calls
+     * and measures their duration when native profiling is enabled.
+     * - nativeProfileNames returns the JNI names of the methods called so far
+     * - nativeProfileData stores the number of calls and total time (in nanoseconds)
+     *   of method i in data[2i] and data[2i+1]; it returns the number of methods
+     * Use Profiler.instrumentNatives and Profiler.getNativeStats.
+     */
+    public static native void setNativeProfiling(boolean enabled);
+    public static native boolean isNativeProfilingEnabled();
+    public static native String[] nativeProfileNames();
+    public static native int nativeProfileData(long[] data);
+    public static native void resetNativeProfile();
+
     /*
      * TYPES
      */
@@ -267,6 +285,9 @@ public final class Yices {
     // this converts x to a bitvector: x[0] = low-order bit, x[n-1] = high-order bit,
     // where n = array length (n must be positive).
     public static native int bvConstFromIntArray(int... x);
+    // this converts words w to an n-bit constant: bit i is bit (i % 64) of w[i/64]
+    // (w must have at least (n+63)/64 elements, the extra high-order bits are ignored).
+    public static native int bvConstFromWords(int n, long[] w);
     public static native int parseBvBin(String s);
     public static native int parseBvHex(String x);
 
@@ -393,6 +414,9 @@ public final class Yices {
     public static native int boolConstValue(int x);      // returns -1 for error, 0 for false, 1 for true
     public static native int scalarConstantIndex(int x); // -1 for error
     public static native boolean[] bvConstValue(int x);  // null for error, or an array of n Booleans little-endian
+    // same thing packed in w: bit i is bit (i % 64) of w[i/64]. Returns n or -1 for error.
+    // If w is too small, only the low-order words are stored.
+    public static native int bvConstValueAsWords(int x, long[] w);
     private static native byte[] rationalConstNumAsBytes(int x); // null for error
     private static native byte[] rationalConstDenAsBytes(int x); // null for error
 
@@ -440,6 +464,17 @@ public final class Yices {
     public static native int substTerm(int t, int[] v, int[] map);
     public static native int substTermArray(int[] a, int[] v, int[] map);
 
+    /*
+     * Batched term construction (see TermBatch)
+     *
+     * replayTermBatch(code, length, terms): execute the first length words of code.
+     * Each instruction builds one term and stores it in terms[slot] (slots are numbered
+     * from 0 in order). Return the number of terms built. If this is less than the number
+     * of instructions, then the instruction at that slot failed and the error is available
+     * via errorCode/errorString/errorReport.
+     */
+    public static native int replayTermBatch(int[] code, int length, int[] terms);
+
 
     /*
      * GARBAGE COLLECTION
@@ -492,6 +527,15 @@ public final class Yices {
     public static native int checkContextWithInterpolation(long ctxA, long ctxB, long params, long[] model, int[] interpolant);
 
     public static native int assertBlockingClause(long ctx);
+
+    /*
+     * One step of model enumeration (used by Context.enumerateModels):
+     * check ctx with params (0 for the defaults). If the result is SAT, store the values
+     * of vars[i] as constant terms into values[i], free the model, and assert the
+     * blocking clause (or (/= vars[0] values[0]) ... (/= vars[n-1] values[n-1])).
+     * Returns the status code or -1 for error.
+     */
+    public static native int enumerateNext(long ctx, long params, int[] vars, int[] values);
     public static native void stopSearch(long ctx);
     public static native long newParamRecord();
     public static native void defaultParamsForContext(long ctx, long params);
@@ -504,6 +548,94 @@ public final class Yices {
     // since 2.6.4
     public static native int getModelInterpolant(long ctx);
 
+    /*
+     * DIRECT BUFFERS
+     *
+     * Variants of and/or/assertFormulas/substTerm/checkContextWithAssumptions that
+     * read their term arguments from a direct buffer instead of an int array.
+     * This avoids the copy made by the JVM when the native code accesses an int array.
+     *
+     * - the buffer must be direct and use the native byte order
+     * - offset and length are counted in 32bit integers from the start of
+     *   the buffer (i.e., the buffer's position and limit are ignored)
+     * - the buffer is not modified
+     */
+    private static native int andDirect(Buffer b, int offset, int length);
+    private static native int orDirect(Buffer b, int offset, int length);
+    private static native int assertFormulasDirect(long ctx, Buffer b, int offset, int length);
+    private static native int substTermDirect(int t, Buffer v, int voffset, Buffer map, int moffset, int length);
+    private static native int checkContextWithAssumptionsDirect(long ctx, long params, Buffer b, int offset, int length);
+
+    public static int and(IntBuffer b, int offset, int length) {
+        checkDirect(b, b.order(), b.capacity(), offset, length);
+        return andDirect(b, offset, length);
+    }
+
+    public static int and(ByteBuffer b, int offset, int length) {
+        checkDirect(b, b.order(), b.capacity() >> 2, offset, length);
+        return andDirect(b, offset, length);
+    }
+
+    public static int or(IntBuffer b, int offset, int length) {
+        checkDirect(b, b.order(), b.capacity(), offset, length);
+        return orDirect(b, offset, length);
+    }
+
+    public static int or(ByteBuffer b, int offset, int length) {
+        checkDirect(b, b.order(), b.capacity() >> 2, offset, length);
+        return orDirect(b, offset, length);
+    }
+
+    public static int assertFormulas(long ctx, IntBuffer b, int offset, int length) {
+        checkDirect(b, b.order(), b.capacity(), offset, length);
+        return assertFormulasDirect(ctx, b, offset, length);
+    }
+
+    public static int assertFormulas(long ctx, ByteBuffer b, int offset, int length) {
+        checkDirect(b, b.order(), b.capacity() >> 2, offset, length);
+        return assertFormulasDirect(ctx, b, offset, length);
+    }
+
+    public static int substTerm(int t, IntBuffer v, int voffset, IntBuffer map, int moffset, int length) {
+        checkDirect(v, v.order(), v.capacity(), voffset, length);
+        checkDirect(map, map.order(), map.capacity(), moffset, length);
+        return substTermDirect(t, v, voffset, map, moffset, length);
+    }
+
+    public static int substTerm(int t, ByteBuffer v, int voffset, ByteBuffer map, int moffset, int length) {
+        checkDirect(v, v.order(), v.capacity() >> 2, voffset, length);
+        checkDirect(map, map.order(), map.capacity() >> 2, moffset, length);
+        return substTermDirect(t, v, voffset, map, moffset, length);
+    }
+
+    public static int checkContextWithAssumptions(long ctx, long params, IntBuffer b, int offset, int length) {
+        checkDirect(b, b.order(), b.capacity(), offset, length);
+        return checkContextWithAssumptionsDirect(ctx, params, b, offset, length);
+    }
+
+    public static int checkContextWithAssumptions(long ctx, long params, ByteBuffer b, int offset, int length) {
+        checkDirect(b, b.order(), b.capacity() >> 2, offset, length);
+        return checkContextWithAssumptionsDirect(ctx, params, b, offset, length);
+    }
+
+    /*
+     * Variants that use only a prefix of the array: a[0 ... n-1] (see TermList)
+     * - n must be between 0 and a.length
+     * - substTermArrayN applies the substitution to a[0 ... na-1]
+     *   and to v[0 ... n-1] := map[0 ... n-1]
+     */
+    public static native int andN(int[] a, int n);
+    public static native int orN(int[] a, int n);
+    public static native int assertFormulasN(long ctx, int[] a, int n);
+    public static native int substTermArrayN(int[] a, int na, int[] v, int[] map, int n);
+
+    // capacity is the number of 32bit integers in b
+    private static void checkDirect(Buffer b, ByteOrder order, int capacity, int offset, int length) {
+        if (!b.isDirect()) throw new IllegalArgumentException("buffer is not direct");
+        if (order != ByteOrder.nativeOrder()) throw new IllegalArgumentException("buffer is not in native byte order");
+        if (offset < 0 || length < 0 || offset > capacity - length) throw new IndexOutOfBoundsException("offset or length out of range");
+    }
+
     /*
      * MODELS
      */
@@ -576,6 +708,11 @@ public final class Yices {
     // return null if there's an error
     public static native boolean[] getBvValue(long model, int t);
 
+    // Same thing packed in w: bit i is bit (i % 64) of w[i/64]
+    // return the number of bits or -1 if there's an error
+    // If w is too small, only the low-order words are stored.
+    public static native int getBvValueAsWords(long model, int t, long[] w);
+
     // Value (i.e., index) of a scalar or uninterpreted term
     // return -1 if there's an error.
     public static native int getScalarValue(long model, int t);
@@ -603,6 +740,28 @@ public final class Yices {
      */
     public static native int valuesAsTerms(long model, int[] in, int[] out);
 
+    /*
+     * Values of terms[0 ... n-1] in model, in one pass (used by ModelSnapshot).
+     * - kinds, values, and aux must have at least n elements
+     * - bools must have at least (n+63)/64 elements
+     * - out must have at least two elements
+     *
+     * On return:
+     * - kinds[i] = kind of the value of terms[i] (see ModelSnapshot)
+     * - Booleans: bit i of bools is set if terms[i] is true
+     * - integers and rationals that fit in 64 bits: values[i] = numerator, aux[i] = denominator
+     * - bitvectors: values[i] = offset in the word array, aux[i] = number of bits
+     * - scalars: values[i] = index
+     * - other numbers: values[i] = k, their numerator and denominator are stored as
+     *   byte arrays in table[2k] and table[2k+1] (table[2k+1] is null for an integer)
+     * - out[0] = word array (a long[]), out[1] = table (a byte[][] or null)
+     *
+     * Returns the number of terms whose value could not be computed (kind ERROR),
+     * or -1 if the arrays are too small or we ran out of memory.
+     */
+    public static native int extractValues(long model, int[] terms, byte[] kinds, long[] values, long[] aux,
+                                           long[] bools, Object[] out);
+
     /*
      * Export the model as a String (pretty printing).
      *
@@ -774,6 +933,8 @@ public final class Yices {
     public static native int valGetDouble(long model, int tag, int id, double[] a);
 
     public static native boolean[] valGetBV(long model, int tag, int id);
+    // packed version: same conventions as getBvValueAsWords
+    public static native int valGetBVAsWords(long model, int tag, int id, long[] w);
 
 
     // These return arrays of bytes suitable for conversion to BigInteger.
@@ -0,0 +1,43 @@
+package com.sri.yices;
+
+/**
+ * Receiver for solver metrics.
+ *
+ * Once a YicesMetrics object is installed, every check (Context.check*,
+ * Delegate.checkFormula(s), InterpolationContext.check) and every successful
+ * assertion is reported to it. Implementations must be thread safe and fast:
+ * they are called on the solver threads.
+ *
+ * DefaultYicesMetrics is a dependency-free implementation that can be
+ * exported as a JMX MBean. To use another metrics library (e.g., Micrometer),
+ * implement this interface to update its counters and timers, and register
+ * gauges that read the census (ResourceTracker.getCensus) and the term table
+ * sizes (Yices.yicesNumTerms, ...).
+ */
+public interface YicesMetrics {
+
+    /**
+     * A check returned status after nanos nanoseconds
+     * (status is ERROR if the check failed).
+     */
+    void recordCheck(Status status, long nanos);
+
+    /**
+     * count formulas were asserted
+     */
+    void recordAssertions(int count);
+
+    /**
+     * Install metrics (or null to disable metrics collection).
+     */
+    static void install(YicesMetrics metrics) {
+        SolverEvents.metrics = metrics;
+    }
+
+    /**
+     * The installed metrics or null
+     */
+    static YicesMetrics installed() {
+        return SolverEvents.metrics;
+    }
+}
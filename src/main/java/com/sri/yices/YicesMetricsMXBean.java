@@ -0,0 +1,42 @@
+package com.sri.yices;
+
+/**
+ * JMX view of DefaultYicesMetrics.
+ *
+ * Counters are monotonic (rates such as checks per second are computed by
+ * the monitoring system). Times are in nanoseconds.
+ */
+public interface YicesMetricsMXBean {
+
+    // checks by status
+    long getChecks();
+    long getChecksSat();
+    long getChecksUnsat();
+    long getChecksUnknown();
+    long getChecksInterrupted();
+    long getChecksError();
+
+    // check latency
+    long getCheckTimeTotal();
+    double getCheckTimeMean();
+    long getCheckTimeP50();
+    long getCheckTimeP99();
+    long getCheckTimeP999();
+    long getCheckTimeMax();
+
+    long getAssertedFormulas();
+
+    // live objects (see ResourceTracker)
+    long getLiveContexts();
+    long getLiveModels();
+    long getLiveConfigs();
+    long getLiveParameters();
+
+    // Yices term and type tables
+    int getNumTerms();
+    int getNumTypes();
+    int getNumPosrefTerms();
+    int getNumPosrefTypes();
+
+    void reset();
+}
@@ -6,6 +6,10 @@
 
 #include <new>
 #include <limits>
+#include <atomic>
+#include <chrono>
+#include <mutex>
+#include <vector>
 
 #include "com_sri_yices_Yices.h"
 
@@ -31,11 +35,187 @@
 #define YICES_ERROR_REQUIRES_AT_LEAST_2_6_2  -262
 #define YICES_ERROR_REQUIRES_AT_LEAST_2_6_4  -264
 
+/*
+ * CACHED CLASSES AND METHOD IDS
+ */
+
+/*
+ * FindClass and GetMethodID search by name so they are expensive.
+ * We look up the classes and constructors used by the conversion functions
+ * once, when the library is loaded. The classes are kept as global references
+ * so that the method IDs remain valid.
+ */
+static jclass yval_class = NULL;
+static jmethodID yval_init = NULL;
+static jclass error_report_class = NULL;
+static jmethodID error_report_init = NULL;
+static jclass out_of_memory_class = NULL;
+static jclass string_class = NULL;
+static jclass byte_array_class = NULL;
+
+// global reference to the class or NULL if it's not found
+static jclass global_class(JNIEnv *env, const char *name) {
+  jclass local = env->FindClass(name);
+  if (local == NULL) return NULL;
+  jclass global = static_cast<jclass>(env->NewGlobalRef(local));
+  env->DeleteLocalRef(local);
+  return global;
+}
+
+JNIEXPORT jint JNICALL JNI_OnLoad(JavaVM *vm, void *) {
+  JNIEnv *env;
+
+  if (vm->GetEnv(reinterpret_cast<void **>(&env), JNI_VERSION_1_6) != JNI_OK) {
+    return JNI_ERR;
+  }
+  yval_class = global_class(env, "com/sri/yices/YVal");
+  error_report_class = global_class(env, "com/sri/yices/ErrorReport");
+  out_of_memory_class = global_class(env, "com/sri/yices/OutOfMemory");
+  string_class = global_class(env, "java/lang/String");
+  byte_array_class = global_class(env, "[B");
+  if (yval_class == NULL || error_report_class == NULL || out_of_memory_class == NULL ||
+      string_class == NULL || byte_array_class == NULL) {
+    return JNI_ERR;
+  }
+  yval_init = env->GetMethodID(yval_class, "<init>", "(II)V");
+  error_report_init = env->GetMethodID(error_report_class, "<init>", "(IIIIIIIJ)V");
+  if (yval_init == NULL || error_report_init == NULL) {
+    return JNI_ERR;
+  }
+  return JNI_VERSION_1_6;
+}
+
+JNIEXPORT void JNICALL JNI_OnUnload(JavaVM *vm, void *) {
+  JNIEnv *env;
+
+  if (vm->GetEnv(reinterpret_cast<void **>(&env), JNI_VERSION_1_6) == JNI_OK) {
+    jclass *cached[] = { &yval_class, &error_report_class, &out_of_memory_class, &string_class, &byte_array_class };
+    for (jclass *c: cached) {
+      if (*c != NULL) {
+        env->DeleteGlobalRef(*c);
+        *c = NULL;
+      }
+    }
+  }
+}
+
+
+/*
+ * NATIVE PROFILING
+ */
+
+/*
+ * Every JNI entry point starts with PROFILE_NATIVE. When native profiling
+ * is enabled, this counts the call and adds its duration (in nanoseconds)
+ * to a counter attached to the function. When it's disabled, the cost is
+ * one relaxed atomic load.
+ *
+ * The counter of a function is created on its first call and stored in
+ * native_counters. Counters are never removed so their index is stable.
+ */
+struct native_counter {
+  const char *name;
+  std::atomic<uint64_t> calls;
+  std::atomic<uint64_t> nanos;
+
+  explicit native_counter(const char *name);
+};
+
+#define MAX_NATIVE_COUNTERS 1024
+
+static std::atomic<bool> native_profiling(false);
+static native_counter *native_counters[MAX_NATIVE_COUNTERS];
+static std::atomic<int32_t> num_native_counters(0);
+static std::mutex native_counters_lock;
+
+native_counter::native_counter(const char *name): name(name), calls(0), nanos(0) {
+  std::lock_guard<std::mutex> guard(native_counters_lock);
+  int32_t n = num_native_counters.load(std::memory_order_relaxed);
+  if (n < MAX_NATIVE_COUNTERS) {
+    native_counters[n] = this;
+    num_native_counters.store(n + 1, std::memory_order_release);
+  }
+}
+
+class native_timer {
+  native_counter &counter;
+  bool active;
+  std::chrono::steady_clock::time_point start;
+
+ public:
+  explicit native_timer(native_counter &c): counter(c), active(native_profiling.load(std::memory_order_relaxed)) {
+    if (active) start = std::chrono::steady_clock::now();
+  }
+
+  ~native_timer() {
+    if (active) {
+      std::chrono::nanoseconds d = std::chrono::steady_clock::now() - start;
+      counter.calls.fetch_add(1, std::memory_order_relaxed);
+      counter.nanos.fetch_add(d.count(), std::memory_order_relaxed);
+    }
+  }
+};
+
+#define PROFILE_NATIVE \
+  static native_counter profile_counter_(__func__); \
+  native_timer profile_timer_(profile_counter_)
+
+JNIEXPORT void JNICALL Java_com_sri_yices_Yices_setNativeProfiling(JNIEnv *env, jclass, jboolean enabled) {
+  native_profiling.store(enabled, std::memory_order_relaxed);
+}
+
+JNIEXPORT jboolean JNICALL Java_com_sri_yices_Yices_isNativeProfilingEnabled(JNIEnv *env, jclass) {
+  return native_profiling.load(std::memory_order_relaxed);
+}
+
+/*
+ * Names of the functions called so far (JNI names)
+ */
+JNIEXPORT jobjectArray JNICALL Java_com_sri_yices_Yices_nativeProfileNames(JNIEnv *env, jclass) {
+  int32_t n = num_native_counters.load(std::memory_order_acquire);
+  jobjectArray result = env->NewObjectArray(n, string_class, NULL);
+  if (result == NULL) return NULL;
+  for (int32_t i=0; i<n; i++) {
+    jstring s = env->NewStringUTF(native_counters[i]->name);
+    if (s == NULL) return NULL;
+    env->SetObjectArrayElement(result, i, s);
+    env->DeleteLocalRef(s);
+  }
+  return result;
+}
+
+/*
+ * Store the number of calls and total time of function i in data[2i] and data[2i+1]
+ * (for all the functions that fit in data). Return the number of functions.
+ */
+JNIEXPORT jint JNICALL Java_com_sri_yices_Yices_nativeProfileData(JNIEnv *env, jclass, jlongArray data) {
+  int32_t n = num_native_counters.load(std::memory_order_acquire);
+  int32_t m = env->GetArrayLength(data) / 2;
+  if (m > n) m = n;
+  for (int32_t i=0; i<m; i++) {
+    jlong aux[2];
+    aux[0] = native_counters[i]->calls.load(std::memory_order_relaxed);
+    aux[1] = native_counters[i]->nanos.load(std::memory_order_relaxed);
+    env->SetLongArrayRegion(data, 2*i, 2, aux);
+  }
+  return n;
+}
+
+JNIEXPORT void JNICALL Java_com_sri_yices_Yices_resetNativeProfile(JNIEnv *env, jclass) {
+  int32_t n = num_native_counters.load(std::memory_order_acquire);
+  for (int32_t i=0; i<n; i++) {
+    native_counters[i]->calls.store(0, std::memory_order_relaxed);
+    native_counters[i]->nanos.store(0, std::memory_order_relaxed);
+  }
+}
+
+
 /**
  *  Assumes that for each __YICES_VERSION __YICES_VERSION_MAJOR and __YICES_VERSION_PATCHLEVEL
  * are between 0 and less than 100.
  */
 JNIEXPORT jlong JNICALL Java_com_sri_yices_Yices_versionOrdinal(JNIEnv *env, jclass){
+  PROFILE_NATIVE;
   return (10000 * __YICES_VERSION) + (100 * __YICES_VERSION_MAJOR) + __YICES_VERSION_PATCHLEVEL;
 }
 
@@ -115,6 +295,14 @@ static inline void set_int_region(JNIEnv *env, jintArray a, jsize start, jsize e
 #endif
 }
 
+static inline void get_int_region(JNIEnv *env, jintArray a, jsize start, jsize len, int32_t *ptr){
+#ifdef MINGW
+  env->GetIntArrayRegion(a, start, len, reinterpret_cast<jint*>(ptr));
+#else
+  env->GetIntArrayRegion(a, start, len, ptr);
+#endif
+}
+
 
 /*
  * Out-of-memory handler: throws a C++ exception
@@ -136,7 +324,7 @@ static void out_of_mem_exception(JNIEnv *env) {
   jint code;
 
   code = 0;
-  e = env->FindClass("com/sri/yices/OutOfMemory");
+  e = out_of_memory_class;
   if (e == NULL) e = env->FindClass("java/lang/OutOfMemoryError");
 
   if (e != NULL) {
@@ -189,6 +377,12 @@ static jstring convertToString(JNIEnv *env, const char *s) {
  * Convert to an array of Booleans:
  * - the input is an array a of integers
  * - a[i] is converted to false if a[i] = 0 or to true if a[i] != 0
+ *
+ * The array is filled in a critical region: GetPrimitiveArrayCritical usually
+ * gives direct access to the array without copying, but the code must not call
+ * JNI functions, block, or run for long until the array is released (the GC may
+ * be disabled). So critical regions are used only for plain loops like this one,
+ * never around a yices call.
  */
 static jbooleanArray convertToBoolArray(JNIEnv *env, int32_t n, const int32_t *a) {
   jbooleanArray b;
@@ -197,20 +391,68 @@ static jbooleanArray convertToBoolArray(JNIEnv *env, int32_t n, const int32_t *a
   if (b == NULL) {
     out_of_mem_exception(env);
   } else {
-    jboolean *aux = env->GetBooleanArrayElements(b, NULL);
+    // critical region: no JNI calls until the array is released
+    jboolean *aux = static_cast<jboolean *>(env->GetPrimitiveArrayCritical(b, NULL));
     if (aux == NULL) {
       out_of_mem_exception(env);
     } else {
       for (int32_t i = 0; i<n; i++) {
         aux[i] = (a[i] != 0);
       }
-      env->ReleaseBooleanArrayElements(b, aux, 0); // copy back
+      env->ReleasePrimitiveArrayCritical(b, aux, 0); // copy back
     }
   }
 
   return b;
 }
 
+/*
+ * Pack n bits a[0 ... n-1] (one int32 per bit, little endian as returned
+ * by yices_get_bv_value) into (n+63)/64 words: bit i goes to w[i/64].
+ */
+static void pack_bits(const int32_t *a, uint32_t n, jlong *w) {
+  uint32_t nw = (n + 63) >> 6;
+  for (uint32_t k=0; k<nw; k++) {
+    w[k] = 0;
+  }
+  for (uint32_t i=0; i<n; i++) {
+    if (a[i]) {
+      w[i >> 6] |= (jlong) (((uint64_t) 1) << (i & 63));
+    }
+  }
+}
+
+/*
+ * Unpack the n low-order bits of words w[0 ... (n+63)/64 - 1]
+ * into a[0 ... n-1] (a[i] = bit i)
+ */
+static void unpack_bits(const jlong *w, uint32_t n, int32_t *a) {
+  for (uint32_t i=0; i<n; i++) {
+    a[i] = (((uint64_t) w[i >> 6]) >> (i & 63)) & 1;
+  }
+}
+
+/*
+ * Pack n bits a[0 ... n-1] then copy the words into w
+ * - if w is too small, only the low-order words are copied
+ * - returns n
+ */
+static jint copy_bits_to_words(JNIEnv *env, uint32_t n, const int32_t *a, jlongArray w) {
+  uint32_t nw = (n + 63) >> 6;
+  uint32_t len = env->GetArrayLength(w);
+  if (nw > len) nw = len;
+  if (n <= 64) {
+    jlong aux[1];
+    pack_bits(a, n, aux);
+    if (nw > 0) env->SetLongArrayRegion(w, 0, nw, aux);
+  } else {
+    std::vector<jlong> aux((n + 63) >> 6);
+    pack_bits(a, n, aux.data());
+    env->SetLongArrayRegion(w, 0, nw, aux.data());
+  }
+  return n;
+}
+
 /*
  * Clone array a: make a copy
  * - return NULL and throw an exception if we can't clone
@@ -399,6 +641,7 @@ static void byte_array_to_mpz(mpz_t z, jbyte *b, jsize n) {
  * For testing
  */
 JNIEXPORT jbyteArray JNICALL Java_com_sri_yices_Yices_testMpzToBytes(JNIEnv *env, jclass, jstring s) {
+  PROFILE_NATIVE;
   jbyteArray result = NULL;
   mpz_t z;
   const char *aux = env->GetStringUTFChars(s, NULL);
@@ -417,6 +660,7 @@ JNIEXPORT jbyteArray JNICALL Java_com_sri_yices_Yices_testMpzToBytes(JNIEnv *env
 
 
 JNIEXPORT void JNICALL Java_com_sri_yices_Yices_testBytesToMpz(JNIEnv *env, jclass, jbyteArray a) {
+  PROFILE_NATIVE;
   jsize n;
   jbyte *b;
 
@@ -443,6 +687,7 @@ JNIEXPORT void JNICALL Java_com_sri_yices_Yices_testBytesToMpz(JNIEnv *env, jcla
  * Convert the given array of bytes to an integer constant
  */
 JNIEXPORT jint JNICALL Java_com_sri_yices_Yices_bytesToIntConstant(JNIEnv *env, jclass, jbyteArray a) {
+  PROFILE_NATIVE;
   jint result = -1;
   jsize n;
   jbyte *b;
@@ -475,6 +720,7 @@ JNIEXPORT jint JNICALL Java_com_sri_yices_Yices_bytesToIntConstant(JNIEnv *env,
  * - return -1 if the denominator is zero
  */
 JNIEXPORT jint JNICALL Java_com_sri_yices_Yices_bytesToRationalConstant(JNIEnv *env, jclass, jbyteArray num, jbyteArray den) {
+  PROFILE_NATIVE;
   jint result = -1;
   jsize num_size, den_size;
   jbyte *num_bytes, *den_bytes;
@@ -588,18 +834,22 @@ static inline uint64_t *to_uint64ptr(jlong *x) {
  * VERSION DATA
  */
 JNIEXPORT jstring JNICALL Java_com_sri_yices_Yices_version(JNIEnv *env, jclass cls) {
+  PROFILE_NATIVE;
   return convertToString(env, yices_version);
 }
 
 JNIEXPORT jstring JNICALL Java_com_sri_yices_Yices_buildArch(JNIEnv *env, jclass cls) {
+  PROFILE_NATIVE;
   return convertToString(env, yices_build_arch);
 }
 
 JNIEXPORT jstring JNICALL Java_com_sri_yices_Yices_buildMode(JNIEnv *env, jclass cls) {
+  PROFILE_NATIVE;
   return convertToString(env, yices_build_mode);
 }
 
 JNIEXPORT jstring JNICALL Java_com_sri_yices_Yices_buildDate(JNIEnv *env, jclass cls) {
+  PROFILE_NATIVE;
   return convertToString(env, yices_build_date);
 }
 
@@ -608,12 +858,14 @@ JNIEXPORT jstring JNICALL Java_com_sri_yices_Yices_buildDate(JNIEnv *env, jclass
  * yices_has_mcsat returns 0 for false and 1 for true so we're good.
  */
 JNIEXPORT jboolean JNICALL Java_com_sri_yices_Yices_hasMcsat(JNIEnv *env, jclass cls) {
+  PROFILE_NATIVE;
   int32_t x = yices_has_mcsat();
   assert(0 == x || 1 == x);
   return (jboolean) x;
 }
 
 JNIEXPORT jboolean JNICALL Java_com_sri_yices_Yices_isThreadSafe(JNIEnv *env, jclass cls) {
+  PROFILE_NATIVE;
   int32_t x = yices_is_thread_safe();
   assert(0 == x || 1 == x);
   return (jboolean) x;
@@ -625,15 +877,18 @@ JNIEXPORT jboolean JNICALL Java_com_sri_yices_Yices_isThreadSafe(JNIEnv *env, jc
  * GLOBAL INITIALIZATION/EXIT/RESET
  */
 JNIEXPORT void JNICALL Java_com_sri_yices_Yices_init(JNIEnv *, jclass) {
+  PROFILE_NATIVE;
   yices_init();
   yices_set_out_of_mem_callback(throw_out_of_mem_exception);
 }
 
 JNIEXPORT void JNICALL Java_com_sri_yices_Yices_exit(JNIEnv *, jclass) {
+  PROFILE_NATIVE;
   yices_exit();
 }
 
 JNIEXPORT void JNICALL Java_com_sri_yices_Yices_reset(JNIEnv *, jclass) {
+  PROFILE_NATIVE;
   yices_reset();
 }
 
@@ -643,10 +898,12 @@ JNIEXPORT void JNICALL Java_com_sri_yices_Yices_reset(JNIEnv *, jclass) {
  * Error reports
  */
 JNIEXPORT jint JNICALL Java_com_sri_yices_Yices_errorCode(JNIEnv *, jclass) {
+  PROFILE_NATIVE;
   return yices_error_code();
 }
 
 JNIEXPORT jstring JNICALL Java_com_sri_yices_Yices_errorString(JNIEnv *env, jclass) {
+  PROFILE_NATIVE;
   jstring result;
   char *e;
 
@@ -657,21 +914,17 @@ JNIEXPORT jstring JNICALL Java_com_sri_yices_Yices_errorString(JNIEnv *env, jcla
 }
 
 JNIEXPORT void JNICALL Java_com_sri_yices_Yices_resetError(JNIEnv *, jclass) {
+  PROFILE_NATIVE;
   yices_clear_error();
 }
 
 JNIEXPORT jobject JNICALL Java_com_sri_yices_Yices_errorReport(JNIEnv *env, jclass) {
+  PROFILE_NATIVE;
   try {
     error_report_t* report = yices_error_report();
 	// now construct new ErrorReport(report->code, report->line, report->column, report->term1, report->type1, report->term2, report->type2, report->badval);
-	jclass cls = env->FindClass("com/sri/yices/ErrorReport");
-	if (cls != NULL) {
-	  jmethodID constructor = env->GetMethodID(cls, "<init>", "(IIIIIIIJ)V");
-	  if (constructor != NULL) {
-		jobject object = env->NewObject(cls, constructor, report->code, report->line, report->column, report->term1, report->type1, report->term2, report->type2, report->badval);
-		return object;
-	  }
-	}
+	return env->NewObject(error_report_class, error_report_init, report->code, report->line, report->column,
+	                      report->term1, report->type1, report->term2, report->type2, report->badval);
   } catch (std::bad_alloc &ba) {
 	out_of_mem_exception(env);
   }
@@ -680,6 +933,7 @@ JNIEXPORT jobject JNICALL Java_com_sri_yices_Yices_errorReport(JNIEnv *env, jcla
 
 // to test the throw exception code
 JNIEXPORT void JNICALL Java_com_sri_yices_Yices_testException(JNIEnv *env, jclass) {
+  PROFILE_NATIVE;
   out_of_mem_exception(env);
 }
 
@@ -690,14 +944,17 @@ JNIEXPORT void JNICALL Java_com_sri_yices_Yices_testException(JNIEnv *env, jclas
  * exceptions.
  */
 JNIEXPORT jint JNICALL Java_com_sri_yices_Yices_boolType(JNIEnv *, jclass) {
+  PROFILE_NATIVE;
   return yices_bool_type();
 }
 
 JNIEXPORT jint JNICALL Java_com_sri_yices_Yices_realType(JNIEnv *, jclass) {
+  PROFILE_NATIVE;
   return yices_real_type();
 }
 
 JNIEXPORT jint JNICALL Java_com_sri_yices_Yices_intType(JNIEnv *, jclass) {
+  PROFILE_NATIVE;
   return yices_int_type();
 }
 
@@ -706,6 +963,7 @@ JNIEXPORT jint JNICALL Java_com_sri_yices_Yices_intType(JNIEnv *, jclass) {
  * If n<0, we replace it by zero. Yices will report an error if n is 0.
  */
 JNIEXPORT jint JNICALL Java_com_sri_yices_Yices_bvType(JNIEnv *env, jclass, jint n) {
+  PROFILE_NATIVE;
   uint32_t nb = n<0 ? 0 : n;
   try {
     return yices_bv_type(nb);
@@ -719,6 +977,7 @@ JNIEXPORT jint JNICALL Java_com_sri_yices_Yices_bvType(JNIEnv *env, jclass, jint
  * Scalar type: c = cardinality: it must be positive. As above, we convert c<0 to 0.
  */
 JNIEXPORT jint JNICALL Java_com_sri_yices_Yices_newScalarType(JNIEnv *env, jclass, jint c) {
+  PROFILE_NATIVE;
   uint32_t card = c<0 ? 0 : c;
   try {
     return yices_new_scalar_type(card);
@@ -729,6 +988,7 @@ JNIEXPORT jint JNICALL Java_com_sri_yices_Yices_newScalarType(JNIEnv *env, jclas
 }
 
 JNIEXPORT jint JNICALL Java_com_sri_yices_Yices_newUninterpretedType(JNIEnv *env, jclass) {
+  PROFILE_NATIVE;
   try {
     return yices_new_uninterpreted_type();
   } catch (std::bad_alloc &ba) {
@@ -739,6 +999,7 @@ JNIEXPORT jint JNICALL Java_com_sri_yices_Yices_newUninterpretedType(JNIEnv *env
 
 
 JNIEXPORT jint JNICALL Java_com_sri_yices_Yices_tupleType(JNIEnv *env, jclass, jintArray a) {
+  PROFILE_NATIVE;
   jsize n = env->GetArrayLength(a);
   if (n == 0) {
     // force an error in Yices
@@ -762,6 +1023,7 @@ JNIEXPORT jint JNICALL Java_com_sri_yices_Yices_tupleType(JNIEnv *env, jclass, j
 
 
 JNIEXPORT jint JNICALL Java_com_sri_yices_Yices_functionType(JNIEnv *env, jclass, jint range, jintArray domain) {
+  PROFILE_NATIVE;
   jsize n = env->GetArrayLength(domain);
   if (n == 0) {
     // force an error
@@ -788,38 +1050,47 @@ JNIEXPORT jint JNICALL Java_com_sri_yices_Yices_functionType(JNIEnv *env, jclass
  * CHECK/EXPLORE TYPES
  */
 JNIEXPORT jboolean JNICALL Java_com_sri_yices_Yices_typeIsBool(JNIEnv *, jclass, jint tau) {
+  PROFILE_NATIVE;
   return yices_type_is_bool(tau);
 }
 
 JNIEXPORT jboolean JNICALL Java_com_sri_yices_Yices_typeIsInt(JNIEnv *, jclass, jint tau) {
+  PROFILE_NATIVE;
   return yices_type_is_int(tau);
 }
 
 JNIEXPORT jboolean JNICALL Java_com_sri_yices_Yices_typeIsReal(JNIEnv *, jclass, jint tau) {
+  PROFILE_NATIVE;
   return yices_type_is_real(tau);
 }
 
 JNIEXPORT jboolean JNICALL Java_com_sri_yices_Yices_typeIsArithmetic(JNIEnv *, jclass, jint tau) {
+  PROFILE_NATIVE;
   return yices_type_is_arithmetic(tau);
 }
 
 JNIEXPORT jboolean JNICALL Java_com_sri_yices_Yices_typeIsBitvector(JNIEnv *, jclass, jint tau) {
+  PROFILE_NATIVE;
   return yices_type_is_bitvector(tau);
 }
 
 JNIEXPORT jboolean JNICALL Java_com_sri_yices_Yices_typeIsScalar(JNIEnv *, jclass, jint tau) {
+  PROFILE_NATIVE;
   return yices_type_is_scalar(tau);
 }
 
 JNIEXPORT jboolean JNICALL Java_com_sri_yices_Yices_typeIsUninterpreted(JNIEnv *, jclass, jint tau) {
+  PROFILE_NATIVE;
   return yices_type_is_uninterpreted(tau);
 }
 
 JNIEXPORT jboolean JNICALL Java_com_sri_yices_Yices_typeIsTuple(JNIEnv *, jclass, jint tau) {
+  PROFILE_NATIVE;
   return yices_type_is_tuple(tau);
 }
 
 JNIEXPORT jboolean JNICALL Java_com_sri_yices_Yices_typeIsFunction(JNIEnv *, jclass, jint tau) {
+  PROFILE_NATIVE;
   return yices_type_is_function(tau);
 }
 
@@ -828,6 +1099,7 @@ JNIEXPORT jboolean JNICALL Java_com_sri_yices_Yices_typeIsFunction(JNIEnv *, jcl
  * - this may allocate memory so we check for out-of-memory error here
  */
 JNIEXPORT jboolean JNICALL Java_com_sri_yices_Yices_isSubtype(JNIEnv *env, jclass, jint tau, jint sigma) {
+  PROFILE_NATIVE;
   try {
     return yices_test_subtype(tau, sigma);
   } catch (std::bad_alloc &ba) {
@@ -841,6 +1113,7 @@ JNIEXPORT jboolean JNICALL Java_com_sri_yices_Yices_isSubtype(JNIEnv *env, jclas
  * - this may allocate memory so we check for out-of-memory error here
  */
 JNIEXPORT jboolean JNICALL Java_com_sri_yices_Yices_areCompatible(JNIEnv *env, jclass, jint tau, jint sigma) {
+  PROFILE_NATIVE;
   try {
     return yices_compatible_types(tau, sigma);
   } catch (std::bad_alloc &ba) {
@@ -853,6 +1126,7 @@ JNIEXPORT jboolean JNICALL Java_com_sri_yices_Yices_areCompatible(JNIEnv *env, j
  * Number of bits in a bitvector type
  */
 JNIEXPORT jint JNICALL Java_com_sri_yices_Yices_bvTypeSize(JNIEnv *, jclass, jint tau) {
+  PROFILE_NATIVE;
   return yices_bvtype_size(tau);
 }
 
@@ -860,6 +1134,7 @@ JNIEXPORT jint JNICALL Java_com_sri_yices_Yices_bvTypeSize(JNIEnv *, jclass, jin
  * Cardinality of a scalar type
  */
 JNIEXPORT jint JNICALL Java_com_sri_yices_Yices_scalarTypeCard(JNIEnv *, jclass, jint tau) {
+  PROFILE_NATIVE;
   return yices_scalar_type_card(tau);
 }
 
@@ -867,6 +1142,7 @@ JNIEXPORT jint JNICALL Java_com_sri_yices_Yices_scalarTypeCard(JNIEnv *, jclass,
  * Number of children of type tau
  */
 JNIEXPORT jint JNICALL Java_com_sri_yices_Yices_typeNumChildren(JNIEnv *, jclass, jint tau) {
+  PROFILE_NATIVE;
   return yices_type_num_children(tau);
 }
 
@@ -874,6 +1150,7 @@ JNIEXPORT jint JNICALL Java_com_sri_yices_Yices_typeNumChildren(JNIEnv *, jclass
  * Get i-th child of type tau
  */
 JNIEXPORT jint JNICALL Java_com_sri_yices_Yices_typeChild(JNIEnv *, jclass, jint tau, jint i) {
+  PROFILE_NATIVE;
   return yices_type_child(tau, i);
 }
 
@@ -885,11 +1162,33 @@ JNIEXPORT jint JNICALL Java_com_sri_yices_Yices_typeChild(JNIEnv *, jclass, jint
  * Collect all the children of type tau
  * return NULL is tau is not a valid type
  */
+/*
+ * Number of children we can collect in a stack buffer (fast path
+ * for typeChildren and termChildren).
+ */
+#define CHILDREN_SIZE 16
+
 JNIEXPORT jintArray JNICALL Java_com_sri_yices_Yices_typeChildren(JNIEnv *env, jclass, jint tau) {
+  PROFILE_NATIVE;
   type_vector_t aux;
   jintArray result = NULL;
   int32_t code;
 
+  // fast path: small number of children, no type_vector
+  int32_t n = yices_type_num_children(tau);
+  if (0 <= n && n <= CHILDREN_SIZE) {
+    type_t c[CHILDREN_SIZE];
+    int32_t i;
+    for (i=0; i<n; i++) {
+      c[i] = yices_type_child(tau, i);
+      if (c[i] < 0) break;
+    }
+    if (i == n) {
+      return convertToIntArray(env, n, c);
+    }
+  }
+  yices_clear_error();
+
   try {
     yices_init_type_vector(&aux);
 
@@ -911,6 +1210,7 @@ JNIEXPORT jintArray JNICALL Java_com_sri_yices_Yices_typeChildren(JNIEnv *env, j
  * Give a a name to type tau
  */
 JNIEXPORT jint JNICALL Java_com_sri_yices_Yices_setTypeName(JNIEnv *env, jclass, jint tau, jstring name) {
+  PROFILE_NATIVE;
   jint code = -1;
   const char *s = env->GetStringUTFChars(name, NULL);
 
@@ -930,10 +1230,12 @@ JNIEXPORT jint JNICALL Java_com_sri_yices_Yices_setTypeName(JNIEnv *env, jclass,
 
 
 JNIEXPORT jstring JNICALL Java_com_sri_yices_Yices_getTypeName(JNIEnv *env, jclass, jint tau) {
+  PROFILE_NATIVE;
   return convertToString(env, yices_get_type_name(tau));
 }
 
 JNIEXPORT jint JNICALL Java_com_sri_yices_Yices_getTypeByName(JNIEnv *env, jclass, jstring name) {
+  PROFILE_NATIVE;
   jint tau = -1;
   const char *s = env->GetStringUTFChars(name, NULL);
 
@@ -952,6 +1254,7 @@ JNIEXPORT jint JNICALL Java_com_sri_yices_Yices_getTypeByName(JNIEnv *env, jclas
 }
 
 JNIEXPORT void JNICALL Java_com_sri_yices_Yices_removeTypeName(JNIEnv *env, jclass, jstring name) {
+  PROFILE_NATIVE;
   const char *s = env->GetStringUTFChars(name, NULL);
 
   if (s == NULL) {
@@ -963,6 +1266,7 @@ JNIEXPORT void JNICALL Java_com_sri_yices_Yices_removeTypeName(JNIEnv *env, jcla
 }
 
 JNIEXPORT jint JNICALL Java_com_sri_yices_Yices_clearTypeName(JNIEnv *env, jclass, jint tau) {
+  PROFILE_NATIVE;
   return yices_clear_type_name(tau);
 }
 
@@ -972,6 +1276,7 @@ JNIEXPORT jint JNICALL Java_com_sri_yices_Yices_clearTypeName(JNIEnv *env, jclas
  * We print into an array of 80 columns x 4 lines
  */
 JNIEXPORT jstring JNICALL Java_com_sri_yices_Yices_typeToString(JNIEnv *env, jclass, jint tau) {
+  PROFILE_NATIVE;
   char *s;
   jstring result;
 
@@ -990,6 +1295,7 @@ JNIEXPORT jstring JNICALL Java_com_sri_yices_Yices_typeToString(JNIEnv *env, jcl
  * Parse s as type using the Yices syntax
  */
 JNIEXPORT jint JNICALL Java_com_sri_yices_Yices_parseType(JNIEnv *env, jclass, jstring s) {
+  PROFILE_NATIVE;
   jint result = -1;
   const char *aux = env->GetStringUTFChars(s, NULL);
 
@@ -1012,14 +1318,17 @@ JNIEXPORT jint JNICALL Java_com_sri_yices_Yices_parseType(JNIEnv *env, jclass, j
  * GENERIC TERM CONSTRUCTORS
  */
 JNIEXPORT jint JNICALL Java_com_sri_yices_Yices_mkTrue(JNIEnv *, jclass) {
+  PROFILE_NATIVE;
   return yices_true(); // Can't cause out-of-mem error
 }
 
 JNIEXPORT jint JNICALL Java_com_sri_yices_Yices_mkFalse(JNIEnv *, jclass) {
+  PROFILE_NATIVE;
   return yices_false();
 }
 
 JNIEXPORT jint JNICALL Java_com_sri_yices_Yices_mkConstant(JNIEnv *env, jclass, jint tau, jint idx) {
+  PROFILE_NATIVE;
   try {
     return yices_constant(tau, idx);
   } catch (std::bad_alloc &ba) {
@@ -1029,6 +1338,7 @@ JNIEXPORT jint JNICALL Java_com_sri_yices_Yices_mkConstant(JNIEnv *env, jclass,
 }
 
 JNIEXPORT jint JNICALL Java_com_sri_yices_Yices_newUninterpretedTerm(JNIEnv *env, jclass, jint tau) {
+  PROFILE_NATIVE;
   try {
     return yices_new_uninterpreted_term(tau);
   } catch (std::bad_alloc &ba) {
@@ -1038,6 +1348,7 @@ JNIEXPORT jint JNICALL Java_com_sri_yices_Yices_newUninterpretedTerm(JNIEnv *env
 }
 
 JNIEXPORT jint JNICALL Java_com_sri_yices_Yices_newVariable(JNIEnv *env, jclass, jint tau) {
+  PROFILE_NATIVE;
   try {
     return yices_new_variable(tau);
   } catch (std::bad_alloc &ba) {
@@ -1048,6 +1359,7 @@ JNIEXPORT jint JNICALL Java_com_sri_yices_Yices_newVariable(JNIEnv *env, jclass,
 
 // function application: f = function, arg = arguments
 JNIEXPORT jint JNICALL Java_com_sri_yices_Yices_funApplication(JNIEnv *env, jclass, jint f, jintArray arg) {
+  PROFILE_NATIVE;
   jsize n = env->GetArrayLength(arg);
   term_t *a = array2terms(env, arg, NULL);
   jint result = -1;
@@ -1066,6 +1378,7 @@ JNIEXPORT jint JNICALL Java_com_sri_yices_Yices_funApplication(JNIEnv *env, jcla
 }
 
 JNIEXPORT jint JNICALL Java_com_sri_yices_Yices_ifThenElse(JNIEnv *env, jclass, jint cond, jint iftrue, jint iffalse) {
+  PROFILE_NATIVE;
   try {
     return yices_ite(cond, iftrue, iffalse);
   } catch (std::bad_alloc &ba) {
@@ -1075,6 +1388,7 @@ JNIEXPORT jint JNICALL Java_com_sri_yices_Yices_ifThenElse(JNIEnv *env, jclass,
 }
 
 JNIEXPORT jint JNICALL Java_com_sri_yices_Yices_eq(JNIEnv *env, jclass, jint left, jint right) {
+  PROFILE_NATIVE;
   try {
     return yices_eq(left, right);
   } catch (std::bad_alloc &ba) {
@@ -1084,6 +1398,7 @@ JNIEXPORT jint JNICALL Java_com_sri_yices_Yices_eq(JNIEnv *env, jclass, jint lef
 }
 
 JNIEXPORT jint JNICALL Java_com_sri_yices_Yices_neq(JNIEnv *env, jclass, jint left, jint right) {
+  PROFILE_NATIVE;
   try {
     return yices_neq(left, right);
   } catch (std::bad_alloc &ba) {
@@ -1093,6 +1408,7 @@ JNIEXPORT jint JNICALL Java_com_sri_yices_Yices_neq(JNIEnv *env, jclass, jint le
 }
 
 JNIEXPORT jint JNICALL Java_com_sri_yices_Yices_not(JNIEnv *, jclass, jint arg) {
+  PROFILE_NATIVE;
   return yices_not(arg); // can't cause out-of-mem
 }
 
@@ -1103,6 +1419,7 @@ JNIEXPORT jint JNICALL Java_com_sri_yices_Yices_not(JNIEnv *, jclass, jint arg)
 #define AUX_SIZE 10
 
 JNIEXPORT jint JNICALL Java_com_sri_yices_Yices_and(JNIEnv *env, jclass, jintArray arg) {
+  PROFILE_NATIVE;
   int32_t aux[AUX_SIZE]; // avoid alloc if arg is small
   jint result = -1;
   jsize n = env->GetArrayLength(arg);
@@ -1129,6 +1446,7 @@ JNIEXPORT jint JNICALL Java_com_sri_yices_Yices_and(JNIEnv *env, jclass, jintArr
 }
 
 JNIEXPORT jint JNICALL Java_com_sri_yices_Yices_or(JNIEnv *env, jclass, jintArray arg) {
+  PROFILE_NATIVE;
   int32_t aux[AUX_SIZE]; // avoid malloc if we can
   jint result = -1;
   jsize n = env->GetArrayLength(arg);
@@ -1155,6 +1473,7 @@ JNIEXPORT jint JNICALL Java_com_sri_yices_Yices_or(JNIEnv *env, jclass, jintArra
 }
 
 JNIEXPORT jint JNICALL Java_com_sri_yices_Yices_xor(JNIEnv *env, jclass, jintArray arg) {
+  PROFILE_NATIVE;
   int32_t aux[AUX_SIZE]; // avoid malloc if we can
   jint result = -1;
   jsize n = env->GetArrayLength(arg);
@@ -1181,6 +1500,7 @@ JNIEXPORT jint JNICALL Java_com_sri_yices_Yices_xor(JNIEnv *env, jclass, jintArr
 }
 
 JNIEXPORT jint JNICALL Java_com_sri_yices_Yices_iff(JNIEnv *env, jclass, jint left, jint right) {
+  PROFILE_NATIVE;
   try {
     return yices_iff(left, right);
   } catch (std::bad_alloc &ba) {
@@ -1190,6 +1510,7 @@ JNIEXPORT jint JNICALL Java_com_sri_yices_Yices_iff(JNIEnv *env, jclass, jint le
 }
 
 JNIEXPORT jint JNICALL Java_com_sri_yices_Yices_implies(JNIEnv *env, jclass, jint left, jint right) {
+  PROFILE_NATIVE;
   try {
     return yices_implies(left, right);
   } catch (std::bad_alloc &ba) {
@@ -1199,6 +1520,7 @@ JNIEXPORT jint JNICALL Java_com_sri_yices_Yices_implies(JNIEnv *env, jclass, jin
 }
 
 JNIEXPORT jint JNICALL Java_com_sri_yices_Yices_tuple(JNIEnv *env, jclass, jintArray arg) {
+  PROFILE_NATIVE;
   jsize n = env->GetArrayLength(arg);
   term_t *a = array2terms(env, arg, NULL);
   jint result = -1;
@@ -1217,6 +1539,7 @@ JNIEXPORT jint JNICALL Java_com_sri_yices_Yices_tuple(JNIEnv *env, jclass, jintA
 }
 
 JNIEXPORT jint JNICALL Java_com_sri_yices_Yices_select(JNIEnv *env, jclass, jint idx, jint tuple) {
+  PROFILE_NATIVE;
   try {
     return yices_select(idx, tuple);
   } catch (std::bad_alloc &ba) {
@@ -1226,6 +1549,7 @@ JNIEXPORT jint JNICALL Java_com_sri_yices_Yices_select(JNIEnv *env, jclass, jint
 }
 
 JNIEXPORT jint JNICALL Java_com_sri_yices_Yices_tupleUpdate(JNIEnv *env, jclass, jint tuple, jint idx, jint newval) {
+  PROFILE_NATIVE;
   try {
     return yices_tuple_update(tuple, idx, newval);
   } catch (std::bad_alloc &ba) {
@@ -1235,6 +1559,7 @@ JNIEXPORT jint JNICALL Java_com_sri_yices_Yices_tupleUpdate(JNIEnv *env, jclass,
 }
 
 JNIEXPORT jint JNICALL Java_com_sri_yices_Yices_functionUpdate(JNIEnv *env, jclass, jint fun, jintArray arg, jint newval) {
+  PROFILE_NATIVE;
   jsize n = env->GetArrayLength(arg);
   term_t *a = array2terms(env, arg, NULL);
   jint result = -1;
@@ -1254,6 +1579,7 @@ JNIEXPORT jint JNICALL Java_com_sri_yices_Yices_functionUpdate(JNIEnv *env, jcla
 
 // common variant: corresponding to array update (i.e., fun has arity one)
 JNIEXPORT jint JNICALL Java_com_sri_yices_Yices_functionUpdate1(JNIEnv *env, jclass, jint fun, jint arg, jint newval) {
+  PROFILE_NATIVE;
   try {
     return yices_update1(fun, arg, newval);
   } catch (std::bad_alloc &ba) {
@@ -1264,6 +1590,7 @@ JNIEXPORT jint JNICALL Java_com_sri_yices_Yices_functionUpdate1(JNIEnv *env, jcl
 
 // yices_distinct may modify its argument so we make a copy of arg here
 JNIEXPORT jint JNICALL Java_com_sri_yices_Yices_distinct(JNIEnv *env, jclass, jintArray arg) {
+  PROFILE_NATIVE;
   int32_t aux[AUX_SIZE]; // avoid malloc if we can
   jint result = -1;
   jsize n = env->GetArrayLength(arg);
@@ -1291,6 +1618,7 @@ JNIEXPORT jint JNICALL Java_com_sri_yices_Yices_distinct(JNIEnv *env, jclass, ji
 
 
 JNIEXPORT jint JNICALL Java_com_sri_yices_Yices_forall(JNIEnv *env, jclass, jintArray var, jint body) {
+  PROFILE_NATIVE;
   int32_t aux[AUX_SIZE]; // avoid malloc if we can
   jint result = -1;
   jsize n = env->GetArrayLength(var);
@@ -1317,6 +1645,7 @@ JNIEXPORT jint JNICALL Java_com_sri_yices_Yices_forall(JNIEnv *env, jclass, jint
 }
 
 JNIEXPORT jint JNICALL Java_com_sri_yices_Yices_exists(JNIEnv *env, jclass, jintArray var, jint body) {
+  PROFILE_NATIVE;
   int32_t aux[AUX_SIZE]; // avoid malloc if we can
   jint result = -1;
   jsize n = env->GetArrayLength(var);
@@ -1344,6 +1673,7 @@ JNIEXPORT jint JNICALL Java_com_sri_yices_Yices_exists(JNIEnv *env, jclass, jint
 
 
 JNIEXPORT jint JNICALL Java_com_sri_yices_Yices_lambda(JNIEnv *env, jclass, jintArray var, jint body) {
+  PROFILE_NATIVE;
   jsize n = env->GetArrayLength(var);
   term_t *a = array2terms(env, var, NULL);
   jint result = -1;
@@ -1366,6 +1696,7 @@ JNIEXPORT jint JNICALL Java_com_sri_yices_Yices_lambda(JNIEnv *env, jclass, jint
  * ARITHMETIC TERMS
  */
 JNIEXPORT jint JNICALL Java_com_sri_yices_Yices_zero(JNIEnv *env, jclass) {
+  PROFILE_NATIVE;
   try {
     return yices_zero();
   } catch (std::bad_alloc &ba) {
@@ -1376,6 +1707,7 @@ JNIEXPORT jint JNICALL Java_com_sri_yices_Yices_zero(JNIEnv *env, jclass) {
 }
 
 JNIEXPORT jint JNICALL Java_com_sri_yices_Yices_mkIntConstant(JNIEnv *env, jclass, jlong x) {
+  PROFILE_NATIVE;
   try {
     return yices_int64(x);
   } catch (std::bad_alloc &ba) {
@@ -1385,6 +1717,7 @@ JNIEXPORT jint JNICALL Java_com_sri_yices_Yices_mkIntConstant(JNIEnv *env, jclas
 }
 
 JNIEXPORT jint JNICALL Java_com_sri_yices_Yices_mkRationalConstant(JNIEnv *env, jclass, jlong num, jlong den) {
+  PROFILE_NATIVE;
   /*
    * Yices wants the denominator to be non-negative
    * We could try to negate both num and den is den < 0,
@@ -1405,6 +1738,7 @@ JNIEXPORT jint JNICALL Java_com_sri_yices_Yices_mkRationalConstant(JNIEnv *env,
 
 
 JNIEXPORT jint JNICALL Java_com_sri_yices_Yices_parseRational(JNIEnv *env, jclass, jstring s) {
+  PROFILE_NATIVE;
   jint result = -1;
   const char *aux = env->GetStringUTFChars(s, NULL);
 
@@ -1423,6 +1757,7 @@ JNIEXPORT jint JNICALL Java_com_sri_yices_Yices_parseRational(JNIEnv *env, jclas
 }
 
 JNIEXPORT jint JNICALL Java_com_sri_yices_Yices_parseFloat(JNIEnv *env, jclass, jstring s) {
+  PROFILE_NATIVE;
   jint result = -1;
   const char *aux = env->GetStringUTFChars(s, NULL);
 
@@ -1441,6 +1776,7 @@ JNIEXPORT jint JNICALL Java_com_sri_yices_Yices_parseFloat(JNIEnv *env, jclass,
 }
 
 JNIEXPORT jint JNICALL Java_com_sri_yices_Yices_add__II(JNIEnv *env, jclass, jint left, jint right) {
+  PROFILE_NATIVE;
   try {
     return yices_add(left, right);
   } catch (std::bad_alloc &ba) {
@@ -1450,6 +1786,7 @@ JNIEXPORT jint JNICALL Java_com_sri_yices_Yices_add__II(JNIEnv *env, jclass, jin
 }
 
 JNIEXPORT jint JNICALL Java_com_sri_yices_Yices_sub(JNIEnv *env, jclass, jint left, jint right) {
+  PROFILE_NATIVE;
   try {
     return yices_sub(left, right);
   } catch (std::bad_alloc &ba) {
@@ -1459,6 +1796,7 @@ JNIEXPORT jint JNICALL Java_com_sri_yices_Yices_sub(JNIEnv *env, jclass, jint le
 }
 
 JNIEXPORT jint JNICALL Java_com_sri_yices_Yices_neg(JNIEnv *env, jclass, jint arg) {
+  PROFILE_NATIVE;
   try {
     return yices_neg(arg);
   } catch (std::bad_alloc &ba) {
@@ -1468,6 +1806,7 @@ JNIEXPORT jint JNICALL Java_com_sri_yices_Yices_neg(JNIEnv *env, jclass, jint ar
 }
 
 JNIEXPORT jint JNICALL Java_com_sri_yices_Yices_mul__II(JNIEnv *env, jclass, jint left, jint right) {
+  PROFILE_NATIVE;
   try {
     return yices_mul(left, right);
   } catch (std::bad_alloc &ba) {
@@ -1477,6 +1816,7 @@ JNIEXPORT jint JNICALL Java_com_sri_yices_Yices_mul__II(JNIEnv *env, jclass, jin
 }
 
 JNIEXPORT jint JNICALL Java_com_sri_yices_Yices_square(JNIEnv *env, jclass, jint arg) {
+  PROFILE_NATIVE;
   try {
     return yices_square(arg);
   } catch (std::bad_alloc &ba) {
@@ -1486,6 +1826,7 @@ JNIEXPORT jint JNICALL Java_com_sri_yices_Yices_square(JNIEnv *env, jclass, jint
 }
 
 JNIEXPORT jint JNICALL Java_com_sri_yices_Yices_power(JNIEnv *env, jclass, jint arg, jint exponent) {
+  PROFILE_NATIVE;
   if (exponent < 0) {
     return -1; // negative exponents are not supported
   }
@@ -1498,6 +1839,7 @@ JNIEXPORT jint JNICALL Java_com_sri_yices_Yices_power(JNIEnv *env, jclass, jint
 }
 
 JNIEXPORT jint JNICALL Java_com_sri_yices_Yices_add___3I(JNIEnv *env, jclass, jintArray arg) {
+  PROFILE_NATIVE;
   jsize n = env->GetArrayLength(arg);
   term_t *a = array2terms(env, arg, NULL);
   jint result = -1;
@@ -1516,6 +1858,7 @@ JNIEXPORT jint JNICALL Java_com_sri_yices_Yices_add___3I(JNIEnv *env, jclass, ji
 }
 
 JNIEXPORT jint JNICALL Java_com_sri_yices_Yices_mul___3I(JNIEnv *env, jclass, jintArray arg) {
+  PROFILE_NATIVE;
   jsize n = env->GetArrayLength(arg);
   term_t *a = array2terms(env, arg, NULL);
   jint result = -1;
@@ -1534,6 +1877,7 @@ JNIEXPORT jint JNICALL Java_com_sri_yices_Yices_mul___3I(JNIEnv *env, jclass, ji
 }
 
 JNIEXPORT jint JNICALL Java_com_sri_yices_Yices_div(JNIEnv *env, jclass, jint x, jint y) {
+  PROFILE_NATIVE;
   try {
     return yices_division(x, y);
   } catch (std::bad_alloc &ba) {
@@ -1543,6 +1887,7 @@ JNIEXPORT jint JNICALL Java_com_sri_yices_Yices_div(JNIEnv *env, jclass, jint x,
 }
 
 JNIEXPORT jint JNICALL Java_com_sri_yices_Yices_idiv(JNIEnv *env, jclass, jint x, jint y) {
+  PROFILE_NATIVE;
   try {
     return yices_idiv(x, y);
   } catch (std::bad_alloc &ba) {
@@ -1552,6 +1897,7 @@ JNIEXPORT jint JNICALL Java_com_sri_yices_Yices_idiv(JNIEnv *env, jclass, jint x
 }
 
 JNIEXPORT jint JNICALL Java_com_sri_yices_Yices_imod(JNIEnv *env, jclass, jint x, jint y) {
+  PROFILE_NATIVE;
   try {
     return yices_imod(x, y);
   } catch (std::bad_alloc &ba) {
@@ -1561,6 +1907,7 @@ JNIEXPORT jint JNICALL Java_com_sri_yices_Yices_imod(JNIEnv *env, jclass, jint x
 }
 
 JNIEXPORT jint JNICALL Java_com_sri_yices_Yices_abs(JNIEnv *env, jclass, jint x) {
+  PROFILE_NATIVE;
   try {
     return yices_abs(x);
   } catch (std::bad_alloc &ba) {
@@ -1570,6 +1917,7 @@ JNIEXPORT jint JNICALL Java_com_sri_yices_Yices_abs(JNIEnv *env, jclass, jint x)
 }
 
 JNIEXPORT jint JNICALL Java_com_sri_yices_Yices_floor(JNIEnv *env, jclass, jint x) {
+  PROFILE_NATIVE;
   try {
     return yices_floor(x);
   } catch (std::bad_alloc &ba) {
@@ -1579,6 +1927,7 @@ JNIEXPORT jint JNICALL Java_com_sri_yices_Yices_floor(JNIEnv *env, jclass, jint
 }
 
 JNIEXPORT jint JNICALL Java_com_sri_yices_Yices_ceil(JNIEnv *env, jclass, jint x) {
+  PROFILE_NATIVE;
   try {
     return yices_ceil(x);
   } catch (std::bad_alloc &ba) {
@@ -1588,6 +1937,7 @@ JNIEXPORT jint JNICALL Java_com_sri_yices_Yices_ceil(JNIEnv *env, jclass, jint x
 }
 
 JNIEXPORT jint JNICALL Java_com_sri_yices_Yices_intPoly(JNIEnv *env, jclass, jlongArray coeff, jintArray t) {
+  PROFILE_NATIVE;
   jint result = -1;
   jsize n = env->GetArrayLength(coeff);
 
@@ -1617,6 +1967,7 @@ JNIEXPORT jint JNICALL Java_com_sri_yices_Yices_intPoly(JNIEnv *env, jclass, jlo
 
 
 JNIEXPORT jint JNICALL Java_com_sri_yices_Yices_rationalPoly(JNIEnv *env, jclass, jlongArray num, jlongArray den, jintArray t) {
+  PROFILE_NATIVE;
   jint result = -1;
   jsize n = env->GetArrayLength(num);
 
@@ -1649,6 +2000,7 @@ JNIEXPORT jint JNICALL Java_com_sri_yices_Yices_rationalPoly(JNIEnv *env, jclass
 }
 
 JNIEXPORT jint JNICALL Java_com_sri_yices_Yices_divides(JNIEnv *env, jclass, jint x, jint y) {
+  PROFILE_NATIVE;
   try {
     return yices_divides_atom(x, y);
   } catch (std::bad_alloc &ba) {
@@ -1658,6 +2010,7 @@ JNIEXPORT jint JNICALL Java_com_sri_yices_Yices_divides(JNIEnv *env, jclass, jin
 }
 
 JNIEXPORT jint JNICALL Java_com_sri_yices_Yices_isInt(JNIEnv *env, jclass, jint x) {
+  PROFILE_NATIVE;
   try {
     return yices_is_int_atom(x);
   } catch (std::bad_alloc &ba) {
@@ -1667,6 +2020,7 @@ JNIEXPORT jint JNICALL Java_com_sri_yices_Yices_isInt(JNIEnv *env, jclass, jint
 }
 
 JNIEXPORT jint JNICALL Java_com_sri_yices_Yices_arithEq(JNIEnv *env, jclass, jint x, jint y) {
+  PROFILE_NATIVE;
   try {
     return yices_arith_eq_atom(x, y);
   } catch (std::bad_alloc &ba) {
@@ -1676,6 +2030,7 @@ JNIEXPORT jint JNICALL Java_com_sri_yices_Yices_arithEq(JNIEnv *env, jclass, jin
 }
 
 JNIEXPORT jint JNICALL Java_com_sri_yices_Yices_arithNeq(JNIEnv *env, jclass, jint x, jint y) {
+  PROFILE_NATIVE;
   try {
     return yices_arith_neq_atom(x, y);
   } catch (std::bad_alloc &ba) {
@@ -1685,6 +2040,7 @@ JNIEXPORT jint JNICALL Java_com_sri_yices_Yices_arithNeq(JNIEnv *env, jclass, ji
 }
 
 JNIEXPORT jint JNICALL Java_com_sri_yices_Yices_arithGeq(JNIEnv *env, jclass, jint x, jint y) {
+  PROFILE_NATIVE;
   try {
     return yices_arith_geq_atom(x, y);
   } catch (std::bad_alloc &ba) {
@@ -1694,6 +2050,7 @@ JNIEXPORT jint JNICALL Java_com_sri_yices_Yices_arithGeq(JNIEnv *env, jclass, ji
 }
 
 JNIEXPORT jint JNICALL Java_com_sri_yices_Yices_arithLeq(JNIEnv *env, jclass, jint x, jint y) {
+  PROFILE_NATIVE;
   try {
     return yices_arith_leq_atom(x, y);
   } catch (std::bad_alloc &ba) {
@@ -1703,6 +2060,7 @@ JNIEXPORT jint JNICALL Java_com_sri_yices_Yices_arithLeq(JNIEnv *env, jclass, ji
 }
 
 JNIEXPORT jint JNICALL Java_com_sri_yices_Yices_arithGt(JNIEnv *env, jclass, jint x, jint y) {
+  PROFILE_NATIVE;
   try {
     return yices_arith_gt_atom(x, y);
   } catch (std::bad_alloc &ba) {
@@ -1712,6 +2070,7 @@ JNIEXPORT jint JNICALL Java_com_sri_yices_Yices_arithGt(JNIEnv *env, jclass, jin
 }
 
 JNIEXPORT jint JNICALL Java_com_sri_yices_Yices_arithLt(JNIEnv *env, jclass, jint x, jint y) {
+  PROFILE_NATIVE;
   try {
     return yices_arith_lt_atom(x, y);
   } catch (std::bad_alloc &ba) {
@@ -1721,6 +2080,7 @@ JNIEXPORT jint JNICALL Java_com_sri_yices_Yices_arithLt(JNIEnv *env, jclass, jin
 }
 
 JNIEXPORT jint JNICALL Java_com_sri_yices_Yices_arithEq0(JNIEnv *env, jclass, jint x) {
+  PROFILE_NATIVE;
   try {
     return yices_arith_eq0_atom(x);
   } catch (std::bad_alloc &ba) {
@@ -1730,6 +2090,7 @@ JNIEXPORT jint JNICALL Java_com_sri_yices_Yices_arithEq0(JNIEnv *env, jclass, ji
 }
 
 JNIEXPORT jint JNICALL Java_com_sri_yices_Yices_arithNeq0(JNIEnv *env, jclass, jint x) {
+  PROFILE_NATIVE;
   try {
     return yices_arith_neq0_atom(x);
   } catch (std::bad_alloc &ba) {
@@ -1739,6 +2100,7 @@ JNIEXPORT jint JNICALL Java_com_sri_yices_Yices_arithNeq0(JNIEnv *env, jclass, j
 }
 
 JNIEXPORT jint JNICALL Java_com_sri_yices_Yices_arithGeq0(JNIEnv *env, jclass, jint x) {
+  PROFILE_NATIVE;
   try {
     return yices_arith_geq0_atom(x);
   } catch (std::bad_alloc &ba) {
@@ -1748,6 +2110,7 @@ JNIEXPORT jint JNICALL Java_com_sri_yices_Yices_arithGeq0(JNIEnv *env, jclass, j
 }
 
 JNIEXPORT jint JNICALL Java_com_sri_yices_Yices_arithLeq0(JNIEnv *env, jclass, jint x) {
+  PROFILE_NATIVE;
   try {
     return yices_arith_leq0_atom(x);
   } catch (std::bad_alloc &ba) {
@@ -1757,6 +2120,7 @@ JNIEXPORT jint JNICALL Java_com_sri_yices_Yices_arithLeq0(JNIEnv *env, jclass, j
 }
 
 JNIEXPORT jint JNICALL Java_com_sri_yices_Yices_arithGt0(JNIEnv *env, jclass, jint x) {
+  PROFILE_NATIVE;
   try {
     return yices_arith_gt0_atom(x);
   } catch (std::bad_alloc &ba) {
@@ -1766,6 +2130,7 @@ JNIEXPORT jint JNICALL Java_com_sri_yices_Yices_arithGt0(JNIEnv *env, jclass, ji
 }
 
 JNIEXPORT jint JNICALL Java_com_sri_yices_Yices_arithLt0(JNIEnv *env, jclass, jint x) {
+  PROFILE_NATIVE;
   try {
     return yices_arith_lt0_atom(x);
   } catch (std::bad_alloc &ba) {
@@ -1779,6 +2144,7 @@ JNIEXPORT jint JNICALL Java_com_sri_yices_Yices_arithLt0(JNIEnv *env, jclass, ji
  */
 // convert x to a bitvector od n bits
 JNIEXPORT jint JNICALL Java_com_sri_yices_Yices_bvConst(JNIEnv *env, jclass, jint n, jlong x) {
+  PROFILE_NATIVE;
   jint result = -1;
 
   if (n > 0) {
@@ -1792,6 +2158,7 @@ JNIEXPORT jint JNICALL Java_com_sri_yices_Yices_bvConst(JNIEnv *env, jclass, jin
 }
 
 JNIEXPORT jint JNICALL Java_com_sri_yices_Yices_bvZero(JNIEnv *env, jclass, jint n) {
+  PROFILE_NATIVE;
   jint result = -1;
 
   if (n > 0) {
@@ -1805,6 +2172,7 @@ JNIEXPORT jint JNICALL Java_com_sri_yices_Yices_bvZero(JNIEnv *env, jclass, jint
 }
 
 JNIEXPORT jint JNICALL Java_com_sri_yices_Yices_bvOne(JNIEnv *env, jclass, jint n) {
+  PROFILE_NATIVE;
   jint result = -1;
 
   if (n > 0) {
@@ -1818,6 +2186,7 @@ JNIEXPORT jint JNICALL Java_com_sri_yices_Yices_bvOne(JNIEnv *env, jclass, jint
 }
 
 JNIEXPORT jint JNICALL Java_com_sri_yices_Yices_bvMinusOne(JNIEnv *env, jclass, jint n) {
+  PROFILE_NATIVE;
   jint result = -1;
 
   if (n > 0) {
@@ -1831,6 +2200,7 @@ JNIEXPORT jint JNICALL Java_com_sri_yices_Yices_bvMinusOne(JNIEnv *env, jclass,
 }
 
 JNIEXPORT jint JNICALL Java_com_sri_yices_Yices_bvConstFromIntArray(JNIEnv *env, jclass, jintArray arg) {
+  PROFILE_NATIVE;
   jint result = -1;
   jsize n = env->GetArrayLength(arg);
 
@@ -1851,7 +2221,38 @@ JNIEXPORT jint JNICALL Java_com_sri_yices_Yices_bvConstFromIntArray(JNIEnv *env,
   return result;
 }
 
+/*
+ * Bitvector constant of n bits from words w[0 ... (n+63)/64 - 1]:
+ * bit i is bit (i % 64) of w[i/64]. Extra bits are ignored.
+ * Returns -1 if n <= 0 or w is too small.
+ */
+JNIEXPORT jint JNICALL Java_com_sri_yices_Yices_bvConstFromWords(JNIEnv *env, jclass, jint n, jlongArray w) {
+  PROFILE_NATIVE;
+  jint result = -1;
+
+  if (n > 0 && env->GetArrayLength(w) >= (n + 63)/64) {
+    try {
+      if (n <= 64) {
+        jlong x;
+        env->GetLongArrayRegion(w, 0, 1, &x);
+        result = yices_bvconst_uint64(n, (uint64_t) x);
+      } else {
+        std::vector<jlong> x((n + 63)/64);
+        std::vector<int32_t> a(n);
+        env->GetLongArrayRegion(w, 0, x.size(), x.data());
+        unpack_bits(x.data(), n, a.data());
+        result = yices_bvconst_from_array(n, a.data());
+      }
+    } catch (std::bad_alloc &ba) {
+      out_of_mem_exception(env);
+    }
+  }
+
+  return result;
+}
+
 JNIEXPORT jint JNICALL Java_com_sri_yices_Yices_parseBvBin(JNIEnv *env, jclass, jstring s) {
+  PROFILE_NATIVE;
   jint result = -1;
   const char *aux = env->GetStringUTFChars(s, NULL);
 
@@ -1870,6 +2271,7 @@ JNIEXPORT jint JNICALL Java_com_sri_yices_Yices_parseBvBin(JNIEnv *env, jclass,
 }
 
 JNIEXPORT jint JNICALL Java_com_sri_yices_Yices_parseBvHex(JNIEnv *env, jclass, jstring s) {
+  PROFILE_NATIVE;
   jint result = -1;
   const char *aux = env->GetStringUTFChars(s, NULL);
 
@@ -1888,6 +2290,7 @@ JNIEXPORT jint JNICALL Java_com_sri_yices_Yices_parseBvHex(JNIEnv *env, jclass,
 }
 
 JNIEXPORT jint JNICALL Java_com_sri_yices_Yices_bvAdd__II(JNIEnv *env, jclass, jint left, jint right) {
+  PROFILE_NATIVE;
   try {
     return yices_bvadd(left, right);
   } catch (std::bad_alloc &ba) {
@@ -1897,6 +2300,7 @@ JNIEXPORT jint JNICALL Java_com_sri_yices_Yices_bvAdd__II(JNIEnv *env, jclass, j
 }
 
 JNIEXPORT jint JNICALL Java_com_sri_yices_Yices_bvSub(JNIEnv *env, jclass, jint left, jint right) {
+  PROFILE_NATIVE;
   try {
     return yices_bvsub(left, right);
   } catch (std::bad_alloc &ba) {
@@ -1906,6 +2310,7 @@ JNIEXPORT jint JNICALL Java_com_sri_yices_Yices_bvSub(JNIEnv *env, jclass, jint
 }
 
 JNIEXPORT jint JNICALL Java_com_sri_yices_Yices_bvNeg(JNIEnv *env, jclass, jint arg) {
+  PROFILE_NATIVE;
   try {
     return yices_bvneg(arg);
   } catch (std::bad_alloc &ba) {
@@ -1915,6 +2320,7 @@ JNIEXPORT jint JNICALL Java_com_sri_yices_Yices_bvNeg(JNIEnv *env, jclass, jint
 }
 
 JNIEXPORT jint JNICALL Java_com_sri_yices_Yices_bvMul__II(JNIEnv *env, jclass, jint left, jint right) {
+  PROFILE_NATIVE;
   try {
     return yices_bvmul(left, right);
   } catch (std::bad_alloc &ba) {
@@ -1924,6 +2330,7 @@ JNIEXPORT jint JNICALL Java_com_sri_yices_Yices_bvMul__II(JNIEnv *env, jclass, j
 }
 
 JNIEXPORT jint JNICALL Java_com_sri_yices_Yices_bvSquare(JNIEnv *env, jclass, jint arg) {
+  PROFILE_NATIVE;
   try {
     return yices_bvsquare(arg);
   } catch (std::bad_alloc &ba) {
@@ -1933,6 +2340,7 @@ JNIEXPORT jint JNICALL Java_com_sri_yices_Yices_bvSquare(JNIEnv *env, jclass, ji
 }
 
 JNIEXPORT jint JNICALL Java_com_sri_yices_Yices_bvPower(JNIEnv *env, jclass, jint arg, jint exponent) {
+  PROFILE_NATIVE;
   if (exponent < 0) {
     return -1; // negative exponents are not supported
   }
@@ -1945,6 +2353,7 @@ JNIEXPORT jint JNICALL Java_com_sri_yices_Yices_bvPower(JNIEnv *env, jclass, jin
 }
 
 JNIEXPORT jint JNICALL Java_com_sri_yices_Yices_bvDiv(JNIEnv *env, jclass, jint left, jint right) {
+  PROFILE_NATIVE;
   try {
     return yices_bvdiv(left, right);
   } catch (std::bad_alloc &ba) {
@@ -1954,6 +2363,7 @@ JNIEXPORT jint JNICALL Java_com_sri_yices_Yices_bvDiv(JNIEnv *env, jclass, jint
 }
 
 JNIEXPORT jint JNICALL Java_com_sri_yices_Yices_bvRem(JNIEnv *env, jclass, jint left, jint right) {
+  PROFILE_NATIVE;
   try {
     return yices_bvrem(left, right);
   } catch (std::bad_alloc &ba) {
@@ -1963,6 +2373,7 @@ JNIEXPORT jint JNICALL Java_com_sri_yices_Yices_bvRem(JNIEnv *env, jclass, jint
 }
 
 JNIEXPORT jint JNICALL Java_com_sri_yices_Yices_bvSDiv(JNIEnv *env, jclass, jint left, jint right) {
+  PROFILE_NATIVE;
   try {
     return yices_bvsdiv(left, right);
   } catch (std::bad_alloc &ba) {
@@ -1972,6 +2383,7 @@ JNIEXPORT jint JNICALL Java_com_sri_yices_Yices_bvSDiv(JNIEnv *env, jclass, jint
 }
 
 JNIEXPORT jint JNICALL Java_com_sri_yices_Yices_bvSRem(JNIEnv *env, jclass, jint left, jint right) {
+  PROFILE_NATIVE;
   try {
     return yices_bvsrem(left, right);
   } catch (std::bad_alloc &ba) {
@@ -1981,6 +2393,7 @@ JNIEXPORT jint JNICALL Java_com_sri_yices_Yices_bvSRem(JNIEnv *env, jclass, jint
 }
 
 JNIEXPORT jint JNICALL Java_com_sri_yices_Yices_bvSMod(JNIEnv *env, jclass, jint left, jint right) {
+  PROFILE_NATIVE;
   try {
     return yices_bvsmod(left, right);
   } catch (std::bad_alloc &ba) {
@@ -1990,6 +2403,7 @@ JNIEXPORT jint JNICALL Java_com_sri_yices_Yices_bvSMod(JNIEnv *env, jclass, jint
 }
 
 JNIEXPORT jint JNICALL Java_com_sri_yices_Yices_bvNot(JNIEnv *env, jclass, jint arg) {
+  PROFILE_NATIVE;
   try {
     return yices_bvnot(arg);
   } catch (std::bad_alloc &ba) {
@@ -1999,6 +2413,7 @@ JNIEXPORT jint JNICALL Java_com_sri_yices_Yices_bvNot(JNIEnv *env, jclass, jint
 }
 
 JNIEXPORT jint JNICALL Java_com_sri_yices_Yices_bvAnd__II(JNIEnv *env, jclass, jint left, jint right) {
+  PROFILE_NATIVE;
   try {
     return yices_bvand2(left, right);
   } catch (std::bad_alloc &ba) {
@@ -2008,6 +2423,7 @@ JNIEXPORT jint JNICALL Java_com_sri_yices_Yices_bvAnd__II(JNIEnv *env, jclass, j
 }
 
 JNIEXPORT jint JNICALL Java_com_sri_yices_Yices_bvOr__II(JNIEnv *env, jclass, jint left, jint right) {
+  PROFILE_NATIVE;
   try {
     return yices_bvor2(left, right);
   } catch (std::bad_alloc &ba) {
@@ -2017,6 +2433,7 @@ JNIEXPORT jint JNICALL Java_com_sri_yices_Yices_bvOr__II(JNIEnv *env, jclass, ji
 }
 
 JNIEXPORT jint JNICALL Java_com_sri_yices_Yices_bvXor__II(JNIEnv *env, jclass, jint left, jint right) {
+  PROFILE_NATIVE;
   try {
     return yices_bvxor2(left, right);
   } catch (std::bad_alloc &ba) {
@@ -2026,6 +2443,7 @@ JNIEXPORT jint JNICALL Java_com_sri_yices_Yices_bvXor__II(JNIEnv *env, jclass, j
 }
 
 JNIEXPORT jint JNICALL Java_com_sri_yices_Yices_bvNand(JNIEnv *env, jclass, jint left, jint right) {
+  PROFILE_NATIVE;
   try {
     return yices_bvnand(left, right);
   } catch (std::bad_alloc &ba) {
@@ -2035,6 +2453,7 @@ JNIEXPORT jint JNICALL Java_com_sri_yices_Yices_bvNand(JNIEnv *env, jclass, jint
 }
 
 JNIEXPORT jint JNICALL Java_com_sri_yices_Yices_bvNor(JNIEnv *env, jclass, jint left, jint right) {
+  PROFILE_NATIVE;
   try {
     return yices_bvnor(left, right);
   } catch (std::bad_alloc &ba) {
@@ -2044,6 +2463,7 @@ JNIEXPORT jint JNICALL Java_com_sri_yices_Yices_bvNor(JNIEnv *env, jclass, jint
 }
 
 JNIEXPORT jint JNICALL Java_com_sri_yices_Yices_bvXNor(JNIEnv *env, jclass, jint left, jint right) {
+  PROFILE_NATIVE;
   try {
     return yices_bvxnor(left, right);
   } catch (std::bad_alloc &ba) {
@@ -2053,6 +2473,7 @@ JNIEXPORT jint JNICALL Java_com_sri_yices_Yices_bvXNor(JNIEnv *env, jclass, jint
 }
 
 JNIEXPORT jint JNICALL Java_com_sri_yices_Yices_bvShl(JNIEnv *env, jclass, jint left, jint right) {
+  PROFILE_NATIVE;
   try {
     return yices_bvshl(left, right);
   } catch (std::bad_alloc &ba) {
@@ -2062,6 +2483,7 @@ JNIEXPORT jint JNICALL Java_com_sri_yices_Yices_bvShl(JNIEnv *env, jclass, jint
 }
 
 JNIEXPORT jint JNICALL Java_com_sri_yices_Yices_bvLshr(JNIEnv *env, jclass, jint left, jint right) {
+  PROFILE_NATIVE;
   try {
     return yices_bvlshr(left, right);
   } catch (std::bad_alloc &ba) {
@@ -2071,6 +2493,7 @@ JNIEXPORT jint JNICALL Java_com_sri_yices_Yices_bvLshr(JNIEnv *env, jclass, jint
 }
 
 JNIEXPORT jint JNICALL Java_com_sri_yices_Yices_bvAshr(JNIEnv *env, jclass, jint left, jint right) {
+  PROFILE_NATIVE;
   try {
     return yices_bvashr(left, right);
   } catch (std::bad_alloc &ba) {
@@ -2080,6 +2503,7 @@ JNIEXPORT jint JNICALL Java_com_sri_yices_Yices_bvAshr(JNIEnv *env, jclass, jint
 }
 
 JNIEXPORT jint JNICALL Java_com_sri_yices_Yices_bvAdd___3I(JNIEnv *env, jclass, jintArray arg) {
+  PROFILE_NATIVE;
   jint result = -1;
   jsize n = env->GetArrayLength(arg);
 
@@ -2100,6 +2524,7 @@ JNIEXPORT jint JNICALL Java_com_sri_yices_Yices_bvAdd___3I(JNIEnv *env, jclass,
 }
 
 JNIEXPORT jint JNICALL Java_com_sri_yices_Yices_bvMul___3I(JNIEnv *env, jclass, jintArray arg) {
+  PROFILE_NATIVE;
   jint result = -1;
   jsize n = env->GetArrayLength(arg);
 
@@ -2120,6 +2545,7 @@ JNIEXPORT jint JNICALL Java_com_sri_yices_Yices_bvMul___3I(JNIEnv *env, jclass,
 }
 
 JNIEXPORT jint JNICALL Java_com_sri_yices_Yices_bvAnd___3I(JNIEnv *env, jclass, jintArray arg) {
+  PROFILE_NATIVE;
   jint result = -1;
   jsize n = env->GetArrayLength(arg);
 
@@ -2140,6 +2566,7 @@ JNIEXPORT jint JNICALL Java_com_sri_yices_Yices_bvAnd___3I(JNIEnv *env, jclass,
 }
 
 JNIEXPORT jint JNICALL Java_com_sri_yices_Yices_bvOr___3I(JNIEnv *env, jclass, jintArray arg) {
+  PROFILE_NATIVE;
   jint result = -1;
   jsize n = env->GetArrayLength(arg);
 
@@ -2160,6 +2587,7 @@ JNIEXPORT jint JNICALL Java_com_sri_yices_Yices_bvOr___3I(JNIEnv *env, jclass, j
 }
 
 JNIEXPORT jint JNICALL Java_com_sri_yices_Yices_bvXor___3I(JNIEnv *env, jclass, jintArray arg) {
+  PROFILE_NATIVE;
   jint result = -1;
   jsize n = env->GetArrayLength(arg);
 
@@ -2180,6 +2608,7 @@ JNIEXPORT jint JNICALL Java_com_sri_yices_Yices_bvXor___3I(JNIEnv *env, jclass,
 }
 
 JNIEXPORT jint JNICALL Java_com_sri_yices_Yices_bvShiftLeft0(JNIEnv *env, jclass, jint arg, jint n) {
+  PROFILE_NATIVE;
   jint result = -1;
 
   if (n >= 0) {
@@ -2193,6 +2622,7 @@ JNIEXPORT jint JNICALL Java_com_sri_yices_Yices_bvShiftLeft0(JNIEnv *env, jclass
 }
 
 JNIEXPORT jint JNICALL Java_com_sri_yices_Yices_bvShiftLeft1(JNIEnv *env, jclass, jint arg, jint n) {
+  PROFILE_NATIVE;
   jint result = -1;
 
   if (n >= 0) {
@@ -2206,6 +2636,7 @@ JNIEXPORT jint JNICALL Java_com_sri_yices_Yices_bvShiftLeft1(JNIEnv *env, jclass
 }
 
 JNIEXPORT jint JNICALL Java_com_sri_yices_Yices_bvShiftRight0(JNIEnv *env, jclass, jint arg, jint n) {
+  PROFILE_NATIVE;
   jint result = -1;
 
   if (n >= 0) {
@@ -2219,6 +2650,7 @@ JNIEXPORT jint JNICALL Java_com_sri_yices_Yices_bvShiftRight0(JNIEnv *env, jclas
 }
 
 JNIEXPORT jint JNICALL Java_com_sri_yices_Yices_bvShiftRight1(JNIEnv *env, jclass, jint arg, jint n) {
+  PROFILE_NATIVE;
   jint result = -1;
 
   if (n >= 0) {
@@ -2232,6 +2664,7 @@ JNIEXPORT jint JNICALL Java_com_sri_yices_Yices_bvShiftRight1(JNIEnv *env, jclas
 }
 
 JNIEXPORT jint JNICALL Java_com_sri_yices_Yices_bvAShiftRight(JNIEnv *env, jclass, jint arg, jint n) {
+  PROFILE_NATIVE;
   jint result = -1;
 
   if (n >= 0) {
@@ -2245,6 +2678,7 @@ JNIEXPORT jint JNICALL Java_com_sri_yices_Yices_bvAShiftRight(JNIEnv *env, jclas
 }
 
 JNIEXPORT jint JNICALL Java_com_sri_yices_Yices_bvRotateLeft(JNIEnv *env, jclass, jint arg, jint n) {
+  PROFILE_NATIVE;
   jint result = -1;
 
   if (n >= 0) {
@@ -2258,6 +2692,7 @@ JNIEXPORT jint JNICALL Java_com_sri_yices_Yices_bvRotateLeft(JNIEnv *env, jclass
 }
 
 JNIEXPORT jint JNICALL Java_com_sri_yices_Yices_bvRotateRight(JNIEnv *env, jclass, jint arg, jint n) {
+  PROFILE_NATIVE;
   jint result = -1;
 
   if (n >= 0) {
@@ -2271,6 +2706,7 @@ JNIEXPORT jint JNICALL Java_com_sri_yices_Yices_bvRotateRight(JNIEnv *env, jclas
 }
 
 JNIEXPORT jint JNICALL Java_com_sri_yices_Yices_bvExtract(JNIEnv *env, jclass, jint arg, jint i, jint j) {
+  PROFILE_NATIVE;
   jint result = -1;
 
   if (i >= 0 && j >= 0) {
@@ -2284,6 +2720,7 @@ JNIEXPORT jint JNICALL Java_com_sri_yices_Yices_bvExtract(JNIEnv *env, jclass, j
 }
 
 JNIEXPORT jint JNICALL Java_com_sri_yices_Yices_bvExtractBit(JNIEnv *env, jclass, jint arg, jint i) {
+  PROFILE_NATIVE;
   jint result = -1;
 
   if (i >= 0) {
@@ -2297,6 +2734,7 @@ JNIEXPORT jint JNICALL Java_com_sri_yices_Yices_bvExtractBit(JNIEnv *env, jclass
 }
 
 JNIEXPORT jint JNICALL Java_com_sri_yices_Yices_bvFromBoolArray(JNIEnv *env, jclass, jintArray arg) {
+  PROFILE_NATIVE;
   jint result = -1;
   jsize n = env->GetArrayLength(arg);
 
@@ -2317,6 +2755,7 @@ JNIEXPORT jint JNICALL Java_com_sri_yices_Yices_bvFromBoolArray(JNIEnv *env, jcl
 }
 
 JNIEXPORT jint JNICALL Java_com_sri_yices_Yices_bvConcat__II(JNIEnv *env, jclass, jint left, jint right) {
+  PROFILE_NATIVE;
   try {
     return yices_bvconcat2(left, right);
   } catch (std::bad_alloc &ba) {
@@ -2326,6 +2765,7 @@ JNIEXPORT jint JNICALL Java_com_sri_yices_Yices_bvConcat__II(JNIEnv *env, jclass
 }
 
 JNIEXPORT jint JNICALL Java_com_sri_yices_Yices_bvConcat___3I(JNIEnv *env, jclass, jintArray arg) {
+  PROFILE_NATIVE;
   jint result = -1;
   jsize n = env->GetArrayLength(arg);
 
@@ -2346,6 +2786,7 @@ JNIEXPORT jint JNICALL Java_com_sri_yices_Yices_bvConcat___3I(JNIEnv *env, jclas
 }
 
 JNIEXPORT jint JNICALL Java_com_sri_yices_Yices_bvRepeat(JNIEnv *env, jclass, jint arg, jint n) {
+  PROFILE_NATIVE;
   jint result = -1;
 
   if (n >= 0) {
@@ -2359,6 +2800,7 @@ JNIEXPORT jint JNICALL Java_com_sri_yices_Yices_bvRepeat(JNIEnv *env, jclass, ji
 }
 
 JNIEXPORT jint JNICALL Java_com_sri_yices_Yices_bvSignExtend(JNIEnv *env, jclass, jint arg, jint n) {
+  PROFILE_NATIVE;
   jint result = -1;
 
   if (n >= 0) {
@@ -2372,6 +2814,7 @@ JNIEXPORT jint JNICALL Java_com_sri_yices_Yices_bvSignExtend(JNIEnv *env, jclass
 }
 
 JNIEXPORT jint JNICALL Java_com_sri_yices_Yices_bvZeroExtend(JNIEnv *env, jclass, jint arg, jint n) {
+  PROFILE_NATIVE;
   jint result = -1;
 
   if (n >= 0) {
@@ -2385,6 +2828,7 @@ JNIEXPORT jint JNICALL Java_com_sri_yices_Yices_bvZeroExtend(JNIEnv *env, jclass
 }
 
 JNIEXPORT jint JNICALL Java_com_sri_yices_Yices_bvRedAnd(JNIEnv *env, jclass, jint arg) {
+  PROFILE_NATIVE;
   try {
     return yices_redand(arg);
   } catch (std::bad_alloc &ba) {
@@ -2394,6 +2838,7 @@ JNIEXPORT jint JNICALL Java_com_sri_yices_Yices_bvRedAnd(JNIEnv *env, jclass, ji
 }
 
 JNIEXPORT jint JNICALL Java_com_sri_yices_Yices_bvRedOr(JNIEnv *env, jclass, jint arg) {
+  PROFILE_NATIVE;
   try {
     return yices_redor(arg);
   } catch (std::bad_alloc &ba) {
@@ -2403,6 +2848,7 @@ JNIEXPORT jint JNICALL Java_com_sri_yices_Yices_bvRedOr(JNIEnv *env, jclass, jin
 }
 
 JNIEXPORT jint JNICALL Java_com_sri_yices_Yices_bvRedComp(JNIEnv *env, jclass, jint left, jint right) {
+  PROFILE_NATIVE;
   try {
     return yices_redcomp(left, right);
   } catch (std::bad_alloc &ba) {
@@ -2412,6 +2858,7 @@ JNIEXPORT jint JNICALL Java_com_sri_yices_Yices_bvRedComp(JNIEnv *env, jclass, j
 }
 
 JNIEXPORT jint JNICALL Java_com_sri_yices_Yices_bvEq(JNIEnv *env, jclass, jint left, jint right) {
+  PROFILE_NATIVE;
   try {
     return yices_bveq_atom(left, right);
   } catch (std::bad_alloc &ba) {
@@ -2421,6 +2868,7 @@ JNIEXPORT jint JNICALL Java_com_sri_yices_Yices_bvEq(JNIEnv *env, jclass, jint l
 }
 
 JNIEXPORT jint JNICALL Java_com_sri_yices_Yices_bvNeq(JNIEnv *env, jclass, jint left, jint right) {
+  PROFILE_NATIVE;
   try {
     return yices_bvneq_atom(left, right);
   } catch (std::bad_alloc &ba) {
@@ -2430,6 +2878,7 @@ JNIEXPORT jint JNICALL Java_com_sri_yices_Yices_bvNeq(JNIEnv *env, jclass, jint
 }
 
 JNIEXPORT jint JNICALL Java_com_sri_yices_Yices_bvGe(JNIEnv *env, jclass, jint left, jint right) {
+  PROFILE_NATIVE;
   try {
     return yices_bvge_atom(left, right);
   } catch (std::bad_alloc &ba) {
@@ -2439,6 +2888,7 @@ JNIEXPORT jint JNICALL Java_com_sri_yices_Yices_bvGe(JNIEnv *env, jclass, jint l
 }
 
 JNIEXPORT jint JNICALL Java_com_sri_yices_Yices_bvGt(JNIEnv *env, jclass, jint left, jint right) {
+  PROFILE_NATIVE;
   try {
     return yices_bvgt_atom(left, right);
   } catch (std::bad_alloc &ba) {
@@ -2448,6 +2898,7 @@ JNIEXPORT jint JNICALL Java_com_sri_yices_Yices_bvGt(JNIEnv *env, jclass, jint l
 }
 
 JNIEXPORT jint JNICALL Java_com_sri_yices_Yices_bvLe(JNIEnv *env, jclass, jint left, jint right) {
+  PROFILE_NATIVE;
   try {
     return yices_bvle_atom(left, right);
   } catch (std::bad_alloc &ba) {
@@ -2457,6 +2908,7 @@ JNIEXPORT jint JNICALL Java_com_sri_yices_Yices_bvLe(JNIEnv *env, jclass, jint l
 }
 
 JNIEXPORT jint JNICALL Java_com_sri_yices_Yices_bvLt(JNIEnv *env, jclass, jint left, jint right) {
+  PROFILE_NATIVE;
   try {
     return yices_bvlt_atom(left, right);
   } catch (std::bad_alloc &ba) {
@@ -2466,6 +2918,7 @@ JNIEXPORT jint JNICALL Java_com_sri_yices_Yices_bvLt(JNIEnv *env, jclass, jint l
 }
 
 JNIEXPORT jint JNICALL Java_com_sri_yices_Yices_bvSGe(JNIEnv *env, jclass, jint left, jint right) {
+  PROFILE_NATIVE;
   try {
     return yices_bvsge_atom(left, right);
   } catch (std::bad_alloc &ba) {
@@ -2475,6 +2928,7 @@ JNIEXPORT jint JNICALL Java_com_sri_yices_Yices_bvSGe(JNIEnv *env, jclass, jint
 }
 
 JNIEXPORT jint JNICALL Java_com_sri_yices_Yices_bvSGt(JNIEnv *env, jclass, jint left, jint right) {
+  PROFILE_NATIVE;
   try {
     return yices_bvsgt_atom(left, right);
   } catch (std::bad_alloc &ba) {
@@ -2484,6 +2938,7 @@ JNIEXPORT jint JNICALL Java_com_sri_yices_Yices_bvSGt(JNIEnv *env, jclass, jint
 }
 
 JNIEXPORT jint JNICALL Java_com_sri_yices_Yices_bvSLe(JNIEnv *env, jclass, jint left, jint right) {
+  PROFILE_NATIVE;
   try {
     return yices_bvsle_atom(left, right);
   } catch (std::bad_alloc &ba) {
@@ -2493,6 +2948,7 @@ JNIEXPORT jint JNICALL Java_com_sri_yices_Yices_bvSLe(JNIEnv *env, jclass, jint
 }
 
 JNIEXPORT jint JNICALL Java_com_sri_yices_Yices_bvSLt(JNIEnv *env, jclass, jint left, jint right) {
+  PROFILE_NATIVE;
   try {
     return yices_bvslt_atom(left, right);
   } catch (std::bad_alloc &ba) {
@@ -2508,47 +2964,58 @@ JNIEXPORT jint JNICALL Java_com_sri_yices_Yices_bvSLt(JNIEnv *env, jclass, jint
 
 // These shouldn't caue out-of-memory exception
 JNIEXPORT jint JNICALL Java_com_sri_yices_Yices_typeOfTerm(JNIEnv *env, jclass, jint x) {
+  PROFILE_NATIVE;
   return yices_type_of_term(x);
 }
 
 JNIEXPORT jboolean JNICALL Java_com_sri_yices_Yices_termIsBool(JNIEnv *env, jclass, jint x) {
+  PROFILE_NATIVE;
   return yices_term_is_bool(x);
 }
 
 JNIEXPORT jboolean JNICALL Java_com_sri_yices_Yices_termIsInt(JNIEnv *env, jclass, jint x) {
+  PROFILE_NATIVE;
   return yices_term_is_int(x);
 }
 
 JNIEXPORT jboolean JNICALL Java_com_sri_yices_Yices_termIsReal(JNIEnv *env, jclass, jint x) {
+  PROFILE_NATIVE;
   return yices_term_is_real(x);
 }
 
 JNIEXPORT jboolean JNICALL Java_com_sri_yices_Yices_termIsArithmetic(JNIEnv *env, jclass, jint x) {
+  PROFILE_NATIVE;
   return yices_term_is_arithmetic(x);
 }
 
 JNIEXPORT jboolean JNICALL Java_com_sri_yices_Yices_termIsBitvector(JNIEnv *env, jclass, jint x) {
+  PROFILE_NATIVE;
   return yices_term_is_bitvector(x);
 }
 
 JNIEXPORT jboolean JNICALL Java_com_sri_yices_Yices_termIsTuple(JNIEnv *env, jclass, jint x) {
+  PROFILE_NATIVE;
   return yices_term_is_tuple(x);
 }
 
 JNIEXPORT jboolean JNICALL Java_com_sri_yices_Yices_termIsFunction(JNIEnv *env, jclass, jint x) {
+  PROFILE_NATIVE;
   return yices_term_is_function(x);
 }
 
 JNIEXPORT jboolean JNICALL Java_com_sri_yices_Yices_termIsScalar(JNIEnv *env, jclass, jint x) {
+  PROFILE_NATIVE;
   return yices_term_is_scalar(x);
 }
 
 JNIEXPORT jint JNICALL Java_com_sri_yices_Yices_termBitSize(JNIEnv *env, jclass, jint x) {
+  PROFILE_NATIVE;
   return yices_term_bitsize(x);
 }
 
 // this one allocates auxiliary data structures
 JNIEXPORT jboolean JNICALL Java_com_sri_yices_Yices_termIsGround(JNIEnv *env, jclass, jint x) {
+  PROFILE_NATIVE;
   try {
     return yices_term_is_ground(x);
   } catch (std::bad_alloc &ba) {
@@ -2558,39 +3025,48 @@ JNIEXPORT jboolean JNICALL Java_com_sri_yices_Yices_termIsGround(JNIEnv *env, jc
 }
 
 JNIEXPORT jboolean JNICALL Java_com_sri_yices_Yices_termIsAtomic(JNIEnv *env, jclass, jint x) {
+  PROFILE_NATIVE;
   return yices_term_is_atomic(x);
 }
 
 JNIEXPORT jboolean JNICALL Java_com_sri_yices_Yices_termIsComposite(JNIEnv *env, jclass, jint x) {
+  PROFILE_NATIVE;
   return yices_term_is_composite(x);
 }
 
 JNIEXPORT jboolean JNICALL Java_com_sri_yices_Yices_termIsProjection(JNIEnv *env, jclass, jint x) {
+  PROFILE_NATIVE;
   return yices_term_is_projection(x);
 }
 
 JNIEXPORT jboolean JNICALL Java_com_sri_yices_Yices_termIsSum(JNIEnv *env, jclass, jint x) {
+  PROFILE_NATIVE;
   return yices_term_is_sum(x);
 }
 
 JNIEXPORT jboolean JNICALL Java_com_sri_yices_Yices_termIsBvSum(JNIEnv *env, jclass, jint x) {
+  PROFILE_NATIVE;
   return yices_term_is_bvsum(x);
 }
 
 JNIEXPORT jboolean JNICALL Java_com_sri_yices_Yices_termIsProduct(JNIEnv *env, jclass, jint x) {
+  PROFILE_NATIVE;
   return yices_term_is_product(x);
 }
 
 JNIEXPORT jint JNICALL Java_com_sri_yices_Yices_termConstructor(JNIEnv *env, jclass, jint x) {
+  PROFILE_NATIVE;
   // we just return the Yices constructor code here
   return yices_term_constructor(x);
 }
 
 JNIEXPORT jint JNICALL Java_com_sri_yices_Yices_termNumChildren(JNIEnv *env, jclass, jint x) {
+  PROFILE_NATIVE;
   return yices_term_num_children(x);
 }
 
 JNIEXPORT jint JNICALL Java_com_sri_yices_Yices_termChild(JNIEnv *env, jclass, jint x, jint idx) {
+  PROFILE_NATIVE;
   return yices_term_child(x, idx);
 }
 
@@ -2599,11 +3075,28 @@ JNIEXPORT jint JNICALL Java_com_sri_yices_Yices_termChild(JNIEnv *env, jclass, j
  * return NULL is t is not a valid term
  */
 JNIEXPORT jintArray JNICALL Java_com_sri_yices_Yices_termChildren(JNIEnv *env, jclass, jint t) {
+  PROFILE_NATIVE;
 #ifdef YICES_AT_LEAST_2_6_2
   term_vector_t aux;
   jintArray result = NULL;
   int32_t code;
 
+  // fast path: composite term with few children, no term_vector
+  // anything else (including errors) goes through yices_term_children
+  int32_t n = yices_term_num_children(t);
+  if (0 < n && n <= CHILDREN_SIZE) {
+    term_t c[CHILDREN_SIZE];
+    int32_t i;
+    for (i=0; i<n; i++) {
+      c[i] = yices_term_child(t, i);
+      if (c[i] < 0) break;
+    }
+    if (i == n) {
+      return convertToIntArray(env, n, c);
+    }
+  }
+  yices_clear_error();
+
   try {
     yices_init_term_vector(&aux);
 
@@ -2623,14 +3116,17 @@ JNIEXPORT jintArray JNICALL Java_com_sri_yices_Yices_termChildren(JNIEnv *env, j
 }
 
 JNIEXPORT jint JNICALL Java_com_sri_yices_Yices_termProjIndex(JNIEnv *env, jclass, jint x) {
+  PROFILE_NATIVE;
   return yices_proj_index(x);
 }
 
 JNIEXPORT jint JNICALL Java_com_sri_yices_Yices_termProjArg(JNIEnv *env, jclass, jint x) {
+  PROFILE_NATIVE;
   return yices_proj_arg(x);
 }
 
 JNIEXPORT jint JNICALL Java_com_sri_yices_Yices_boolConstValue(JNIEnv *env, jclass, jint x) {
+  PROFILE_NATIVE;
   int32_t val;
   jint result;
 
@@ -2642,6 +3138,7 @@ JNIEXPORT jint JNICALL Java_com_sri_yices_Yices_boolConstValue(JNIEnv *env, jcla
 }
 
 JNIEXPORT jint JNICALL Java_com_sri_yices_Yices_scalarConstantIndex(JNIEnv *env, jclass, jint x) {
+  PROFILE_NATIVE;
   int32_t val;
   jint result;
 
@@ -2653,6 +3150,7 @@ JNIEXPORT jint JNICALL Java_com_sri_yices_Yices_scalarConstantIndex(JNIEnv *env,
 }
 
 JNIEXPORT jbooleanArray JNICALL Java_com_sri_yices_Yices_bvConstValue(JNIEnv *env, jclass, jint x) {
+  PROFILE_NATIVE;
   jbooleanArray result = NULL;
 
   if (yices_term_constructor(x) == YICES_BV_CONSTANT) {
@@ -2684,12 +3182,42 @@ JNIEXPORT jbooleanArray JNICALL Java_com_sri_yices_Yices_bvConstValue(JNIEnv *en
 }
 
 
+/*
+ * Value of a bitvector constant x packed in w (see copy_bits_to_words)
+ * - returns the number of bits, or -1 if x is not a bitvector constant
+ */
+JNIEXPORT jint JNICALL Java_com_sri_yices_Yices_bvConstValueAsWords(JNIEnv *env, jclass, jint x, jlongArray w) {
+  PROFILE_NATIVE;
+  jint result = -1;
+
+  if (yices_term_constructor(x) == YICES_BV_CONSTANT) {
+    uint32_t n = yices_term_bitsize(x);
+    try {
+      if (n <= 64) {
+        int32_t a[64];
+        yices_bv_const_value(x, a);
+        result = copy_bits_to_words(env, n, a, w);
+      } else {
+        std::vector<int32_t> a(n);
+        yices_bv_const_value(x, a.data());
+        result = copy_bits_to_words(env, n, a.data(), w);
+      }
+    } catch (std::bad_alloc &ba) {
+      out_of_mem_exception(env);
+    }
+  }
+
+  return result;
+}
+
+
 /*
  * Numerator of a rational constant x
  * - return NULL if x is not a rational constant
  * - return a byte array that contains the numerator otherwise
  */
 JNIEXPORT jbyteArray JNICALL Java_com_sri_yices_Yices_rationalConstNumAsBytes(JNIEnv *env, jclass, jint x) {
+  PROFILE_NATIVE;
   jbyteArray result = NULL;
   mpq_t q;
 
@@ -2707,6 +3235,7 @@ JNIEXPORT jbyteArray JNICALL Java_com_sri_yices_Yices_rationalConstNumAsBytes(JN
  * Denominator as an array of bytes
  */
 JNIEXPORT jbyteArray JNICALL Java_com_sri_yices_Yices_rationalConstDenAsBytes(JNIEnv *env, jclass, jint x) {
+  PROFILE_NATIVE;
   jbyteArray result = NULL;
   mpq_t q;
 
@@ -2729,6 +3258,7 @@ JNIEXPORT jbyteArray JNICALL Java_com_sri_yices_Yices_rationalConstDenAsBytes(JN
  * Give a a name to term t
  */
 JNIEXPORT jint JNICALL Java_com_sri_yices_Yices_setTermName(JNIEnv *env, jclass, jint t, jstring name) {
+  PROFILE_NATIVE;
   jint code = -1;
   const char *s = env->GetStringUTFChars(name, NULL);
 
@@ -2751,6 +3281,7 @@ JNIEXPORT jint JNICALL Java_com_sri_yices_Yices_setTermName(JNIEnv *env, jclass,
  * Remove the mapping from name to a term
  */
 JNIEXPORT void JNICALL Java_com_sri_yices_Yices_removeTermName(JNIEnv *env, jclass, jstring name) {
+  PROFILE_NATIVE;
   const char *s = env->GetStringUTFChars(name, NULL);
 
   if (s == NULL) {
@@ -2762,14 +3293,17 @@ JNIEXPORT void JNICALL Java_com_sri_yices_Yices_removeTermName(JNIEnv *env, jcla
 }
 
 JNIEXPORT jint JNICALL Java_com_sri_yices_Yices_clearTermName(JNIEnv *env, jclass, jint t) {
+  PROFILE_NATIVE;
   return yices_clear_term_name(t);
 }
 
 JNIEXPORT jstring JNICALL Java_com_sri_yices_Yices_getTermName(JNIEnv *env, jclass, jint t) {
+  PROFILE_NATIVE;
   return convertToString(env, yices_get_term_name(t));
 }
 
 JNIEXPORT jint JNICALL Java_com_sri_yices_Yices_getTermByName(JNIEnv *env, jclass, jstring name) {
+  PROFILE_NATIVE;
   jint t = -1;
   const char *s = env->GetStringUTFChars(name, NULL);
 
@@ -2792,6 +3326,7 @@ JNIEXPORT jint JNICALL Java_com_sri_yices_Yices_getTermByName(JNIEnv *env, jclas
  * We print into an array of 80 columns x 30 lines
  */
 JNIEXPORT jstring JNICALL Java_com_sri_yices_Yices_termToString__III(JNIEnv *env, jclass, jint t, jint columns, jint lines) {
+  PROFILE_NATIVE;
   char *s;
   jstring result;
 
@@ -2805,6 +3340,7 @@ JNIEXPORT jstring JNICALL Java_com_sri_yices_Yices_termToString__III(JNIEnv *env
 }
 
 JNIEXPORT jstring JNICALL Java_com_sri_yices_Yices_termToString__I(JNIEnv *env, jclass, jint t) {
+  PROFILE_NATIVE;
   char *s;
   jstring result;
 
@@ -2819,6 +3355,7 @@ JNIEXPORT jstring JNICALL Java_com_sri_yices_Yices_termToString__I(JNIEnv *env,
  * Parse s as term using the Yices syntax
  */
 JNIEXPORT jint JNICALL Java_com_sri_yices_Yices_parseTerm(JNIEnv *env, jclass, jstring s) {
+  PROFILE_NATIVE;
   jint result = -1;
   const char *aux = env->GetStringUTFChars(s, NULL);
 
@@ -2841,6 +3378,7 @@ JNIEXPORT jint JNICALL Java_com_sri_yices_Yices_parseTerm(JNIEnv *env, jclass, j
  * Substitution defined by v[] and map[] applied to term t
  */
 JNIEXPORT jint JNICALL Java_com_sri_yices_Yices_substTerm(JNIEnv *env, jclass, jint t, jintArray v, jintArray map) {
+  PROFILE_NATIVE;
   jint result = -1;
   jsize n = env->GetArrayLength(v);
 
@@ -2863,6 +3401,7 @@ JNIEXPORT jint JNICALL Java_com_sri_yices_Yices_substTerm(JNIEnv *env, jclass, j
  * Apply the substitution to all elements of array a
  */
 JNIEXPORT jint JNICALL Java_com_sri_yices_Yices_substTermArray(JNIEnv *env, jclass, jintArray a, jintArray v, jintArray map) {
+  PROFILE_NATIVE;
   jint result = -1;
   jsize n = env->GetArrayLength(v);
 
@@ -2887,6 +3426,269 @@ JNIEXPORT jint JNICALL Java_com_sri_yices_Yices_substTermArray(JNIEnv *env, jcla
   return result;
 }
 
+/*
+ * BATCHED TERM CONSTRUCTION
+ */
+
+/*
+ * Opcodes: must match the constants defined in TermBatch.java
+ */
+enum batch_opcode {
+  BATCH_NOT, BATCH_AND, BATCH_OR, BATCH_XOR, BATCH_IFF, BATCH_IMPLIES, BATCH_ITE,
+  BATCH_EQ, BATCH_NEQ, BATCH_DISTINCT, BATCH_APPLY,
+  BATCH_INT, BATCH_ADD, BATCH_SUB, BATCH_NEG, BATCH_MUL, BATCH_SUM, BATCH_PRODUCT,
+  BATCH_ARITH_EQ, BATCH_ARITH_NEQ, BATCH_ARITH_GEQ, BATCH_ARITH_LEQ, BATCH_ARITH_GT, BATCH_ARITH_LT,
+  BATCH_BV_CONST, BATCH_BV_ADD, BATCH_BV_SUB, BATCH_BV_NEG, BATCH_BV_MUL, BATCH_BV_NOT,
+  BATCH_BV_AND, BATCH_BV_OR, BATCH_BV_XOR, BATCH_BV_SHL, BATCH_BV_LSHR, BATCH_BV_ASHR,
+  BATCH_BV_EXTRACT, BATCH_BV_EXTRACT_BIT, BATCH_BV_CONCAT, BATCH_BV_ZERO_EXTEND, BATCH_BV_SIGN_EXTEND,
+  BATCH_BV_EQ, BATCH_BV_NEQ, BATCH_BV_GE, BATCH_BV_GT, BATCH_BV_LE, BATCH_BV_LT,
+  BATCH_BV_SGE, BATCH_BV_SGT, BATCH_BV_SLE, BATCH_BV_SLT,
+};
+
+/*
+ * Operand x: either a term (x >= 0) or a reference to slot -2 - x.
+ * References are checked on the Java side but we make sure we
+ * don't read outside of terms[0 ... slot-1]. A bad reference is
+ * converted to NULL_TERM and causes an error in yices.
+ */
+static inline term_t batch_operand(int32_t x, const term_t *terms, int32_t slot) {
+  if (x >= 0) return x;
+  int32_t k = -2 - x;
+  return (0 <= k && k < slot) ? terms[k] : NULL_TERM;
+}
+
+/*
+ * Execute one instruction starting at code[i]
+ * - aux must be large enough to store the operands of n-ary operations
+ * - return the new term and store the index of the next instruction in *next
+ * - return NULL_TERM if the instruction is malformed
+ */
+static term_t batch_step(const int32_t *code, int32_t i, int32_t len, const term_t *terms, int32_t slot, term_t *aux, int32_t *next) {
+  int32_t op = code[i];
+  int32_t n, k;
+  term_t t, a, b;
+  uint64_t x;
+
+  i ++;
+  switch (op) {
+  case BATCH_NOT:
+  case BATCH_NEG:
+  case BATCH_BV_NEG:
+  case BATCH_BV_NOT:
+    if (i + 1 > len) return NULL_TERM;
+    a = batch_operand(code[i], terms, slot);
+    *next = i + 1;
+    switch (op) {
+    case BATCH_NOT: return yices_not(a);
+    case BATCH_NEG: return yices_neg(a);
+    case BATCH_BV_NEG: return yices_bvneg(a);
+    default: return yices_bvnot(a);
+    }
+
+  case BATCH_IFF:
+  case BATCH_IMPLIES:
+  case BATCH_EQ:
+  case BATCH_NEQ:
+  case BATCH_ADD:
+  case BATCH_SUB:
+  case BATCH_MUL:
+  case BATCH_ARITH_EQ:
+  case BATCH_ARITH_NEQ:
+  case BATCH_ARITH_GEQ:
+  case BATCH_ARITH_LEQ:
+  case BATCH_ARITH_GT:
+  case BATCH_ARITH_LT:
+  case BATCH_BV_ADD:
+  case BATCH_BV_SUB:
+  case BATCH_BV_MUL:
+  case BATCH_BV_SHL:
+  case BATCH_BV_LSHR:
+  case BATCH_BV_ASHR:
+  case BATCH_BV_EQ:
+  case BATCH_BV_NEQ:
+  case BATCH_BV_GE:
+  case BATCH_BV_GT:
+  case BATCH_BV_LE:
+  case BATCH_BV_LT:
+  case BATCH_BV_SGE:
+  case BATCH_BV_SGT:
+  case BATCH_BV_SLE:
+  case BATCH_BV_SLT:
+    if (i + 2 > len) return NULL_TERM;
+    a = batch_operand(code[i], terms, slot);
+    b = batch_operand(code[i+1], terms, slot);
+    *next = i + 2;
+    switch (op) {
+    case BATCH_IFF: return yices_iff(a, b);
+    case BATCH_IMPLIES: return yices_implies(a, b);
+    case BATCH_EQ: return yices_eq(a, b);
+    case BATCH_NEQ: return yices_neq(a, b);
+    case BATCH_ADD: return yices_add(a, b);
+    case BATCH_SUB: return yices_sub(a, b);
+    case BATCH_MUL: return yices_mul(a, b);
+    case BATCH_ARITH_EQ: return yices_arith_eq_atom(a, b);
+    case BATCH_ARITH_NEQ: return yices_arith_neq_atom(a, b);
+    case BATCH_ARITH_GEQ: return yices_arith_geq_atom(a, b);
+    case BATCH_ARITH_LEQ: return yices_arith_leq_atom(a, b);
+    case BATCH_ARITH_GT: return yices_arith_gt_atom(a, b);
+    case BATCH_ARITH_LT: return yices_arith_lt_atom(a, b);
+    case BATCH_BV_ADD: return yices_bvadd(a, b);
+    case BATCH_BV_SUB: return yices_bvsub(a, b);
+    case BATCH_BV_MUL: return yices_bvmul(a, b);
+    case BATCH_BV_SHL: return yices_bvshl(a, b);
+    case BATCH_BV_LSHR: return yices_bvlshr(a, b);
+    case BATCH_BV_ASHR: return yices_bvashr(a, b);
+    case BATCH_BV_EQ: return yices_bveq_atom(a, b);
+    case BATCH_BV_NEQ: return yices_bvneq_atom(a, b);
+    case BATCH_BV_GE: return yices_bvge_atom(a, b);
+    case BATCH_BV_GT: return yices_bvgt_atom(a, b);
+    case BATCH_BV_LE: return yices_bvle_atom(a, b);
+    case BATCH_BV_LT: return yices_bvlt_atom(a, b);
+    case BATCH_BV_SGE: return yices_bvsge_atom(a, b);
+    case BATCH_BV_SGT: return yices_bvsgt_atom(a, b);
+    case BATCH_BV_SLE: return yices_bvsle_atom(a, b);
+    default: return yices_bvslt_atom(a, b);
+    }
+
+  case BATCH_AND:
+  case BATCH_OR:
+  case BATCH_XOR:
+  case BATCH_DISTINCT:
+  case BATCH_SUM:
+  case BATCH_PRODUCT:
+  case BATCH_BV_AND:
+  case BATCH_BV_OR:
+  case BATCH_BV_XOR:
+  case BATCH_BV_CONCAT:
+    if (i + 1 > len) return NULL_TERM;
+    n = code[i];
+    i ++;
+    if (n <= 0 || n > len - i) return NULL_TERM;
+    for (k=0; k<n; k++) {
+      aux[k] = batch_operand(code[i + k], terms, slot);
+    }
+    *next = i + n;
+    switch (op) {
+    case BATCH_AND: return yices_and(n, aux);
+    case BATCH_OR: return yices_or(n, aux);
+    case BATCH_XOR: return yices_xor(n, aux);
+    case BATCH_DISTINCT: return yices_distinct(n, aux);
+    case BATCH_SUM: return yices_sum(n, aux);
+    case BATCH_PRODUCT: return yices_product(n, aux);
+    case BATCH_BV_AND: return yices_bvand(n, aux);
+    case BATCH_BV_OR: return yices_bvor(n, aux);
+    case BATCH_BV_XOR: return yices_bvxor(n, aux);
+    default: return yices_bvconcat(n, aux);
+    }
+
+  case BATCH_ITE:
+    if (i + 3 > len) return NULL_TERM;
+    t = batch_operand(code[i], terms, slot);
+    a = batch_operand(code[i+1], terms, slot);
+    b = batch_operand(code[i+2], terms, slot);
+    *next = i + 3;
+    return yices_ite(t, a, b);
+
+  case BATCH_APPLY:
+    if (i + 2 > len) return NULL_TERM;
+    t = batch_operand(code[i], terms, slot);
+    n = code[i+1];
+    i += 2;
+    if (n <= 0 || n > len - i) return NULL_TERM;
+    for (k=0; k<n; k++) {
+      aux[k] = batch_operand(code[i + k], terms, slot);
+    }
+    *next = i + n;
+    return yices_application(t, n, aux);
+
+  case BATCH_INT:
+    if (i + 1 > len) return NULL_TERM;
+    *next = i + 1;
+    return yices_int64(code[i]);
+
+  case BATCH_BV_CONST:
+    // size, low-order 32 bits, high-order 32 bits
+    if (i + 3 > len) return NULL_TERM;
+    x = (((uint64_t) (uint32_t) code[i+2]) << 32) | ((uint64_t) (uint32_t) code[i+1]);
+    *next = i + 3;
+    return yices_bvconst_int64(code[i], (int64_t) x);
+
+  case BATCH_BV_EXTRACT:
+    if (i + 3 > len) return NULL_TERM;
+    a = batch_operand(code[i], terms, slot);
+    *next = i + 3;
+    return yices_bvextract(a, code[i+1], code[i+2]);
+
+  case BATCH_BV_EXTRACT_BIT:
+  case BATCH_BV_ZERO_EXTEND:
+  case BATCH_BV_SIGN_EXTEND:
+    if (i + 2 > len) return NULL_TERM;
+    a = batch_operand(code[i], terms, slot);
+    *next = i + 2;
+    switch (op) {
+    case BATCH_BV_EXTRACT_BIT: return yices_bitextract(a, code[i+1]);
+    case BATCH_BV_ZERO_EXTEND: return yices_zero_extend(a, code[i+1]);
+    default: return yices_sign_extend(a, code[i+1]);
+    }
+
+  default:
+    return NULL_TERM;
+  }
+}
+
+/*
+ * Replay the instructions in code[0 ... length-1] and store the terms in array terms.
+ * - return the number of terms built: if that's less than the number of instructions,
+ *   the yices error is for the instruction at that index.
+ * - a malformed instruction stops the replay with an INVALID_TERM error
+ * - n-ary operands are collected in a separate buffer (aux, length elements):
+ *   code is only read, it is released with JNI_ABORT
+ */
+JNIEXPORT jint JNICALL Java_com_sri_yices_Yices_replayTermBatch(JNIEnv *env, jclass, jintArray code, jint length, jintArray terms) {
+  PROFILE_NATIVE;
+  jint result = -1;
+  jsize m = env->GetArrayLength(terms);
+
+  if (length < 0 || length > env->GetArrayLength(code)) {
+    return result;
+  }
+
+  int32_t *c = array2int32(env, code, NULL);
+  term_t *out = array2terms(env, terms, NULL);
+  term_t *aux = NULL;
+  if (c == NULL || out == NULL) {
+    out_of_mem_exception(env);
+  } else {
+    int32_t slot = 0;
+    int32_t i = 0;
+    try {
+      aux = new term_t[length > 0 ? length : 1];
+      while (i < length && slot < m) {
+        int32_t next = length;
+        term_t t = batch_step(c, i, length, out, slot, aux, &next);
+        if (t < 0) {
+          if (yices_error_code() == 0) {
+            // malformed code: make sure the error is reported
+            yices_not(NULL_TERM);
+          }
+          break;
+        }
+        out[slot] = t;
+        slot ++;
+        i = next;
+      }
+    } catch (std::bad_alloc &ba) {
+      out_of_mem_exception(env);
+    }
+    delete [] aux;
+    result = slot;
+  }
+  if (c != NULL) release_int32_elems(env, code, c);
+  if (out != NULL) release_term_elems(env, terms, out, 0); // copy back
+
+  return result;
+}
+
 
 /*
  * GARBAGE COLLECTION
@@ -2894,16 +3696,19 @@ JNIEXPORT jint JNICALL Java_com_sri_yices_Yices_substTermArray(JNIEnv *env, jcla
 
 // number of terms. The result is uint32 but it can be safely converted to int32.
 JNIEXPORT jint JNICALL Java_com_sri_yices_Yices_yicesNumTerms(JNIEnv *, jclass) {
+  PROFILE_NATIVE;
   return yices_num_terms();
 }
 
 // number of types.
 JNIEXPORT jint JNICALL Java_com_sri_yices_Yices_yicesNumTypes(JNIEnv *, jclass) {
+  PROFILE_NATIVE;
   return yices_num_types();
 }
 
 // increment the reference counter for term t. Yices may allocate memory.
 JNIEXPORT jint JNICALL Java_com_sri_yices_Yices_yicesIncrefTerm(JNIEnv *env, jclass, jint t) {
+  PROFILE_NATIVE;
   int result;
   try {
     result = yices_incref_term(t);
@@ -2915,11 +3720,13 @@ JNIEXPORT jint JNICALL Java_com_sri_yices_Yices_yicesIncrefTerm(JNIEnv *env, jcl
 
 // decrement the reference counter: doesn't allocate memory
 JNIEXPORT jint JNICALL Java_com_sri_yices_Yices_yicesDecrefTerm(JNIEnv *, jclass, jint t) {
+  PROFILE_NATIVE;
   return yices_decref_term(t);
 }
 
 // increment the reference counter of type tau.
 JNIEXPORT jint JNICALL Java_com_sri_yices_Yices_yicesIncrefType(JNIEnv *env, jclass, jint tau) {
+  PROFILE_NATIVE;
   int result;
   try {
     result = yices_incref_type(tau);
@@ -2931,22 +3738,26 @@ JNIEXPORT jint JNICALL Java_com_sri_yices_Yices_yicesIncrefType(JNIEnv *env, jcl
 
 // decrement the reference counter of type tau.
 JNIEXPORT jint JNICALL Java_com_sri_yices_Yices_yicesDecrefType(JNIEnv *, jclass, jint tau) {
+  PROFILE_NATIVE;
   return yices_decref_type(tau);
 }
 
 // number of terms with a positive reference counter.
 JNIEXPORT jint JNICALL Java_com_sri_yices_Yices_yicesNumPosrefTerms(JNIEnv *, jclass) {
+  PROFILE_NATIVE;
   return yices_num_posref_terms();
 }
 
 // number of types with a postive reference counter.
 JNIEXPORT jint JNICALL Java_com_sri_yices_Yices_yicesNumPosrefTypes(JNIEnv *, jclass) {
+  PROFILE_NATIVE;
   return yices_num_posref_types();
 }
 
 // call the garbage collector
 JNIEXPORT void JNICALL Java_com_sri_yices_Yices_yicesGarbageCollect(JNIEnv *env, jclass,
                                                                     jintArray rootTerms, jintArray rootTypes, jboolean keepNamed) {
+  PROFILE_NATIVE;
 
   // rootTerms and rootTypes may be null.
   // GetArrayLength and GetIntArrayElements seg fault if the array is NULL
@@ -2998,6 +3809,7 @@ JNIEXPORT void JNICALL Java_com_sri_yices_Yices_yicesGarbageCollect(JNIEnv *env,
  * - the descriptor is set to the default configuration
  */
 JNIEXPORT jlong JNICALL Java_com_sri_yices_Yices_newConfig(JNIEnv *env, jclass) {
+  PROFILE_NATIVE;
   jlong result = 0; // NULL pointer
   try {
     result = reinterpret_cast<jlong>(yices_new_config());
@@ -3012,6 +3824,7 @@ JNIEXPORT jlong JNICALL Java_com_sri_yices_Yices_newConfig(JNIEnv *env, jclass)
  * Deletion
  */
 JNIEXPORT void JNICALL Java_com_sri_yices_Yices_freeConfig(JNIEnv *env, jclass, jlong config) {
+  PROFILE_NATIVE;
   yices_free_config(reinterpret_cast<ctx_config_t*>(config));
 }
 
@@ -3021,6 +3834,7 @@ JNIEXPORT void JNICALL Java_com_sri_yices_Yices_freeConfig(JNIEnv *env, jclass,
  * - value = the value
  */
 JNIEXPORT jint JNICALL Java_com_sri_yices_Yices_setConfig(JNIEnv *env, jclass, jlong config, jstring name, jstring value) {
+  PROFILE_NATIVE;
   jint code = -1;
   const char *n = env->GetStringUTFChars(name, NULL);
   const char *v = env->GetStringUTFChars(value, NULL);
@@ -3040,6 +3854,7 @@ JNIEXPORT jint JNICALL Java_com_sri_yices_Yices_setConfig(JNIEnv *env, jclass, j
  * Set config to a default solver type or solver combination for the given logic
  */
 JNIEXPORT jint JNICALL Java_com_sri_yices_Yices_defaultConfigForLogic(JNIEnv *env, jclass, jlong config, jstring logic) {
+  PROFILE_NATIVE;
   jint code = -1;
   const char *l = env->GetStringUTFChars(logic, NULL);
   if (l == NULL) {
@@ -3053,6 +3868,7 @@ JNIEXPORT jint JNICALL Java_com_sri_yices_Yices_defaultConfigForLogic(JNIEnv *en
 }
 
 JNIEXPORT jlong JNICALL Java_com_sri_yices_Yices_newContext(JNIEnv *env, jclass, jlong config) {
+  PROFILE_NATIVE;
   jlong result = 0; // NULL pointer
 
   try {
@@ -3064,18 +3880,22 @@ JNIEXPORT jlong JNICALL Java_com_sri_yices_Yices_newContext(JNIEnv *env, jclass,
 }
 
 JNIEXPORT void JNICALL Java_com_sri_yices_Yices_freeContext(JNIEnv *env, jclass, jlong context) {
+  PROFILE_NATIVE;
   yices_free_context(reinterpret_cast<context_t*>(context));
 }
 
 JNIEXPORT jint JNICALL Java_com_sri_yices_Yices_contextStatus(JNIEnv *env, jclass, jlong ctx) {
+  PROFILE_NATIVE;
   return yices_context_status(reinterpret_cast<context_t*>(ctx));
 }
 
 JNIEXPORT void JNICALL Java_com_sri_yices_Yices_resetContext (JNIEnv *env, jclass, jlong ctx) {
+  PROFILE_NATIVE;
   yices_reset_context(reinterpret_cast<context_t*>(ctx));
 }
 
 JNIEXPORT jint JNICALL Java_com_sri_yices_Yices_push(JNIEnv *env, jclass, jlong ctx) {
+  PROFILE_NATIVE;
   jint result = -1;
   try {
     result = yices_push(reinterpret_cast<context_t*>(ctx));
@@ -3086,6 +3906,7 @@ JNIEXPORT jint JNICALL Java_com_sri_yices_Yices_push(JNIEnv *env, jclass, jlong
 }
 
 JNIEXPORT jint JNICALL Java_com_sri_yices_Yices_pop(JNIEnv *env, jclass, jlong ctx) {
+  PROFILE_NATIVE;
   jint result = -1;
 
   try {
@@ -3097,6 +3918,7 @@ JNIEXPORT jint JNICALL Java_com_sri_yices_Yices_pop(JNIEnv *env, jclass, jlong c
 }
 
 JNIEXPORT jint JNICALL Java_com_sri_yices_Yices_contextEnableOption(JNIEnv *env, jclass, jlong ctx, jstring opt) {
+  PROFILE_NATIVE;
   jint result = -1;
   const char *option = env->GetStringUTFChars(opt, NULL);
 
@@ -3110,6 +3932,7 @@ JNIEXPORT jint JNICALL Java_com_sri_yices_Yices_contextEnableOption(JNIEnv *env,
 }
 
 JNIEXPORT jint JNICALL Java_com_sri_yices_Yices_contextDisableOption(JNIEnv *env, jclass, jlong ctx, jstring opt) {
+  PROFILE_NATIVE;
   jint result = -1;
   const char *option = env->GetStringUTFChars(opt, NULL);
   if (opt == NULL) {
@@ -3121,6 +3944,7 @@ JNIEXPORT jint JNICALL Java_com_sri_yices_Yices_contextDisableOption(JNIEnv *env
 }
 
 JNIEXPORT jint JNICALL Java_com_sri_yices_Yices_assertFormula(JNIEnv *env, jclass, jlong ctx, jint t) {
+  PROFILE_NATIVE;
   jint result = -1;
   try {
     result = yices_assert_formula(reinterpret_cast<context_t*>(ctx), t);
@@ -3131,6 +3955,7 @@ JNIEXPORT jint JNICALL Java_com_sri_yices_Yices_assertFormula(JNIEnv *env, jclas
 }
 
 JNIEXPORT jint JNICALL Java_com_sri_yices_Yices_assertFormulas(JNIEnv *env, jclass, jlong ctx, jintArray t) {
+  PROFILE_NATIVE;
   jsize n = env->GetArrayLength(t);
   term_t *a = array2terms(env, t, NULL);
   jint result = -1;
@@ -3149,6 +3974,7 @@ JNIEXPORT jint JNICALL Java_com_sri_yices_Yices_assertFormulas(JNIEnv *env, jcla
 }
 
 JNIEXPORT jint JNICALL Java_com_sri_yices_Yices_checkContext(JNIEnv *env, jclass, jlong ctx, jlong params) {
+  PROFILE_NATIVE;
   jint result = -1;
 
   try {
@@ -3161,6 +3987,7 @@ JNIEXPORT jint JNICALL Java_com_sri_yices_Yices_checkContext(JNIEnv *env, jclass
 
 //Since 2.?.?  (new in the 2.6.4 bindings)
 JNIEXPORT jint JNICALL Java_com_sri_yices_Yices_checkContextWithAssumptions(JNIEnv *env, jclass, jlong ctx, jlong params, jintArray t) {
+  PROFILE_NATIVE;
   jsize n = env->GetArrayLength(t);
   term_t *a = array2terms(env, t, NULL);
   jint result = -1;
@@ -3178,6 +4005,7 @@ JNIEXPORT jint JNICALL Java_com_sri_yices_Yices_checkContextWithAssumptions(JNIE
 
 // since 2.6.4
 JNIEXPORT jint JNICALL Java_com_sri_yices_Yices_checkContextWithModel(JNIEnv *env, jclass, jlong ctx, jlong params, jlong model, jintArray t){
+  PROFILE_NATIVE;
 #ifdef YICES_AT_LEAST_2_6_4
   jint result = -1;
   jsize n = env->GetArrayLength(t);
@@ -3199,6 +4027,7 @@ JNIEXPORT jint JNICALL Java_com_sri_yices_Yices_checkContextWithModel(JNIEnv *en
 
 // since 2.6.4
 JNIEXPORT jint JNICALL Java_com_sri_yices_Yices_checkContextWithInterpolation(JNIEnv *env, jclass, jlong ctxA, jlong ctxB, jlong params, jlongArray marr, jintArray interpolant){
+  PROFILE_NATIVE;
  #ifdef YICES_AT_LEAST_2_6_4
  jint result = -1;
   jsize i = (interpolant == 0 ? 0 : env->GetArrayLength(interpolant));
@@ -3234,6 +4063,7 @@ JNIEXPORT jint JNICALL Java_com_sri_yices_Yices_checkContextWithInterpolation(JN
 }
 
 JNIEXPORT jint JNICALL Java_com_sri_yices_Yices_assertBlockingClause(JNIEnv *env, jclass, jlong ctx) {
+  PROFILE_NATIVE;
   jint result = -1;
 
   try {
@@ -3244,11 +4074,74 @@ JNIEXPORT jint JNICALL Java_com_sri_yices_Yices_assertBlockingClause(JNIEnv *env
   return result;
 }
 
+/*
+ * One step of model enumeration (see Context.enumerateModels):
+ * - check ctx using params
+ * - if the result is SAT: store the values of vars[0 ... n-1] in the model
+ *   (as constant terms) into values[0 ... n-1], then free the model and
+ *   assert the blocking clause (or (/= vars[0] values[0]) ... (/= vars[n-1] values[n-1]))
+ * - values must have at least n elements
+ *
+ * Returns the status of the check or -1 if there's an error (the error report is set).
+ */
+JNIEXPORT jint JNICALL Java_com_sri_yices_Yices_enumerateNext(JNIEnv *env, jclass, jlong ctx, jlong params,
+                                                              jintArray vars, jintArray values) {
+  PROFILE_NATIVE;
+  context_t *c = reinterpret_cast<context_t*>(ctx);
+  jsize n = env->GetArrayLength(vars);
+  jint result = -1;
+
+  if (env->GetArrayLength(values) < n) {
+    return -1;
+  }
+
+  term_t *v = array2terms(env, vars, NULL);
+  if (v == NULL) {
+    out_of_mem_exception(env);
+    return -1;
+  }
+
+  model_t *mdl = NULL;
+  try {
+    result = yices_check_context(c, reinterpret_cast<param_t*>(params));
+    if (result == STATUS_SAT) {
+      std::vector<term_t> val(n);
+      std::vector<term_t> lit(n);
+      mdl = yices_get_model(c, 1);
+      if (mdl == NULL || (n > 0 && yices_term_array_value(mdl, n, v, val.data()) < 0)) {
+        result = -1;
+      } else {
+        yices_free_model(mdl);
+        mdl = NULL;
+        // the values are constants of the right types so yices_neq can't fail
+        for (jsize i=0; i<n; i++) {
+          lit[i] = yices_neq(v[i], val[i]);
+        }
+        // yices_or may reorder lit
+        term_t clause = yices_or(n, lit.data());
+        if (clause < 0 || yices_assert_formula(c, clause) < 0) {
+          result = -1;
+        } else if (n > 0) {
+          set_int_region(env, values, 0, n, val.data());
+        }
+      }
+    }
+  } catch (std::bad_alloc &ba) {
+    out_of_mem_exception(env);
+    result = -1;
+  }
+  if (mdl != NULL) yices_free_model(mdl);
+  release_term_elems(env, vars, v);
+  return result;
+}
+
 JNIEXPORT void JNICALL Java_com_sri_yices_Yices_stopSearch(JNIEnv *env, jclass, jlong ctx) {
+  PROFILE_NATIVE;
   yices_stop_search(reinterpret_cast<context_t*>(ctx));
 }
 
 JNIEXPORT jlong JNICALL Java_com_sri_yices_Yices_newParamRecord(JNIEnv *env, jclass) {
+  PROFILE_NATIVE;
   jlong result = 0; // NULL Pointer
 
   try {
@@ -3260,10 +4153,12 @@ JNIEXPORT jlong JNICALL Java_com_sri_yices_Yices_newParamRecord(JNIEnv *env, jcl
 }
 
 JNIEXPORT void JNICALL Java_com_sri_yices_Yices_defaultParamsForContext(JNIEnv *env, jclass, jlong ctx, jlong params) {
+  PROFILE_NATIVE;
   yices_default_params_for_context(reinterpret_cast<context_t*>(ctx), reinterpret_cast<param_t*>(params));
 }
 
 JNIEXPORT jint JNICALL Java_com_sri_yices_Yices_setParam(JNIEnv *env, jclass, jlong p, jstring pname, jstring value) {
+  PROFILE_NATIVE;
   jint result = -1;
   const char *pnm = env->GetStringUTFChars(pname, NULL);
   const char *val = env->GetStringUTFChars(value, NULL);
@@ -3280,11 +4175,13 @@ JNIEXPORT jint JNICALL Java_com_sri_yices_Yices_setParam(JNIEnv *env, jclass, jl
 }
 
 JNIEXPORT void JNICALL Java_com_sri_yices_Yices_freeParamRecord(JNIEnv *env, jclass, jlong param) {
+  PROFILE_NATIVE;
   yices_free_param_record(reinterpret_cast<param_t*>(param));
 }
 
 // since 2.?.?  (new in the 2.6.4 bindings)
 JNIEXPORT jintArray JNICALL Java_com_sri_yices_Yices_getUnsatCore(JNIEnv *env, jclass, jlong ctx) {
+  PROFILE_NATIVE;
   jintArray retval = NULL;
   int32_t code;
   term_vector_t aux;
@@ -3303,6 +4200,7 @@ JNIEXPORT jintArray JNICALL Java_com_sri_yices_Yices_getUnsatCore(JNIEnv *env, j
 
 // since 2.6.4
 JNIEXPORT jint JNICALL Java_com_sri_yices_Yices_getModelInterpolant(JNIEnv *env, jclass, jlong ctx) {
+  PROFILE_NATIVE;
 #ifdef YICES_AT_LEAST_2_6_4
   jint result = -1;
   try {
@@ -3316,11 +4214,218 @@ JNIEXPORT jint JNICALL Java_com_sri_yices_Yices_getModelInterpolant(JNIEnv *env,
 #endif
 }
 
+/*
+ * PREFIX OF AN ARRAY (used by TermList)
+ */
+
+/*
+ * Copy a[0 ... n-1] into b
+ * - b must be either buffer (of size AUX_SIZE) or NULL
+ * - if n > AUX_SIZE, we allocate a new array (caller must delete it)
+ * - return NULL if n is not a valid prefix length
+ */
+static int32_t *array_prefix(JNIEnv *env, jintArray a, jint n, int32_t *buffer) {
+  int32_t *b;
+
+  if (n < 0 || n > env->GetArrayLength(a)) return NULL;
+  b = (n <= AUX_SIZE) ? buffer : new int32_t[n];
+  array2int_region(env, a, 0, n, b);
+  return b;
+}
+
+JNIEXPORT jint JNICALL Java_com_sri_yices_Yices_andN(JNIEnv *env, jclass, jintArray a, jint n) {
+  PROFILE_NATIVE;
+  int32_t aux[AUX_SIZE];
+  int32_t *b = NULL;
+  jint result = -1;
+
+  try {
+    b = array_prefix(env, a, n, aux);
+    if (b != NULL) {
+      result = yices_and(n, b);
+    }
+  } catch (std::bad_alloc &ba) {
+    out_of_mem_exception(env);
+  }
+  if (b != aux) delete [] b;
+  return result;
+}
+
+JNIEXPORT jint JNICALL Java_com_sri_yices_Yices_orN(JNIEnv *env, jclass, jintArray a, jint n) {
+  PROFILE_NATIVE;
+  int32_t aux[AUX_SIZE];
+  int32_t *b = NULL;
+  jint result = -1;
+
+  try {
+    b = array_prefix(env, a, n, aux);
+    if (b != NULL) {
+      result = yices_or(n, b);
+    }
+  } catch (std::bad_alloc &ba) {
+    out_of_mem_exception(env);
+  }
+  if (b != aux) delete [] b;
+  return result;
+}
+
+JNIEXPORT jint JNICALL Java_com_sri_yices_Yices_assertFormulasN(JNIEnv *env, jclass, jlong ctx, jintArray a, jint n) {
+  PROFILE_NATIVE;
+  int32_t aux[AUX_SIZE];
+  int32_t *b = NULL;
+  jint result = -1;
+
+  try {
+    b = array_prefix(env, a, n, aux);
+    if (b != NULL) {
+      result = yices_assert_formulas(reinterpret_cast<context_t*>(ctx), n, b);
+    }
+  } catch (std::bad_alloc &ba) {
+    out_of_mem_exception(env);
+  }
+  if (b != aux) delete [] b;
+  return result;
+}
+
+JNIEXPORT jint JNICALL Java_com_sri_yices_Yices_substTermArrayN(JNIEnv *env, jclass, jintArray a, jint na, jintArray v, jintArray map, jint n) {
+  PROFILE_NATIVE;
+  int32_t aux_a[AUX_SIZE], aux_v[AUX_SIZE], aux_m[AUX_SIZE];
+  int32_t *terms = NULL;
+  int32_t *vars = NULL;
+  int32_t *vals = NULL;
+  jint result = -1;
+
+  try {
+    terms = array_prefix(env, a, na, aux_a);
+    vars = array_prefix(env, v, n, aux_v);
+    vals = array_prefix(env, map, n, aux_m);
+    if (terms != NULL && vars != NULL && vals != NULL) {
+      result = yices_subst_term_array(n, vars, vals, na, terms);
+      if (result >= 0) {
+        // copy the result back into a
+        set_int_region(env, a, 0, na, terms);
+      }
+    }
+  } catch (std::bad_alloc &ba) {
+    out_of_mem_exception(env);
+  }
+  if (terms != aux_a) delete [] terms;
+  if (vars != aux_v) delete [] vars;
+  if (vals != aux_m) delete [] vals;
+  return result;
+}
+
+/*
+ * DIRECT BUFFERS
+ */
+
+/*
+ * Address of the int32 at index offset in a direct buffer b
+ * - the Java side checks that b is direct, in native byte order,
+ *   and that offset and the length are within bounds
+ * - return NULL if b is not a direct buffer
+ */
+static inline int32_t *buffer2int32(JNIEnv *env, jobject b, jint offset) {
+  void *p = env->GetDirectBufferAddress(b);
+  return p == NULL ? NULL : reinterpret_cast<int32_t *>(p) + offset;
+}
+
+/*
+ * yices_and and yices_or may modify their argument so we copy the buffer
+ * (this is cheaper than the JNI copy and doesn't create garbage).
+ */
+JNIEXPORT jint JNICALL Java_com_sri_yices_Yices_andDirect(JNIEnv *env, jclass, jobject b, jint offset, jint length) {
+  PROFILE_NATIVE;
+  int32_t aux[AUX_SIZE];
+  jint result = -1;
+  int32_t *a = buffer2int32(env, b, offset);
+
+  if (a != NULL) {
+    int32_t *c = aux;
+    try {
+      if (length > AUX_SIZE) c = new int32_t[length];
+      for (int32_t i=0; i<length; i++) c[i] = a[i];
+      result = yices_and(length, c);
+    } catch (std::bad_alloc &ba) {
+      out_of_mem_exception(env);
+    }
+    if (c != aux) delete [] c;
+  }
+  return result;
+}
+
+JNIEXPORT jint JNICALL Java_com_sri_yices_Yices_orDirect(JNIEnv *env, jclass, jobject b, jint offset, jint length) {
+  PROFILE_NATIVE;
+  int32_t aux[AUX_SIZE];
+  jint result = -1;
+  int32_t *a = buffer2int32(env, b, offset);
+
+  if (a != NULL) {
+    int32_t *c = aux;
+    try {
+      if (length > AUX_SIZE) c = new int32_t[length];
+      for (int32_t i=0; i<length; i++) c[i] = a[i];
+      result = yices_or(length, c);
+    } catch (std::bad_alloc &ba) {
+      out_of_mem_exception(env);
+    }
+    if (c != aux) delete [] c;
+  }
+  return result;
+}
+
+JNIEXPORT jint JNICALL Java_com_sri_yices_Yices_assertFormulasDirect(JNIEnv *env, jclass, jlong ctx, jobject b, jint offset, jint length) {
+  PROFILE_NATIVE;
+  jint result = -1;
+  term_t *a = buffer2int32(env, b, offset);
+
+  if (a != NULL) {
+    try {
+      result = yices_assert_formulas(reinterpret_cast<context_t*>(ctx), length, a);
+    } catch (std::bad_alloc &ba) {
+      out_of_mem_exception(env);
+    }
+  }
+  return result;
+}
+
+JNIEXPORT jint JNICALL Java_com_sri_yices_Yices_substTermDirect(JNIEnv *env, jclass, jint t, jobject v, jint voffset, jobject map, jint moffset, jint length) {
+  PROFILE_NATIVE;
+  jint result = -1;
+  int32_t *vars = buffer2int32(env, v, voffset);
+  int32_t *vals = buffer2int32(env, map, moffset);
+
+  if (vars != NULL && vals != NULL) {
+    try {
+      result = yices_subst_term(length, vars, vals, t);
+    } catch (std::bad_alloc &ba) {
+      out_of_mem_exception(env);
+    }
+  }
+  return result;
+}
+
+JNIEXPORT jint JNICALL Java_com_sri_yices_Yices_checkContextWithAssumptionsDirect(JNIEnv *env, jclass, jlong ctx, jlong params, jobject b, jint offset, jint length) {
+  PROFILE_NATIVE;
+  jint result = -1;
+  term_t *a = buffer2int32(env, b, offset);
+
+  if (a != NULL) {
+    try {
+      result = yices_check_context_with_assumptions(reinterpret_cast<context_t*>(ctx), reinterpret_cast<param_t*>(params), length, a);
+    } catch (std::bad_alloc &ba) {
+      out_of_mem_exception(env);
+    }
+  }
+  return result;
+}
+
 
 /*
  * MODELS
  */
 JNIEXPORT jlong JNICALL Java_com_sri_yices_Yices_getModel(JNIEnv *env, jclass, jlong ctx, jint keep_subst) {
+  PROFILE_NATIVE;
   jlong result = 0; // NULL pointer
 
   try {
@@ -3333,6 +4438,7 @@ JNIEXPORT jlong JNICALL Java_com_sri_yices_Yices_getModel(JNIEnv *env, jclass, j
 
 // since 2.6.4
 JNIEXPORT jlong JNICALL Java_com_sri_yices_Yices_newModel(JNIEnv *env, jclass){
+  PROFILE_NATIVE;
 #ifdef YICES_AT_LEAST_2_6_4
   jlong result = 0; // NULL pointer
   try {
@@ -3348,10 +4454,12 @@ JNIEXPORT jlong JNICALL Java_com_sri_yices_Yices_newModel(JNIEnv *env, jclass){
 
 
 JNIEXPORT void JNICALL Java_com_sri_yices_Yices_freeModel(JNIEnv *env, jclass, jlong model) {
+  PROFILE_NATIVE;
   yices_free_model(reinterpret_cast<model_t*>(model));
 }
 
 JNIEXPORT jlong JNICALL Java_com_sri_yices_Yices_modelFromMap(JNIEnv *env, jclass, jintArray var, jintArray map) {
+  PROFILE_NATIVE;
   jsize vlen = env->GetArrayLength(var);
   jsize mlen = env->GetArrayLength(map);
   jlong result = 0; // NULL pointer
@@ -3378,6 +4486,7 @@ JNIEXPORT jlong JNICALL Java_com_sri_yices_Yices_modelFromMap(JNIEnv *env, jclas
 
 // Since 2.6.4
 JNIEXPORT jint JNICALL Java_com_sri_yices_Yices_modelSetBool(JNIEnv *env, jclass, jlong model, jint var, jint val) {
+  PROFILE_NATIVE;
 #ifdef YICES_AT_LEAST_2_6_4
   jint result = -1;
   try {
@@ -3393,6 +4502,7 @@ JNIEXPORT jint JNICALL Java_com_sri_yices_Yices_modelSetBool(JNIEnv *env, jclass
 
 // Since 2.6.4
 JNIEXPORT jint JNICALL Java_com_sri_yices_Yices_modelSetInteger(JNIEnv *env, jclass, jlong model, jint var, jlong val){
+  PROFILE_NATIVE;
 #ifdef YICES_AT_LEAST_2_6_4
   jint result = -1;
   try {
@@ -3408,6 +4518,7 @@ JNIEXPORT jint JNICALL Java_com_sri_yices_Yices_modelSetInteger(JNIEnv *env, jcl
 
 // Since 2.6.4
 JNIEXPORT jint JNICALL Java_com_sri_yices_Yices_modelSetRational(JNIEnv *env, jclass, jlong model, jint var, jlong num, jlong den) {
+  PROFILE_NATIVE;
 #ifdef YICES_AT_LEAST_2_6_4
   jint result = -1;
   try {
@@ -3423,6 +4534,7 @@ JNIEXPORT jint JNICALL Java_com_sri_yices_Yices_modelSetRational(JNIEnv *env, jc
 
 // Since 2.6.4
 JNIEXPORT jint JNICALL Java_com_sri_yices_Yices_modelSetBVInteger(JNIEnv *env, jclass, jlong model, jint var, jlong val) {
+  PROFILE_NATIVE;
 #ifdef YICES_AT_LEAST_2_6_4
   jint result = -1;
   try {
@@ -3438,6 +4550,7 @@ JNIEXPORT jint JNICALL Java_com_sri_yices_Yices_modelSetBVInteger(JNIEnv *env, j
 
 // Since 2.6.4
 JNIEXPORT jint JNICALL Java_com_sri_yices_Yices_modelSetBVFromArray(JNIEnv *env, jclass, jlong model, jint var, jintArray arr) {
+  PROFILE_NATIVE;
 #ifdef YICES_AT_LEAST_2_6_4
   jint result = -1;
   jsize n = env->GetArrayLength(arr);
@@ -3460,6 +4573,7 @@ JNIEXPORT jint JNICALL Java_com_sri_yices_Yices_modelSetBVFromArray(JNIEnv *env,
 
 // since 2.?.? (new in 2.6.4 bindings)
 JNIEXPORT jintArray JNICALL Java_com_sri_yices_Yices_modelCollectDefinedTerms(JNIEnv *env, jclass, jlong model) {
+  PROFILE_NATIVE;
   term_vector_t aux;
   jintArray result = NULL;
   try {
@@ -3478,6 +4592,7 @@ JNIEXPORT jintArray JNICALL Java_com_sri_yices_Yices_modelCollectDefinedTerms(JN
 
 // returns -1 for error, 0 for false, +1 for true
 JNIEXPORT jint JNICALL Java_com_sri_yices_Yices_getBoolValue(JNIEnv *env, jclass, jlong model, jint t) {
+  PROFILE_NATIVE;
   int32_t val = -1;
   jint err;
 
@@ -3504,6 +4619,7 @@ JNIEXPORT jint JNICALL Java_com_sri_yices_Yices_getBoolValue(JNIEnv *env, jclass
  *   fit in 64 bits
  */
 JNIEXPORT jint JNICALL Java_com_sri_yices_Yices_getIntegerValue(JNIEnv *env, jclass, jlong model, jint t, jlongArray a) {
+  PROFILE_NATIVE;
   jlong  aux;
   jint result;
 
@@ -3535,6 +4651,7 @@ JNIEXPORT jint JNICALL Java_com_sri_yices_Yices_getIntegerValue(JNIEnv *env, jcl
  *   converted to jlong (signed 64bits).
  */
 JNIEXPORT jint JNICALL Java_com_sri_yices_Yices_getRationalValue(JNIEnv *env, jclass, jlong model, jint t, jlongArray a) {
+  PROFILE_NATIVE;
   int64_t num;
   uint64_t den;
   jlong aux[2];
@@ -3569,6 +4686,7 @@ JNIEXPORT jint JNICALL Java_com_sri_yices_Yices_getRationalValue(JNIEnv *env, jc
  * - a is an empty array or error for yices
  */
 JNIEXPORT jint JNICALL Java_com_sri_yices_Yices_getDoubleValue(JNIEnv *env, jclass, jlong model, jint t, jdoubleArray a) {
+  PROFILE_NATIVE;
   double aux;
   jint result;
 
@@ -3594,6 +4712,7 @@ JNIEXPORT jint JNICALL Java_com_sri_yices_Yices_getDoubleValue(JNIEnv *env, jcla
  * Return null if there's an error.
  */
 JNIEXPORT jbyteArray JNICALL Java_com_sri_yices_Yices_getIntegerValueAsBytes(JNIEnv *env, jclass, jlong model, jint t) {
+  PROFILE_NATIVE;
   jbyteArray result = NULL;
   mpz_t z;
 
@@ -3616,6 +4735,7 @@ JNIEXPORT jbyteArray JNICALL Java_com_sri_yices_Yices_getIntegerValueAsBytes(JNI
  * - we return t's value in two steps: one call to get the numerator, one call to get the denominator.
  */
 JNIEXPORT jbyteArray JNICALL Java_com_sri_yices_Yices_getRationalValueNumAsBytes(JNIEnv *env, jclass, jlong model, jint t) {
+  PROFILE_NATIVE;
   jbyteArray result = NULL;
   mpq_t q;
 
@@ -3633,6 +4753,7 @@ JNIEXPORT jbyteArray JNICALL Java_com_sri_yices_Yices_getRationalValueNumAsBytes
 }
 
 JNIEXPORT jbyteArray JNICALL Java_com_sri_yices_Yices_getRationalValueDenAsBytes(JNIEnv *env, jclass, jlong model, jint t) {
+  PROFILE_NATIVE;
   jbyteArray result = NULL;
   mpq_t q;
 
@@ -3650,6 +4771,7 @@ JNIEXPORT jbyteArray JNICALL Java_com_sri_yices_Yices_getRationalValueDenAsBytes
 }
 
 JNIEXPORT jbooleanArray JNICALL Java_com_sri_yices_Yices_getBvValue(JNIEnv *env, jclass, jlong model, jint t) {
+  PROFILE_NATIVE;
   jbooleanArray result = NULL;
   uint32_t n = yices_term_bitsize(t);
 
@@ -3678,7 +4800,38 @@ JNIEXPORT jbooleanArray JNICALL Java_com_sri_yices_Yices_getBvValue(JNIEnv *env,
   return result;
 }
 
+/*
+ * Value of bitvector term t in model packed in w (see copy_bits_to_words)
+ * - returns the number of bits, or -1 if there's an error
+ */
+JNIEXPORT jint JNICALL Java_com_sri_yices_Yices_getBvValueAsWords(JNIEnv *env, jclass, jlong model, jint t, jlongArray w) {
+  PROFILE_NATIVE;
+  jint result = -1;
+  uint32_t n = yices_term_bitsize(t);
+
+  if (n > 0) {
+    try {
+      if (n <= 64) {
+        int32_t a[64];
+        if (yices_get_bv_value(reinterpret_cast<model_t *>(model), t, a) >= 0) {
+          result = copy_bits_to_words(env, n, a, w);
+        }
+      } else {
+        std::vector<int32_t> a(n);
+        if (yices_get_bv_value(reinterpret_cast<model_t *>(model), t, a.data()) >= 0) {
+          result = copy_bits_to_words(env, n, a.data(), w);
+        }
+      }
+    } catch (std::bad_alloc &ba) {
+      out_of_mem_exception(env);
+    }
+  }
+
+  return result;
+}
+
 JNIEXPORT jint JNICALL Java_com_sri_yices_Yices_getScalarValue(JNIEnv *env, jclass, jlong model, jint t) {
+  PROFILE_NATIVE;
   int32_t val = -1;
   int32_t code;
 
@@ -3693,6 +4846,7 @@ JNIEXPORT jint JNICALL Java_com_sri_yices_Yices_getScalarValue(JNIEnv *env, jcla
 
 
 JNIEXPORT jint JNICALL Java_com_sri_yices_Yices_valueAsTerm(JNIEnv *env, jclass, jlong model, jint t) {
+  PROFILE_NATIVE;
   int32_t result = -1;
 
   try {
@@ -3704,11 +4858,10 @@ JNIEXPORT jint JNICALL Java_com_sri_yices_Yices_valueAsTerm(JNIEnv *env, jclass,
 }
 
 JNIEXPORT jint JNICALL Java_com_sri_yices_Yices_valuesAsTerms(JNIEnv *env, jclass, jlong model, jintArray input, jintArray output){
+  PROFILE_NATIVE;
   jsize in;
   jsize on;
-  term_t *itarr = NULL;
-  term_t *otarr = NULL;
-  int32_t code;
+  int32_t code = -1;
   in = env->GetArrayLength(input);
   if (in == 0) {
       return -1;
@@ -3717,22 +4870,206 @@ JNIEXPORT jint JNICALL Java_com_sri_yices_Yices_valuesAsTerms(JNIEnv *env, jclas
   if (on < in) {
       return -2;
   }
-  itarr = array2terms(env, input, NULL);
-  otarr = new int[in];
+
+  // no critical region: evaluating the terms may take long.
+  // The input is copied into buf[0 ... in-1] and the values go to buf[in ... 2*in-1].
   try {
-	code = yices_term_array_value(reinterpret_cast<model_t*>(model), in, itarr, otarr);
-	if (code == 0){
-	  env->SetIntArrayRegion(output, 0, in, otarr);
-	}
+    std::vector<term_t> buf(2 * static_cast<size_t>(in));
+    get_int_region(env, input, 0, in, buf.data());
+    code = yices_term_array_value(reinterpret_cast<model_t*>(model), in, buf.data(), buf.data() + in);
+    if (code == 0) {
+      set_int_region(env, output, 0, in, buf.data() + in);
+    }
   } catch (std::bad_alloc &ba) {
-	out_of_mem_exception(env);
+    out_of_mem_exception(env);
   }
-  delete otarr;
-  release_term_elems(env, input, itarr);
   return code;
 }
 
+/*
+ * BULK EXTRACTION OF VALUES
+ */
+
+/*
+ * Value kinds: must match the constants in ModelSnapshot
+ */
+enum value_kind {
+  VALUE_ERROR = 0,
+  VALUE_BOOL = 1,
+  VALUE_INT64 = 2,
+  VALUE_RATIONAL64 = 3,
+  VALUE_BIG_INTEGER = 4,
+  VALUE_BIG_RATIONAL = 5,
+  VALUE_BITVECTOR = 6,
+  VALUE_SCALAR = 7,
+  VALUE_UNSUPPORTED = 8,
+};
+
+/*
+ * Values of terms[0 ... n-1] in model, in one pass (see ModelSnapshot):
+ * - kinds[i] = kind of value of terms[i]
+ * - for a Boolean: bit i of bools is set if the value is true
+ * - for INT64 and RATIONAL64: values[i] = numerator, aux[i] = denominator
+ * - for BITVECTOR: values[i] = offset of the first word in the word array,
+ *   aux[i] = number of bits
+ * - for SCALAR: values[i] = index
+ * - for BIG_INTEGER and BIG_RATIONAL: values[i] = index k in the big-number
+ *   table, the table stores the numerator in 2k and the denominator in 2k+1
+ *   (as byte arrays for BigInteger, the denominator is null for an integer)
+ * - out[0] is set to the array of bitvector words (a long[])
+ * - out[1] is set to the big-number table (a byte[][]) or null
+ *
+ * Returns the number of terms whose value couldn't be computed (their kind
+ * is VALUE_ERROR and the error report is for the last of them), or -1 if
+ * an array is too small or an exception was raised.
+ */
+JNIEXPORT jint JNICALL Java_com_sri_yices_Yices_extractValues(JNIEnv *env, jclass, jlong model, jintArray terms,
+                                                              jbyteArray kinds, jlongArray values, jlongArray aux,
+                                                              jlongArray bools, jobjectArray out) {
+  PROFILE_NATIVE;
+  model_t *mdl = reinterpret_cast<model_t*>(model);
+  jsize n = env->GetArrayLength(terms);
+
+  if (env->GetArrayLength(kinds) < n || env->GetArrayLength(values) < n || env->GetArrayLength(aux) < n ||
+      env->GetArrayLength(bools) < (n + 63)/64 || env->GetArrayLength(out) < 2) {
+    return -1;
+  }
+
+  term_t *t = array2terms(env, terms, NULL);
+  if (t == NULL) {
+    out_of_mem_exception(env);
+    return -1;
+  }
+
+  jint errors = 0;
+  bool failed = false;
+  try {
+    std::vector<jbyte> k(n, VALUE_ERROR);
+    std::vector<jlong> v(n, 0);
+    std::vector<jlong> x(n, 0);
+    std::vector<jlong> b((n + 63)/64, 0);
+    std::vector<jlong> words;
+    std::vector<int32_t> bits;
+    std::vector<jsize> big;
+
+    for (jsize i=0; i<n; i++) {
+      term_t u = t[i];
+      type_t tau = yices_type_of_term(u);
+      jbyte kind = VALUE_ERROR;
+
+      if (tau < 0) {
+        // invalid term: keep the error
+      } else if (yices_type_is_bool(tau)) {
+        int32_t val;
+        if (yices_get_bool_value(mdl, u, &val) >= 0) {
+          if (val) b[i >> 6] |= (jlong) (((uint64_t) 1) << (i & 63));
+          kind = VALUE_BOOL;
+        }
+      } else if (yices_type_is_arithmetic(tau)) {
+        int64_t num;
+        uint64_t den;
+        if (yices_get_rational64_value(mdl, u, &num, &den) >= 0 &&
+            den <= static_cast<uint64_t>(std::numeric_limits<int64_t>::max())) {
+          v[i] = num;
+          x[i] = (int64_t) den;
+          kind = (den == 1) ? VALUE_INT64 : VALUE_RATIONAL64;
+        } else {
+          // too large: it goes to the big-number table (or it's an error)
+          yices_clear_error();
+          v[i] = big.size();
+          big.push_back(i);
+          kind = VALUE_BIG_RATIONAL;
+        }
+      } else if (yices_type_is_bitvector(tau)) {
+        uint32_t nbits = yices_term_bitsize(u);
+        if (bits.size() < nbits) bits.resize(nbits);
+        if (nbits > 0 && yices_get_bv_value(mdl, u, bits.data()) >= 0) {
+          size_t offset = words.size();
+          words.resize(offset + ((nbits + 63) >> 6));
+          pack_bits(bits.data(), nbits, words.data() + offset);
+          v[i] = offset;
+          x[i] = nbits;
+          kind = VALUE_BITVECTOR;
+        }
+      } else if (yices_type_is_scalar(tau) || yices_type_is_uninterpreted(tau)) {
+        int32_t val;
+        if (yices_get_scalar_value(mdl, u, &val) >= 0) {
+          v[i] = val;
+          kind = VALUE_SCALAR;
+        }
+      } else {
+        kind = VALUE_UNSUPPORTED;
+      }
+
+      if (kind == VALUE_ERROR) errors ++;
+      k[i] = kind;
+    }
+
+    jlongArray w = env->NewLongArray(words.size());
+    if (w == NULL) {
+      failed = true;
+    } else {
+      if (!words.empty()) env->SetLongArrayRegion(w, 0, words.size(), words.data());
+      env->SetObjectArrayElement(out, 0, w);
+      env->DeleteLocalRef(w);
+    }
+
+    if (!failed && !big.empty()) {
+      jobjectArray table = env->NewObjectArray(2 * big.size(), byte_array_class, NULL);
+      if (table == NULL) {
+        failed = true;
+      } else {
+        mpq_t q;
+        mpq_init(q);
+        for (size_t j=0; j<big.size() && !failed; j++) {
+          jsize i = big[j];
+          if (yices_get_mpq_value(mdl, t[i], q) < 0) {
+            k[i] = VALUE_ERROR;
+            errors ++;
+            continue;
+          }
+          jbyteArray num = mpz_to_byte_array(env, mpq_numref(q));
+          if (num == NULL) {
+            failed = true;
+            break;
+          }
+          env->SetObjectArrayElement(table, 2 * j, num);
+          env->DeleteLocalRef(num);
+          if (mpz_cmp_ui(mpq_denref(q), 1) == 0) {
+            k[i] = VALUE_BIG_INTEGER;
+          } else {
+            jbyteArray den = mpz_to_byte_array(env, mpq_denref(q));
+            if (den == NULL) {
+              failed = true;
+              break;
+            }
+            env->SetObjectArrayElement(table, 2 * j + 1, den);
+            env->DeleteLocalRef(den);
+          }
+        }
+        mpq_clear(q);
+        env->SetObjectArrayElement(out, 1, table);
+        env->DeleteLocalRef(table);
+      }
+    }
+
+    if (!failed && n > 0) {
+      env->SetByteArrayRegion(kinds, 0, n, k.data());
+      env->SetLongArrayRegion(values, 0, n, v.data());
+      env->SetLongArrayRegion(aux, 0, n, x.data());
+      env->SetLongArrayRegion(bools, 0, b.size(), b.data());
+    }
+  } catch (std::bad_alloc &ba) {
+    out_of_mem_exception(env);
+    failed = true;
+  }
+
+  release_term_elems(env, terms, t);
+  return failed ? -1 : errors;
+}
+
 JNIEXPORT jstring JNICALL Java_com_sri_yices_Yices_modelToString__JII(JNIEnv *env, jclass, jlong model, jint columns, jint lines) {
+  PROFILE_NATIVE;
   char *s;
   jstring result = NULL;
 
@@ -3750,6 +5087,7 @@ JNIEXPORT jstring JNICALL Java_com_sri_yices_Yices_modelToString__JII(JNIEnv *en
 }
 
 JNIEXPORT jstring JNICALL Java_com_sri_yices_Yices_modelToString__J(JNIEnv *env, jclass, jlong model) {
+  PROFILE_NATIVE;
   char *s;
   jstring result = NULL;
 
@@ -3766,6 +5104,7 @@ JNIEXPORT jstring JNICALL Java_com_sri_yices_Yices_modelToString__J(JNIEnv *env,
 
 
 JNIEXPORT jboolean JNICALL Java_com_sri_yices_Yices_hasDelegate(JNIEnv *env, jclass, jstring delegate){
+  PROFILE_NATIVE;
 #ifdef YICES_AT_LEAST_2_6_2
   jint code = 0;
   const char *s = env->GetStringUTFChars(delegate, NULL);
@@ -3789,6 +5128,7 @@ return (jboolean) 0;
 }
 
 JNIEXPORT jint JNICALL Java_com_sri_yices_Yices_checkFormula(JNIEnv *env, jclass, jint formula, jstring logic, jstring delegate, jlongArray marr){
+  PROFILE_NATIVE;
 #ifdef YICES_AT_LEAST_2_6_2
   int32_t code;
   const char *ds;
@@ -3833,6 +5173,7 @@ JNIEXPORT jint JNICALL Java_com_sri_yices_Yices_checkFormula(JNIEnv *env, jclass
 }
 
 JNIEXPORT jint JNICALL Java_com_sri_yices_Yices_checkFormulas(JNIEnv *env, jclass, jintArray formulas, jstring logic, jstring delegate, jlongArray marr){
+  PROFILE_NATIVE;
 #ifdef YICES_AT_LEAST_2_6_2
   int32_t code;
   const char *ds = NULL;
@@ -3893,6 +5234,7 @@ JNIEXPORT jint JNICALL Java_com_sri_yices_Yices_checkFormulas(JNIEnv *env, jclas
 
 
 JNIEXPORT jintArray JNICALL Java_com_sri_yices_Yices_implicantForFormula(JNIEnv *env, jclass, jlong model, jint term){
+  PROFILE_NATIVE;
   jintArray retval = NULL;
   int32_t code;
   term_vector_t aux;
@@ -3910,6 +5252,7 @@ JNIEXPORT jintArray JNICALL Java_com_sri_yices_Yices_implicantForFormula(JNIEnv
 }
 
 JNIEXPORT jintArray JNICALL Java_com_sri_yices_Yices_implicantForFormulas(JNIEnv *env, jclass, jlong model, jintArray terms){
+  PROFILE_NATIVE;
   jintArray retval = NULL;
   int32_t code;
   term_vector_t aux;
@@ -3940,6 +5283,7 @@ JNIEXPORT jintArray JNICALL Java_com_sri_yices_Yices_implicantForFormulas(JNIEnv
 }
 
 JNIEXPORT jintArray JNICALL Java_com_sri_yices_Yices_generalizeModel__JI_3II(JNIEnv *env, jclass, jlong model, jint term, jintArray elims, jint mode){
+  PROFILE_NATIVE;
   jintArray retval = NULL;
   int32_t code;
   term_vector_t aux;
@@ -3969,6 +5313,7 @@ JNIEXPORT jintArray JNICALL Java_com_sri_yices_Yices_generalizeModel__JI_3II(JNI
 }
 
 JNIEXPORT jintArray JNICALL Java_com_sri_yices_Yices_generalizeModel__J_3I_3II(JNIEnv *env, jclass, jlong model, jintArray terms, jintArray elims, jint mode){
+  PROFILE_NATIVE;
   jintArray retval = NULL;
   int32_t code;
   term_vector_t aux;
@@ -4015,6 +5360,7 @@ JNIEXPORT jintArray JNICALL Java_com_sri_yices_Yices_generalizeModel__J_3I_3II(J
 
 // returns 1 if the file was written, 0 if the formula is solved, or a negative number indicating an error, the smt_status is stored in status
 JNIEXPORT jint JNICALL Java_com_sri_yices_Yices_exportToDimacs__ILjava_lang_String_2Z_3I(JNIEnv *env, jclass, jint formula, jstring filename, jboolean simplify, jintArray status){
+  PROFILE_NATIVE;
 #ifdef YICES_AT_LEAST_2_6_2
   int32_t code = -1;
   jsize n;
@@ -4042,6 +5388,7 @@ JNIEXPORT jint JNICALL Java_com_sri_yices_Yices_exportToDimacs__ILjava_lang_Stri
 
 // returns 0 on success, or a negative numer indicating an error
 JNIEXPORT jint JNICALL Java_com_sri_yices_Yices_exportToDimacs___3ILjava_lang_String_2Z_3I(JNIEnv *env, jclass, jintArray formulas, jstring filename, jboolean simplify, jintArray status){
+  PROFILE_NATIVE;
 #ifdef YICES_AT_LEAST_2_6_2
   int32_t code;
   jsize n;
@@ -4079,6 +5426,7 @@ JNIEXPORT jint JNICALL Java_com_sri_yices_Yices_exportToDimacs___3ILjava_lang_St
 
 
 JNIEXPORT jintArray JNICALL Java_com_sri_yices_Yices_getSupport__JI(JNIEnv *env, jclass, jlong model, jint term){
+  PROFILE_NATIVE;
 #ifdef YICES_AT_LEAST_2_6_2
   term_vector_t aux;
   jintArray result = NULL;
@@ -4101,6 +5449,7 @@ JNIEXPORT jintArray JNICALL Java_com_sri_yices_Yices_getSupport__JI(JNIEnv *env,
 }
 
 JNIEXPORT jintArray JNICALL Java_com_sri_yices_Yices_getSupport__J_3I(JNIEnv *env, jclass, jlong model, jintArray terms){
+  PROFILE_NATIVE;
 #ifdef YICES_AT_LEAST_2_6_2
   term_vector_t aux;
   jintArray result = NULL;
@@ -4133,15 +5482,24 @@ JNIEXPORT jintArray JNICALL Java_com_sri_yices_Yices_getSupport__J_3I(JNIEnv *en
 #endif
 }
 
-static jobject makeYVal(JNIEnv *env, yval_t *yval){
-  jclass yvalClass;
-  jmethodID constructor;
-  yvalClass = env->FindClass("com/sri/yices/YVal");
-  assert(yvalClass != NULL);
+static jobject makeYVal(JNIEnv *env, const yval_t *yval){
+  return env->NewObject(yval_class, yval_init, yval->node_tag, yval->node_id);
+}
 
-  constructor = env->GetMethodID(yvalClass, "<init>", "(II)V");
-  assert(constructor != NULL);
-  return env->NewObject(yvalClass, constructor, yval->node_tag, yval->node_id);
+/*
+ * Store YVal objects for a[0 ... n-1] into arr[0 ... n-1]
+ * - the local reference to each object is deleted once it's stored
+ *   (so that large arrays don't fill up the local reference table)
+ * - return false if an exception was raised (out of memory)
+ */
+static bool fillYValArray(JNIEnv *env, jobjectArray arr, const yval_t *a, int32_t n){
+  for (int32_t i = 0; i < n; i++) {
+    jobject v = makeYVal(env, a + i);
+    if (v == NULL) return false;
+    env->SetObjectArrayElement(arr, i, v);
+    env->DeleteLocalRef(v);
+  }
+  return true;
 }
 
 //returns true if tag is OK, and fills in the slots of yval, false otherwise.
@@ -4155,6 +5513,7 @@ static bool convertToYval(jint tag, jint id, yval_t *yval){
 }
 
 JNIEXPORT jobject JNICALL Java_com_sri_yices_Yices_getValue(JNIEnv *env, jclass, jlong model, jint term){
+  PROFILE_NATIVE;
   yval_t yval;
   int32_t code;
   code = yices_get_value(reinterpret_cast<model_t*>(model), term, &yval);
@@ -4165,6 +5524,7 @@ JNIEXPORT jobject JNICALL Java_com_sri_yices_Yices_getValue(JNIEnv *env, jclass,
 }
 
 JNIEXPORT jboolean JNICALL Java_com_sri_yices_Yices_valIsInt(JNIEnv *env, jclass, jlong model, jint tag, jint id){
+  PROFILE_NATIVE;
   yval_t yval;
   int32_t code;
   if (!convertToYval(tag, id, &yval) ||  tag != YVAL_RATIONAL) {
@@ -4176,6 +5536,7 @@ JNIEXPORT jboolean JNICALL Java_com_sri_yices_Yices_valIsInt(JNIEnv *env, jclass
 }
 
 JNIEXPORT jboolean JNICALL Java_com_sri_yices_Yices_valIsLong(JNIEnv *env, jclass, jlong model, jint tag, jint id){
+  PROFILE_NATIVE;
   yval_t yval;
   int32_t code;
   if (!convertToYval(tag, id, &yval) ||  tag != YVAL_RATIONAL) {
@@ -4187,6 +5548,7 @@ JNIEXPORT jboolean JNICALL Java_com_sri_yices_Yices_valIsLong(JNIEnv *env, jclas
 }
 
 JNIEXPORT jboolean JNICALL Java_com_sri_yices_Yices_valIsInteger(JNIEnv *env, jclass, jlong model, jint tag, jint id){
+  PROFILE_NATIVE;
   yval_t yval;
   int32_t code;
   if (!convertToYval(tag, id, &yval) ||  tag != YVAL_RATIONAL) {
@@ -4199,6 +5561,7 @@ JNIEXPORT jboolean JNICALL Java_com_sri_yices_Yices_valIsInteger(JNIEnv *env, jc
 
 
 JNIEXPORT jint JNICALL Java_com_sri_yices_Yices_valBitSize(JNIEnv *env, jclass, jlong model, jint tag, jint id){
+  PROFILE_NATIVE;
   yval_t yval;
   uint32_t code;
   if (!convertToYval(tag, id, &yval) ||  tag != YVAL_BV) {
@@ -4211,6 +5574,7 @@ JNIEXPORT jint JNICALL Java_com_sri_yices_Yices_valBitSize(JNIEnv *env, jclass,
 }
 
 JNIEXPORT jint JNICALL Java_com_sri_yices_Yices_valFunctionArity(JNIEnv *env, jclass, jlong model, jint tag, jint id){
+  PROFILE_NATIVE;
   yval_t yval;
   uint32_t code;
   if (!convertToYval(tag, id, &yval) ||  tag != YVAL_FUNCTION) {
@@ -4223,6 +5587,7 @@ JNIEXPORT jint JNICALL Java_com_sri_yices_Yices_valFunctionArity(JNIEnv *env, jc
 }
 
 JNIEXPORT jint JNICALL Java_com_sri_yices_Yices_valTupleArity(JNIEnv *env, jclass, jlong model, jint tag, jint id){
+  PROFILE_NATIVE;
   yval_t yval;
   uint32_t code;
   if (!convertToYval(tag, id, &yval) ||  tag != YVAL_TUPLE) {
@@ -4235,6 +5600,7 @@ JNIEXPORT jint JNICALL Java_com_sri_yices_Yices_valTupleArity(JNIEnv *env, jclas
 }
 
 JNIEXPORT jint JNICALL Java_com_sri_yices_Yices_valMappingArity(JNIEnv *env, jclass, jlong model, jint tag, jint id){
+  PROFILE_NATIVE;
   yval_t yval;
   uint32_t code;
   if (!convertToYval(tag, id, &yval) ||  tag != YVAL_MAPPING) {
@@ -4247,6 +5613,7 @@ JNIEXPORT jint JNICALL Java_com_sri_yices_Yices_valMappingArity(JNIEnv *env, jcl
 }
 
 JNIEXPORT jint JNICALL Java_com_sri_yices_Yices_valFunctionType(JNIEnv *env, jclass, jlong model, jint tag, jint id){
+  PROFILE_NATIVE;
   yval_t yval;
   int32_t code;
   if (!convertToYval(tag, id, &yval) ||  tag != YVAL_FUNCTION) {
@@ -4260,6 +5627,7 @@ JNIEXPORT jint JNICALL Java_com_sri_yices_Yices_valFunctionType(JNIEnv *env, jcl
 
 
 JNIEXPORT jint JNICALL Java_com_sri_yices_Yices_valGetBool(JNIEnv * env, jclass, jlong model, jint tag, jint id){
+  PROFILE_NATIVE;
   yval_t yval;
   int32_t val;
   int32_t code;
@@ -4283,6 +5651,7 @@ JNIEXPORT jint JNICALL Java_com_sri_yices_Yices_valGetBool(JNIEnv * env, jclass,
  *   fit in 64 bits
  */
 JNIEXPORT jint JNICALL Java_com_sri_yices_Yices_valGetInteger(JNIEnv *env, jclass, jlong model, jint tag, jint id, jlongArray a){
+  PROFILE_NATIVE;
   yval_t yval;
   jlong  aux;
   jint result;
@@ -4318,6 +5687,7 @@ JNIEXPORT jint JNICALL Java_com_sri_yices_Yices_valGetInteger(JNIEnv *env, jclas
  *   converted to jlong (signed 64bits).
  */
 JNIEXPORT jint JNICALL Java_com_sri_yices_Yices_valGetRational(JNIEnv *env, jclass, jlong model, jint tag, jint id, jlongArray a){
+  PROFILE_NATIVE;
   yval_t yval;
   int64_t num;
   uint64_t den;
@@ -4357,6 +5727,7 @@ JNIEXPORT jint JNICALL Java_com_sri_yices_Yices_valGetRational(JNIEnv *env, jcla
  * - a is an empty array or error for yices
  */
 JNIEXPORT jint JNICALL Java_com_sri_yices_Yices_valGetDouble(JNIEnv *env, jclass, jlong model, jint tag, jint id, jdoubleArray a){
+  PROFILE_NATIVE;
   yval_t yval;
   double aux;
   jint result;
@@ -4379,6 +5750,7 @@ JNIEXPORT jint JNICALL Java_com_sri_yices_Yices_valGetDouble(JNIEnv *env, jclass
 }
 
 JNIEXPORT jbooleanArray JNICALL Java_com_sri_yices_Yices_valGetBV(JNIEnv *env, jclass, jlong model, jint tag, jint id){
+  PROFILE_NATIVE;
   yval_t yval;
   jbooleanArray result;
   uint32_t n;
@@ -4413,6 +5785,42 @@ JNIEXPORT jbooleanArray JNICALL Java_com_sri_yices_Yices_valGetBV(JNIEnv *env, j
   return result;
 }
 
+/*
+ * Bitvector value packed in w (see copy_bits_to_words)
+ * - returns the number of bits, or -1 if there's an error
+ */
+JNIEXPORT jint JNICALL Java_com_sri_yices_Yices_valGetBVAsWords(JNIEnv *env, jclass, jlong model, jint tag, jint id, jlongArray w){
+  PROFILE_NATIVE;
+  yval_t yval;
+  jint result = -1;
+  uint32_t n;
+
+  if (!convertToYval(tag, id, &yval) ||  tag != YVAL_BV) {
+    return -1;
+  }
+
+  n = yices_val_bitsize(reinterpret_cast<model_t *>(model), &yval);
+
+  if (n > 0) {
+    try {
+      if (n <= 64) {
+        int32_t a[64];
+        if (yices_val_get_bv(reinterpret_cast<model_t *>(model), &yval, a) >= 0) {
+          result = copy_bits_to_words(env, n, a, w);
+        }
+      } else {
+        std::vector<int32_t> a(n);
+        if (yices_val_get_bv(reinterpret_cast<model_t *>(model), &yval, a.data()) >= 0) {
+          result = copy_bits_to_words(env, n, a.data(), w);
+        }
+      }
+    } catch (std::bad_alloc &ba) {
+      out_of_mem_exception(env);
+    }
+  }
+  return result;
+}
+
 /*
  * Value (i.e., index) and type of a scalar or uninterpreted term
  * return 0 on success. -1 or -2 if there's an error.
@@ -4422,6 +5830,7 @@ JNIEXPORT jbooleanArray JNICALL Java_com_sri_yices_Yices_valGetBV(JNIEnv *env, j
  * stores the scalar val in a[0] and the type in a[1]
  */
 JNIEXPORT jint JNICALL Java_com_sri_yices_Yices_valGetScalar(JNIEnv *env, jclass, jlong model, jint tag, jint id, jintArray a){
+  PROFILE_NATIVE;
   yval_t yval;
   int32_t result = -1;
   int32_t code;
@@ -4450,6 +5859,7 @@ JNIEXPORT jint JNICALL Java_com_sri_yices_Yices_valGetScalar(JNIEnv *env, jclass
 }
 
 JNIEXPORT jbyteArray JNICALL Java_com_sri_yices_Yices_valGetIntegerAsBytes(JNIEnv *env, jclass, jlong model, jint tag, jint id){
+  PROFILE_NATIVE;
   yval_t yval;
   jbyteArray result = NULL;
   mpz_t z;
@@ -4471,6 +5881,7 @@ JNIEXPORT jbyteArray JNICALL Java_com_sri_yices_Yices_valGetIntegerAsBytes(JNIEn
 }
 
 JNIEXPORT jbyteArray JNICALL Java_com_sri_yices_Yices_valGetRationalNumAsBytes(JNIEnv *env, jclass, jlong model, jint tag, jint id){
+  PROFILE_NATIVE;
   yval_t yval;
   jbyteArray result = NULL;
   mpq_t q;
@@ -4494,6 +5905,7 @@ JNIEXPORT jbyteArray JNICALL Java_com_sri_yices_Yices_valGetRationalNumAsBytes(J
 }
 
 JNIEXPORT jbyteArray JNICALL Java_com_sri_yices_Yices_valGetRationalDenAsBytes(JNIEnv *env, jclass, jlong model, jint tag, jint id){
+  PROFILE_NATIVE;
   yval_t yval;
   jbyteArray result = NULL;
   mpq_t q;
@@ -4519,15 +5931,13 @@ JNIEXPORT jbyteArray JNICALL Java_com_sri_yices_Yices_valGetRationalDenAsBytes(J
 
 //iam: can I really get away without checking the tye of the children array?
 JNIEXPORT jint JNICALL Java_com_sri_yices_Yices_valExpandTuple(JNIEnv *env, jclass, jlong mdl, jint tag, jint id, jobjectArray children){
+  PROFILE_NATIVE;
   yval_t yval;
   int32_t arity;
   jsize n;
   yval_t *carr;
   int32_t code;
   model_t *model = reinterpret_cast<model_t *>(mdl);
-  int32_t i;
-  yval_t ychild;
-  jobject child;
 
   if (!convertToYval(tag, id, &yval) ||  tag != YVAL_TUPLE) {
     return -1;
@@ -4543,19 +5953,16 @@ JNIEXPORT jint JNICALL Java_com_sri_yices_Yices_valExpandTuple(JNIEnv *env, jcla
   carr = new yval_t[arity];
   code = yices_val_expand_tuple(model, &yval, carr);
   if (code < 0) {
-    delete carr;
+    delete[] carr;
     return -4;
   }
-  for (i = 0; i < arity; i++) {
-    ychild = carr[i];
-    child = makeYVal(env, &ychild);
-    env->SetObjectArrayElement(children, i, child);
-  }
-  delete carr;
+  fillYValArray(env, children, carr, arity);
+  delete[] carr;
   return 0;
 }
 
 JNIEXPORT jint JNICALL Java_com_sri_yices_Yices_valFunctionCardinality(JNIEnv *env, jclass, jlong model, jint tag, jint id){
+  PROFILE_NATIVE;
   yval_t yval;
   int32_t code;
   yval_t def;
@@ -4575,50 +5982,42 @@ JNIEXPORT jint JNICALL Java_com_sri_yices_Yices_valFunctionCardinality(JNIEnv *e
 }
 
 JNIEXPORT jint JNICALL Java_com_sri_yices_Yices_valExpandFunction(JNIEnv *env, jclass cls, jlong mdl, jint tag, jint id,  jobjectArray def, jobjectArray mappings){
+  PROFILE_NATIVE;
   yval_t yval;
   int32_t cardinality;
-  jsize ndef;
-  jsize nmap;
   int32_t code;
   yval_t ydef;
   yval_vector_t ymaps;
-  int32_t i;
+  jint result;
 
   if (!convertToYval(tag, id, &yval) ||  tag != YVAL_FUNCTION) {
     return -1;
   }
-  cardinality = Java_com_sri_yices_Yices_valFunctionCardinality(env, cls, mdl, tag, id);
-  if (cardinality <= 0) {
-    return -2;
-  }
-  ndef = env->GetArrayLength(def);
-  if (ndef < 1) {
-    return -3;
-  }
 
-  nmap = env->GetArrayLength(mappings);
-  if (nmap < cardinality) {
-    return -4;
-  }
+  // the function is expanded only once: the cardinality is the number of mappings
   yices_init_yval_vector(&ymaps);
   code = yices_val_expand_function(reinterpret_cast<model_t *>(mdl), &yval, &ydef, &ymaps);
-  if (code < 0) {
-    return -5;
-  }
-
-  assert(static_cast<int32_t>(ymaps.size) == cardinality);
-
-  env->SetObjectArrayElement(def, 0, makeYVal(env, &ydef));
+  cardinality = (code < 0) ? -1 : ymaps.size;
 
-  for (i = 0; i < cardinality; i++) {
-    env->SetObjectArrayElement(mappings, i, makeYVal(env, &(ymaps.data[i])));
+  if (cardinality <= 0) {
+    result = -2;
+  } else if (env->GetArrayLength(def) < 1) {
+    result = -3;
+  } else if (env->GetArrayLength(mappings) < cardinality) {
+    result = -4;
+  } else {
+    result = 0;
+    if (fillYValArray(env, def, &ydef, 1)) {
+      fillYValArray(env, mappings, ymaps.data, cardinality);
+    }
   }
 
   yices_delete_yval_vector(&ymaps);
-  return 0;
+  return result;
 }
 
 JNIEXPORT jint JNICALL Java_com_sri_yices_Yices_valExpandMapping(JNIEnv *env, jclass, jlong mdl, jint tag, jint id, jobjectArray args, jobjectArray value){
+  PROFILE_NATIVE;
   yval_t yval;
   int32_t arity;
   model_t *model = reinterpret_cast<model_t *>(mdl);
@@ -4627,7 +6026,6 @@ JNIEXPORT jint JNICALL Java_com_sri_yices_Yices_valExpandMapping(JNIEnv *env, jc
   jsize nargs;
   jsize n;
   int32_t code;
-  int32_t i;
 
   if (!convertToYval(tag, id, &yval)  || tag != YVAL_MAPPING) {
     return -1;
@@ -4650,14 +6048,10 @@ JNIEXPORT jint JNICALL Java_com_sri_yices_Yices_valExpandMapping(JNIEnv *env, jc
   yargs = new yval_t[arity];
   code = yices_val_expand_mapping(model, &yval, yargs, &yvalue);
 
-  if (code == 0) {
-    env->SetObjectArrayElement(value, 0, makeYVal(env, &yvalue));
-
-    for (i = 0; i < arity; i++) {
-      env->SetObjectArrayElement(args, i, makeYVal(env, &(yargs[i])));
-    }
+  if (code == 0 && fillYValArray(env, value, &yvalue, 1)) {
+    fillYValArray(env, args, yargs, arity);
   }
-  delete yargs;
+  delete[] yargs;
   return 0;
 }
 
@@ -4665,6 +6059,7 @@ JNIEXPORT jint JNICALL Java_com_sri_yices_Yices_valExpandMapping(JNIEnv *env, jc
 #if 0
 
 JNIEXPORT void JNICALL Java_com_sri_yices_Yices_printModel(JNIEnv *env, jclass, jint f, jlong model) {
+  PROFILE_NATIVE;
   // Figure out file descriptors later - for now, just print to stdout
   yices_print_model(stdout, reinterpret_cast<model_t*>(model));
 }
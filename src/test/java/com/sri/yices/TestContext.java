@@ -1,5 +1,17 @@
 package com.sri.yices;
 
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
 import org.junit.Assert;
 import org.junit.Test;
 
@@ -169,4 +181,142 @@ public class TestContext {
         bitvectorFactor(1009, 32);
         bitvectorFactor(817147, 100);
     }
+
+    @Test
+    public void testDirectBuffers() {
+        assumeTrue(TestAssumptions.IS_YICES_INSTALLED);
+
+        int x = Terms.newUninterpretedTerm(Types.INT);
+        int y = Terms.newUninterpretedTerm(Types.INT);
+        int p = Terms.newUninterpretedTerm(Types.BOOL);
+
+        IntBuffer b = ByteBuffer.allocateDirect(64).order(ByteOrder.nativeOrder()).asIntBuffer();
+        b.put(0, Terms.arithGt(x, y));
+        b.put(1, Terms.arithGt(y, Terms.ZERO));
+        b.put(2, p);
+        b.put(3, Terms.arithLt(x, Terms.ZERO));
+
+        Assert.assertEquals(Terms.and(b, 0, 2), Terms.and(b.get(0), b.get(1)));
+        Assert.assertEquals(Terms.or(b, 1, 2), Terms.or(b.get(1), b.get(2)));
+
+        try (Context ctx = new Context()) {
+            ctx.assertFormulas(b, 0, 2);
+            Assert.assertEquals(ctx.check(), Status.SAT);
+            Assert.assertEquals(ctx.checkWithAssumptions(null, b, 2, 2), Status.UNSAT);
+        }
+
+        // substitution y := 0 in x > y
+        IntBuffer v = ByteBuffer.allocateDirect(8).order(ByteOrder.nativeOrder()).asIntBuffer();
+        IntBuffer m = ByteBuffer.allocateDirect(8).order(ByteOrder.nativeOrder()).asIntBuffer();
+        v.put(1, y);
+        m.put(1, Terms.ZERO);
+        Assert.assertEquals(Terms.subst(b.get(0), v, 1, m, 1, 1), Terms.arithGt(x, Terms.ZERO));
+
+        try {
+            Terms.and(IntBuffer.allocate(4), 0, 2);
+            Assert.fail("heap buffer accepted");
+        } catch (IllegalArgumentException e) {
+            System.out.println(e.getMessage());
+        }
+    }
+
+    @Test
+    public void testTimeouts() {
+        assumeTrue(TestAssumptions.IS_YICES_INSTALLED);
+
+        int x = Terms.newUninterpretedTerm(Types.INT);
+        int y = Terms.newUninterpretedTerm(Types.INT);
+        try (Context ctx = new Context()) {
+            // many short timed checks: an expired deadline from one check
+            // must not interrupt the next one
+            for (int i = 0; i < 200; i++) {
+                ctx.push();
+                ctx.assertFormula(Terms.arithGt(x, Terms.add(y, Terms.intConst(i))));
+                Status stat = ctx.check(null, 1, TimeUnit.MILLISECONDS);
+                Assert.assertTrue(stat == Status.SAT || stat == Status.INTERRUPTED);
+                ctx.pop();
+            }
+            ctx.assertFormula(Terms.arithGt(x, y));
+            Assert.assertEquals(ctx.check(1), Status.SAT);
+            Assert.assertEquals(ctx.check(null, 500, TimeUnit.MILLISECONDS), Status.SAT);
+        }
+    }
+
+    @Test
+    public void testAsync() throws Exception {
+        assumeTrue(TestAssumptions.IS_YICES_INSTALLED);
+
+        int x = Terms.newUninterpretedTerm(Types.INT);
+        int y = Terms.newUninterpretedTerm(Types.INT);
+        int p = Terms.newUninterpretedTerm(Types.BOOL);
+        try (Context ctx = new Context()) {
+            ctx.assertFormula(Terms.implies(p, Terms.arithGt(x, y)));
+            CompletableFuture<Status> f = ctx.checkAsync(null);
+            Assert.assertEquals(f.get(), Status.SAT);
+
+            int[] assumptions = { p, Terms.arithLt(x, y) };
+            f = ctx.checkWithAssumptionsAsync(null, assumptions);
+            Assert.assertEquals(f.get(), Status.UNSAT);
+        }
+
+        // cancel a hard problem: factor a 64bit semiprime
+        int bv = Types.bvType(64);
+        int a = Terms.newUninterpretedTerm(bv);
+        int b = Terms.newUninterpretedTerm(bv);
+        try (Context ctx = new Context()) {
+            ctx.assertFormula(Terms.bvEq(Terms.bvMul(a, b), Terms.bvConst(64, 4611686014132420609L)));
+            ctx.assertFormula(Terms.bvGt(a, Terms.bvConst(64, 1)));
+            ctx.assertFormula(Terms.bvGt(b, Terms.bvConst(64, 1)));
+            ctx.assertFormula(Terms.bvLt(a, Terms.bvConst(64, 1L << 32)));
+            ctx.assertFormula(Terms.bvLt(b, Terms.bvConst(64, 1L << 32)));
+            ExecutorService executor = Executors.newSingleThreadExecutor();
+            CompletableFuture<Status> f = ctx.checkAsync(null, executor);
+            Thread.sleep(100);
+            f.cancel(true);
+            Assert.assertTrue(f.isCancelled());
+            // the future is cancelled but the search may still be running
+            ctx.asyncTermination().get(10, TimeUnit.SECONDS);
+            System.out.println("status after cancel: " + ctx.getStatus());
+
+            // close right after cancel: close waits for the check to return
+            f = ctx.checkAsync(null, executor);
+            Thread.sleep(100);
+            f.cancel(true);
+            ctx.close();
+            Assert.assertTrue(f.isDone());
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void testEnumerateModels() {
+        assumeTrue(TestAssumptions.IS_YICES_INSTALLED);
+        int a = Terms.newUninterpretedTerm(Types.BOOL);
+        int b = Terms.newUninterpretedTerm(Types.BOOL);
+        int x = Terms.newUninterpretedTerm(Types.INT);
+        try (Context ctx = new Context()) {
+            ctx.assertFormula(Terms.or(a, b));
+            ctx.assertFormula(Terms.arithGeq(x, Terms.intConst(0)));
+            ctx.assertFormula(Terms.arithLeq(x, Terms.intConst(9)));
+
+            ctx.push();
+            Set<List<Integer>> seen = new HashSet<>();
+            ctx.enumerateModels(new int[] {a, b}, 0)
+                .forEach(m -> Assert.assertTrue(seen.add(Arrays.asList(m[0], m[1]))));
+            // x is not in the projection: 3 assignments for (a, b) only
+            Assert.assertEquals(seen.size(), 3);
+            Assert.assertFalse(seen.contains(Arrays.asList(Terms.mkFalse(), Terms.mkFalse())));
+            Assert.assertEquals(ctx.getStatus(), Status.UNSAT);
+            ctx.pop();
+
+            ctx.push();
+            Assert.assertEquals(ctx.enumerateModels(new int[] {x}, 4).count(), 4);
+            // stopped at limit: the last blocking clause reset the context
+            Assert.assertEquals(ctx.getStatus(), Status.IDLE);
+            ctx.pop();
+
+            long n = ctx.enumerateModels(new int[] {a, b, x}, 0).count();
+            Assert.assertEquals(n, 30);
+        }
+    }
 }
@@ -0,0 +1,97 @@
+package com.sri.yices;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import static org.junit.Assume.assumeTrue;
+
+public class TestContextPool {
+
+    @Test
+    public void testReuse() {
+        assumeTrue(TestAssumptions.IS_YICES_INSTALLED);
+
+        int x = Terms.newUninterpretedTerm(Types.INT);
+        int y = Terms.newUninterpretedTerm(Types.INT);
+
+        try (ContextPool pool = new ContextPool()) {
+            for (int i = 0; i < 10; i++) {
+                try (ContextPool.Lease lease = pool.acquire("QF_LIA", null)) {
+                    Context ctx = lease.context();
+                    // a context from the pool must be empty
+                    Assert.assertEquals(ctx.check(), Status.SAT);
+                    ctx.assertFormula(Terms.arithGt(x, y));
+                    ctx.assertFormula(Terms.arithLt(x, y));
+                    Assert.assertEquals(ctx.check(), Status.UNSAT);
+                }
+            }
+            ContextPool.Stats stats = pool.getStats();
+            System.out.println(stats);
+            Assert.assertEquals(stats.misses, 1);
+            Assert.assertEquals(stats.hits, 9);
+            Assert.assertEquals(pool.idleCount(), 1);
+
+            // one-shot contexts don't support push/pop: they are reset
+            try (ContextPool.Lease lease = pool.acquire("QF_LIA", "one-shot")) {
+                lease.context().assertFormula(Terms.arithGt(x, y));
+            }
+            try (ContextPool.Lease lease = pool.acquire("QF_LIA", "one-shot")) {
+                Assert.assertEquals(lease.context().getStatus(), Status.IDLE);
+            }
+            Assert.assertEquals(pool.getStats().resets, 2);
+        }
+    }
+
+    @Test
+    public void testUnbalancedPush() {
+        assumeTrue(TestAssumptions.IS_YICES_INSTALLED);
+
+        int x = Terms.newUninterpretedTerm(Types.INT);
+        try (ContextPool pool = new ContextPool()) {
+            // the holder leaves two scopes open
+            try (ContextPool.Lease lease = pool.acquire("QF_LIA", null)) {
+                Context ctx = lease.context();
+                ctx.push();
+                ctx.assertFormula(Terms.arithGt(x, Terms.ZERO));
+                ctx.push();
+                ctx.assertFormula(Terms.arithLt(x, Terms.ZERO));
+            }
+            // popped back to the base level, no reset
+            try (ContextPool.Lease lease = pool.acquire("QF_LIA", null)) {
+                Context ctx = lease.context();
+                Assert.assertEquals(ctx.level(), 1);
+                ctx.assertFormula(Terms.arithEq(x, Terms.ZERO));
+                Assert.assertEquals(ctx.check(), Status.SAT);
+                // too many pops: the context is reset
+                ctx.pop();
+            }
+            Assert.assertEquals(pool.getStats().resets, 1);
+            try (ContextPool.Lease lease = pool.acquire("QF_LIA", null)) {
+                Assert.assertEquals(lease.context().level(), 1);
+                Assert.assertEquals(lease.context().check(), Status.SAT);
+            }
+        }
+    }
+
+    @Test
+    public void testLimits() throws InterruptedException {
+        assumeTrue(TestAssumptions.IS_YICES_INSTALLED);
+
+        try (ContextPool pool = new ContextPool(2, 1, 10, TimeUnit.MILLISECONDS, true)) {
+            ContextPool.Key key = new ContextPool.Key("QF_BV", null);
+            ContextPool.Lease a = pool.acquire(key);
+            ContextPool.Lease b = pool.acquire(key);
+            Assert.assertNull(pool.tryAcquire(key, 10, TimeUnit.MILLISECONDS));
+            a.close();
+            b.close();
+            // at most one idle context per key
+            Assert.assertEquals(pool.idleCount(), 1);
+            Thread.sleep(50);
+            pool.evictIdle();
+            Assert.assertEquals(pool.idleCount(), 0);
+            Assert.assertEquals(pool.getStats().evictions, 2);
+        }
+    }
+}
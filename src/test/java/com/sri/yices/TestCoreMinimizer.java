@@ -0,0 +1,58 @@
+package com.sri.yices;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import static org.junit.Assume.assumeTrue;
+
+public class TestCoreMinimizer {
+
+    @Test
+    public void testMinimize() {
+        assumeTrue(TestAssumptions.IS_YICES_INSTALLED);
+        assumeTrue(Yices.isThreadSafe());
+
+        int x = Terms.newUninterpretedTerm(Types.INT);
+        int y = Terms.newUninterpretedTerm(Types.INT);
+        int[] constraints = {
+            Terms.arithGt(x, Terms.intConst(10)),
+            Terms.arithLt(x, Terms.intConst(5)),
+            Terms.arithGt(y, Terms.intConst(0)),
+            Terms.arithLt(y, x),
+            Terms.arithGt(x, Terms.intConst(20)),
+            Terms.arithLt(y, Terms.intConst(100)),
+        };
+        // p[i] => constraints[i]
+        int[] p = new int[constraints.length];
+        int[] formulas = new int[constraints.length];
+        for (int i=0; i<p.length; i++) {
+            p[i] = Terms.newUninterpretedTerm(Types.BOOL);
+            formulas[i] = Terms.implies(p[i], constraints[i]);
+        }
+        // the minimal cores are {p0, p1} and {p1, p4}
+        int[] mus1 = { p[0], p[1] };
+        int[] mus2 = { p[1], p[4] };
+
+        for (CoreMinimizer.Strategy strategy: CoreMinimizer.Strategy.values()) {
+            for (int n: new int[] { 1, 3 }) {
+                try (CoreMinimizer cm = new CoreMinimizer("QF_LIA", n)) {
+                    cm.setStrategy(strategy);
+                    CoreMinimizer.Result r = cm.minimize(formulas, p);
+                    Assert.assertEquals(r.status, Status.UNSAT);
+                    Assert.assertTrue(r.minimal);
+                    int[] core = r.core.clone();
+                    Arrays.sort(core);
+                    Assert.assertTrue(Arrays.equals(core, mus1) || Arrays.equals(core, mus2));
+                    System.out.println(strategy + " (" + n + " threads): " + r.checks + " checks");
+
+                    r = cm.minimize(formulas, new int[] { p[0], p[2], p[3], p[5] }, 10, TimeUnit.SECONDS);
+                    Assert.assertEquals(r.status, Status.SAT);
+                    Assert.assertNull(r.core);
+                }
+            }
+        }
+    }
+}
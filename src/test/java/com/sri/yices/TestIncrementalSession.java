@@ -0,0 +1,57 @@
+package com.sri.yices;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import static org.junit.Assume.assumeTrue;
+
+public class TestIncrementalSession {
+
+    @Test
+    public void testGroups() {
+        assumeTrue(TestAssumptions.IS_YICES_INSTALLED);
+
+        int x = Terms.newUninterpretedTerm(Types.INT);
+        int y = Terms.newUninterpretedTerm(Types.INT);
+        try (Context ctx = new Context()) {
+            ctx.assertFormula(Terms.arithGeq0(x));
+            IncrementalSession s = new IncrementalSession(ctx);
+            s.addGroup("small", Terms.arithLt(x, Terms.intConst(5)));
+            s.addGroup("large", Terms.arithGt(x, Terms.intConst(10)));
+            s.addGroup("y", Terms.arithEq(y, x), Terms.arithGt(y, Terms.intConst(2)));
+            s.addGroup("empty");
+            Assert.assertEquals(s.groups().size(), 4);
+            Assert.assertTrue(s.hasGroup("empty"));
+
+            Assert.assertEquals(s.check("small", "y"), Status.SAT);
+            try (Model m = ctx.getModel()) {
+                long v = m.integerValue(x);
+                Assert.assertTrue(v > 2 && v < 5);
+            }
+            Assert.assertEquals(s.check("large", "y"), Status.SAT);
+
+            Assert.assertEquals(s.check("small", "large", "y", "empty"), Status.UNSAT);
+            List<String> core = s.getUnsatCore();
+            Assert.assertTrue(core.contains("small"));
+            Assert.assertTrue(core.contains("large"));
+            Assert.assertFalse(core.contains("empty"));
+
+            Assert.assertEquals(s.checkAll(null), Status.UNSAT);
+            Assert.assertEquals(s.check(null, Arrays.asList("small")), Status.SAT);
+
+            // add to an existing group
+            s.addGroup("small", Terms.arithGt(x, Terms.intConst(7)));
+            Assert.assertEquals(s.check("small"), Status.UNSAT);
+            Assert.assertEquals(s.getUnsatCore(), Arrays.asList("small"));
+
+            s.removeGroup("large");
+            Assert.assertFalse(s.hasGroup("large"));
+            s.addGroup("large", Terms.arithEq(x, Terms.intConst(20)));
+            Assert.assertEquals(s.checkAll(null), Status.UNSAT);
+            Assert.assertEquals(s.check("large", "y"), Status.SAT);
+        }
+    }
+}
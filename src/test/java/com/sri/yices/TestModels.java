@@ -1,5 +1,7 @@
 package com.sri.yices;
 
+import java.math.BigInteger;
+
 import org.junit.Assert;
 import org.junit.Test;
 
@@ -207,6 +209,135 @@ public class TestModels {
         }
     }
 
+    @Test
+    public void testExtract() {
+        assumeTrue(TestAssumptions.IS_YICES_INSTALLED);
+        int b = Terms.newUninterpretedTerm(Types.BOOL);
+        int i = Terms.newUninterpretedTerm(Types.INT);
+        int j = Terms.newUninterpretedTerm(Types.INT);
+        int r = Terms.newUninterpretedTerm(Types.REAL);
+        int v = Terms.newUninterpretedTerm(Types.bvType(70));
+        int f = Terms.newUninterpretedTerm(Types.functionType(Types.INT, Types.INT));
+        BigInteger big = BigInteger.ONE.shiftLeft(80).negate();
+        boolean[] bits = new boolean[70];
+        bits[0] = true;
+        bits[65] = true;
+        bits[69] = true;
+        int[] vars = {b, i, j, r, v};
+        int[] vals = {Terms.mkTrue(), Terms.intConst(-42), Terms.intConst(big), Terms.rationalConst(13, 131),
+                      Terms.bvConst(bits)};
+        try (Model m = new Model(vars, vals)) {
+            ModelSnapshot s = m.extract(new int[] {b, i, j, r, v, f, Terms.NULL_TERM});
+            Assert.assertEquals(s.size(), 7);
+            Assert.assertEquals(s.kind(0), ModelSnapshot.BOOL);
+            Assert.assertTrue(s.boolValue(0));
+            Assert.assertEquals(s.kind(1), ModelSnapshot.INT64);
+            Assert.assertEquals(s.longValue(1), -42);
+            Assert.assertEquals(s.kind(2), ModelSnapshot.BIG_INTEGER);
+            Assert.assertEquals(s.bigIntegerValue(2), big);
+            Assert.assertEquals(s.kind(3), ModelSnapshot.RATIONAL64);
+            Assert.assertEquals(s.numerator(3), 13);
+            Assert.assertEquals(s.denominator(3), 131);
+            Assert.assertEquals(s.kind(4), ModelSnapshot.BITVECTOR);
+            Assert.assertEquals(s.bvSize(4), 70);
+            Assert.assertEquals(s.bvWord(4, 0), 1L);
+            Assert.assertEquals(s.bvWord(4, 1), 0x22L);
+            Assert.assertArrayEquals(s.bvValue(4), m.bvValue(v));
+            Assert.assertEquals(s.bvValueAsBigInteger(4), BigInteger.ONE.shiftLeft(69).setBit(65).setBit(0));
+            Assert.assertEquals(s.kind(5), ModelSnapshot.UNSUPPORTED);
+            Assert.assertEquals(s.kind(6), ModelSnapshot.ERROR);
+            Assert.assertEquals(s.errorCount(), 1);
+        }
+    }
+
+    @Test
+    public void testExpandLargeFunction() {
+        assumeTrue(TestAssumptions.IS_YICES_INSTALLED);
+        int n = 5000;
+        int f = Terms.newUninterpretedTerm(Types.functionType(Types.INT, Types.INT));
+        try (Context c = new Context()) {
+            for (int i = 0; i < n; i++) {
+                c.assertFormula(Terms.arithEq(Terms.funApplication(f, Terms.intConst(i)), Terms.intConst(i + 1)));
+            }
+            Assert.assertEquals(c.check(), Status.SAT);
+            try (Model m = c.getModel()) {
+                VectorValue vv = m.expandFunction(m.getValue(f));
+                Assert.assertEquals(vv.vector.length, n);
+                for (YVal map: vv.vector) {
+                    VectorValue arg = m.expandMapping(map);
+                    Assert.assertEquals(m.integerValue(arg.value), m.integerValue(arg.vector[0]) + 1);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testCachingModel() {
+        assumeTrue(TestAssumptions.IS_YICES_INSTALLED);
+        int x = Terms.newUninterpretedTerm(Types.INT);
+        int y = Terms.newUninterpretedTerm(Types.INT);
+        int v = Terms.newUninterpretedTerm(Types.BV8);
+        int sum = Terms.add(x, y);
+        try (CachingModel m = new CachingModel(new Model(), 2)) {
+            m.setInteger(x, 3);
+            m.setBVInteger(v, 5);
+            Assert.assertEquals(m.valueAsTerm(x), Terms.intConst(3));
+            Assert.assertEquals(m.valueAsTerm(x), Terms.intConst(3));
+            Assert.assertEquals(m.hits(), 1);
+            boolean[] b = m.bvValue(v);
+            Assert.assertTrue(b[0] && !b[1] && b[2]);
+            b[0] = false;
+            Assert.assertTrue(m.bvValue(v)[0]);
+            Assert.assertEquals(m.size(), 2);
+
+            // the cache is cleared when the model changes
+            m.getModel().setInteger(y, 4);
+            Assert.assertEquals(m.valueAsTerm(sum), Terms.intConst(7));
+            Assert.assertEquals(m.size(), 1);
+            YVal val = m.getValue(sum);
+            Assert.assertSame(m.getValue(sum), val);
+            Assert.assertEquals(m.valueAsTerm(y), Terms.intConst(4));
+            Assert.assertEquals(m.valueAsTerm(x), Terms.intConst(3));
+            Assert.assertEquals(m.evictions(), 1);
+        }
+    }
+
+    @Test
+    public void testValueReader() {
+        assumeTrue(TestAssumptions.IS_YICES_INSTALLED);
+        int b = Terms.newUninterpretedTerm(Types.BOOL);
+        int i = Terms.newUninterpretedTerm(Types.INT);
+        int j = Terms.newUninterpretedTerm(Types.INT);
+        int r = Terms.newUninterpretedTerm(Types.REAL);
+        int v = Terms.newUninterpretedTerm(Types.bvType(300));
+        BigInteger big = BigInteger.TEN.pow(30);
+        int[] vars = {b, i, j, r, v};
+        int[] vals = {Terms.mkFalse(), Terms.intConst(-7), Terms.intConst(big), Terms.rationalConst(-3, 4),
+                      Terms.bvMinusOne(300)};
+        try (Model m = new Model(vars, vals)) {
+            ValueReader reader = new ValueReader(m);
+            Assert.assertFalse(reader.boolValue(b));
+            Assert.assertEquals(reader.integerValue(i), -7);
+            Assert.assertEquals(reader.bigIntegerValue(i), BigInteger.valueOf(-7));
+            Assert.assertEquals(reader.bigIntegerValue(j), big);
+            Assert.assertFalse(reader.readRational(j));
+            Assert.assertTrue(reader.readRational(r));
+            Assert.assertEquals(reader.numerator(), -3);
+            Assert.assertEquals(reader.denominator(), 4);
+            Assert.assertEquals(reader.doubleValue(r), -0.75, 0.0);
+            Assert.assertEquals(reader.bigRationalValue(r), m.bigRationalValue(r));
+            Assert.assertEquals(reader.readBv(v), 300);
+            Assert.assertEquals(reader.bvWord(0), -1L);
+            Assert.assertEquals(reader.bvWord(4), (1L << 44) - 1);
+            try {
+                reader.bvValueAsLong(v);
+                Assert.fail("expected IllegalArgumentException");
+            } catch (IllegalArgumentException e) {
+                // expected
+            }
+        }
+    }
+
     @Test
     public void testModelSupport() {
         assumeTrue(Yices.versionOrdinal() >= Yices.versionOrdinal(2, 6, 2));
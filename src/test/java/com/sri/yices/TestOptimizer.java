@@ -0,0 +1,153 @@
+package com.sri.yices;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import static org.junit.Assume.assumeTrue;
+
+public class TestOptimizer {
+
+    private static BigRational rational(long num, long den) {
+        return new BigRational(BigInteger.valueOf(num), BigInteger.valueOf(den));
+    }
+
+    @Test
+    public void testMinimize() {
+        assumeTrue(TestAssumptions.IS_YICES_INSTALLED);
+
+        int x = Terms.newUninterpretedTerm(Types.INT);
+        int y = Terms.newUninterpretedTerm(Types.INT);
+        // minimize 3x + 2y subject to x + y >= 7, x >= 0, y >= 0: optimum 14 (x=0, y=7)
+        int f = Terms.add(Terms.mul(Terms.intConst(3), x), Terms.mul(Terms.intConst(2), y));
+
+        for (Optimizer.Strategy strategy: Optimizer.Strategy.values()) {
+            try (Context ctx = new Context()) {
+                ctx.assertFormula(Terms.arithGeq(Terms.add(x, y), Terms.intConst(7)));
+                ctx.assertFormula(Terms.arithGeq0(x));
+                ctx.assertFormula(Terms.arithGeq0(y));
+                ctx.assertFormula(Terms.arithLeq(x, Terms.intConst(1000)));
+
+                List<BigRational> values = new ArrayList<>();
+                Optimizer.Result r = new Optimizer(ctx)
+                    .setStrategy(strategy)
+                    .setListener((v, m) -> values.add(v))
+                    .minimize(f);
+                Assert.assertEquals(r.status, Status.SAT);
+                Assert.assertTrue(r.optimal);
+                Assert.assertEquals(r.value, rational(14, 1));
+                try (Model m = r.model) {
+                    Assert.assertEquals(m.integerValue(x), 0);
+                    Assert.assertEquals(m.integerValue(y), 7);
+                }
+                // strictly decreasing values, ending with the optimum
+                for (int i=1; i<values.size(); i++) {
+                    Assert.assertTrue(values.get(i).doubleValue() < values.get(i-1).doubleValue());
+                }
+                Assert.assertEquals(values.get(values.size() - 1), r.value);
+                Assert.assertFalse(r.unbounded);
+                // no search down to the unbounded limit
+                Assert.assertTrue(r.checks <= 20);
+
+                // the search doesn't change the assertions
+                ctx.assertFormula(Terms.arithGeq(f, Terms.intConst(100)));
+                Assert.assertEquals(ctx.check(), Status.SAT);
+            }
+        }
+    }
+
+    @Test
+    public void testMaximize() {
+        assumeTrue(TestAssumptions.IS_YICES_INSTALLED);
+
+        int x = Terms.newUninterpretedTerm(Types.INT);
+        int y = Terms.newUninterpretedTerm(Types.INT);
+        int f = Terms.sub(x, y);
+
+        for (Optimizer.Strategy strategy: Optimizer.Strategy.values()) {
+            try (Context ctx = new Context()) {
+                ctx.assertFormula(Terms.arithLeq(x, Terms.intConst(10)));
+                ctx.assertFormula(Terms.arithGeq(y, Terms.intConst(-5)));
+                ctx.assertFormula(Terms.arithLt(y, x));
+
+                Optimizer.Result r = new Optimizer(ctx).setStrategy(strategy).maximize(f);
+                Assert.assertEquals(r.status, Status.SAT);
+                Assert.assertTrue(r.optimal);
+                Assert.assertEquals(r.value, rational(15, 1));
+                r.model.close();
+
+                // with a known upper bound
+                r = new Optimizer(ctx).setStrategy(strategy).setBound(rational(15, 1)).maximize(f);
+                Assert.assertTrue(r.optimal);
+                Assert.assertEquals(r.value, rational(15, 1));
+                r.model.close();
+            }
+        }
+    }
+
+    @Test
+    public void testReal() {
+        assumeTrue(TestAssumptions.IS_YICES_INSTALLED);
+
+        // minimize r subject to r > 1/2: there's no minimum, but an optimum up to delta
+        int r = Terms.newUninterpretedTerm(Types.REAL);
+        BigRational delta = rational(1, 100);
+        for (Optimizer.Strategy strategy: Optimizer.Strategy.values()) {
+            try (Context ctx = new Context()) {
+                ctx.assertFormula(Terms.arithGt(r, Terms.rationalConst(1, 2)));
+                ctx.assertFormula(Terms.arithLt(r, Terms.intConst(1)));
+                Optimizer.Result res = new Optimizer(ctx).setStrategy(strategy).setDelta(delta).minimize(r);
+                Assert.assertTrue(res.optimal);
+                double v = res.value.doubleValue();
+                Assert.assertTrue(v > 0.5 && v <= 0.51);
+                res.model.close();
+            }
+        }
+    }
+
+    @Test
+    public void testLimits() {
+        assumeTrue(TestAssumptions.IS_YICES_INSTALLED);
+
+        int x = Terms.newUninterpretedTerm(Types.INT);
+        try (Context ctx = new Context()) {
+            ctx.assertFormula(Terms.arithLt(x, Terms.intConst(0)));
+            ctx.assertFormula(Terms.arithGt(x, Terms.intConst(0)));
+            Optimizer.Result r = new Optimizer(ctx).minimize(x);
+            Assert.assertEquals(r.status, Status.UNSAT);
+            Assert.assertFalse(r.optimal);
+            Assert.assertNull(r.value);
+            Assert.assertNull(r.model);
+        }
+
+        // unbounded: stops at the limit
+        for (Optimizer.Strategy strategy: Optimizer.Strategy.values()) {
+            try (Context ctx = new Context()) {
+                ctx.assertFormula(Terms.arithLt(x, Terms.intConst(0)));
+                Optimizer.Result r = new Optimizer(ctx).setStrategy(strategy)
+                    .setUnboundedLimit(rational(1000, 1)).minimize(x);
+                Assert.assertEquals(r.status, Status.SAT);
+                Assert.assertTrue(r.unbounded);
+                Assert.assertFalse(r.optimal);
+                Assert.assertTrue(r.value.doubleValue() <= -1000);
+                Assert.assertTrue(r.checks <= 15);
+                r.model.close();
+            }
+        }
+
+        // long linear search: stops after maxChecks
+        try (Context ctx = new Context()) {
+            ctx.assertFormula(Terms.arithLt(x, Terms.intConst(0)));
+            ctx.assertFormula(Terms.arithGt(x, Terms.intConst(-1000000)));
+            Optimizer.Result r = new Optimizer(ctx).setStrategy(Optimizer.Strategy.LINEAR).setMaxChecks(5).minimize(x);
+            Assert.assertEquals(r.status, Status.SAT);
+            Assert.assertFalse(r.optimal);
+            Assert.assertFalse(r.unbounded);
+            Assert.assertEquals(r.checks, 5);
+            r.model.close();
+        }
+    }
+}
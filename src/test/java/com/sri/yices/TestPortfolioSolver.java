@@ -0,0 +1,39 @@
+package com.sri.yices;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import static org.junit.Assume.assumeTrue;
+
+public class TestPortfolioSolver {
+
+    @Test
+    public void testSolve() {
+        assumeTrue(TestAssumptions.IS_YICES_INSTALLED);
+        assumeTrue(Yices.isThreadSafe());
+
+        int x = Terms.newUninterpretedTerm(Types.INT);
+        int y = Terms.newUninterpretedTerm(Types.INT);
+        int p = Terms.newUninterpretedTerm(Types.BOOL);
+        int[] formulas = { Terms.arithGt(x, y), Terms.implies(p, Terms.arithLt(x, y)) };
+
+        try (PortfolioSolver ps = new PortfolioSolver(PortfolioSolver.defaultVariants("QF_LIA", 4))) {
+            for (PortfolioSolver.Variant v: ps.getVariants()) {
+                System.out.println(v);
+            }
+
+            PortfolioSolver.Result r = ps.solve(formulas);
+            Assert.assertEquals(r.status, Status.SAT);
+            System.out.println("winner: " + r.variant.name);
+            try (Model m = r.model) {
+                Assert.assertTrue(m.integerValue(x) > m.integerValue(y));
+                Assert.assertFalse(m.boolValue(p));
+            }
+
+            r = ps.solve(formulas, new int[] { p });
+            Assert.assertEquals(r.status, Status.UNSAT);
+            Assert.assertArrayEquals(r.core, new int[] { p });
+            Assert.assertNull(r.model);
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package com.sri.yices;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import static org.junit.Assume.assumeTrue;
+
+public class TestProfiler {
+
+    @Test
+    public void testBuckets() {
+        long[] values = { 0, 1, 63, 64, 65, 1000, 123456789L, 1L << 44, Long.MAX_VALUE };
+        for (long v: values) {
+            int b = LatencyHistogram.bucket(v);
+            Assert.assertTrue(LatencyHistogram.highestValue(b) >= v || v >= (1L << 45));
+            if (b > 0) Assert.assertTrue(LatencyHistogram.highestValue(b - 1) < v);
+        }
+        // relative precision
+        for (long v = 64; v < (1L << 40); v = v * 3 + 7) {
+            long h = LatencyHistogram.highestValue(LatencyHistogram.bucket(v));
+            Assert.assertTrue((h - v) * 32 <= v);
+        }
+    }
+
+    @Test
+    public void testConcurrent() throws InterruptedException {
+        Profiler.clear();
+        int nthreads = 4;
+        int ncalls = 10000;
+        List<Thread> threads = new ArrayList<>();
+        for (int k=0; k<nthreads; k++) {
+            Thread t = new Thread(() -> {
+                    for (int i=1; i<=ncalls; i++) {
+                        Profiler.delta("TestProfiler.call", 0, i * 1000L);
+                    }
+                });
+            threads.add(t);
+            t.start();
+        }
+        for (Thread t: threads) t.join();
+
+        Profiler.Stats s = Profiler.getStats("TestProfiler.call");
+        Assert.assertEquals(s.calls, (long) nthreads * ncalls);
+        Assert.assertEquals(s.max, ncalls * 1000L);
+        long p50 = s.p50();
+        Assert.assertTrue(Math.abs(p50 - ncalls * 500L) <= ncalls * 500L / 16);
+        Assert.assertTrue(s.p999() <= s.max);
+        Assert.assertTrue(Profiler.getThreadCount() >= nthreads);
+        System.out.println(s);
+        Profiler.clear();
+        Assert.assertNull(Profiler.getStats("TestProfiler.call"));
+    }
+
+    @Test
+    public void testMethodNames() {
+        Assert.assertEquals(Profiler.methodName("Java_com_sri_yices_Yices_andN"), "Yices.andN");
+        Assert.assertEquals(Profiler.methodName("Java_com_sri_yices_Yices_getIntegerValue__JI_3J"), "Yices.getIntegerValue");
+        Assert.assertEquals(Profiler.methodName("Java_com_sri_yices_Yices_bv_1const"), "Yices.bv_const");
+    }
+
+    @Test
+    public void testNatives() {
+        assumeTrue(TestAssumptions.IS_YICES_INSTALLED);
+
+        Profiler.instrumentNatives(true);
+        try {
+            Profiler.clear();
+            int x = Terms.newUninterpretedTerm(Types.INT);
+            for (int i=0; i<100; i++) {
+                Terms.arithGeq(x, Terms.intConst(i));
+            }
+            Profiler.NativeStats s = Profiler.getNativeStats().get("Yices.arithGeq");
+            Assert.assertNotNull(s);
+            Assert.assertEquals(s.calls, 100L);
+            System.out.println(Profiler.report());
+        } finally {
+            Profiler.instrumentNatives(false);
+        }
+        Assert.assertFalse(Profiler.isInstrumentingNatives());
+    }
+}
@@ -0,0 +1,67 @@
+package com.sri.yices;
+
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import static org.junit.Assume.assumeTrue;
+
+public class TestResourceTracker {
+
+    @Test
+    public void testCensus() {
+        assumeTrue(TestAssumptions.IS_YICES_INSTALLED);
+
+        long contexts = Context.getCensus();
+        long configs = Config.getCensus();
+        long params = Parameters.getCensus();
+        try (Config cfg = new Config(); Parameters p = new Parameters(); Context ctx = new Context(cfg)) {
+            Assert.assertEquals(Context.getCensus(), contexts + 1);
+            Assert.assertEquals(Config.getCensus(), configs + 1);
+            Assert.assertEquals(Parameters.getCensus(), params + 1);
+            ctx.close(); // close twice must be harmless
+        }
+        Assert.assertEquals(Context.getCensus(), contexts);
+        Assert.assertEquals(Config.getCensus(), configs);
+        Assert.assertEquals(Parameters.getCensus(), params);
+    }
+
+    @Test
+    public void testLeakTracking() {
+        assumeTrue(TestAssumptions.IS_YICES_INSTALLED);
+
+        ResourceTracker.setLeakTracking(true);
+        try {
+            Context ctx = new Context();
+            List<ResourceTracker.Allocation> live = ResourceTracker.checkpoint();
+            boolean found = false;
+            for (ResourceTracker.Allocation a: live) {
+                if (a.kind == ResourceTracker.Kind.CONTEXT) found = true;
+            }
+            Assert.assertTrue(found);
+            System.out.println(live.get(0));
+            ctx.close();
+            Assert.assertTrue(ResourceTracker.checkpoint().isEmpty());
+        } finally {
+            ResourceTracker.setLeakTracking(false);
+        }
+    }
+
+    @Test
+    public void testCleaner() throws InterruptedException {
+        assumeTrue(TestAssumptions.IS_YICES_INSTALLED);
+
+        long reclaimed = ResourceTracker.getReclaimed(ResourceTracker.Kind.MODEL);
+        for (int i=0; i<10; i++) {
+            new Model(); // never closed
+        }
+        for (int i=0; i<50 && ResourceTracker.getReclaimed(ResourceTracker.Kind.MODEL) < reclaimed + 10; i++) {
+            System.gc();
+            Thread.sleep(10);
+        }
+        System.out.println("reclaimed models: " + (ResourceTracker.getReclaimed(ResourceTracker.Kind.MODEL) - reclaimed));
+        // allocating or closing on this thread frees the models queued by the cleaner
+        new Parameters().close();
+    }
+}
@@ -0,0 +1,65 @@
+package com.sri.yices;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import static org.junit.Assume.assumeTrue;
+
+public class TestSolverEvents {
+
+    private static long count(List<RecordedEvent> events, String name) {
+        return events.stream().filter(e -> e.getEventType().getName().equals(name)).count();
+    }
+
+    @Test
+    public void testEvents() throws Exception {
+        assumeTrue(TestAssumptions.IS_YICES_INSTALLED);
+
+        Path file = Files.createTempFile("yices", ".jfr");
+        long id;
+        try (Recording r = new Recording()) {
+            r.enable("com.sri.yices.Check");
+            r.enable("com.sri.yices.Assert");
+            r.enable("com.sri.yices.GetModel");
+            r.enable("com.sri.yices.GetUnsatCore");
+            r.start();
+            try (Context ctx = new Context()) {
+                id = ctx.getId();
+                int p = Terms.newUninterpretedTerm(Types.BOOL);
+                int q = Terms.newUninterpretedTerm(Types.BOOL);
+                ctx.assertFormulas(new int[] { Terms.or(p, q) });
+                Assert.assertEquals(ctx.check(), Status.SAT);
+                try (Model m = ctx.getModel()) {
+                    Assert.assertNotNull(m);
+                }
+                Assert.assertEquals(ctx.checkWithAssumptions(null, new int[] { Terms.not(p), Terms.not(q) }), Status.UNSAT);
+                Assert.assertEquals(ctx.getUnsatCore().length, 2);
+            }
+            r.stop();
+            r.dump(file);
+        }
+        List<RecordedEvent> events = RecordingFile.readAllEvents(file);
+        Files.delete(file);
+        for (RecordedEvent e: events) System.out.println(e);
+
+        Assert.assertEquals(count(events, "com.sri.yices.Check"), 2L);
+        Assert.assertEquals(count(events, "com.sri.yices.Assert"), 1L);
+        Assert.assertEquals(count(events, "com.sri.yices.GetModel"), 1L);
+        Assert.assertEquals(count(events, "com.sri.yices.GetUnsatCore"), 1L);
+        for (RecordedEvent e: events) {
+            Assert.assertEquals(e.getLong("contextId"), id);
+            if (e.getEventType().getName().equals("com.sri.yices.Check") && e.getString("operation").equals("checkWithAssumptions")) {
+                Assert.assertEquals(e.getString("status"), "UNSAT");
+                Assert.assertEquals(e.getInt("formulas"), 2);
+            }
+        }
+    }
+}
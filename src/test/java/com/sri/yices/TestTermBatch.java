@@ -0,0 +1,69 @@
+package com.sri.yices;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import static org.junit.Assume.assumeTrue;
+
+public class TestTermBatch {
+
+    @Test
+    public void testBuild() {
+        assumeTrue(TestAssumptions.IS_YICES_INSTALLED);
+
+        int bv8 = Types.bvType(8);
+        int x = Terms.newUninterpretedTerm(bv8);
+        int y = Terms.newUninterpretedTerm(bv8);
+        int p = Terms.newUninterpretedTerm(Types.BOOL);
+
+        TermBatch b = new TermBatch();
+        int r1 = b.bvAdd(x, y);
+        int r2 = b.bvConst(8, 12);
+        int r3 = b.bvLt(r1, r2);
+        int r4 = b.and(r3, p, b.not(p));
+        int r5 = b.bvExtract(r1, 0, 3);
+        Assert.assertEquals(b.size(), 6);
+
+        int[] terms = b.build();
+        Assert.assertEquals(terms.length, 6);
+        int sum = Terms.bvAdd(x, y);
+        Assert.assertEquals(terms[TermBatch.slot(r1)], sum);
+        Assert.assertEquals(terms[TermBatch.slot(r2)], Terms.bvConst(8, 12));
+        Assert.assertEquals(terms[TermBatch.slot(r3)], Terms.bvLt(sum, Terms.bvConst(8, 12)));
+        Assert.assertEquals(terms[TermBatch.slot(r4)], Terms.FALSE);
+        Assert.assertEquals(terms[TermBatch.slot(r5)], Terms.bvExtract(sum, 0, 3));
+
+        // reuse the buffer
+        b.clear();
+        int r = b.add(b.intConst(3), b.intConst(4));
+        terms = b.build();
+        Assert.assertEquals(terms[TermBatch.slot(r)], Terms.intConst(7));
+    }
+
+    @Test
+    public void testErrorSlot() {
+        assumeTrue(TestAssumptions.IS_YICES_INSTALLED);
+
+        int x = Terms.newUninterpretedTerm(Types.INT);
+        int p = Terms.newUninterpretedTerm(Types.BOOL);
+
+        TermBatch b = new TermBatch();
+        b.arithGt(x, Terms.ZERO);
+        b.not(p);
+        b.add(x, p);  // type error
+        b.not(x);
+        try {
+            b.build();
+            Assert.fail("expected a BatchException");
+        } catch (TermBatch.BatchException e) {
+            System.out.println(e.getMessage());
+            Assert.assertEquals(e.slot, 2);
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testForwardReference() {
+        TermBatch b = new TermBatch();
+        b.not(TermBatch.ref(0));
+    }
+}
@@ -0,0 +1,67 @@
+package com.sri.yices;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import static org.junit.Assume.assumeTrue;
+
+public class TestTermGc {
+
+    @Test
+    public void testHandles() {
+        TermHandle h = TermGc.handle(1234);
+        Assert.assertTrue(TermGc.isRoot(1234));
+        h.retain();
+        Assert.assertEquals(h.refCount(), 2);
+        h.release();
+        Assert.assertTrue(TermGc.isRoot(1234));
+        TermHandle h2 = TermGc.handle(1234);
+        h.close();
+        Assert.assertTrue(TermGc.isRoot(1234));
+        h2.close();
+        Assert.assertFalse(TermGc.isRoot(1234));
+        h2.close(); // harmless
+        try {
+            h.get();
+            Assert.fail();
+        } catch (IllegalStateException e) {
+            // expected
+        }
+    }
+
+    @Test
+    public void testCollect() {
+        assumeTrue(TestAssumptions.IS_YICES_INSTALLED);
+
+        List<TermGc.Result> seen = new ArrayList<>();
+        TermGc.addListener(seen::add);
+
+        int x = Terms.newUninterpretedTerm(Types.INT);
+        int keep = Terms.arithGt(x, Terms.intConst(12345));
+        for (int i=0; i<10000; i++) {
+            Terms.arithLt(x, Terms.intConst(i + 100000));
+        }
+        int before = Yices.yicesNumTerms();
+        TermGc.setWatermark(before, 2.0);
+        try (TermHandle hx = TermGc.handle(x); TermHandle hk = TermGc.handle(keep)) {
+            TermGc.Result r = TermGc.maybeCollect();
+            Assert.assertNotNull(r);
+            System.out.println(r);
+            Assert.assertTrue(r.termsAfter < before);
+            // the roots are still valid
+            Assert.assertEquals(Terms.typeOf(keep), Types.BOOL);
+            Assert.assertEquals(Terms.arithGt(x, Terms.intConst(12345)), keep);
+            Assert.assertEquals(Terms.ZERO, Yices.zero());
+        }
+        Assert.assertEquals(seen.size(), 1);
+        // below the trigger now
+        Assert.assertNull(TermGc.maybeCollect());
+        TermGc.memoryPressure();
+        Assert.assertNotNull(TermGc.maybeCollect());
+        System.out.println(TermGc.getStats());
+        Assert.assertEquals(TermGc.getStats().collections, 2L);
+    }
+}
@@ -0,0 +1,60 @@
+package com.sri.yices;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import static org.junit.Assume.assumeTrue;
+
+public class TestTermList {
+
+    @Test
+    public void testList() {
+        TermList l = new TermList(2);
+        Assert.assertTrue(l.isEmpty());
+        for (int i=0; i<100; i++) {
+            l.add(i);
+        }
+        Assert.assertEquals(l.size(), 100);
+        Assert.assertEquals(l.get(42), 42);
+        l.set(42, -42);
+        Assert.assertEquals(l.get(42), -42);
+        Assert.assertEquals(l.removeLast(), 99);
+        Assert.assertEquals(l.toArray().length, 99);
+        l.clear();
+        Assert.assertTrue(l.isEmpty());
+        l.addAll(1, 2, 3).addAll(TermList.of(4, 5));
+        Assert.assertArrayEquals(l.toArray(), new int[] {1, 2, 3, 4, 5});
+
+        // of(n) is a one-element list, new TermList(n) is empty
+        Assert.assertArrayEquals(TermList.of(7).toArray(), new int[] {7});
+        Assert.assertTrue(new TermList(7).isEmpty());
+    }
+
+    @Test
+    public void testYices() {
+        assumeTrue(TestAssumptions.IS_YICES_INSTALLED);
+
+        int x = Terms.newUninterpretedTerm(Types.INT);
+        int y = Terms.newUninterpretedTerm(Types.INT);
+        int p = Terms.newUninterpretedTerm(Types.BOOL);
+        int q = Terms.newUninterpretedTerm(Types.BOOL);
+
+        // capacity larger than size: only the prefix must be used
+        TermList l = new TermList(64);
+        l.add(p).add(q);
+        Assert.assertEquals(Terms.and(l), Terms.and(p, q));
+        Assert.assertEquals(Terms.or(l), Terms.or(p, q));
+
+        TermList a = TermList.of(Terms.arithGt(x, y), Terms.arithLt(x, Terms.ZERO));
+        TermList v = TermList.of(y);
+        TermList map = TermList.of(Terms.ONE);
+        Terms.substArray(a, v, map);
+        Assert.assertEquals(a.get(0), Terms.arithGt(x, Terms.ONE));
+        Assert.assertEquals(a.get(1), Terms.arithLt(x, Terms.ZERO));
+
+        try (Context ctx = new Context()) {
+            ctx.assertFormulas(a);
+            Assert.assertEquals(ctx.check(), Status.UNSAT);
+        }
+    }
+}
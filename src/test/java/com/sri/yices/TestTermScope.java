@@ -0,0 +1,66 @@
+package com.sri.yices;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import static org.junit.Assume.assumeTrue;
+
+public class TestTermScope {
+
+    @Test
+    public void testScope() {
+        assumeTrue(TestAssumptions.IS_YICES_INSTALLED);
+
+        int x = Terms.newUninterpretedTerm(Types.INT);
+        TermHandle hx = TermGc.handle(x);
+        TermHandle result;
+        int posrefs = Yices.yicesNumPosrefTerms();
+        long collections = TermGc.getStats().collections;
+
+        try (TermScope scope = TermScope.open()) {
+            for (int i=0; i<1000; i++) {
+                scope.track(Terms.arithGt(x, Terms.intConst(i + 50000)));
+            }
+            result = scope.escape(scope.track(Terms.arithGeq(x, Terms.intConst(42))));
+            Assert.assertEquals(scope.numTracked(), 1001);
+            Assert.assertTrue(scope.termsCreated() >= 1000);
+            Assert.assertTrue(Yices.yicesNumPosrefTerms() >= posrefs + 1000);
+            // tracked terms survive an explicit collection
+            TermGc.collect();
+            Assert.assertEquals(Terms.typeOf(result.get()), Types.BOOL);
+        }
+        // closing the scope releases the terms but doesn't collect:
+        // the only collection is the explicit one in the scope
+        Assert.assertEquals(Yices.yicesNumPosrefTerms(), posrefs);
+        Assert.assertEquals(TermGc.getStats().collections, collections + 1);
+
+        int before = Yices.yicesNumTerms();
+        TermGc.collect();
+        Assert.assertTrue(Yices.yicesNumTerms() < before);
+
+        // escaped term is still valid
+        Assert.assertEquals(Terms.typeOf(result.get()), Types.BOOL);
+        Assert.assertEquals(Terms.arithGeq(x, Terms.intConst(42)), result.get());
+        result.close();
+        hx.close();
+    }
+
+    @Test
+    public void testUntracked() {
+        assumeTrue(TestAssumptions.IS_YICES_INSTALLED);
+
+        // a term built outside of the scope survives if it's rooted,
+        // a term released by the scope is deleted by the next collection
+        TermHandle hy = TermGc.handle(Terms.newUninterpretedTerm(Types.BOOL));
+        TermGc.collect();
+        int terms = Yices.yicesNumTerms();
+        try (TermScope scope = TermScope.open()) {
+            scope.track(Terms.or(hy.get(), Terms.newUninterpretedTerm(Types.BOOL)));
+            Assert.assertTrue(Yices.yicesNumTerms() > terms);
+        }
+        TermGc.collect();
+        Assert.assertEquals(Terms.typeOf(hy.get()), Types.BOOL);
+        Assert.assertTrue(Yices.yicesNumTerms() <= terms);
+        hy.close();
+    }
+}
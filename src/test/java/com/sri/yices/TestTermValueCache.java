@@ -0,0 +1,78 @@
+package com.sri.yices;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class TestTermValueCache {
+
+    private static int get(TermValueCache c, int t) {
+        int s = c.lookup(t, TermValueCache.TERM);
+        return s < 0 ? -1 : c.terms[s];
+    }
+
+    private static void put(TermValueCache c, int t, int v) {
+        int s = c.slotFor(t);
+        c.terms[s] = v;
+        c.flags[s] |= TermValueCache.TERM;
+    }
+
+    @Test
+    public void testLru() {
+        TermValueCache c = new TermValueCache(3);
+        put(c, 10, 100);
+        put(c, 20, 200);
+        put(c, 30, 300);
+        Assert.assertEquals(get(c, 10), 100);  // 10 is now the most recently used
+        put(c, 40, 400);                        // evicts 20
+        Assert.assertEquals(c.size(), 3);
+        Assert.assertEquals(c.evictions(), 1);
+        Assert.assertEquals(get(c, 20), -1);
+        Assert.assertEquals(get(c, 10), 100);
+        Assert.assertEquals(get(c, 30), 300);
+        Assert.assertEquals(get(c, 40), 400);
+    }
+
+    @Test
+    public void testKinds() {
+        TermValueCache c = new TermValueCache(10);
+        put(c, 5, 50);
+        Assert.assertEquals(c.lookup(5, TermValueCache.YVAL), -1);
+        Assert.assertTrue(c.lookup(5, TermValueCache.TERM) >= 0);
+        c.clear();
+        Assert.assertEquals(c.size(), 0);
+        Assert.assertEquals(get(c, 5), -1);
+    }
+
+    // compare with an access-ordered LinkedHashMap
+    @Test
+    public void testRandom() {
+        final int capacity = 500;
+        TermValueCache c = new TermValueCache(capacity);
+        Map<Integer, Integer> ref = new LinkedHashMap<Integer, Integer>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<Integer, Integer> e) {
+                    return size() > capacity;
+                }
+            };
+        Random rand = new Random(42);
+        for (int i=0; i<200000; i++) {
+            int t = rand.nextInt(2000);
+            if (rand.nextBoolean()) {
+                Integer v = ref.get(t);
+                Assert.assertEquals(get(c, t), v == null ? -1 : v.intValue());
+            } else {
+                int v = rand.nextInt(1000000);
+                ref.put(t, v);
+                put(c, t, v);
+            }
+            Assert.assertEquals(c.size(), ref.size());
+        }
+        for (Map.Entry<Integer, Integer> e: ref.entrySet()) {
+            Assert.assertEquals(get(c, e.getKey()), e.getValue().intValue());
+        }
+    }
+}
@@ -458,6 +458,44 @@ public class TestYices {
         inspectTerm(Yices.parseBvBin("111000111"));
     }
 
+    @Test
+    public void testPackedBitvectors() {
+        assumeTrue(TestAssumptions.IS_YICES_INSTALLED);
+
+        int t = Terms.bvConst(10, new long[] { 0x2A5L });
+        Assert.assertEquals(t, Terms.parseBvBin("1010100101"));
+        Assert.assertEquals(Terms.bvConstValueAsLong(t), 0x2A5L);
+
+        BigInteger x = BigInteger.ONE.shiftLeft(100).add(BigInteger.valueOf(12345));
+        t = Terms.bvConst(130, x);
+        long[] w = new long[3];
+        Assert.assertEquals(Terms.bvConstValueAsWords(t, w), 130);
+        Assert.assertEquals(w[0], 12345L);
+        Assert.assertEquals(w[1], 1L << 36);
+        Assert.assertEquals(w[2], 0L);
+        Assert.assertEquals(Terms.bvConstValueAsBigInteger(t), x);
+        Assert.assertEquals(Terms.bvConst(130, w), t);
+
+        // negative values are sign-extended or truncated
+        Assert.assertEquals(Terms.bvConst(73, BigInteger.valueOf(-1)), Terms.bvMinusOne(73));
+        Assert.assertEquals(Terms.bvConst(8, BigInteger.valueOf(-2)), Terms.bvConst(8, 254));
+        Assert.assertEquals(Terms.bvConstValueAsBigInteger(Terms.bvMinusOne(70)),
+                            BigInteger.ONE.shiftLeft(70).subtract(BigInteger.ONE));
+
+        int v = Terms.newUninterpretedTerm(Types.bvType(130));
+        int u = Terms.newUninterpretedTerm(Types.BV32);
+        try (Model m = new Model(new int[] { v, u }, new int[] { t, Terms.bvConst(32, -1) })) {
+            Assert.assertEquals(m.bvValueAsBigInteger(v), x);
+            Assert.assertEquals(m.bvValueAsLong(u), 0xFFFFFFFFL);
+            long[] a = new long[3];
+            Assert.assertEquals(m.bvValueAsWords(v, a), 130);
+            Assert.assertArrayEquals(a, w);
+            YVal yval = m.getValue(v);
+            Assert.assertEquals(m.bvValueAsBigInteger(yval), x);
+            Assert.assertEquals(m.bvValueAsLong(m.getValue(u)), 0xFFFFFFFFL);
+        }
+    }
+
     static private void tstMpz(String number) {
         System.out.println("Input: " + number);
         BigInteger base = new BigInteger(number);
@@ -0,0 +1,64 @@
+package com.sri.yices;
+
+import java.lang.management.ManagementFactory;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import static org.junit.Assume.assumeTrue;
+
+public class TestYicesMetrics {
+
+    @Test
+    public void testCounters() throws Exception {
+        DefaultYicesMetrics m = new DefaultYicesMetrics();
+        for (int i=1; i<=1000; i++) {
+            m.recordCheck((i % 10 == 0) ? Status.UNSAT : Status.SAT, i * 1000L);
+        }
+        m.recordAssertions(5);
+        Assert.assertEquals(m.getChecks(), 1000L);
+        Assert.assertEquals(m.getChecksUnsat(), 100L);
+        Assert.assertEquals(m.getChecksSat(), 900L);
+        Assert.assertEquals(m.getAssertedFormulas(), 5L);
+        Assert.assertEquals(m.getCheckTimeMax(), 1000000L);
+        Assert.assertTrue(Math.abs(m.getCheckTimeP50() - 500000L) <= 500000L / 16);
+
+        m.registerMBean();
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName name = new ObjectName(DefaultYicesMetrics.OBJECT_NAME);
+            Assert.assertEquals(server.getAttribute(name, "ChecksUnsat"), 100L);
+            server.invoke(name, "reset", null, null);
+            Assert.assertEquals(m.getChecks(), 0L);
+        } finally {
+            m.unregisterMBean();
+        }
+    }
+
+    @Test
+    public void testInstalled() {
+        assumeTrue(TestAssumptions.IS_YICES_INSTALLED);
+
+        DefaultYicesMetrics m = DefaultYicesMetrics.install();
+        try (Context ctx = new Context()) {
+            int x = Terms.newUninterpretedTerm(Types.INT);
+            ctx.assertFormulas(new int[] { Terms.arithGt(x, Terms.ZERO), Terms.arithLt(x, Terms.intConst(10)) });
+            Assert.assertEquals(ctx.check(), Status.SAT);
+            ctx.assertFormula(Terms.arithLt(x, Terms.ZERO));
+            Assert.assertEquals(ctx.check(), Status.UNSAT);
+
+            Assert.assertEquals(m.getChecksSat(), 1L);
+            Assert.assertEquals(m.getChecksUnsat(), 1L);
+            Assert.assertEquals(m.getAssertedFormulas(), 3L);
+            Assert.assertTrue(m.getLiveContexts() >= 1);
+            Assert.assertTrue(m.getNumTerms() > 0);
+            System.out.println("terms: " + m.getNumTerms() + ", types: " + m.getNumTypes());
+        } finally {
+            YicesMetrics.install(null);
+            m.unregisterMBean();
+        }
+    }
+}